@@ -0,0 +1,202 @@
+package org.prof.it.soft.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * This class represents a seeded JSON corpus of vacancies used by the benchmarks.
+ * <p>
+ * The corpus is generated once per size and cached in the corpus directory (by default {@code target/jmh-corpus},
+ * can be changed with the {@code corpus.dir} system property), so consecutive benchmark runs measure exactly the same input.
+ * The number of generated records is stored next to the JSON file in a {@code .records} file.
+ */
+@Getter
+@RequiredArgsConstructor
+public class BenchmarkCorpus {
+
+    /**
+     * The seed of the random generator. Changing it invalidates every comparison with older results.
+     */
+    public static final long SEED = 20240401L;
+
+    private static final List<String> LEVELS = List.of("Junior", "Middle", "Senior", "Lead", "Principal", "Trainee");
+
+    private static final List<String> ROLES = List.of("Java Developer", "Python Developer", "Frontend Developer",
+            "Full-Stack Developer", "QA Engineer", "DevOps Engineer", "Data Scientist", "Android Developer",
+            "iOS Developer", "Project Manager", "Business Analyst", "Scala Developer", "Go Developer",
+            "C++ Developer", ".NET Developer", "Support Engineer", "Data Engineer", "ML Engineer",
+            "Security Engineer", "UI/UX Designer");
+
+    private static final List<String> SKILLS = List.of("REST", "HTTP", "Agile", "Scrum", "English", "KeyClock", "Spring",
+            "Java", "Kotlin", "JavaScript", "TypeScript", "React", "Angular", "Vue", "Node.js", "Express",
+            "MongoDB", "PostgreSQL", "MySQL", "Docker", "Kubernetes", "AWS", "Azure", "GCP", "CI/CD", "Jenkins",
+            "Git", "Jira", "Confluence", "Trello", "Slack", "Linux", "Windows", "MacOS", "Android", "iOS");
+
+    private static final List<String> FIRST_NAMES = List.of("Vladyslav", "John", "Anna", "Олена", "Іван", "Марія",
+            "Peter", "Olga", "Taras", "Kate", "Andrii", "Sofia", "Maksym", "Iryna", "Dmytro", "Yulia");
+
+    private static final List<String> LAST_NAMES = List.of("Bondar", "Doe", "Bell", "Петрова", "Франко", "Степаненко",
+            "Smith", "Kovalenko", "Shevchenko", "Melnyk", "Tkachenko", "Kravets", "Boyko", "Moroz");
+
+    private static final List<String> COMPANIES = List.of("ProfITsoft", "SoftServe", "EPAM", "TechCorp", "DataTech",
+            "GlobalLogic", "Luxoft", "Ciklum", "Intellias", "N-iX", "Grammarly", "MacPaw");
+
+    /**
+     * The generated JSON file.
+     */
+    private final File file;
+
+    /**
+     * The size of the JSON file in bytes.
+     */
+    private final long bytes;
+
+    /**
+     * The number of vacancies in the JSON file.
+     */
+    private final long records;
+
+    /**
+     * Returns the corpus of the given size, generating it if it does not exist yet.
+     *
+     * @param size the size of the corpus, e.g. "1KB", "10MB" or "1GB"
+     * @return the corpus
+     * @throws IOException if an I/O error occurs
+     */
+    public static BenchmarkCorpus prepare(String size) throws IOException {
+        long targetBytes = parseSize(size);
+        Path directory = Path.of(System.getProperty("corpus.dir", "target/jmh-corpus"));
+        Files.createDirectories(directory);
+
+        Path jsonPath = directory.resolve("vacancies_" + size + ".json");
+        Path recordsPath = directory.resolve("vacancies_" + size + ".records");
+
+        if (!Files.exists(jsonPath) || !Files.exists(recordsPath)) {
+            long records = generate(jsonPath.toFile(), targetBytes);
+            Files.writeString(recordsPath, Long.toString(records), StandardCharsets.UTF_8);
+        }
+
+        long records = Long.parseLong(Files.readString(recordsPath, StandardCharsets.UTF_8).trim());
+        return new BenchmarkCorpus(jsonPath.toFile(), Files.size(jsonPath), records);
+    }
+
+    /**
+     * Parses a human-readable size such as "1KB", "10MB" or "1GB" into a number of bytes.
+     *
+     * @param size the size to parse
+     * @return the number of bytes
+     */
+    public static long parseSize(String size) {
+        String normalized = size.trim().toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+
+        if (normalized.endsWith("KB")) {
+            multiplier = 1024L;
+        } else if (normalized.endsWith("MB")) {
+            multiplier = 1024L * 1024;
+        } else if (normalized.endsWith("GB")) {
+            multiplier = 1024L * 1024 * 1024;
+        }
+
+        String digits = multiplier == 1 ? normalized : normalized.substring(0, normalized.length() - 2);
+        return Long.parseLong(digits) * multiplier;
+    }
+
+    /**
+     * Writes a JSON array of seeded vacancies until the file reaches the target size.
+     * About every tenth vacancy has no salary, no technology stack or no recruiter company,
+     * and some of them carry an unknown "description" field, like the real exports do.
+     *
+     * @param output      the file to write
+     * @param targetBytes the approximate size of the file
+     * @return the number of written vacancies
+     * @throws IOException if an I/O error occurs
+     */
+    protected static long generate(File output, long targetBytes) throws IOException {
+        Random random = new Random(SEED);
+        long records = 0;
+
+        try (CountingOutputStream outputStream = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+             JsonGenerator generator = new JsonFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+
+            // Always write at least one vacancy, even for a tiny corpus
+            do {
+                writeVacancy(generator, random);
+                records++;
+            } while (outputStream.getCount() + generator.getOutputBuffered() < targetBytes);
+
+            generator.writeEndArray();
+        }
+
+        return records;
+    }
+
+    private static void writeVacancy(JsonGenerator generator, Random random) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("position", pick(LEVELS, random) + " " + pick(ROLES, random));
+
+        if (random.nextInt(10) != 0) {
+            generator.writeNumberField("salary", (float) (500 + random.nextInt(96) * 100));
+        }
+
+        if (random.nextInt(10) != 0) {
+            int from = random.nextInt(SKILLS.size() - 1);
+            int to = from + 1 + random.nextInt(Math.min(8, SKILLS.size() - from - 1) + 1);
+            generator.writeStringField("technology_stack", String.join(", ", SKILLS.subList(from, Math.min(to, SKILLS.size()))));
+        }
+
+        generator.writeStringField("recruiter_first_name", pick(FIRST_NAMES, random));
+        generator.writeStringField("recruiter_last_name", pick(LAST_NAMES, random));
+
+        if (random.nextInt(10) != 0) {
+            generator.writeStringField("recruiter_company_name", pick(COMPANIES, random));
+        }
+
+        if (random.nextInt(5) == 0) {
+            generator.writeStringField("description", "Lorem ipsum dolor sit amet, ".repeat(1 + random.nextInt(20)));
+        }
+
+        generator.writeEndObject();
+    }
+
+    private static String pick(List<String> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * An output stream that counts the number of bytes written through it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        @Getter
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
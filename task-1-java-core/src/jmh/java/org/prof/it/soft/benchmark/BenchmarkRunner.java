@@ -0,0 +1,38 @@
+package org.prof.it.soft.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class is the entry point of the benchmarks jar.
+ * <p>
+ * It accepts the regular JMH command line (e.g. a benchmark regexp, {@code -p corpusSize=10MB} or {@code -rf json})
+ * and always attaches the GC profiler, so every report contains the allocation rate
+ * ({@code gc.alloc.rate} and {@code gc.alloc.rate.norm}) next to the throughput.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     mvn -Pjmh package -DskipTests
+ *     java -jar target/benchmarks.jar VacancyStatisticJsonParserBenchmark -p corpusSize=10MB
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        try {
+            new Runner(options).run();
+        } catch (RunnerException e) {
+            System.err.println("An error occurred while running the benchmarks: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
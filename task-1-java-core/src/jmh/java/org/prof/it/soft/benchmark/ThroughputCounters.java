@@ -0,0 +1,53 @@
+package org.prof.it.soft.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * This class collects secondary throughput metrics of a benchmark.
+ * <p>
+ * JMH divides every public field by the measured time, so the report contains
+ * "megabytes" (MB/s of processed input) and "records" (records/s) next to the primary ops/s score.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ThroughputCounters {
+
+    /**
+     * The number of processed megabytes in the current iteration.
+     */
+    public double megabytes;
+
+    /**
+     * The number of processed records in the current iteration.
+     */
+    public long records;
+
+    /**
+     * Resets the counters before every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+        records = 0;
+    }
+
+    /**
+     * Adds a processed chunk of data to the counters.
+     *
+     * @param bytes   the number of processed bytes
+     * @param records the number of processed records
+     */
+    public void add(long bytes, long records) {
+        this.megabytes += bytes / (1024d * 1024d);
+        this.records += records;
+    }
+
+    /**
+     * Adds a fully processed corpus to the counters.
+     *
+     * @param corpus the processed corpus
+     */
+    public void add(BenchmarkCorpus corpus) {
+        add(corpus.getBytes(), corpus.getRecords());
+    }
+}
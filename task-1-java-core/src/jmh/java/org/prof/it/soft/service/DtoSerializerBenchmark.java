@@ -0,0 +1,62 @@
+package org.prof.it.soft.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.prof.it.soft.benchmark.BenchmarkCorpus;
+import org.prof.it.soft.benchmark.ThroughputCounters;
+import org.prof.it.soft.dto.AbstractDto;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures writing the statistics DTOs to XML with {@link DtoSerializer#objectToXmlFile}.
+ * <p>
+ * The DTO is built from the corpus once per trial. The "megabytes" counter is the size of the written XML
+ * and the "records" counter is the number of written items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class DtoSerializerBenchmark {
+
+    @Param({"1KB", "10MB", "1GB"})
+    public String corpusSize;
+
+    @Param({"position", "salary", "recruiter", "technology_stack"})
+    public String statisticField;
+
+    private final DtoSerializer dtoSerializer = new DtoSerializer();
+
+    private AbstractDto statisticDto;
+
+    private long items;
+
+    private File output;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        BenchmarkCorpus corpus = BenchmarkCorpus.prepare(corpusSize);
+        Map<Object, Long> statisticMap = VacancyStatsBenchmarks.parse(corpus, statisticField);
+
+        statisticDto = new VacancyStatsService().generateStatisticDto(statisticMap, statisticField);
+        items = statisticMap.size();
+        output = Files.createTempFile("statistics_by_" + statisticField, ".xml").toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output.toPath());
+    }
+
+    @Benchmark
+    public void objectToXmlFile(ThroughputCounters counters) throws Exception {
+        dtoSerializer.objectToXmlFile(statisticDto, output);
+        counters.add(output.length(), items);
+    }
+}
@@ -0,0 +1,67 @@
+package org.prof.it.soft.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.prof.it.soft.benchmark.BenchmarkCorpus;
+import org.prof.it.soft.benchmark.ThroughputCounters;
+import org.prof.it.soft.io.InputBackend;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the streaming statistics parser on a single corpus file
+ * for every statistic field allowed by {@link VacancyStatsService#allowedStatisticFields}.
+ * <p>
+ * The score includes reading the file with every {@link InputBackend}, and with the platform-charset reader
+ * the service used before the input backends for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class VacancyStatisticJsonParserBenchmark {
+
+    @Param({"1KB", "10MB", "1GB"})
+    public String corpusSize;
+
+    @Param({"position", "salary", "recruiter", "technology_stack"})
+    public String statisticField;
+
+    @Param({"reader", "stream", "memory-mapped", "read-ahead"})
+    public String inputBackend;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private BenchmarkCorpus corpus;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        corpus = BenchmarkCorpus.prepare(corpusSize);
+    }
+
+    @Benchmark
+    public Map<Object, Long> processJsonFile(ThroughputCounters counters) throws IOException {
+        try (JsonParser jsonParser = createParser()) {
+            Map<Object, Long> statisticMap = new VacancyStatisticJsonParser(jsonParser).processJsonFile(statisticField);
+            counters.add(corpus);
+            return statisticMap;
+        }
+    }
+
+    private JsonParser createParser() throws IOException {
+        if ("reader".equals(inputBackend)) {
+            return mapper.createParser(new BufferedReader(new FileReader(corpus.getFile())));
+        }
+
+        InputStream inputStream = InputBackend.of(inputBackend).open(corpus.getFile().toPath());
+        return mapper.createParser(inputStream);
+    }
+}
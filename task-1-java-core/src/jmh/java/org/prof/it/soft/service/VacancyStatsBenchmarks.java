@@ -0,0 +1,35 @@
+package org.prof.it.soft.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.prof.it.soft.benchmark.BenchmarkCorpus;
+import org.prof.it.soft.io.InputBackend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * This class contains helpers shared by the benchmarks of the service package.
+ */
+final class VacancyStatsBenchmarks {
+
+    private VacancyStatsBenchmarks() {
+    }
+
+    /**
+     * Parses the corpus and returns the raw statistic map for the given field.
+     *
+     * @param corpus         the corpus to parse
+     * @param statisticField the statistic field to calculate
+     * @return the raw statistic map
+     * @throws IOException if an I/O error occurs
+     */
+    static Map<Object, Long> parse(BenchmarkCorpus corpus, String statisticField) throws IOException {
+        Path path = corpus.getFile().toPath();
+        try (InputStream inputStream = InputBackend.select(path).open(path);
+             JsonParser jsonParser = VacancyStatsService.JSON_FACTORY.createParser(inputStream)) {
+            return new VacancyStatisticJsonParser(jsonParser).processJsonFile(statisticField);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.prof.it.soft.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.prof.it.soft.benchmark.BenchmarkCorpus;
+import org.prof.it.soft.benchmark.ThroughputCounters;
+import org.prof.it.soft.dto.stats.SalaryVacancyStatsDto;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the post-processing steps of {@link VacancyStatsService}:
+ * building the salary statistics and sorting the merged statistic map by value.
+ * <p>
+ * The input maps are parsed from the corpus once per trial, so only the post-processing is measured.
+ * The "records" counter is the number of vacancies the statistic map was built from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class VacancyStatsServiceBenchmark {
+
+    @Param({"1KB", "10MB", "1GB"})
+    public String corpusSize;
+
+    private final VacancyStatsService vacancyStatsService = new VacancyStatsService();
+
+    private BenchmarkCorpus corpus;
+
+    private Map<Object, Long> salaryStatisticMap;
+
+    private Map<Object, Long> positionStatisticMap;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        corpus = BenchmarkCorpus.prepare(corpusSize);
+        salaryStatisticMap = VacancyStatsBenchmarks.parse(corpus, "salary");
+        positionStatisticMap = VacancyStatsBenchmarks.parse(corpus, "position");
+    }
+
+    @Benchmark
+    public SalaryVacancyStatsDto generateSalaryDto(ThroughputCounters counters) {
+        SalaryVacancyStatsDto salaryVacancyStatsDto = vacancyStatsService.generateSalaryDto(salaryStatisticMap);
+        counters.add(0, corpus.getRecords());
+        return salaryVacancyStatsDto;
+    }
+
+    @Benchmark
+    public Map<String, Long> sortByValue(ThroughputCounters counters) {
+        Map<String, Long> sortedMap = vacancyStatsService.sortByValue(positionStatisticMap, Object::toString);
+        counters.add(0, corpus.getRecords());
+        return sortedMap;
+    }
+}
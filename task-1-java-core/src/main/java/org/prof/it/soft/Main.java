@@ -1,44 +1,211 @@
 package org.prof.it.soft;
 
 
+import org.prof.it.soft.cache.StatisticCache;
 import org.prof.it.soft.dto.AbstractDto;
+import org.prof.it.soft.io.FileDiscovery;
+import org.prof.it.soft.metrics.RunMetrics;
 import org.prof.it.soft.service.DtoSerializer;
+import org.prof.it.soft.service.ExecutionStrategy;
+import org.prof.it.soft.service.OutputFormat;
 import org.prof.it.soft.service.VacancyStatsService;
+import org.prof.it.soft.service.VacancyStatsWatcher;
+import org.prof.it.soft.service.filter.VacancyFilter;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 public class Main {
 
-    private static final VacancyStatsService vacancyStatsService = new VacancyStatsService();
     private static final DtoSerializer dtoSerializer = new DtoSerializer();
 
+    private static final String OPTIONS = """
+            --executor=fixed|fork-join|virtual  how the files are distributed between threads (fixed by default)
+            --threads=<count>                   the number of threads, %d by default; with virtual threads the number
+                                                of files read at once, %d by default (Java 21 or newer, a fixed
+                                                pool with the default of a fixed pool otherwise)
+            --include=<glob>, --exclude=<glob>  which files of the folder are read (repeatable)
+            --filter=<field><operator><value>   counts only the matching vacancies (repeatable)
+            --cache=<directory>, --cache-hash   keeps the statistics of every file, parses only new and changed files
+            --watch, --debounce=<millis>        rewrites the statistics after every change of the folder
+            --compact, --gzip                   writes the statistics without indentation, compressed
+            --format=xml|csv|jsonl|binary       the output format (xml by default)
+            --metrics=<file>                    writes a performance report of the run
+            --help                              prints this help
+            """.formatted(VacancyStatsService.DEFAULT_COUNT_THREADS, VacancyStatsService.DEFAULT_VIRTUAL_COUNT_THREADS);
+
     public static void main(String[] args) {
-        if (args.length != 2 || args[0] == null || args[1] == null) {
+        // Options start with "--" and may follow the two positional arguments, e.g. "--executor=virtual --threads=64"
+        List<String> positionalArgs = new ArrayList<>();
+        ExecutionStrategy executionStrategy = ExecutionStrategy.FIXED;
+        Integer countThreads = null;
+        List<String> includes = new ArrayList<>();
+        List<String> excludes = new ArrayList<>();
+        List<String> filters = new ArrayList<>();
+        String cacheDirectory = null;
+        boolean cacheHash = false;
+        boolean watch = false;
+        Duration debounce = VacancyStatsWatcher.DEFAULT_DEBOUNCE;
+        boolean compact = false;
+        boolean gzip = false;
+        OutputFormat outputFormat = OutputFormat.XML;
+        String metricsFile = null;
+
+        for (String arg : args) {
+            if (arg == null) {
+                continue;
+            }
+
+            if (arg.equals("--help")) {
+                System.out.println("Usage: <folder or -> <field>[,<field>...] [options]");
+                System.out.print(OPTIONS);
+                return;
+            } else if (arg.startsWith("--executor=")) {
+                executionStrategy = ExecutionStrategy.of(arg.substring("--executor=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                countThreads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--include=")) {
+                includes.add(arg.substring("--include=".length()));
+            } else if (arg.startsWith("--exclude=")) {
+                excludes.add(arg.substring("--exclude=".length()));
+            } else if (arg.startsWith("--filter=")) {
+                filters.add(arg.substring("--filter=".length()));
+            } else if (arg.startsWith("--cache=")) {
+                cacheDirectory = arg.substring("--cache=".length());
+            } else if (arg.equals("--cache-hash")) {
+                cacheHash = true;
+            } else if (arg.equals("--watch")) {
+                watch = true;
+            } else if (arg.startsWith("--debounce=")) {
+                debounce = Duration.ofMillis(Long.parseLong(arg.substring("--debounce=".length())));
+            } else if (arg.equals("--compact")) {
+                compact = true;
+            } else if (arg.equals("--gzip")) {
+                gzip = true;
+            } else if (arg.startsWith("--format=")) {
+                outputFormat = OutputFormat.of(arg.substring("--format=".length()));
+            } else if (arg.startsWith("--metrics=")) {
+                metricsFile = arg.substring("--metrics=".length());
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option " + arg + ". The supported options are:\n" + OPTIONS);
+            } else {
+                positionalArgs.add(arg);
+            }
+        }
+
+        if (positionalArgs.size() != 2) {
             throw new IllegalArgumentException("Please provide two arguments: the first argument is" +
                     " the name of the file to read, the second argument is the name of the field" +
-                    " to calculate the statistics for.");
+                    " (or comma separated fields) to calculate the statistics for.");
         }
 
-        String path = args[0];
-        String statisticField = args[1];
+        String path = positionalArgs.get(0);
+        // Several statistics can be calculated in a single pass, e.g. "position,salary,recruiter"
+        List<String> statisticFields = Arrays.stream(positionalArgs.get(1).split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .toList();
 
-        if (!VacancyStatsService.allowedStatisticFields.contains(statisticField)) {
-            throw new IllegalArgumentException("The field " + statisticField + " is not allowed. " +
-                    "Please provide one of the following fields: " + VacancyStatsService.allowedStatisticFields);
+        for (String statisticField : statisticFields) {
+            if (!VacancyStatsService.isAllowedStatisticField(statisticField)) {
+                throw new IllegalArgumentException("The field " + statisticField + " is not allowed. " +
+                        "Please provide one of the following fields: " + VacancyStatsService.allowedStatisticFields +
+                        ", or two of the dimensions position, salary, technology_stack and company separated by '+'" +
+                        " (e.g. position+technology_stack).");
+            }
         }
 
-        AbstractDto abstractDto;
+        // Only the vacancies accepted by all filters are counted, e.g. "--filter=salary>=2000 --filter=recruiter_company_name=SoftServe"
+        VacancyFilter vacancyFilter = VacancyFilter.of(filters);
+
+        if (watch && "-".equals(path)) {
+            throw new IllegalArgumentException("The standard input can't be watched, please provide a folder.");
+        }
+
+        // Large statistics are written faster and smaller without indentation and with compression
+        DtoSerializer.OutputOptions outputOptions = DtoSerializer.OutputOptions.of(compact, gzip);
+
+        Map<String, AbstractDto> statistics;
+        VacancyStatsService vacancyStatsService;
         try {
-            abstractDto = vacancyStatsService.calculateVacancyStats(Path.of(path), statisticField);
+            // With a cache, only new and changed files are parsed, e.g. "--cache=.statistics-cache"
+            StatisticCache statisticCache = cacheDirectory == null ? null : new StatisticCache(Path.of(cacheDirectory), cacheHash);
+            // Virtual threads wait for I/O, so by default many more of them read files at once than platform threads
+            vacancyStatsService = new VacancyStatsService(executionStrategy,
+                    countThreads != null ? countThreads : VacancyStatsService.getDefaultCountThreads(executionStrategy),
+                    new FileDiscovery(includes, excludes), statisticCache, vacancyFilter);
+
+            if (metricsFile != null) {
+                // The command line owns the JVM, so the report shows the peak heap usage of this run only
+                RunMetrics.resetPeakHeapUsage();
+            }
+
+            if (watch) {
+                watch(vacancyStatsService, Path.of(path), statisticFields, debounce, outputFormat, outputOptions);
+                return;
+            }
+
+            // "-" reads the vacancies from the standard input, e.g. "zcat vacancies.json.gz | java ... - position"
+            statistics = "-".equals(path)
+                    ? vacancyStatsService.calculateVacancyStats(System.in, statisticFields)
+                    : vacancyStatsService.calculateVacancyStats(Path.of(path), statisticFields);
         } catch (Exception e) {
             System.err.println("An error occurred while calculating the statistics: " + e.getMessage());
             return;
         }
 
-        try {
-            dtoSerializer.objectToXmlFile(abstractDto, Path.of("statistics_by_" + statisticField + ".xml").toFile());
-        } catch (Exception e) {
-            System.err.println("An error occurred while writing the result to a file: " + e.getMessage());
+        RunMetrics runMetrics = vacancyStatsService.getRunMetrics();
+        try (RunMetrics.Phase phase = runMetrics.startPhase("write")) {
+            writeStatistics(statistics, false, outputFormat, outputOptions);
+        }
+
+        // The report shows where the time of the run went, e.g. "--metrics=report.json"
+        if (metricsFile != null) {
+            try {
+                runMetrics.writeReport(Path.of(metricsFile));
+            } catch (IOException e) {
+                System.err.println("An error occurred while writing the metrics report: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the statistics of the folder and rewrites them after every change of the folder, until the process is stopped.
+     */
+    private static void watch(VacancyStatsService vacancyStatsService,
+                              Path folderPath,
+                              List<String> statisticFields,
+                              Duration debounce,
+                              OutputFormat outputFormat,
+                              DtoSerializer.OutputOptions outputOptions) throws IOException {
+        try (VacancyStatsWatcher watcher = new VacancyStatsWatcher(vacancyStatsService, folderPath, statisticFields, debounce)) {
+            // The files are replaced atomically, so readers never see a partially written statistic
+            writeStatistics(watcher.start(), true, outputFormat, outputOptions);
+            watcher.watch(statistics -> writeStatistics(statistics, true, outputFormat, outputOptions));
+        }
+    }
+
+    private static void writeStatistics(Map<String, AbstractDto> statistics,
+                                        boolean atomically,
+                                        OutputFormat outputFormat,
+                                        DtoSerializer.OutputOptions outputOptions) {
+        String extension = "." + outputFormat.getExtension() + (outputOptions.gzip() ? ".gz" : "");
+        for (Map.Entry<String, AbstractDto> statistic : statistics.entrySet()) {
+            Path output = Path.of("statistics_by_" + statistic.getKey() + extension);
+            try {
+                if (atomically) {
+                    dtoSerializer.objectToFileAtomically(statistic.getValue(), output, outputFormat, outputOptions);
+                } else {
+                    dtoSerializer.objectToFile(statistic.getValue(), output, outputFormat, outputOptions);
+                }
+            } catch (Exception e) {
+                System.err.println("An error occurred while writing the result to a file: " + e.getMessage());
+            }
         }
     }
-}
\ No newline at end of file
+}
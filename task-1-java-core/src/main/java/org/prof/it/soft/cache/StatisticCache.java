@@ -0,0 +1,408 @@
+package org.prof.it.soft.cache;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.prof.it.soft.dto.CrossTabKeyDto;
+import org.prof.it.soft.dto.RecruiterDto;
+import org.prof.it.soft.service.aggregator.MapStatisticAggregator;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * This class keeps the statistics of every input file in a local binary cache, so unchanged files are not parsed again.
+ * <p>
+ * Every file has its own cache entry, named after the hash of its absolute path. The entry holds the size and
+ * the modification time of the file, optionally the SHA-256 hash of its content, and the counts of every calculated
+ * statistic. An entry is used only if the file still has the same size, modification time (and hash), and the entry
+ * contains all requested statistics. The statistics stored for the same version of a file are added to its entry,
+ * so runs with different statistic fields don't evict each other's statistics. Entries are written to a temporary
+ * file first and then moved into place, so an interrupted run never leaves a broken entry behind. Broken or outdated
+ * entries are ignored, and the entries of files that no longer exist are removed by {@link #prune()}.
+ * A cache with a scope, e.g. the filter of the vacancies, keeps its entries apart from the entries of other scopes.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     StatisticCache statisticCache = new StatisticCache(Path.of(".statistics-cache"), false);
+ *     Optional&lt;List&lt;StatisticAggregator&gt;&gt; cached = statisticCache.load(file, List.of("position"));
+ *     if (cached.isEmpty()) {
+ *         StatisticCache.FileVersion version = statisticCache.version(file);
+ *         statisticCache.store(file, version, parse(file));
+ *     }
+ * </pre>
+ */
+@Slf4j
+public class StatisticCache {
+
+    /**
+     * The magic number at the start of every cache entry, "VSC" and the format version.
+     */
+    protected static final int MAGIC = 0x56534301;
+
+    private static final byte STRING_KEY = 1;
+
+    private static final byte RECRUITER_KEY = 2;
+
+    private static final byte CROSS_TAB_KEY = 3;
+
+    /**
+     * The directory of the cache entries.
+     */
+    @Getter
+    private final Path directory;
+
+    /**
+     * Whether the content hash of the files is checked as well.
+     */
+    @Getter
+    private final boolean contentHash;
+
+    /**
+     * The scope of the entries, part of their names, or an empty string for the statistics of all vacancies.
+     */
+    @Getter
+    private final String scope;
+
+    /**
+     * Creates a cache in the directory, the directory is created if it doesn't exist.
+     *
+     * @param directory   the directory of the cache entries
+     * @param contentHash whether the content hash of the files is checked as well,
+     *                    for files that can change without changing their size and modification time
+     * @throws IOException if the directory can't be created
+     */
+    public StatisticCache(@NonNull Path directory, boolean contentHash) throws IOException {
+        this(Files.createDirectories(directory), contentHash, "");
+    }
+
+    private StatisticCache(Path directory, boolean contentHash, String scope) {
+        this.directory = directory;
+        this.contentHash = contentHash;
+        this.scope = scope;
+    }
+
+    /**
+     * Returns a cache in the same directory whose entries are kept apart from the entries of other scopes,
+     * e.g. for the statistics of the vacancies accepted by a filter.
+     *
+     * @param scope the scope of the entries
+     * @return the cache of the scope
+     */
+    public StatisticCache withScope(@NonNull String scope) {
+        return new StatisticCache(directory, contentHash, scope);
+    }
+
+    /**
+     * Loads the cached statistics of a file.
+     *
+     * @param file            the input file
+     * @param statisticFields the requested statistic fields
+     * @return the aggregators of the requested statistic fields in their order, or empty if the file is not cached,
+     * has changed or the entry misses any of the statistic fields
+     * @throws IOException if the input file can't be read
+     */
+    public Optional<List<StatisticAggregator>> load(@NonNull Path file, @NonNull List<String> statisticFields) throws IOException {
+        Path entry = entryPath(file);
+        if (!Files.exists(entry)) {
+            return Optional.empty();
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+        Optional<Entry> cached = readEntry(entry, file);
+        if (cached.isEmpty()
+                || cached.get().version().size() != attributes.size()
+                || cached.get().version().lastModified() != attributes.lastModifiedTime().toMillis()
+                || contentHash && !cached.get().version().hash().equals(hash(file))
+                || !cached.get().statisticMaps().keySet().containsAll(statisticFields)) {
+            return Optional.empty();
+        }
+
+        // The cached statistics are merged into fresh aggregators, so they can be merged and extended further
+        List<StatisticAggregator> result = new ArrayList<>(statisticFields.size());
+        for (String statisticField : statisticFields) {
+            StatisticAggregator aggregator = StatisticAggregator.create(statisticField);
+            aggregator.merge(new MapStatisticAggregator(statisticField, cached.get().statisticMaps().get(statisticField)));
+            result.add(aggregator);
+        }
+
+        return Optional.of(result);
+    }
+
+    /**
+     * Reads the version of a file: its size, its modification time and, if content hashes are checked, its hash.
+     * The version is read before the file is parsed and stored with its statistics,
+     * so a file that changes while it is parsed doesn't match its entry and is parsed again by the next run.
+     *
+     * @param file the input file
+     * @return the version of the file
+     * @throws IOException if the input file can't be read
+     */
+    public FileVersion version(@NonNull Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new FileVersion(attributes.size(), attributes.lastModifiedTime().toMillis(), contentHash ? hash(file) : "");
+    }
+
+    /**
+     * Stores the statistics of a file under its current version, replacing the previous entry of the file.
+     * The statistics must describe the file as it is now; statistics parsed from the file are stored with
+     * {@link #store(Path, FileVersion, List)} and the version read before parsing.
+     *
+     * @param file        the input file
+     * @param aggregators the statistics of the whole file
+     * @throws IOException if an I/O error occurs
+     */
+    public void store(@NonNull Path file, @NonNull List<? extends StatisticAggregator> aggregators) throws IOException {
+        store(file, version(file), aggregators);
+    }
+
+    /**
+     * Stores the statistics of a file. If the previous entry of the file has the same version, the statistics
+     * are added to it and replace only the statistics of the same fields, otherwise the entry is replaced.
+     * The entry records the version the file had before it was parsed,
+     * so a file changed in the meantime doesn't match the entry and is parsed again by the next run.
+     * Approximate statistics are not stored.
+     *
+     * @param file        the input file
+     * @param version     the version of the file read before it was parsed, see {@link #version(Path)}
+     * @param aggregators the statistics of the whole file
+     * @throws IOException if an I/O error occurs
+     */
+    public void store(@NonNull Path file,
+                      @NonNull FileVersion version,
+                      @NonNull List<? extends StatisticAggregator> aggregators) throws IOException {
+        // The approximate statistics of the top-K mode keep only their top keys, they can't be restored exactly
+        if (aggregators.stream().anyMatch(StatisticAggregator::isApproximate)) {
+            return;
+        }
+
+        Path entry = entryPath(file);
+
+        // The statistics of other fields calculated from the same version of the file are kept
+        Map<String, Map<Object, Long>> statisticMaps = new LinkedHashMap<>();
+        if (Files.exists(entry)) {
+            readEntry(entry, file)
+                    .filter(previous -> previous.version().equals(version))
+                    .ifPresent(previous -> statisticMaps.putAll(previous.statisticMaps()));
+        }
+        for (StatisticAggregator aggregator : aggregators) {
+            statisticMaps.put(aggregator.getStatisticField(), aggregator.getStatisticMap());
+        }
+
+        Path temporaryEntry = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryEntry)))) {
+                output.writeInt(MAGIC);
+                writeString(output, file.toAbsolutePath().toString());
+                output.writeLong(version.size());
+                output.writeLong(version.lastModified());
+                writeString(output, version.hash());
+
+                output.writeInt(statisticMaps.size());
+                for (Map.Entry<String, Map<Object, Long>> statisticMap : statisticMaps.entrySet()) {
+                    writeString(output, statisticMap.getKey());
+                    writeStatisticMap(output, statisticMap.getValue());
+                }
+            }
+
+            Files.move(temporaryEntry, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryEntry);
+        }
+    }
+
+    /**
+     * Removes the entry of a file, e.g. when the file is deleted.
+     *
+     * @param file the input file
+     * @throws IOException if an I/O error occurs
+     */
+    public void remove(@NonNull Path file) throws IOException {
+        Files.deleteIfExists(entryPath(file));
+    }
+
+    /**
+     * Removes the entries of all files that no longer exist, e.g. of deleted or renamed files, in every scope.
+     * Broken entries are removed as well.
+     *
+     * @return the number of removed entries
+     * @throws IOException if the directory of the cache can't be read
+     */
+    public int prune() throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*.bin")) {
+            for (Path entry : entries) {
+                Optional<Path> file = readEntryFile(entry);
+                if (file.isEmpty() || !Files.exists(file.get())) {
+                    Files.deleteIfExists(entry);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the path of the cache entry of a file.
+     *
+     * @param file the input file
+     * @return the path of the cache entry
+     */
+    protected Path entryPath(Path file) {
+        String name = scope.isEmpty() ? file.toAbsolutePath().toString() : file.toAbsolutePath() + "\n" + scope;
+        return directory.resolve(hex(sha256().digest(name.getBytes(StandardCharsets.UTF_8))) + ".bin");
+    }
+
+    /**
+     * Reads the entry of a file.
+     *
+     * @return the entry, or empty if the entry is broken or belongs to another file
+     */
+    private static Optional<Entry> readEntry(Path entry, Path file) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (input.readInt() != MAGIC || !readString(input).equals(file.toAbsolutePath().toString())) {
+                return Optional.empty();
+            }
+            FileVersion version = new FileVersion(input.readLong(), input.readLong(), readString(input));
+
+            Map<String, Map<Object, Long>> statisticMaps = new LinkedHashMap<>();
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String statisticField = readString(input);
+                statisticMaps.put(statisticField, readStatisticMap(input));
+            }
+            return Optional.of(new Entry(version, statisticMaps));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring broken cache entry {} of {}", entry, file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the path of the file an entry belongs to, only the start of the entry is read.
+     *
+     * @return the path of the file, or empty if the entry is broken
+     */
+    private static Optional<Path> readEntryFile(Path entry) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            return input.readInt() == MAGIC ? Optional.of(Path.of(readString(input))) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Map<Object, Long> readStatisticMap(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        Map<Object, Long> statisticMap = new HashMap<>(Math.max(16, size * 2));
+
+        for (int i = 0; i < size; i++) {
+            byte type = input.readByte();
+            Object key = switch (type) {
+                case STRING_KEY -> readString(input);
+                case RECRUITER_KEY -> new RecruiterDto(readNullableString(input), readNullableString(input), readNullableString(input));
+                case CROSS_TAB_KEY -> new CrossTabKeyDto(readString(input), readString(input));
+                default -> throw new IOException("Unknown key type " + type);
+            };
+            statisticMap.put(key, input.readLong());
+        }
+
+        return statisticMap;
+    }
+
+    private static void writeStatisticMap(DataOutputStream output, Map<Object, Long> statisticMap) throws IOException {
+        output.writeInt(statisticMap.size());
+
+        for (Map.Entry<Object, Long> entry : statisticMap.entrySet()) {
+            if (entry.getKey() instanceof RecruiterDto recruiterDto) {
+                output.writeByte(RECRUITER_KEY);
+                writeNullableString(output, recruiterDto.getFirstName());
+                writeNullableString(output, recruiterDto.getLastName());
+                writeNullableString(output, recruiterDto.getCompanyName());
+            } else if (entry.getKey() instanceof CrossTabKeyDto cell) {
+                output.writeByte(CROSS_TAB_KEY);
+                writeString(output, cell.getRow());
+                writeString(output, cell.getColumn());
+            } else if (entry.getKey() instanceof String string) {
+                output.writeByte(STRING_KEY);
+                writeString(output, string);
+            } else {
+                throw new IOException("Unsupported key type " + entry.getKey().getClass().getName());
+            }
+            output.writeLong(entry.getValue());
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        // writeUTF is limited to 64 KB, so the length is written as an int
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? readString(input) : null;
+    }
+
+    private static void writeNullableString(DataOutputStream output, String string) throws IOException {
+        output.writeBoolean(string != null);
+        if (string != null) {
+            writeString(output, string);
+        }
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * This record represents the version of an input file its statistics were calculated from.
+     *
+     * @param size         the size of the file
+     * @param lastModified the modification time of the file in milliseconds
+     * @param hash         the SHA-256 hash of the content of the file, or an empty string if hashes are not checked
+     */
+    public record FileVersion(long size, long lastModified, String hash) {
+    }
+
+    /**
+     * This record represents a cache entry: the version of its file and the statistic maps by statistic field.
+     */
+    private record Entry(FileVersion version, Map<String, Map<Object, Long>> statisticMaps) {
+    }
+}
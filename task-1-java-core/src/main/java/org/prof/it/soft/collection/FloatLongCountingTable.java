@@ -0,0 +1,320 @@
+package org.prof.it.soft.collection;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * This class is a hash table that counts occurrences of float keys, e.g. salaries, with primitive long counters.
+ * <p>
+ * It is the primitive counterpart of {@link ObjectLongCountingTable}: the keys are stored as their raw float bits
+ * in an int array, so counting a number needs neither a string nor a boxed {@code Float} for the key.
+ * Collisions are resolved with open addressing (linear probing), the table is kept at most half full.
+ * The keys -0.0 and 0.0 are the same key, NaN is not a valid key.
+ * <p>
+ * The counts can be stored off-heap in a direct {@link ByteBuffer}, the same as in {@link ObjectLongCountingTable}.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     FloatLongCountingTable table = new FloatLongCountingTable();
+ *     table.increment(1000F);
+ *     table.add(1000F, 2);
+ *     long count = table.get(1000F); // 3
+ *     table.subtract(1000F, 3); // removes 1000.0
+ * </pre>
+ */
+public class FloatLongCountingTable {
+
+    /**
+     * The maximum number of slots of an on-heap table, see {@link ObjectLongCountingTable#MAX_CAPACITY}.
+     */
+    public static final int MAX_CAPACITY = ObjectLongCountingTable.MAX_CAPACITY;
+
+    /**
+     * The maximum number of slots of an off-heap table, see {@link ObjectLongCountingTable#MAX_OFF_HEAP_CAPACITY}.
+     */
+    public static final int MAX_OFF_HEAP_CAPACITY = ObjectLongCountingTable.MAX_OFF_HEAP_CAPACITY;
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /**
+     * The bits of an empty slot. They are the bits of NaN, which is never stored as a key.
+     */
+    private static final int EMPTY = Float.floatToIntBits(Float.NaN);
+
+    /**
+     * Whether the counts are stored off-heap.
+     */
+    @Getter
+    private final boolean offHeap;
+
+    private int[] keys;
+
+    private LongBuffer counts;
+
+    private int mask;
+
+    private int size;
+
+    /**
+     * Creates an empty on-heap table.
+     */
+    public FloatLongCountingTable() {
+        this(DEFAULT_EXPECTED_SIZE, false);
+    }
+
+    /**
+     * Creates an empty table.
+     *
+     * @param expectedSize the expected number of keys
+     * @param offHeap      whether the counts are stored off-heap
+     */
+    public FloatLongCountingTable(int expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(capacityFor(Math.max(expectedSize, 1), offHeap));
+    }
+
+    /**
+     * Increments the count of the key by one.
+     *
+     * @param key the key
+     * @return the new count of the key
+     * @throws IllegalArgumentException if the key is NaN
+     */
+    public long increment(float key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Adds the delta to the count of the key. A key that is not in the table yet starts with zero.
+     *
+     * @param key   the key
+     * @param delta the delta to add
+     * @return the new count of the key
+     * @throws IllegalArgumentException if the key is NaN
+     */
+    public long add(float key, long delta) {
+        int bits = bitsOf(key);
+        int slot = hash(bits) & mask;
+
+        int current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == bits) {
+                long count = counts.get(slot) + delta;
+                counts.put(slot, count);
+                return count;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = bits;
+        counts.put(slot, delta);
+
+        if (++size > (mask + 1) >>> 1) {
+            rehash();
+        }
+
+        return delta;
+    }
+
+    /**
+     * Subtracts the delta from the count of the key. A key whose count drops to zero or below is removed.
+     *
+     * @param key   the key
+     * @param delta the delta to subtract
+     * @return the new count of the key, or zero if the key was removed
+     * @throws IllegalArgumentException if the key is NaN
+     */
+    public long subtract(float key, long delta) {
+        int bits = bitsOf(key);
+        int slot = hash(bits) & mask;
+
+        int current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == bits) {
+                long count = counts.get(slot) - delta;
+                if (count > 0) {
+                    counts.put(slot, count);
+                    return count;
+                }
+
+                removeSlot(slot);
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the count of the key.
+     *
+     * @param key the key
+     * @return the count of the key, or zero if the key is not in the table
+     */
+    public long get(float key) {
+        if (Float.isNaN(key)) {
+            return 0;
+        }
+
+        int bits = bitsOf(key);
+        int slot = hash(bits) & mask;
+
+        int current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == bits) {
+                return counts.get(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the number of keys in the table.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the table is empty.
+     *
+     * @return true if the table has no keys, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the counts of another table to this table.
+     *
+     * @param other the table to add
+     */
+    public void addAll(@NonNull FloatLongCountingTable other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Subtracts the counts of another table from this table, removing the keys whose count drops to zero.
+     *
+     * @param other the table to subtract
+     */
+    public void subtractAll(@NonNull FloatLongCountingTable other) {
+        other.forEach(this::subtract);
+    }
+
+    /**
+     * Performs the given action for every key and its count, in no particular order.
+     *
+     * @param action the action to perform
+     */
+    public void forEach(@NonNull FloatLongConsumer action) {
+        int[] keys = this.keys;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                action.accept(Float.intBitsToFloat(keys[slot]), counts.get(slot));
+            }
+        }
+    }
+
+    /**
+     * Removes the key of the slot and shifts the following keys of the probe sequence back,
+     * so every key stays reachable from its home slot without tombstones.
+     */
+    private void removeSlot(int slot) {
+        int free = slot;
+        int next = (free + 1) & mask;
+
+        int key;
+        while ((key = keys[next]) != EMPTY) {
+            int home = hash(key) & mask;
+            // The key can fill the free slot only if the free slot lies between its home slot and its current slot
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = key;
+                counts.put(free, counts.get(next));
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        keys[free] = EMPTY;
+        counts.put(free, 0);
+        size--;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        LongBuffer oldCounts = counts;
+
+        if (oldKeys.length >= ObjectLongCountingTable.maxCapacity(offHeap)) {
+            throw new IllegalStateException("Counting table is full: " + size + " keys");
+        }
+
+        allocate(oldKeys.length << 1);
+
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            int key = oldKeys[oldSlot];
+            if (key != EMPTY) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                counts.put(slot, oldCounts.get(oldSlot));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = ObjectLongCountingTable.allocateCounts(capacity, offHeap);
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize, boolean offHeap) {
+        long capacity = Long.highestOneBit(Math.max(2L * expectedSize - 1, 1)) << 1;
+        return (int) Math.min(Math.max(capacity, 2), ObjectLongCountingTable.maxCapacity(offHeap));
+    }
+
+    /**
+     * Returns the bits of a key, with -0.0 folded into 0.0.
+     */
+    private static int bitsOf(float key) {
+        if (Float.isNaN(key)) {
+            throw new IllegalArgumentException("NaN can't be counted");
+        }
+        return Float.floatToIntBits(key + 0.0F);
+    }
+
+    /**
+     * Spreads the bits of the key, so keys with similar bits (e.g. round salaries) don't end up in one cluster.
+     */
+    private static int hash(int bits) {
+        int h = bits * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * This interface represents an action performed for a float key and its primitive count.
+     */
+    @FunctionalInterface
+    public interface FloatLongConsumer {
+
+        /**
+         * Performs the action.
+         *
+         * @param key   the key
+         * @param count the count of the key
+         */
+        void accept(float key, long count);
+    }
+}
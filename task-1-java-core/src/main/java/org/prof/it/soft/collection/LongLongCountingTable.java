@@ -0,0 +1,347 @@
+package org.prof.it.soft.collection;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * This class is a hash table that counts occurrences of long keys, e.g. packed composite keys, with primitive long counters.
+ * <p>
+ * It is the primitive counterpart of {@link ObjectLongCountingTable} for keys that fit into a long: a pair of int ids
+ * is packed into one key with {@link #pack(int, int)}, so counting a pair needs no tuple object and no boxed key.
+ * Collisions are resolved with open addressing (linear probing), the table is kept at most half full.
+ * {@link Long#MIN_VALUE} marks an empty slot and is not a valid key.
+ * <p>
+ * The counts can be stored off-heap in a direct {@link ByteBuffer}, the same as in {@link ObjectLongCountingTable}.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     LongLongCountingTable table = new LongLongCountingTable();
+ *     long key = LongLongCountingTable.pack(3, 7);
+ *     table.increment(key);
+ *     table.add(key, 2);
+ *     long count = table.get(key); // 3
+ *     int first = LongLongCountingTable.first(key); // 3
+ * </pre>
+ */
+public class LongLongCountingTable {
+
+    /**
+     * The maximum number of slots of an on-heap table, see {@link ObjectLongCountingTable#MAX_CAPACITY}.
+     */
+    public static final int MAX_CAPACITY = ObjectLongCountingTable.MAX_CAPACITY;
+
+    /**
+     * The maximum number of slots of an off-heap table, see {@link ObjectLongCountingTable#MAX_OFF_HEAP_CAPACITY}.
+     */
+    public static final int MAX_OFF_HEAP_CAPACITY = ObjectLongCountingTable.MAX_OFF_HEAP_CAPACITY;
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /**
+     * The key of an empty slot.
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * Whether the counts are stored off-heap.
+     */
+    @Getter
+    private final boolean offHeap;
+
+    private long[] keys;
+
+    private LongBuffer counts;
+
+    private int mask;
+
+    private int size;
+
+    /**
+     * Creates an empty on-heap table.
+     */
+    public LongLongCountingTable() {
+        this(DEFAULT_EXPECTED_SIZE, false);
+    }
+
+    /**
+     * Creates an empty table.
+     *
+     * @param expectedSize the expected number of keys
+     * @param offHeap      whether the counts are stored off-heap
+     */
+    public LongLongCountingTable(int expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(capacityFor(Math.max(expectedSize, 1), offHeap));
+    }
+
+    /**
+     * Increments the count of the key by one.
+     *
+     * @param key the key
+     * @return the new count of the key
+     * @throws IllegalArgumentException if the key is {@link Long#MIN_VALUE}
+     */
+    public long increment(long key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Adds the delta to the count of the key. A key that is not in the table yet starts with zero.
+     *
+     * @param key   the key
+     * @param delta the delta to add
+     * @return the new count of the key
+     * @throws IllegalArgumentException if the key is {@link Long#MIN_VALUE}
+     */
+    public long add(long key, long delta) {
+        checkKey(key);
+        int slot = hash(key) & mask;
+
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                long count = counts.get(slot) + delta;
+                counts.put(slot, count);
+                return count;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        counts.put(slot, delta);
+
+        if (++size > (mask + 1) >>> 1) {
+            rehash();
+        }
+
+        return delta;
+    }
+
+    /**
+     * Subtracts the delta from the count of the key. A key whose count drops to zero or below is removed.
+     *
+     * @param key   the key
+     * @param delta the delta to subtract
+     * @return the new count of the key, or zero if the key was removed
+     * @throws IllegalArgumentException if the key is {@link Long#MIN_VALUE}
+     */
+    public long subtract(long key, long delta) {
+        checkKey(key);
+        int slot = hash(key) & mask;
+
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                long count = counts.get(slot) - delta;
+                if (count > 0) {
+                    counts.put(slot, count);
+                    return count;
+                }
+
+                removeSlot(slot);
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the count of the key.
+     *
+     * @param key the key
+     * @return the count of the key, or zero if the key is not in the table
+     */
+    public long get(long key) {
+        if (key == EMPTY) {
+            return 0;
+        }
+
+        int slot = hash(key) & mask;
+
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                return counts.get(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the number of keys in the table.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the table is empty.
+     *
+     * @return true if the table has no keys, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the counts of another table to this table.
+     *
+     * @param other the table to add
+     */
+    public void addAll(@NonNull LongLongCountingTable other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Subtracts the counts of another table from this table, removing the keys whose count drops to zero.
+     *
+     * @param other the table to subtract
+     */
+    public void subtractAll(@NonNull LongLongCountingTable other) {
+        other.forEach(this::subtract);
+    }
+
+    /**
+     * Performs the given action for every key and its count, in no particular order.
+     *
+     * @param action the action to perform
+     */
+    public void forEach(@NonNull LongLongConsumer action) {
+        long[] keys = this.keys;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                action.accept(keys[slot], counts.get(slot));
+            }
+        }
+    }
+
+    /**
+     * Removes the key of the slot and shifts the following keys of the probe sequence back,
+     * so every key stays reachable from its home slot without tombstones.
+     */
+    private void removeSlot(int slot) {
+        int free = slot;
+        int next = (free + 1) & mask;
+
+        long key;
+        while ((key = keys[next]) != EMPTY) {
+            int home = hash(key) & mask;
+            // The key can fill the free slot only if the free slot lies between its home slot and its current slot
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = key;
+                counts.put(free, counts.get(next));
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        keys[free] = EMPTY;
+        counts.put(free, 0);
+        size--;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        LongBuffer oldCounts = counts;
+
+        if (oldKeys.length >= ObjectLongCountingTable.maxCapacity(offHeap)) {
+            throw new IllegalStateException("Counting table is full: " + size + " keys");
+        }
+
+        allocate(oldKeys.length << 1);
+
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            long key = oldKeys[oldSlot];
+            if (key != EMPTY) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                counts.put(slot, oldCounts.get(oldSlot));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = ObjectLongCountingTable.allocateCounts(capacity, offHeap);
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize, boolean offHeap) {
+        long capacity = Long.highestOneBit(Math.max(2L * expectedSize - 1, 1)) << 1;
+        return (int) Math.min(Math.max(capacity, 2), ObjectLongCountingTable.maxCapacity(offHeap));
+    }
+
+    /**
+     * Packs two ints, e.g. the ids of the values of two dimensions, into one key.
+     *
+     * @param first  the first int, in the high half of the key
+     * @param second the second int, in the low half of the key
+     * @return the packed key
+     */
+    public static long pack(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the first int of a packed key.
+     *
+     * @param key the packed key
+     * @return the first int
+     */
+    public static int first(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Returns the second int of a packed key.
+     *
+     * @param key the packed key
+     * @return the second int
+     */
+    public static int second(long key) {
+        return (int) key;
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE can't be counted");
+        }
+    }
+
+    /**
+     * Spreads the bits of the key, so keys that differ only in one half don't end up in one cluster.
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * This interface represents an action performed for a long key and its primitive count.
+     */
+    @FunctionalInterface
+    public interface LongLongConsumer {
+
+        /**
+         * Performs the action.
+         *
+         * @param key   the key
+         * @param count the count of the key
+         */
+        void accept(long key, long count);
+    }
+}
@@ -0,0 +1,373 @@
+package org.prof.it.soft.collection;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class is a hash table that counts occurrences of keys with primitive long counters.
+ * <p>
+ * Unlike {@code Map<Object, Long>}, incrementing a key costs a single probe sequence and doesn't box the count,
+ * and the table doesn't allocate an entry object per key: the keys live in one array and the counts in one buffer.
+ * Collisions are resolved with open addressing (linear probing), the table is kept at most half full.
+ * <p>
+ * The counts can be stored off-heap in a direct {@link ByteBuffer}. In this case the only large object the garbage
+ * collector has to scan is the array of keys, which keeps GC pauses flat even with tens of millions of keys.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     ObjectLongCountingTable&lt;String&gt; table = new ObjectLongCountingTable&lt;&gt;();
+ *     table.increment("Java");
+ *     table.add("Java", 2);
+ *     long count = table.get("Java"); // 3
+ *     table.subtract("Java", 3); // removes "Java"
+ * </pre>
+ *
+ * @param <K> the type of the keys
+ */
+public class ObjectLongCountingTable<K> {
+
+    /**
+     * The maximum number of slots of an on-heap table. Its counts take 2 GB.
+     */
+    public static final int MAX_CAPACITY = 1 << 28;
+
+    /**
+     * The maximum number of slots of an off-heap table. Its counts take 1 GB, as a single direct buffer
+     * can't hold {@link Integer#MAX_VALUE} bytes or more.
+     */
+    public static final int MAX_OFF_HEAP_CAPACITY = 1 << 27;
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /**
+     * Whether the counts are stored off-heap.
+     */
+    @Getter
+    private final boolean offHeap;
+
+    private Object[] keys;
+
+    private LongBuffer counts;
+
+    private int mask;
+
+    private int size;
+
+    /**
+     * Creates an empty on-heap table.
+     */
+    public ObjectLongCountingTable() {
+        this(DEFAULT_EXPECTED_SIZE, false);
+    }
+
+    /**
+     * Creates an empty table.
+     *
+     * @param expectedSize the expected number of keys
+     * @param offHeap      whether the counts are stored off-heap
+     */
+    public ObjectLongCountingTable(int expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(capacityFor(Math.max(expectedSize, 1), offHeap));
+    }
+
+    /**
+     * Increments the count of the key by one.
+     *
+     * @param key the key
+     * @return the new count of the key
+     */
+    public long increment(@NonNull K key) {
+        return add(key, 1);
+    }
+
+    /**
+     * Adds the delta to the count of the key. A key that is not in the table yet starts with zero.
+     *
+     * @param key   the key
+     * @param delta the delta to add
+     * @return the new count of the key
+     */
+    public long add(@NonNull K key, long delta) {
+        int slot = hash(key) & mask;
+
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == key || current.equals(key)) {
+                long count = counts.get(slot) + delta;
+                counts.put(slot, count);
+                return count;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        counts.put(slot, delta);
+
+        if (++size > (mask + 1) >>> 1) {
+            rehash();
+        }
+
+        return delta;
+    }
+
+    /**
+     * Subtracts the delta from the count of the key. A key whose count drops to zero or below is removed,
+     * so subtracting the counts that were added earlier leaves the table as if they had never been added.
+     *
+     * @param key   the key
+     * @param delta the delta to subtract
+     * @return the new count of the key, or zero if the key was removed
+     */
+    public long subtract(@NonNull K key, long delta) {
+        int slot = hash(key) & mask;
+
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == key || current.equals(key)) {
+                long count = counts.get(slot) - delta;
+                if (count > 0) {
+                    counts.put(slot, count);
+                    return count;
+                }
+
+                removeSlot(slot);
+                return 0;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the count of the key.
+     *
+     * @param key the key
+     * @return the count of the key, or zero if the key is not in the table
+     */
+    public long get(Object key) {
+        if (key == null) {
+            return 0;
+        }
+
+        int slot = hash(key) & mask;
+
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == key || current.equals(key)) {
+                return counts.get(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns whether the key is in the table.
+     *
+     * @param key the key
+     * @return true if the key is in the table, false otherwise
+     */
+    public boolean containsKey(Object key) {
+        if (key == null) {
+            return false;
+        }
+
+        int slot = hash(key) & mask;
+
+        Object current;
+        while ((current = keys[slot]) != null) {
+            if (current == key || current.equals(key)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of keys in the table.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the table is empty.
+     *
+     * @return true if the table has no keys, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the counts of another table to this table.
+     *
+     * @param other the table to add
+     */
+    public void addAll(@NonNull ObjectLongCountingTable<? extends K> other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Subtracts the counts of another table from this table, removing the keys whose count drops to zero.
+     *
+     * @param other the table to subtract
+     */
+    public void subtractAll(@NonNull ObjectLongCountingTable<? extends K> other) {
+        other.forEach(this::subtract);
+    }
+
+    /**
+     * Performs the given action for every key and its count, in no particular order.
+     *
+     * @param action the action to perform
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(@NonNull ObjectLongConsumer<? super K> action) {
+        Object[] keys = this.keys;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null) {
+                action.accept((K) keys[slot], counts.get(slot));
+            }
+        }
+    }
+
+    /**
+     * Copies the table into a new map.
+     *
+     * @return a new map of keys to counts
+     */
+    public Map<K, Long> toMap() {
+        Map<K, Long> map = new HashMap<>((int) (size / 0.75f) + 1);
+        forEach(map::put);
+        return map;
+    }
+
+    /**
+     * Removes the key of the slot and shifts the following keys of the probe sequence back,
+     * so every key stays reachable from its home slot without tombstones.
+     */
+    private void removeSlot(int slot) {
+        int free = slot;
+        int next = (free + 1) & mask;
+
+        Object key;
+        while ((key = keys[next]) != null) {
+            int home = hash(key) & mask;
+            // The key can fill the free slot only if the free slot lies between its home slot and its current slot
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = key;
+                counts.put(free, counts.get(next));
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        keys[free] = null;
+        counts.put(free, 0);
+        size--;
+    }
+
+    private void rehash() {
+        Object[] oldKeys = keys;
+        LongBuffer oldCounts = counts;
+
+        if (oldKeys.length >= maxCapacity(offHeap)) {
+            throw new IllegalStateException("Counting table is full: " + size + " keys");
+        }
+
+        allocate(oldKeys.length << 1);
+
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            Object key = oldKeys[oldSlot];
+            if (key != null) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                counts.put(slot, oldCounts.get(oldSlot));
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        counts = allocateCounts(capacity, offHeap);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the maximum number of slots of a counting table.
+     *
+     * @param offHeap whether the counts are stored off-heap
+     * @return the maximum number of slots
+     */
+    static int maxCapacity(boolean offHeap) {
+        return offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_CAPACITY;
+    }
+
+    /**
+     * Allocates the counts of a counting table. The size of a direct buffer is computed as a long,
+     * so a capacity beyond the maximum is rejected instead of overflowing into a negative size.
+     *
+     * @param capacity the number of slots
+     * @param offHeap  whether the counts are stored off-heap
+     * @return the zeroed counts
+     * @throws IllegalArgumentException if the capacity exceeds the maximum
+     */
+    static LongBuffer allocateCounts(int capacity, boolean offHeap) {
+        if (capacity > maxCapacity(offHeap)) {
+            throw new IllegalArgumentException("Capacity " + capacity + " exceeds the maximum of "
+                    + maxCapacity(offHeap) + " slots");
+        }
+        if (!offHeap) {
+            return LongBuffer.allocate(capacity);
+        }
+        long bytes = (long) capacity * Long.BYTES;
+        return ByteBuffer.allocateDirect(Math.toIntExact(bytes)).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static int capacityFor(int expectedSize, boolean offHeap) {
+        long capacity = Long.highestOneBit(Math.max(2L * expectedSize - 1, 1)) << 1;
+        return (int) Math.min(Math.max(capacity, 2), maxCapacity(offHeap));
+    }
+
+    /**
+     * Spreads the hash code of the key, so keys with similar hash codes don't end up in one cluster.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * This interface represents an action performed for a key and its primitive count.
+     *
+     * @param <K> the type of the keys
+     */
+    @FunctionalInterface
+    public interface ObjectLongConsumer<K> {
+
+        /**
+         * Performs the action.
+         *
+         * @param key   the key
+         * @param count the count of the key
+         */
+        void accept(K key, long count);
+    }
+}
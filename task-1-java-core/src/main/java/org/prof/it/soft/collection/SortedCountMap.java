@@ -0,0 +1,260 @@
+package org.prof.it.soft.collection;
+
+import lombok.NonNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * This class is an immutable map of keys to counts, iterated in descending order of the counts.
+ * <p>
+ * It is the final sorted form of an {@link ObjectLongCountingTable}: the keys live in one array and the counts
+ * in one primitive array, so a statistic of millions of keys doesn't need an entry object and a boxed count per key
+ * as a {@code LinkedHashMap} does. Entries are created one at a time while the map is iterated, e.g. while a serializer
+ * writes the map, and become garbage right away.
+ * <p>
+ * The map is meant to be iterated. The first lookup of a key, e.g. by {@link #get(Object)} or by {@link #equals(Object)}
+ * of another map, builds a hash index of the keys, so a map that is only serialized never pays for the index.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     ObjectLongCountingTable&lt;Object&gt; table = new ObjectLongCountingTable&lt;&gt;();
+ *     table.add("Java", 3);
+ *     table.add("Python", 5);
+ *     Map&lt;String, Long&gt; map = SortedCountMap.of(table, Object::toString); // {Python=5, Java=3}
+ * </pre>
+ *
+ * @param <K> the type of the keys
+ */
+public class SortedCountMap<K> extends AbstractMap<K, Long> {
+
+    private final Object[] keys;
+
+    private final long[] counts;
+
+    private Set<Map.Entry<K, Long>> entrySet;
+
+    /**
+     * The positions of the keys, or null until a key is first looked up.
+     * It is volatile, so a map shared between threads publishes a completely built index.
+     */
+    private volatile Map<Object, Integer> index;
+
+    private SortedCountMap(Object[] keys, long[] counts) {
+        this.keys = keys;
+        this.counts = counts;
+    }
+
+    /**
+     * Sorts the keys of a counting table by their counts in descending order and converts the keys.
+     * Keys with the same count keep the order of the table.
+     *
+     * @param table              the counting table
+     * @param conversionFunction the function to convert the keys
+     * @param <D>                the type of the keys of the table
+     * @param <K>                the type of the converted keys
+     * @return a new map of the converted keys to their counts
+     */
+    public static <D, K> SortedCountMap<K> of(@NonNull ObjectLongCountingTable<D> table,
+                                              @NonNull Function<? super D, ? extends K> conversionFunction) {
+        int size = table.size();
+        Object[] tableKeys = new Object[size];
+        long[] tableCounts = new long[size];
+        int[] index = {0};
+        table.forEach((key, count) -> {
+            tableKeys[index[0]] = key;
+            tableCounts[index[0]++] = count;
+        });
+
+        int[] order = sortByCountDescending(tableCounts);
+
+        Object[] keys = new Object[size];
+        long[] counts = new long[size];
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked") D key = (D) tableKeys[order[i]];
+            keys[i] = conversionFunction.apply(key);
+            counts[i] = tableCounts[order[i]];
+        }
+
+        return new SortedCountMap<>(keys, counts);
+    }
+
+    /**
+     * Sorts the keys of a float counting table by their counts in descending order.
+     * Keys with the same count keep the order of the table. Every key is boxed once, when the map is created.
+     *
+     * @param table the counting table
+     * @return a new map of the keys to their counts
+     */
+    public static SortedCountMap<Float> of(@NonNull FloatLongCountingTable table) {
+        int size = table.size();
+        float[] tableKeys = new float[size];
+        long[] tableCounts = new long[size];
+        int[] index = {0};
+        table.forEach((key, count) -> {
+            tableKeys[index[0]] = key;
+            tableCounts[index[0]++] = count;
+        });
+
+        int[] order = sortByCountDescending(tableCounts);
+
+        Object[] keys = new Object[size];
+        long[] counts = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = tableKeys[order[i]];
+            counts[i] = tableCounts[order[i]];
+        }
+
+        return new SortedCountMap<>(keys, counts);
+    }
+
+    /**
+     * Sorts the keys of a long counting table, e.g. of packed composite keys, by their counts in descending order
+     * and converts the keys. Keys with the same count keep the order of the table.
+     *
+     * @param table              the counting table
+     * @param conversionFunction the function to convert the keys
+     * @param <K>                the type of the converted keys
+     * @return a new map of the converted keys to their counts
+     */
+    public static <K> SortedCountMap<K> of(@NonNull LongLongCountingTable table,
+                                           @NonNull LongFunction<? extends K> conversionFunction) {
+        int size = table.size();
+        long[] tableKeys = new long[size];
+        long[] tableCounts = new long[size];
+        int[] index = {0};
+        table.forEach((key, count) -> {
+            tableKeys[index[0]] = key;
+            tableCounts[index[0]++] = count;
+        });
+
+        int[] order = sortByCountDescending(tableCounts);
+
+        Object[] keys = new Object[size];
+        long[] counts = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = conversionFunction.apply(tableKeys[order[i]]);
+            counts[i] = tableCounts[order[i]];
+        }
+
+        return new SortedCountMap<>(keys, counts);
+    }
+
+    /**
+     * Returns the positions of the counts in descending order of the counts, equal counts in ascending order of positions.
+     * <p>
+     * Every count is packed with its reversed position into one long, so sorting needs a single primitive array
+     * instead of a boxed index per key. If the largest count leaves no room for the position, boxed indexes are sorted.
+     */
+    private static int[] sortByCountDescending(long[] counts) {
+        int size = counts.length;
+        int positionBits = 32 - Integer.numberOfLeadingZeros(Math.max(size - 1, 1));
+        long maxCount = 0;
+        for (long count : counts) {
+            maxCount = Math.max(maxCount, count);
+        }
+
+        int[] order = new int[size];
+        if (Long.numberOfLeadingZeros(maxCount) > positionBits) {
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                packed[i] = counts[i] << positionBits | (size - 1 - i);
+            }
+            Arrays.sort(packed);
+
+            long positionMask = (1L << positionBits) - 1;
+            for (int i = 0; i < size; i++) {
+                order[i] = size - 1 - (int) (packed[size - 1 - i] & positionMask);
+            }
+        } else {
+            Integer[] boxedOrder = new Integer[size];
+            Arrays.setAll(boxedOrder, i -> i);
+            Arrays.sort(boxedOrder, Comparator.comparingLong((Integer i) -> counts[i]).reversed());
+            Arrays.setAll(order, i -> boxedOrder[i]);
+        }
+
+        return order;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public Long get(Object key) {
+        int position = positionOf(key);
+        return position < 0 ? null : counts[position];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return positionOf(key) >= 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, Long>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private int positionOf(Object key) {
+        Map<Object, Integer> positions = index;
+        if (positions == null) {
+            positions = new HashMap<>((int) (keys.length / 0.75f) + 1);
+            for (int i = 0; i < keys.length; i++) {
+                // Keys converted to the same key keep the position of the largest count, as a scan would find it
+                positions.putIfAbsent(keys[i], i);
+            }
+            index = positions;
+        }
+        Integer position = positions.get(key);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * The entries of the map in descending order of the counts, created while they are iterated.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, Long>> {
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, Long>> iterator() {
+            return new Iterator<>() {
+
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < keys.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Map.Entry<K, Long> next() {
+                    if (next >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+                    Map.Entry<K, Long> entry = new SimpleImmutableEntry<>((K) keys[next], counts[next]);
+                    next++;
+                    return entry;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.prof.it.soft.collection;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * This class is a dictionary that assigns consecutive int ids to tokens, e.g. to technologies.
+ * <p>
+ * A token is looked up by a range of a char array, so finding the id of a known token creates no string:
+ * the hash of the characters is computed in place and the characters are compared with the string of the token.
+ * The string of a token is created once, when the token is added. Counting by id then needs no hash table at all,
+ * the counts can be kept in an array indexed by the id.
+ * <p>
+ * The dictionary holds at most {@code maxSize} tokens, so unbounded vocabularies (e.g. free text) can't exhaust
+ * the memory: a token that doesn't fit gets no id and has to be handled by the caller.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     TokenDictionary dictionary = new TokenDictionary();
+ *     char[] chars = "Java".toCharArray();
+ *     int id = dictionary.id(chars, 0, chars.length); // 0
+ *     String token = dictionary.token(id); // "Java"
+ * </pre>
+ */
+public class TokenDictionary {
+
+    /**
+     * The default maximum number of tokens.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int maxSize;
+
+    private String[] tokens = new String[INITIAL_CAPACITY >>> 1];
+
+    private int[] hashes = new int[INITIAL_CAPACITY >>> 1];
+
+    /**
+     * The ids of the tokens plus one by the slots of the hash table, 0 for an empty slot.
+     */
+    private int[] slots = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * Creates a dictionary of at most {@link #DEFAULT_MAX_SIZE} tokens.
+     */
+    public TokenDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a dictionary.
+     *
+     * @param maxSize the maximum number of tokens
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    public TokenDictionary(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the id of a token, adding the token if it is not in the dictionary yet.
+     *
+     * @param chars the array of characters
+     * @param start the position of the first character of the token
+     * @param end   the position after the last character of the token
+     * @return the id of the token, or -1 if the token is new and the dictionary is full
+     */
+    public int id(char @NonNull [] chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(tokens[id], chars, start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return size == maxSize ? -1 : add(new String(chars, start, end - start), hash, slot);
+    }
+
+    /**
+     * Returns the id of a token given as a string, e.g. a position decoded by the JSON parser,
+     * adding the token if it is not in the dictionary yet. The string is kept as the token, no copy is made.
+     *
+     * @param token the token
+     * @return the id of the token, or -1 if the token is new and the dictionary is full
+     */
+    public int id(@NonNull String token) {
+        int hash = token.hashCode();
+
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && tokens[id].equals(token)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return size == maxSize ? -1 : add(token, hash, slot);
+    }
+
+    /**
+     * Returns the token of an id.
+     *
+     * @param id the id
+     * @return the token
+     * @throws IndexOutOfBoundsException if there is no token with the id
+     */
+    public String token(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No token with id " + id);
+        }
+        return tokens[id];
+    }
+
+    /**
+     * Returns the number of tokens. The ids of the tokens are 0 to size - 1.
+     *
+     * @return the number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    private int add(String token, int hash, int slot) {
+        int id = size++;
+        if (id == tokens.length) {
+            tokens = Arrays.copyOf(tokens, tokens.length << 1);
+            hashes = Arrays.copyOf(hashes, hashes.length << 1);
+        }
+        tokens[id] = token;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+
+        if (size > slots.length >>> 1) {
+            rehash();
+        }
+        return id;
+    }
+
+    private static boolean matches(String token, char[] chars, int start, int end) {
+        if (token.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (token.charAt(i - start) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length << 1];
+        int mask = slots.length - 1;
+
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
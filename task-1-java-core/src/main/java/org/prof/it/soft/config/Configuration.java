@@ -2,9 +2,12 @@ package org.prof.it.soft.config;
 
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
+import org.prof.it.soft.io.InputBackend;
+import org.prof.it.soft.service.aggregator.SalaryBuckets;
+import org.prof.it.soft.sketch.HyperLogLog;
 
 /**
- * This class provides configuration for the ModelMapper.
+ * This class provides configuration for the ModelMapper and the statistics calculation.
  */
 public class Configuration {
 
@@ -29,4 +32,76 @@ public class Configuration {
 
         return modelMapper;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns whether the counters of the statistics are stored off-heap.
+     * It is disabled by default and can be enabled with the {@code -Dstatistics.off-heap=true} JVM option.
+     *
+     * @return true if the counters are stored off-heap, false otherwise
+     */
+    public static boolean isOffHeapStatistics() {
+        return Boolean.getBoolean("statistics.off-heap");
+    }
+
+    /**
+     * Returns the input backend used to read the JSON files.
+     * It is chosen by the file size by default and can be fixed with the
+     * {@code -Dstatistics.input-backend=stream|memory-mapped|read-ahead} JVM option.
+     *
+     * @return the configured input backend, or null if it is chosen by the file size
+     * @throws IllegalArgumentException if the configured input backend is invalid
+     */
+    public static InputBackend getInputBackend() {
+        String inputBackend = System.getProperty("statistics.input-backend");
+        return inputBackend == null || inputBackend.isBlank() ? null : InputBackend.of(inputBackend);
+    }
+
+    /**
+     * Returns the number of keys reported by the position and technology statistics in the approximate top-K mode.
+     * The mode keeps the memory of these statistics bounded no matter how many distinct keys there are.
+     * It is disabled by default and can be enabled with the {@code -Dstatistics.top-k=1000} JVM option.
+     *
+     * @return the number of reported keys, or 0 if every key is counted exactly
+     */
+    public static int getTopK() {
+        return Math.max(Integer.getInteger("statistics.top-k", 0), 0);
+    }
+
+    /**
+     * Returns the number of keys kept by the sketches of the top-K mode, the memory budget of a statistic.
+     * A sketch keeps at most twice as many keys, and the error of any count is at most the number of vacancies
+     * divided by this number. It is ten times the number of reported keys by default and can be changed with
+     * the {@code -Dstatistics.top-k-counters=100000} JVM option, it is never smaller than the number of reported keys.
+     *
+     * @param topK the number of reported keys
+     * @return the number of kept keys
+     */
+    public static int getTopKCounters(int topK) {
+        return Math.max(Integer.getInteger("statistics.top-k-counters", topK * 10), topK);
+    }
+
+    /**
+     * Returns the precision of the HyperLogLog sketches of the distinct count statistics.
+     * A sketch takes {@code 2^precision} bytes and has a standard error of {@code 1.04 / sqrt(2^precision)}.
+     * It is {@link HyperLogLog#DEFAULT_PRECISION} by default and can be changed with
+     * the {@code -Dstatistics.distinct-precision=14} JVM option.
+     *
+     * @return the precision of the sketches
+     */
+    public static int getDistinctCountPrecision() {
+        return Integer.getInteger("statistics.distinct-precision", HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    /**
+     * Returns the salary ranges the salary statistic counts the vacancies by.
+     * Every distinct salary is reported by default, ranges can be enabled with the
+     * {@code -Dstatistics.salary-buckets=fixed:500} or {@code -Dstatistics.salary-buckets=log:500[:2]} JVM option.
+     *
+     * @return the configured salary ranges, or null if every distinct salary is reported
+     * @throws IllegalArgumentException if the configured salary ranges are invalid
+     */
+    public static SalaryBuckets getSalaryBuckets() {
+        String salaryBuckets = System.getProperty("statistics.salary-buckets");
+        return salaryBuckets == null || salaryBuckets.isBlank() ? null : SalaryBuckets.of(salaryBuckets);
+    }
+}
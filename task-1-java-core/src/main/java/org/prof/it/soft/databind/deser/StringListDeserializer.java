@@ -3,11 +3,10 @@ package org.prof.it.soft.databind.deser;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
+import org.prof.it.soft.text.CommaTokenizer;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 
 /**
  * This class is a custom deserializer for collections of strings in JSON.
@@ -21,7 +20,8 @@ public class StringListDeserializer extends JsonDeserializer<Collection<String>>
      * <p>
      * The method first gets the value from the JsonParser as a String.
      * If the value is null or empty, it returns empty list.
-     * Otherwise, it splits the value by commas (ignoring any amount of whitespace after the comma) and returns the resulting array as a List.
+     * Otherwise, it splits the value by commas with {@link CommaTokenizer}, the same way the technology statistic does:
+     * the whitespace around every value is trimmed and empty values are skipped.
      *
      * @param p   the JsonParser to deserialize
      * @param ctx the DeserializationContext
@@ -37,11 +37,6 @@ public class StringListDeserializer extends JsonDeserializer<Collection<String>>
      */
     @Override
     public Collection<String> deserialize(JsonParser p, DeserializationContext ctx) throws IOException {
-        String value = p.getValueAsString();
-        if (value == null || value.isEmpty()) {
-            return Collections.emptyList();
-        } else {
-            return Arrays.stream(value.split(",\\s*")).map(String::trim).toList();
-        }
+        return CommaTokenizer.split(p.getValueAsString());
     }
 }
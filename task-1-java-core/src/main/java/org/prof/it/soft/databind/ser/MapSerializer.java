@@ -3,6 +3,7 @@ package org.prof.it.soft.databind.ser;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import org.prof.it.soft.dto.CrossTabKeyDto;
 
 import java.io.IOException;
 import java.util.Map;
@@ -36,6 +37,7 @@ public class MapSerializer extends JsonSerializer<Map<Object, Object>> {
      * Then, for each entry in the Map, it writes a new JSON object with the key "item".
      * Inside this object, it writes two fields: "key" and "count".
      * The "key" field is the string representation of the Map entry's key.
+     * A cell of a cross-tab statistic is written as two fields, "row" and "column", instead of "key".
      * The "count" field is the string representation of the Map entry's value.
      * After writing all fields for an entry, it ends the "item" object.
      * Once all entries have been written, it ends the outer JSON object.
@@ -79,10 +81,21 @@ public class MapSerializer extends JsonSerializer<Map<Object, Object>> {
         gen.writeStartObject();
         for (var entry : value.entrySet()) {
             gen.writeObjectFieldStart("item");
-            gen.writeFieldName("key");
-            gen.writeString(entry.getKey().toString());
+            if (entry.getKey() instanceof CrossTabKeyDto cell) {
+                // A cell of a cross-tab statistic is written as its two values
+                gen.writeStringField("row", cell.getRow());
+                gen.writeStringField("column", cell.getColumn());
+            } else {
+                gen.writeFieldName("key");
+                gen.writeString(entry.getKey().toString());
+            }
             gen.writeFieldName("count");
-            gen.writeNumber(entry.getValue().toString());
+            // Counts are written without converting them to a string first
+            if (entry.getValue() instanceof Long count) {
+                gen.writeNumber(count);
+            } else {
+                gen.writeNumber(entry.getValue().toString());
+            }
             gen.writeEndObject();
         }
         gen.writeEndObject();
@@ -0,0 +1,35 @@
+package org.prof.it.soft.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for a cell of a cross-tab statistic.
+ * It extends the AbstractDto class and includes the values of the two dimensions of the cell,
+ * e.g. the position "Java Developer" as the row and the technology "Spring" as the column.
+ *
+ * The class is annotated with Jackson annotations to control its serialization to JSON.
+ * The `@JsonProperty` annotation sets the name and order of the JSON properties.
+ *
+ * The class is also annotated with Lombok annotations to automatically generate getters, setters,
+ * a builder, and equals/hashCode methods.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class CrossTabKeyDto extends AbstractDto {
+
+    /**
+     * This field represents the value of the first dimension of the cell.
+     */
+    @JsonProperty(value = "row", index = 1)
+    protected String row;
+
+    /**
+     * This field represents the value of the second dimension of the cell.
+     */
+    @JsonProperty(value = "column", index = 2)
+    protected String column;
+}
@@ -0,0 +1,41 @@
+package org.prof.it.soft.dto.stats;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+import lombok.*;
+import org.prof.it.soft.dto.AbstractDto;
+
+/**
+ * This class represents a DTO (Data Transfer Object) for distinct count statistics,
+ * e.g. the number of distinct recruiters, positions or companies.
+ * It extends the AbstractDto class and includes the estimated number of distinct values and its relative error.
+ *
+ * The class is annotated with Jackson annotations to control its serialization to XML and JSON.
+ * The `@JacksonXmlRootElement` annotation sets the name of the root XML element.
+ * The `@JacksonXmlProperty` annotation sets the names of the XML elements.
+ *
+ * The class is also annotated with Lombok annotations to automatically generate getters, setters,
+ * a builder, and equals/hashCode methods.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@JacksonXmlRootElement(localName = "statistic")
+public class DistinctCountVacancyStatsDto extends AbstractDto {
+
+    /**
+     * This field represents the estimated number of distinct values.
+     */
+    @JacksonXmlProperty(localName = "distinct-count")
+    protected Long distinctCount;
+
+    /**
+     * This field represents the standard error of the distinct count relative to the true number of distinct values,
+     * e.g. 0.016 for 1.6%.
+     */
+    @JacksonXmlProperty(localName = "relative-error")
+    protected Double relativeError;
+
+}
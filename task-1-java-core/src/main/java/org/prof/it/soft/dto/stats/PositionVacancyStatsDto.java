@@ -1,5 +1,6 @@
 package org.prof.it.soft.dto.stats;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
@@ -37,4 +38,22 @@ public class PositionVacancyStatsDto extends AbstractDto {
     @JsonSerialize(using = MapSerializer.class)
     protected Map<String, Long> vacancyCountByPosition;
 
+    /**
+     * This field represents a map of position names to the maximum overestimation of their vacancy counts.
+     * It is present only in the approximate top-K mode, where the true vacancy count of a position
+     * is between its count minus its error and its count.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JacksonXmlProperty(localName = "count-error-by-position-statistic")
+    @JsonSerialize(using = MapSerializer.class)
+    protected Map<String, Long> countErrorByPosition;
+
+    /**
+     * This field represents the maximum vacancy count of a position that is not reported.
+     * It is present only in the approximate top-K mode.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JacksonXmlProperty(localName = "max-unreported-count")
+    protected Long maxUnreportedCount;
+
 }
\ No newline at end of file
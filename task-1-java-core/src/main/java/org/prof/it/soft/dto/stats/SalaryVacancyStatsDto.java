@@ -1,5 +1,6 @@
 package org.prof.it.soft.dto.stats;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
@@ -13,7 +14,8 @@ import java.util.Objects;
 /**
  * This class represents a DTO (Data Transfer Object) for salary vacancy statistics.
  * It extends the AbstractDto class and includes fields for minimum, average, and maximum salary,
- * as well as a map of salary ranges to vacancy counts.
+ * the approximate 50th, 75th, 90th and 99th salary percentiles, as well as a map of salary ranges to vacancy counts.
+ * The percentiles are omitted from the output when they are not calculated.
  * <p>
  * The class is annotated with Jackson annotations to control its serialization to XML and JSON.
  * The `@JacksonXmlRootElement` annotation sets the name of the root XML element.
@@ -49,6 +51,34 @@ public class SalaryVacancyStatsDto extends AbstractDto {
     @JacksonXmlProperty(localName = "max-salary", isAttribute = false)
     protected Double maxSalary;
 
+    /**
+     * This field represents the approximate median (50th percentile) salary among the vacancies.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JacksonXmlProperty(localName = "p50-salary", isAttribute = false)
+    protected Double p50Salary;
+
+    /**
+     * This field represents the approximate 75th percentile salary among the vacancies.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JacksonXmlProperty(localName = "p75-salary", isAttribute = false)
+    protected Double p75Salary;
+
+    /**
+     * This field represents the approximate 90th percentile salary among the vacancies.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JacksonXmlProperty(localName = "p90-salary", isAttribute = false)
+    protected Double p90Salary;
+
+    /**
+     * This field represents the approximate 99th percentile salary among the vacancies.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JacksonXmlProperty(localName = "p99-salary", isAttribute = false)
+    protected Double p99Salary;
+
     /**
      * This field represents a map of salary ranges to vacancy counts.
      * The key is the salary range and the value is the vacancy count.
@@ -65,11 +95,25 @@ public class SalaryVacancyStatsDto extends AbstractDto {
         return Math.abs(minSalary - that.minSalary) < 0.0000001 &&
                 Math.abs(averageSalary - that.averageSalary) < 0.0000001 &&
                 Math.abs(maxSalary - that.maxSalary) < 0.0000001 &&
+                equalPercentiles(p50Salary, that.p50Salary) &&
+                equalPercentiles(p75Salary, that.p75Salary) &&
+                equalPercentiles(p90Salary, that.p90Salary) &&
+                equalPercentiles(p99Salary, that.p99Salary) &&
                 Objects.equals(vacancyCountBySalary, that.vacancyCountBySalary);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(minSalary, averageSalary, maxSalary, vacancyCountBySalary);
+        return Objects.hash(minSalary, averageSalary, maxSalary, p50Salary, p75Salary, p90Salary, p99Salary, vacancyCountBySalary);
+    }
+
+    /**
+     * Compares two percentiles, which are null when they are not calculated.
+     */
+    private static boolean equalPercentiles(Double percentile, Double otherPercentile) {
+        if (percentile == null || otherPercentile == null) {
+            return percentile == otherPercentile;
+        }
+        return Math.abs(percentile - otherPercentile) < 0.0000001;
     }
 }
\ No newline at end of file
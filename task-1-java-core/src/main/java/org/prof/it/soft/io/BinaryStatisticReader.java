@@ -0,0 +1,211 @@
+package org.prof.it.soft.io;
+
+import lombok.NonNull;
+import org.prof.it.soft.dto.CrossTabKeyDto;
+import org.prof.it.soft.dto.RecruiterDto;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.prof.it.soft.io.BinaryStatisticWriter.*;
+
+/**
+ * This class reads a statistic written by {@link BinaryStatisticWriter} and replays it to a {@link StatisticVisitor}.
+ * <p>
+ * The reader decodes the varints and strings straight from its own buffer, so reading a statistic costs little more
+ * than copying its bytes and creating its keys. A statistic can be replayed to another writer to convert it,
+ * e.g. to CSV, or be read into a DTO with {@code DtoSerializer.binaryToObject}.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     try (InputStream inputStream = Files.newInputStream(path)) {
+ *         new BinaryStatisticReader(inputStream).accept(visitor);
+ *     }
+ * </pre>
+ */
+public class BinaryStatisticReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream inputStream;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private final List<String> dictionary = new ArrayList<>();
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * Creates a reader.
+     *
+     * @param inputStream the stream to read from, it is not closed and doesn't have to be buffered
+     */
+    public BinaryStatisticReader(@NonNull InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Reads the statistic and passes its values and map entries to the visitor, in the order they were written.
+     *
+     * @param visitor the visitor
+     * @throws IOException if an I/O error occurs or the stream is not a binary statistic
+     */
+    public void accept(@NonNull StatisticVisitor visitor) throws IOException {
+        if (readInt() != MAGIC) {
+            throw new IOException("The stream is not a binary statistic");
+        }
+
+        int record;
+        while ((record = readByte()) != END) {
+            switch (record) {
+                case VALUE_LONG -> {
+                    String name = readString();
+                    long value = readVarLong();
+                    visitor.value(name, (value >>> 1) ^ -(value & 1));
+                }
+                case VALUE_DOUBLE -> {
+                    String name = readString();
+                    long bits = ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+                    visitor.value(name, Double.longBitsToDouble(bits));
+                }
+                case MAP -> readMap(visitor);
+                default -> throw new IOException("Invalid record type " + record);
+            }
+        }
+    }
+
+    private void readMap(StatisticVisitor visitor) throws IOException {
+        String name = readString();
+        int keyType = readByte();
+        long size = readVarLong();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid size of map " + name);
+        }
+
+        Class<?> keyClass = switch (keyType) {
+            case KEY_STRING -> String.class;
+            case KEY_FLOAT -> Float.class;
+            case KEY_RECRUITER -> RecruiterDto.class;
+            case KEY_CROSS_TAB -> CrossTabKeyDto.class;
+            default -> throw new IOException("Invalid key type " + keyType);
+        };
+
+        visitor.beginMap(name, keyClass, (int) size);
+        for (long i = 0; i < size; i++) {
+            Object key = switch (keyType) {
+                case KEY_STRING -> readString();
+                case KEY_FLOAT -> Float.intBitsToFloat(readInt());
+                case KEY_RECRUITER -> new RecruiterDto(readString(), readString(), readString());
+                default -> new CrossTabKeyDto(readString(), readString());
+            };
+            visitor.entry(key, readVarLong());
+        }
+        visitor.endMap();
+    }
+
+    private String readString() throws IOException {
+        long tag = readVarLong();
+        if (tag == STRING_NULL) {
+            return null;
+        }
+        if (tag == STRING_LITERAL) {
+            return readBytes();
+        }
+        if (tag == STRING_NEW) {
+            String string = readBytes();
+            dictionary.add(string);
+            return string;
+        }
+
+        long number = tag - STRING_REFERENCE;
+        if (number >= dictionary.size()) {
+            throw new IOException("Invalid string reference " + number);
+        }
+        return dictionary.get((int) number);
+    }
+
+    private String readBytes() throws IOException {
+        long length = readVarLong();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Invalid string length " + length);
+        }
+
+        if (length <= limit - position || (length <= buffer.length && fill((int) length))) {
+            String string = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return string;
+        }
+
+        // A string larger than the buffer is read on its own
+        byte[] bytes = new byte[(int) length];
+        int read = limit - position;
+        System.arraycopy(buffer, position, bytes, 0, read);
+        position = limit;
+        while (read < bytes.length) {
+            int count = inputStream.read(bytes, read, bytes.length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private int readInt() throws IOException {
+        if (limit - position < 4) {
+            fill(4);
+        }
+        int value = (buffer[position] & 0xFF) << 24
+                | (buffer[position + 1] & 0xFF) << 16
+                | (buffer[position + 2] & 0xFF) << 8
+                | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit) {
+            fill(1);
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Moves the unread bytes to the start of the buffer and reads until at least the given number of bytes is buffered.
+     *
+     * @return true, it throws an EOFException if the stream ends before
+     */
+    private boolean fill(int required) throws IOException {
+        int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+
+        while (limit < required) {
+            int count = inputStream.read(buffer, limit, buffer.length - limit);
+            if (count < 0) {
+                throw new EOFException("Unexpected end of binary statistic");
+            }
+            limit += count;
+        }
+        return true;
+    }
+}
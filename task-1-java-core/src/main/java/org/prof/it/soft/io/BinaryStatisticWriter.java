@@ -0,0 +1,216 @@
+package org.prof.it.soft.io;
+
+import lombok.NonNull;
+import org.prof.it.soft.dto.CrossTabKeyDto;
+import org.prof.it.soft.dto.RecruiterDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class writes a statistic in a compact binary format, which {@link BinaryStatisticReader} reads back.
+ * <p>
+ * Repeated strings are written once: the first occurrence of a name or a part of a recruiter is written with its length
+ * and UTF-8 bytes and added to a dictionary, every further occurrence is written as its number in the dictionary.
+ * The string keys of a map are unique within the map, so they are written as literals and the dictionary only grows
+ * with the names, the recruiters' names and companies and the values of the cross-tab cells. Counts, lengths and numbers are written as varints
+ * (7 bits per byte, the highest bit marks that another byte follows), so a count below 128 takes one byte. A statistic of a million positions takes about as many bytes as the names of the positions.
+ * <pre>
+ * file       := MAGIC (4 bytes) record* END
+ * record     := VALUE_LONG name zigzag-varint
+ *             | VALUE_DOUBLE name double (8 bytes)
+ *             | MAP name key-type size:varint (key count:varint)*
+ * key        := string (KEY_STRING) | float (4 bytes, KEY_FLOAT) | string string string (KEY_RECRUITER)
+ *             | string string (KEY_CROSS_TAB)
+ * name       := string
+ * string     := varint: 0 for null, 1 for a literal or 2 for a new string of the dictionary, both followed by
+ *               length:varint and the UTF-8 bytes, or n + 3 for the n-th string of the dictionary (from 0)
+ * </pre>
+ * Multibyte numbers are big-endian. The writer buffers nothing but a varint, the stream should be buffered.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     BinaryStatisticWriter writer = new BinaryStatisticWriter(outputStream);
+ *     writer.beginMap("vacancy-count-by-position-statistic", String.class, 1);
+ *     writer.entry("Java Developer", 10);
+ *     writer.endMap();
+ *     writer.finish();
+ * </pre>
+ */
+public class BinaryStatisticWriter implements StatisticVisitor {
+
+    /**
+     * The first bytes of a binary statistic, "VSB" and the version of the format.
+     */
+    public static final int MAGIC = 0x56534201;
+
+    static final int END = 0;
+
+    static final int VALUE_LONG = 1;
+
+    static final int VALUE_DOUBLE = 2;
+
+    static final int MAP = 3;
+
+    static final int KEY_STRING = 1;
+
+    static final int KEY_FLOAT = 2;
+
+    static final int KEY_RECRUITER = 3;
+
+    static final int KEY_CROSS_TAB = 4;
+
+    static final int STRING_NULL = 0;
+
+    static final int STRING_LITERAL = 1;
+
+    static final int STRING_NEW = 2;
+
+    static final int STRING_REFERENCE = 3;
+
+    private final OutputStream outputStream;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private final byte[] scratch = new byte[10];
+
+    private int keyType;
+
+    /**
+     * Creates a writer and writes the magic number.
+     *
+     * @param outputStream the stream to write to, it is not closed
+     * @throws IOException if an I/O error occurs
+     */
+    public BinaryStatisticWriter(@NonNull OutputStream outputStream) throws IOException {
+        this.outputStream = outputStream;
+        writeInt(MAGIC);
+    }
+
+    @Override
+    public void value(String name, Number value) throws IOException {
+        if (value instanceof Long || value instanceof Integer) {
+            outputStream.write(VALUE_LONG);
+            writeString(name);
+            long longValue = value.longValue();
+            // Zigzag encoding keeps small negative numbers short
+            writeVarLong((longValue << 1) ^ (longValue >> 63));
+        } else {
+            outputStream.write(VALUE_DOUBLE);
+            writeString(name);
+            long bits = Double.doubleToRawLongBits(value.doubleValue());
+            writeInt((int) (bits >>> 32));
+            writeInt((int) bits);
+        }
+    }
+
+    @Override
+    public void beginMap(String name, Class<?> keyType, int size) throws IOException {
+        if (keyType == String.class) {
+            this.keyType = KEY_STRING;
+        } else if (keyType == Float.class) {
+            this.keyType = KEY_FLOAT;
+        } else if (keyType == RecruiterDto.class) {
+            this.keyType = KEY_RECRUITER;
+        } else if (keyType == CrossTabKeyDto.class) {
+            this.keyType = KEY_CROSS_TAB;
+        } else {
+            throw new IllegalArgumentException("Unsupported key type " + keyType);
+        }
+
+        outputStream.write(MAP);
+        writeString(name);
+        outputStream.write(this.keyType);
+        writeVarLong(size);
+    }
+
+    @Override
+    public void entry(Object key, long count) throws IOException {
+        switch (keyType) {
+            case KEY_STRING -> writeLiteral((String) key);
+            case KEY_FLOAT -> writeInt(Float.floatToRawIntBits((Float) key));
+            case KEY_RECRUITER -> {
+                RecruiterDto recruiter = (RecruiterDto) key;
+                writeString(recruiter.getFirstName());
+                writeString(recruiter.getLastName());
+                writeString(recruiter.getCompanyName());
+            }
+            case KEY_CROSS_TAB -> {
+                CrossTabKeyDto cell = (CrossTabKeyDto) key;
+                writeString(cell.getRow());
+                writeString(cell.getColumn());
+            }
+            default -> throw new IllegalStateException("No map was started");
+        }
+        writeVarLong(count);
+    }
+
+    /**
+     * Writes the end of the statistic. The stream is not flushed nor closed.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void finish() throws IOException {
+        outputStream.write(END);
+    }
+
+    /**
+     * Writes a string that may repeat, as a reference if it was written before.
+     */
+    private void writeString(String string) throws IOException {
+        if (string == null) {
+            writeVarLong(STRING_NULL);
+            return;
+        }
+
+        Integer number = dictionary.get(string);
+        if (number != null) {
+            writeVarLong(STRING_REFERENCE + number);
+            return;
+        }
+
+        dictionary.put(string, dictionary.size());
+        writeVarLong(STRING_NEW);
+        writeBytes(string);
+    }
+
+    /**
+     * Writes a string that doesn't repeat, without adding it to the dictionary.
+     */
+    private void writeLiteral(String string) throws IOException {
+        if (string == null) {
+            writeVarLong(STRING_NULL);
+            return;
+        }
+
+        writeVarLong(STRING_LITERAL);
+        writeBytes(string);
+    }
+
+    private void writeBytes(String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        int length = 0;
+        while ((value & ~0x7FL) != 0) {
+            scratch[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        scratch[length++] = (byte) value;
+        outputStream.write(scratch, 0, length);
+    }
+
+    private void writeInt(int value) throws IOException {
+        scratch[0] = (byte) (value >>> 24);
+        scratch[1] = (byte) (value >>> 16);
+        scratch[2] = (byte) (value >>> 8);
+        scratch[3] = (byte) value;
+        outputStream.write(scratch, 0, 4);
+    }
+}
@@ -0,0 +1,282 @@
+package org.prof.it.soft.io;
+
+import lombok.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * This enum represents the formats the vacancy exports arrive in: plain JSON, a compressed JSON file,
+ * or an archive of JSON files.
+ * <p>
+ * {@link #forEachDocument(InputStream, String, DocumentConsumer)} reads compressed files and archives in place,
+ * without extracting them to disk. The first megabyte of a document is inflated on the parser's thread, decompression
+ * of a larger document continues on its own thread ({@link DeferredReadAheadInputStream}), so the parser reads already
+ * inflated bytes, while small documents cost no thread and no direct buffers. Only the archive entries whose names end with ".json", ".jsonl"
+ * or ".ndjson" are read.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     CorpusFormat.of(path).forEachDocument(path, (name, inputStream) -&gt; parse(inputStream));
+ * </pre>
+ */
+public enum CorpusFormat {
+
+    JSON {
+        @Override
+        public void forEachDocument(InputStream inputStream, String name, DocumentConsumer documentConsumer) throws IOException {
+            documentConsumer.accept(name, inputStream);
+        }
+    },
+
+    GZIP {
+        @Override
+        public void forEachDocument(InputStream inputStream, String name, DocumentConsumer documentConsumer) throws IOException {
+            try (InputStream decompressed = inflateAhead(new GZIPInputStream(inputStream, INFLATE_BUFFER_SIZE), name)) {
+                documentConsumer.accept(name, decompressed);
+            }
+        }
+    },
+
+    DEFLATE {
+        @Override
+        public void forEachDocument(InputStream inputStream, String name, DocumentConsumer documentConsumer) throws IOException {
+            try (InputStream decompressed = inflateAhead(new InflaterInputStream(inputStream), name)) {
+                documentConsumer.accept(name, decompressed);
+            }
+        }
+    },
+
+    ZIP {
+        @Override
+        public void forEachDocument(InputStream inputStream, String name, DocumentConsumer documentConsumer) throws IOException {
+            try (ZipInputStream zipInputStream = new ZipInputStream(new BufferedInputStream(inputStream, INFLATE_BUFFER_SIZE))) {
+                ZipEntry entry;
+                while ((entry = zipInputStream.getNextEntry()) != null) {
+                    if (!entry.isDirectory() && isJsonEntry(entry.getName())) {
+                        // A large entry is inflated ahead on its own thread, which is finished before the next entry
+                        try (InputStream decompressed = inflateAhead(nonClosing(zipInputStream), name + "!" + entry.getName())) {
+                            documentConsumer.accept(name + "!" + entry.getName(), decompressed);
+                        }
+                    }
+                }
+            }
+        }
+    },
+
+    TAR {
+        @Override
+        public void forEachDocument(InputStream inputStream, String name, DocumentConsumer documentConsumer) throws IOException {
+            try (TarInputStream tarInputStream = new TarInputStream(new BufferedInputStream(inputStream, INFLATE_BUFFER_SIZE))) {
+                forEachTarEntry(tarInputStream, name, documentConsumer);
+            }
+        }
+    },
+
+    TAR_GZIP {
+        @Override
+        public void forEachDocument(InputStream inputStream, String name, DocumentConsumer documentConsumer) throws IOException {
+            // The whole archive is inflated ahead, reading the tar headers is cheap
+            try (TarInputStream tarInputStream = new TarInputStream(
+                    inflateAhead(new GZIPInputStream(inputStream, INFLATE_BUFFER_SIZE), name))) {
+                forEachTarEntry(tarInputStream, name, documentConsumer);
+            }
+        }
+    };
+
+    /**
+     * The size of the buffer compressed data is read with.
+     */
+    protected static final int INFLATE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The size of a block of decompressed data handed from the decompressing thread to the parser.
+     */
+    protected static final int INFLATE_BLOCK_SIZE = 512 * 1024;
+
+    /**
+     * The number of decompressed bytes of a document inflated on the parser's thread
+     * before decompression moves to its own thread.
+     */
+    protected static final int INFLATE_AHEAD_THRESHOLD = 2 * INFLATE_BLOCK_SIZE;
+
+    private static final int TAR_MAGIC_OFFSET = 257;
+
+    private static final byte[] TAR_MAGIC = {'u', 's', 't', 'a', 'r'};
+
+    /**
+     * Reads the documents of the format from the input stream and hands each of them to the consumer.
+     * Closing a document stream doesn't close the archive it belongs to. The input stream is closed.
+     *
+     * @param inputStream      the raw (compressed) input stream
+     * @param name             the name of the input, used to name the documents
+     * @param documentConsumer the consumer of the documents
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void forEachDocument(InputStream inputStream, String name, DocumentConsumer documentConsumer) throws IOException;
+
+    /**
+     * Opens the file with the {@link InputBackend} chosen by its size and hands each of its documents to the consumer.
+     *
+     * @param path             the path of the file
+     * @param documentConsumer the consumer of the documents
+     * @throws IOException if an I/O error occurs
+     */
+    public void forEachDocument(@NonNull Path path, @NonNull DocumentConsumer documentConsumer) throws IOException {
+        try (InputStream inputStream = InputBackend.select(path).open(path)) {
+            forEachDocument(inputStream, path.toString(), documentConsumer);
+        }
+    }
+
+    /**
+     * Returns the format of a file by its name, e.g. "vacancies.json.gz" is {@link #GZIP}.
+     * Files with unknown extensions are treated as {@link #JSON}.
+     *
+     * @param path the path of the file
+     * @return the format of the file
+     */
+    public static CorpusFormat of(@NonNull Path path) {
+        String name = String.valueOf(path.getFileName()).toLowerCase(Locale.ROOT);
+
+        if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            return TAR_GZIP;
+        } else if (name.endsWith(".gz")) {
+            return GZIP;
+        } else if (name.endsWith(".deflate") || name.endsWith(".zz")) {
+            return DEFLATE;
+        } else if (name.endsWith(".zip")) {
+            return ZIP;
+        } else if (name.endsWith(".tar")) {
+            return TAR;
+        }
+
+        return JSON;
+    }
+
+    /**
+     * Detects the format of a stream by its first bytes, e.g. for the standard input.
+     * The stream must support mark and reset, and its position is not changed.
+     * A gzip stream holding a tar archive is detected as {@link #GZIP}, see {@link #detectCompressed(InputStream)}.
+     *
+     * @param inputStream the stream
+     * @return the detected format, {@link #JSON} if the format is not recognized
+     * @throws IOException if an I/O error occurs
+     */
+    public static CorpusFormat detect(@NonNull InputStream inputStream) throws IOException {
+        if (!inputStream.markSupported()) {
+            throw new IllegalArgumentException("The stream must support mark and reset");
+        }
+
+        byte[] head = new byte[TAR_MAGIC_OFFSET + TAR_MAGIC.length];
+        inputStream.mark(head.length);
+        int read = inputStream.readNBytes(head, 0, head.length);
+        inputStream.reset();
+
+        if (read >= 2 && (head[0] & 0xFF) == 0x1F && (head[1] & 0xFF) == 0x8B) {
+            return GZIP;
+        } else if (read >= 4 && head[0] == 'P' && head[1] == 'K' && head[2] == 3 && head[3] == 4) {
+            return ZIP;
+        } else if (read >= 2 && (head[0] & 0xFF) == 0x78 && ((head[0] & 0xFF) << 8 | head[1] & 0xFF) % 31 == 0) {
+            return DEFLATE;
+        } else if (read == head.length && startsWith(head, TAR_MAGIC_OFFSET, TAR_MAGIC)) {
+            return TAR;
+        }
+
+        return JSON;
+    }
+
+    /**
+     * Detects the format of a stream by its first bytes and reads its documents, looking into gzip streams
+     * to find tar archives. It is meant for inputs without a name, such as the standard input.
+     *
+     * @param inputStream      the stream
+     * @param name             the name of the input, used to name the documents
+     * @param documentConsumer the consumer of the documents
+     * @throws IOException if an I/O error occurs
+     */
+    public static void forEachDetectedDocument(@NonNull InputStream inputStream,
+                                               @NonNull String name,
+                                               @NonNull DocumentConsumer documentConsumer) throws IOException {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream, INFLATE_BUFFER_SIZE);
+        CorpusFormat format = detect(bufferedInputStream);
+
+        if (format != GZIP) {
+            format.forEachDocument(bufferedInputStream, name, documentConsumer);
+            return;
+        }
+
+        try (BufferedInputStream decompressed = new BufferedInputStream(
+                inflateAhead(new GZIPInputStream(bufferedInputStream, INFLATE_BUFFER_SIZE), name), INFLATE_BUFFER_SIZE)) {
+            if (detect(decompressed) == TAR) {
+                forEachTarEntry(new TarInputStream(decompressed), name, documentConsumer);
+            } else {
+                documentConsumer.accept(name, decompressed);
+            }
+        }
+    }
+
+    private static void forEachTarEntry(TarInputStream tarInputStream,
+                                        String name,
+                                        DocumentConsumer documentConsumer) throws IOException {
+        TarInputStream.Entry entry;
+        while ((entry = tarInputStream.getNextEntry()) != null) {
+            if (entry.isFile() && isJsonEntry(entry.getName())) {
+                documentConsumer.accept(name + "!" + entry.getName(), nonClosing(tarInputStream));
+            }
+        }
+    }
+
+    private static boolean isJsonEntry(String entryName) {
+        String name = entryName.toLowerCase(Locale.ROOT);
+        return name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson");
+    }
+
+    private static InputStream inflateAhead(InputStream inflatingStream, String name) {
+        return new DeferredReadAheadInputStream(inflatingStream, INFLATE_AHEAD_THRESHOLD, INFLATE_BLOCK_SIZE, "inflate-" + name);
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wraps the stream of an archive, so closing the stream of an entry doesn't close the archive.
+     */
+    private static InputStream nonClosing(InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            @Override
+            public void close() {
+                // The archive is closed by its owner
+            }
+        };
+    }
+
+    /**
+     * This interface represents a consumer of the JSON documents of an input.
+     */
+    @FunctionalInterface
+    public interface DocumentConsumer {
+
+        /**
+         * Processes a JSON document. Closing the stream doesn't close the archive the document belongs to.
+         *
+         * @param name        the name of the document, e.g. "archive.zip!vacancies.json"
+         * @param inputStream the stream of the document
+         * @throws IOException if an I/O error occurs
+         */
+        void accept(String name, InputStream inputStream) throws IOException;
+    }
+}
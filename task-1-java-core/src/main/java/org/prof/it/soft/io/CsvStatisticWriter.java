@@ -0,0 +1,133 @@
+package org.prof.it.soft.io;
+
+import lombok.NonNull;
+import org.prof.it.soft.dto.CrossTabKeyDto;
+import org.prof.it.soft.dto.RecruiterDto;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * This class writes a statistic as CSV (RFC 4180), one row per value and per map entry.
+ * <p>
+ * Every row starts with the name of the value or the map, followed by the key columns and the value or count.
+ * Single values have empty key columns. A recruiter key takes three columns, its first name, last name and company
+ * name, a cross-tab cell two columns, its row and column, any other key one column. Fields with commas, quotes or line breaks are quoted.
+ *
+ * <p>Example output:</p>
+ * <pre>
+ * name,key,value
+ * average-salary,,1500.0
+ * vacancy-count-by-salary-statistic,1000.0,10
+ * </pre>
+ */
+public class CsvStatisticWriter implements StatisticVisitor {
+
+    /**
+     * The key column of statistics with single-valued keys.
+     */
+    public static final List<String> KEY_COLUMNS = List.of("key");
+
+    /**
+     * The key columns of statistics with recruiter keys.
+     */
+    public static final List<String> RECRUITER_KEY_COLUMNS = List.of("first_name", "last_name", "company_name");
+
+    /**
+     * The key columns of cross-tab statistics.
+     */
+    public static final List<String> CROSS_TAB_KEY_COLUMNS = List.of("row", "column");
+
+    private final Writer writer;
+
+    private final int keyColumns;
+
+    private String mapName;
+
+    /**
+     * Creates a writer and writes the header row.
+     *
+     * @param writer     the writer to write the rows to, it is not closed
+     * @param keyColumns the names of the key columns, e.g. {@link #KEY_COLUMNS}
+     * @throws IOException if an I/O error occurs
+     */
+    public CsvStatisticWriter(@NonNull Writer writer, @NonNull List<String> keyColumns) throws IOException {
+        this.writer = writer;
+        this.keyColumns = keyColumns.size();
+
+        writer.write("name");
+        for (String keyColumn : keyColumns) {
+            writer.write(',');
+            writeField(keyColumn);
+        }
+        writer.write(",value\r\n");
+    }
+
+    @Override
+    public void value(String name, Number value) throws IOException {
+        writeField(name);
+        for (int i = 0; i < keyColumns; i++) {
+            writer.write(',');
+        }
+        writer.write(',');
+        writer.write(value.toString());
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void beginMap(String name, Class<?> keyType, int size) {
+        mapName = name;
+    }
+
+    @Override
+    public void entry(Object key, long count) throws IOException {
+        writeField(mapName);
+        if (key instanceof RecruiterDto recruiter && keyColumns == RECRUITER_KEY_COLUMNS.size()) {
+            writer.write(',');
+            writeField(recruiter.getFirstName());
+            writer.write(',');
+            writeField(recruiter.getLastName());
+            writer.write(',');
+            writeField(recruiter.getCompanyName());
+        } else if (key instanceof CrossTabKeyDto cell && keyColumns == CROSS_TAB_KEY_COLUMNS.size()) {
+            writer.write(',');
+            writeField(cell.getRow());
+            writer.write(',');
+            writeField(cell.getColumn());
+        } else {
+            writer.write(',');
+            writeField(key.toString());
+            for (int i = 1; i < keyColumns; i++) {
+                writer.write(',');
+            }
+        }
+        writer.write(',');
+        writer.write(Long.toString(count));
+        writer.write("\r\n");
+    }
+
+    /**
+     * Writes a field, quoted if it contains a separator, a quote or a line break. A null field is written empty.
+     */
+    private void writeField(String field) throws IOException {
+        if (field == null) {
+            return;
+        }
+
+        boolean quoted = false;
+        for (int i = 0; i < field.length() && !quoted; i++) {
+            char c = field.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quoted) {
+            writer.write(field);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,108 @@
+package org.prof.it.soft.io;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class is an input stream that reads another stream on the reader's thread at first and switches to
+ * a {@link ReadAheadInputStream} only once a threshold of bytes has been read.
+ * <p>
+ * A read-ahead stream costs a thread and two direct buffers, which are released only when they are garbage-collected.
+ * That pays off for a large document, but for a small one it costs far more than decompressing it in place.
+ * Deferring the read-ahead keeps small documents on the reader's thread without knowing their size in advance,
+ * e.g. for archive entries without a recorded size or for the standard input.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     InputStream inputStream = new DeferredReadAheadInputStream(new GZIPInputStream(rawStream), 1024 * 1024,
+ *             512 * 1024, "inflate-vacancies.json.gz");
+ * </pre>
+ */
+public class DeferredReadAheadInputStream extends InputStream {
+
+    private final InputStream source;
+
+    private final long threshold;
+
+    private final int blockSize;
+
+    private final String threadName;
+
+    /**
+     * The number of bytes read on the reader's thread.
+     */
+    private long position;
+
+    /**
+     * The read-ahead stream of the rest of the source, or null while the threshold hasn't been reached.
+     */
+    private ReadAheadInputStream readAhead;
+
+    /**
+     * Creates a stream that reads the source on a background thread after the first bytes.
+     *
+     * @param source     the stream to read, it is closed with the stream
+     * @param threshold  the number of bytes read on the reader's thread before the background thread is started
+     * @param blockSize  the size of a block read ahead
+     * @param threadName the name of the background thread
+     */
+    public DeferredReadAheadInputStream(@NonNull InputStream source, long threshold, int blockSize, @NonNull String threadName) {
+        this.source = source;
+        this.threshold = threshold;
+        this.blockSize = blockSize;
+        this.threadName = threadName;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (switchToReadAhead()) {
+            return readAhead.read();
+        }
+
+        int value = source.read();
+        if (value >= 0) {
+            position++;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (switchToReadAhead()) {
+            return readAhead.read(bytes, offset, length);
+        }
+
+        int count = source.read(bytes, offset, (int) Math.min(length, threshold - position));
+        if (count > 0) {
+            position += count;
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether the background thread has been started.
+     *
+     * @return true if the rest of the source is read ahead, false if it is read on the reader's thread
+     */
+    public boolean isReadingAhead() {
+        return readAhead != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (readAhead != null) {
+            readAhead.close();
+        } else {
+            source.close();
+        }
+    }
+
+    private boolean switchToReadAhead() {
+        if (readAhead == null && position >= threshold) {
+            readAhead = ReadAheadInputStream.of(source, blockSize, threadName);
+        }
+        return readAhead != null;
+    }
+}
@@ -0,0 +1,119 @@
+package org.prof.it.soft.io;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * This class finds the input files in a directory and all of its subdirectories.
+ * <p>
+ * A file is found if its path relative to the directory matches any of the include glob patterns
+ * and none of the exclude glob patterns, e.g. {@code **.json} or {@code archive/**}.
+ * By default, JSON files and the compressed files and archives of {@link CorpusFormat} are found.
+ * The directory tree is walked lazily, so the files are returned while the walk is still going on
+ * and the memory doesn't depend on the number of files.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     FileDiscovery fileDiscovery = new FileDiscovery(List.of("**.json"), List.of("**&#47;backup/**"));
+ *     fileDiscovery.discover(folder, file -&gt; System.out.println(file));
+ * </pre>
+ */
+@Getter
+public class FileDiscovery {
+
+    /**
+     * The default include pattern, every JSON and JSON Lines file of the directory tree, also compressed or archived.
+     */
+    public static final String DEFAULT_INCLUDE = "**.{json,json.gz,json.deflate,jsonl,jsonl.gz,ndjson,ndjson.gz,zip,tar,tar.gz,tgz}";
+
+    /**
+     * The include glob patterns.
+     */
+    private final List<String> includes;
+
+    /**
+     * The exclude glob patterns.
+     */
+    private final List<String> excludes;
+
+    private final List<PathMatcher> includeMatchers;
+
+    private final List<PathMatcher> excludeMatchers;
+
+    /**
+     * Creates a discovery of all JSON files.
+     */
+    public FileDiscovery() {
+        this(List.of(DEFAULT_INCLUDE), List.of());
+    }
+
+    /**
+     * Creates a discovery of the files matching the patterns.
+     *
+     * @param includes the include glob patterns, if empty {@link #DEFAULT_INCLUDE} is used
+     * @param excludes the exclude glob patterns
+     * @throws IllegalArgumentException if any pattern is invalid
+     */
+    public FileDiscovery(@NonNull Collection<String> includes, @NonNull Collection<String> excludes) {
+        this.includes = includes.isEmpty() ? List.of(DEFAULT_INCLUDE) : List.copyOf(includes);
+        this.excludes = List.copyOf(excludes);
+        this.includeMatchers = this.includes.stream().map(FileDiscovery::globMatcher).toList();
+        this.excludeMatchers = this.excludes.stream().map(FileDiscovery::globMatcher).toList();
+    }
+
+    /**
+     * Returns a lazy stream of the regular files of the directory tree that match the patterns.
+     * The stream must be closed.
+     *
+     * @param directory the root directory
+     * @return the stream of matching files
+     * @throws IOException if the directory can't be read
+     */
+    public Stream<Path> discover(@NonNull Path directory) throws IOException {
+        return Files.walk(directory)
+                .filter(Files::isRegularFile)
+                .filter(path -> matches(directory.relativize(path)));
+    }
+
+    /**
+     * Returns whether the relative path matches any include pattern and no exclude pattern.
+     *
+     * @param relativePath the path relative to the root directory
+     * @return true if the path matches, false otherwise
+     */
+    public boolean matches(@NonNull Path relativePath) {
+        return includeMatchers.stream().anyMatch(matcher -> matcher.matches(relativePath))
+                && excludeMatchers.stream().noneMatch(matcher -> matcher.matches(relativePath));
+    }
+
+    /**
+     * Walks the directory tree and hands every matching file to the consumer as soon as it is found.
+     * The consumer may block, e.g. to limit the number of files processed at once, which pauses the walk.
+     *
+     * @param directory    the root directory
+     * @param fileConsumer the consumer of the matching files
+     * @throws IOException if the directory tree can't be read
+     */
+    public void discover(@NonNull Path directory, @NonNull Consumer<Path> fileConsumer) throws IOException {
+        try (Stream<Path> files = discover(directory)) {
+            files.forEach(fileConsumer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static PathMatcher globMatcher(String pattern) {
+        return FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+    }
+}
@@ -0,0 +1,108 @@
+package org.prof.it.soft.io;
+
+import lombok.NonNull;
+import org.prof.it.soft.config.Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This enum represents the ways a JSON file can be read by the statistics parser.
+ * <p>
+ * Every backend returns raw bytes, so Jackson uses its UTF-8 byte parser and detects the encoding of the file itself
+ * (UTF-8, UTF-16 or UTF-32). The result doesn't depend on the platform default charset.
+ * <ul>
+ *     <li>{@link #STREAM} reads the file with a plain input stream, it is the cheapest to open.</li>
+ *     <li>{@link #MEMORY_MAPPED} maps the file into memory, the bytes are copied straight from the page cache.</li>
+ *     <li>{@link #READ_AHEAD} reads the next block of the file on a background thread while the current block is parsed.</li>
+ * </ul>
+ * {@link #select(Path)} chooses a backend by the size of the file.
+ */
+public enum InputBackend {
+
+    STREAM {
+        @Override
+        public InputStream open(@NonNull Path path) throws IOException {
+            // Jackson buffers the input itself, another buffer would only add a copy
+            return Files.newInputStream(path);
+        }
+    },
+
+    MEMORY_MAPPED {
+        @Override
+        public InputStream open(@NonNull Path path) throws IOException {
+            return new MappedFileInputStream(path);
+        }
+    },
+
+    READ_AHEAD {
+        @Override
+        public InputStream open(@NonNull Path path) throws IOException {
+            return new ReadAheadInputStream(path);
+        }
+    };
+
+    /**
+     * Files smaller than this size are read with {@link #STREAM}, mapping them costs more than reading them.
+     */
+    public static final long MEMORY_MAPPED_THRESHOLD = 1024L * 1024;
+
+    /**
+     * Files of at least this size are read with {@link #READ_AHEAD}, so the disk is kept busy while the file is parsed.
+     */
+    public static final long READ_AHEAD_THRESHOLD = 256L * 1024 * 1024;
+
+    /**
+     * Opens the file as a stream of raw bytes.
+     *
+     * @param path the path of the file
+     * @return the input stream of the file
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract InputStream open(Path path) throws IOException;
+
+    /**
+     * Returns the backend to read the file with.
+     * The backend configured with {@link Configuration#getInputBackend()} is used if any, otherwise it is chosen by the file size.
+     *
+     * @param path the path of the file
+     * @return the backend to read the file with
+     * @throws IOException if an I/O error occurs
+     */
+    public static InputBackend select(@NonNull Path path) throws IOException {
+        InputBackend configured = Configuration.getInputBackend();
+        return configured != null ? configured : forSize(Files.size(path));
+    }
+
+    /**
+     * Returns the backend that suits a file of the given size best.
+     *
+     * @param size the size of the file in bytes
+     * @return the backend for the file size
+     */
+    public static InputBackend forSize(long size) {
+        if (size < MEMORY_MAPPED_THRESHOLD) {
+            return STREAM;
+        }
+
+        return size < READ_AHEAD_THRESHOLD ? MEMORY_MAPPED : READ_AHEAD;
+    }
+
+    /**
+     * Returns the backend with the given name, case-insensitive and with dashes allowed, e.g. "memory-mapped".
+     *
+     * @param name the name of the backend
+     * @return the backend
+     * @throws IllegalArgumentException if there is no backend with the name
+     */
+    public static InputBackend of(@NonNull String name) {
+        return switch (name.trim().toLowerCase().replace('-', '_')) {
+            case "stream" -> STREAM;
+            case "memory_mapped", "mmap" -> MEMORY_MAPPED;
+            case "read_ahead" -> READ_AHEAD;
+            default -> throw new IllegalArgumentException("Invalid input backend: " + name);
+        };
+    }
+}
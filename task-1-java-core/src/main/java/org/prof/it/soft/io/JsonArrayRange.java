@@ -0,0 +1,112 @@
+package org.prof.it.soft.io;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents a byte range of a JSON file found by the {@link JsonArraySplitter}.
+ * <p>
+ * A range of a top-level JSON array holds whole elements of the array separated by commas, without the brackets
+ * of the array. {@link #open()} puts the brackets back, so every range can be parsed as a standalone JSON array.
+ * A range of a JSON Lines file holds whole lines, it is opened as it is and parsed line by line.
+ * A range that covers the whole file is opened as it is.
+ */
+@Getter
+@ToString
+public class JsonArrayRange {
+
+    private static final byte[] START_ARRAY = {'['};
+
+    private static final byte[] END_ARRAY = {']'};
+
+    /**
+     * The path of the file.
+     */
+    private final Path path;
+
+    /**
+     * The position of the first byte of the range.
+     */
+    private final long start;
+
+    /**
+     * The position after the last byte of the range.
+     */
+    private final long end;
+
+    /**
+     * Whether the range is the whole file, e.g. because the file is not a JSON array.
+     */
+    private final boolean wholeFile;
+
+    /**
+     * Whether the range holds whole lines of a JSON Lines file.
+     */
+    private final boolean lines;
+
+    /**
+     * Creates a range of a file with a top-level JSON array, or a range covering the whole file.
+     *
+     * @param path      the path of the file
+     * @param start     the position of the first byte of the range
+     * @param end       the position after the last byte of the range
+     * @param wholeFile whether the range is the whole file
+     */
+    public JsonArrayRange(Path path, long start, long end, boolean wholeFile) {
+        this(path, start, end, wholeFile, false);
+    }
+
+    /**
+     * Creates a range.
+     *
+     * @param path      the path of the file
+     * @param start     the position of the first byte of the range
+     * @param end       the position after the last byte of the range
+     * @param wholeFile whether the range is the whole file
+     * @param lines     whether the range holds whole lines of a JSON Lines file
+     */
+    public JsonArrayRange(Path path, long start, long end, boolean wholeFile, boolean lines) {
+        this.path = path;
+        this.start = start;
+        this.end = end;
+        this.wholeFile = wholeFile;
+        this.lines = lines;
+    }
+
+    /**
+     * Returns the number of bytes in the range.
+     *
+     * @return the length of the range
+     */
+    public long length() {
+        return end - start;
+    }
+
+    /**
+     * Opens the range as a standalone JSON document.
+     *
+     * @return the input stream of the range
+     * @throws IOException if an I/O error occurs
+     */
+    public InputStream open() throws IOException {
+        if (wholeFile) {
+            return InputBackend.select(path).open(path);
+        }
+        if (lines) {
+            return new MappedFileInputStream(path, start, end);
+        }
+
+        return new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(START_ARRAY),
+                new MappedFileInputStream(path, start, end),
+                new ByteArrayInputStream(END_ARRAY))));
+    }
+}
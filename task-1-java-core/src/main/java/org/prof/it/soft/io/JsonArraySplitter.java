@@ -0,0 +1,212 @@
+package org.prof.it.soft.io;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class splits a file with a top-level JSON array into byte ranges of whole array elements,
+ * so a single large file can be parsed by several threads.
+ * <p>
+ * The file is scanned once, byte by byte, keeping track of the nesting depth and of string literals (including escaped
+ * quotes), so brackets and commas inside strings never end a range. Every range ends after a top-level object
+ * once it has reached the requested size. Scanning is much cheaper than parsing, and every range is handed to the
+ * consumer as soon as it is found, so the first ranges are parsed while the rest of the file is still being scanned.
+ * <p>
+ * The scanner works on UTF-8 (and ASCII) files, where the bytes of multibyte characters never look like brackets
+ * or quotes. A file that doesn't start with '[' is returned as a single range covering the whole file.
+ * <p>
+ * A JSON Lines file (see {@link JsonLines}) is split at line breaks instead. Every line is a whole vacancy, so the file
+ * is not scanned: the splitter jumps to the requested size and only reads on to the next line break.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     List&lt;JsonArrayRange&gt; ranges = new JsonArraySplitter().split(path, 64 * 1024 * 1024);
+ * </pre>
+ */
+public class JsonArraySplitter {
+
+    /**
+     * The size of the buffer the file is scanned with.
+     */
+    protected static final int BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Splits the file into ranges of at least the given size (except the last one).
+     *
+     * @param path      the path of the file
+     * @param rangeSize the minimum size of a range in bytes
+     * @return the ranges in the order of the file
+     * @throws IOException if an I/O error occurs
+     */
+    public List<JsonArrayRange> split(@NonNull Path path, long rangeSize) throws IOException {
+        List<JsonArrayRange> ranges = new ArrayList<>();
+        split(path, rangeSize, ranges::add);
+        return ranges;
+    }
+
+    /**
+     * Splits the file into ranges of at least the given size (except the last one),
+     * handing every range to the consumer as soon as it is found.
+     *
+     * @param path          the path of the file
+     * @param rangeSize     the minimum size of a range in bytes
+     * @param rangeConsumer the consumer of the ranges
+     * @throws IOException if an I/O error occurs
+     */
+    public void split(@NonNull Path path, long rangeSize, @NonNull Consumer<JsonArrayRange> rangeConsumer) throws IOException {
+        if (rangeSize <= 0) {
+            throw new IllegalArgumentException("Range size must be positive");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+
+            if (isJsonLines(channel, buffer, size)) {
+                splitLines(path, rangeSize, rangeConsumer, channel, buffer, size);
+                return;
+            }
+            channel.position(0);
+
+            int depth = 0;
+            boolean inString = false;
+            boolean escaped = false;
+            boolean started = false;
+            // Whether a range has just ended and the next one starts after the next top-level comma
+            boolean awaitingNextElement = false;
+            long rangeStart = 0;
+            long position = 0;
+
+            int read;
+            while ((read = channel.read(buffer.clear())) >= 0) {
+                for (int i = 0; i < read; i++, position++) {
+                    byte b = bytes[i];
+
+                    if (inString) {
+                        if (escaped) {
+                            escaped = false;
+                        } else if (b == '\\') {
+                            escaped = true;
+                        } else if (b == '"') {
+                            inString = false;
+                        }
+                        continue;
+                    }
+
+                    if (!started) {
+                        if (b == '[') {
+                            started = true;
+                            depth = 1;
+                            rangeStart = position + 1;
+                        } else if (!isWhitespace(b) && !isByteOrderMark(b, position)) {
+                            // Not a JSON array, or not UTF-8: the file can't be split
+                            rangeConsumer.accept(new JsonArrayRange(path, 0, size, true));
+                            return;
+                        }
+                        continue;
+                    }
+
+                    switch (b) {
+                        case '"' -> inString = true;
+                        case '{', '[' -> depth++;
+                        case '}' -> {
+                            depth--;
+                            if (depth == 1 && position + 1 - rangeStart >= rangeSize) {
+                                rangeConsumer.accept(new JsonArrayRange(path, rangeStart, position + 1, false));
+                                awaitingNextElement = true;
+                            }
+                        }
+                        case ']' -> {
+                            depth--;
+                            if (depth == 0) {
+                                // The end of the top-level array, the rest of the file is ignored
+                                if (!awaitingNextElement) {
+                                    rangeConsumer.accept(new JsonArrayRange(path, rangeStart, position, false));
+                                }
+                                return;
+                            }
+                        }
+                        case ',' -> {
+                            if (depth == 1 && awaitingNextElement) {
+                                rangeStart = position + 1;
+                                awaitingNextElement = false;
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            }
+
+            if (!started) {
+                // An empty file or a file of whitespace
+                rangeConsumer.accept(new JsonArrayRange(path, 0, size, true));
+            } else if (!awaitingNextElement) {
+                // A truncated array: hand over what is left, the parser reports the error
+                rangeConsumer.accept(new JsonArrayRange(path, rangeStart, size, false));
+            }
+        }
+    }
+
+    /**
+     * Reads the first buffer of the file and checks whether the file is JSON Lines.
+     */
+    private static boolean isJsonLines(FileChannel channel, ByteBuffer buffer, long size) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // Fill the buffer, or read the whole file if it is smaller
+        }
+        return JsonLines.isJsonLines(buffer.array(), buffer.position(), buffer.position() == size);
+    }
+
+    /**
+     * Splits a JSON Lines file into ranges of whole lines, each one ending at the first line break
+     * after the requested size.
+     */
+    private static void splitLines(Path path,
+                                   long rangeSize,
+                                   Consumer<JsonArrayRange> rangeConsumer,
+                                   FileChannel channel,
+                                   ByteBuffer buffer,
+                                   long size) throws IOException {
+        long rangeStart = 0;
+        while (rangeStart < size) {
+            long rangeEnd = size - rangeStart > rangeSize ? nextLineStart(channel, buffer, rangeStart + rangeSize - 1, size) : size;
+            // A file that is not split, e.g. of a single line, is one range covering the whole file
+            rangeConsumer.accept(new JsonArrayRange(path, rangeStart, rangeEnd, rangeStart == 0 && rangeEnd == size, true));
+            rangeStart = rangeEnd;
+        }
+    }
+
+    /**
+     * Returns the position after the first line break at or after the given position, or the size of the file.
+     */
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long position, long size) throws IOException {
+        int read;
+        while ((read = channel.read(buffer.clear(), position)) >= 0) {
+            int lineBreak = JsonLines.indexOfLineBreak(buffer.array(), 0, read);
+            if (lineBreak >= 0) {
+                return position + lineBreak + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isByteOrderMark(byte b, long position) {
+        return position < 3 && (b == (byte) 0xEF || b == (byte) 0xBB || b == (byte) 0xBF);
+    }
+}
@@ -0,0 +1,161 @@
+package org.prof.it.soft.io;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.PushbackInputStream;
+
+/**
+ * This class detects JSON Lines (NDJSON) documents: one JSON object per line, e.g. the exports of streaming producers.
+ * <p>
+ * A document is JSON Lines if its first object ends on its first line. A JSON string can't contain a raw line break,
+ * so every line of such a document is a complete vacancy, and the document can be split at any line break.
+ * A file of pretty-printed objects, whose first line is just "{", is not JSON Lines: it is parsed as a stream
+ * of objects, the same as before.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     PushbackInputStream inputStream = new PushbackInputStream(rawStream, JsonLines.DETECTION_SIZE);
+ *     if (JsonLines.detect(inputStream)) {
+ *         // parse line by line
+ *     }
+ * </pre>
+ */
+public final class JsonLines {
+
+    /**
+     * The maximum number of bytes read to detect JSON Lines. A document whose first line is longer is not JSON Lines.
+     */
+    public static final int DETECTION_SIZE = 64 * 1024;
+
+    private JsonLines() {
+    }
+
+    /**
+     * Returns whether a stream is a JSON Lines document. The bytes read for the detection are pushed back,
+     * so the stream must have a pushback buffer of at least {@link #DETECTION_SIZE} bytes.
+     *
+     * @param inputStream the stream
+     * @return true if the first object of the stream ends on its first line, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    public static boolean detect(@NonNull PushbackInputStream inputStream) throws IOException {
+        return detect(inputStream, new byte[DETECTION_SIZE]);
+    }
+
+    /**
+     * Returns whether a stream is a JSON Lines document, reading the first bytes into the given buffer,
+     * so a parser that detects many documents reuses one buffer. See {@link #detect(PushbackInputStream)}.
+     *
+     * @param inputStream the stream
+     * @param bytes       the buffer of the first bytes, of at least {@link #DETECTION_SIZE} bytes
+     * @return true if the first object of the stream ends on its first line, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    public static boolean detect(@NonNull PushbackInputStream inputStream, byte @NonNull [] bytes) throws IOException {
+        if (bytes.length < DETECTION_SIZE) {
+            throw new IllegalArgumentException("The detection buffer must hold at least " + DETECTION_SIZE + " bytes");
+        }
+        int length = 0;
+        boolean endOfStream = false;
+
+        // Read until the first object has ended on a line, the buffer is full or the stream ends
+        while (length < DETECTION_SIZE) {
+            int read = inputStream.read(bytes, length, DETECTION_SIZE - length);
+            if (read < 0) {
+                endOfStream = true;
+                break;
+            }
+            length += read;
+            if (indexOfLineBreak(bytes, length - read, length) >= 0 && isJsonLines(bytes, length, false)) {
+                break;
+            }
+        }
+
+        inputStream.unread(bytes, 0, length);
+        return isJsonLines(bytes, length, endOfStream);
+    }
+
+    /**
+     * Returns whether the bytes start with a JSON object that ends on its first line, followed by a line break
+     * or by the end of the document.
+     *
+     * @param bytes         the first bytes of the document
+     * @param length        the number of bytes
+     * @param endOfDocument whether the bytes are the whole document
+     * @return true if the document is JSON Lines, false otherwise
+     */
+    public static boolean isJsonLines(byte @NonNull [] bytes, int length, boolean endOfDocument) {
+        int position = 0;
+        // A byte order mark, empty lines and whitespace may precede the first object
+        while (position < length && (isWhitespace(bytes[position]) || position < 3 && isByteOrderMark(bytes[position]))) {
+            position++;
+        }
+        if (position == length || bytes[position] != '{') {
+            return false;
+        }
+
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        for (; position < length; position++) {
+            byte b = bytes[position];
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '\n') {
+                // The line ended inside the first object
+                return false;
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if ((b == '}' || b == ']') && --depth == 0) {
+                position++;
+                break;
+            }
+        }
+
+        // Only whitespace may follow the object on its line
+        for (; position < length; position++) {
+            byte b = bytes[position];
+            if (b == '\n') {
+                return depth == 0;
+            }
+            if (!isWhitespace(b)) {
+                return false;
+            }
+        }
+        return depth == 0 && endOfDocument;
+    }
+
+    /**
+     * Returns the position of the first line break in a range of bytes.
+     *
+     * @param bytes the bytes
+     * @param from  the first position to check
+     * @param to    the position after the last one to check
+     * @return the position of the line break, or -1 if there is none
+     */
+    public static int indexOfLineBreak(byte @NonNull [] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isByteOrderMark(byte b) {
+        return b == (byte) 0xEF || b == (byte) 0xBB || b == (byte) 0xBF;
+    }
+}
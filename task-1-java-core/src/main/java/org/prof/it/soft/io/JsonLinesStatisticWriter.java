@@ -0,0 +1,77 @@
+package org.prof.it.soft.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import lombok.NonNull;
+
+import java.io.IOException;
+
+/**
+ * This class writes a statistic as JSON Lines, one JSON object per line for every value and every map entry.
+ * <p>
+ * Every object has the name of the value or the map. Values have a "value" field, map entries a "key" and a "count"
+ * field. A recruiter key is written as an object with its first name, last name and company name,
+ * a cross-tab cell as an object with its row and column.
+ * Downstream jobs can read the lines one by one, or split the file between workers at any line break.
+ *
+ * <p>Example output:</p>
+ * <pre>
+ * {"name":"average-salary","value":1500.0}
+ * {"name":"vacancy-count-by-salary-statistic","key":1000.0,"count":10}
+ * </pre>
+ */
+public class JsonLinesStatisticWriter implements StatisticVisitor {
+
+    private final JsonGenerator generator;
+
+    private String mapName;
+
+    /**
+     * Creates a writer.
+     *
+     * @param generator the generator to write the lines to, it needs a codec to write recruiter keys,
+     *                  e.g. a generator created by an ObjectMapper
+     */
+    public JsonLinesStatisticWriter(@NonNull JsonGenerator generator) {
+        this.generator = generator;
+        // Every object is written on one line and ends with a line break, without spaces between the objects.
+        // A mapper that indents its output replaces only a missing pretty printer, so recruiter keys stay on the line.
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+    }
+
+    @Override
+    public void value(String name, Number value) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", name);
+        generator.writeFieldName("value");
+        if (value instanceof Long longValue) {
+            generator.writeNumber(longValue);
+        } else {
+            generator.writeNumber(value.doubleValue());
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void beginMap(String name, Class<?> keyType, int size) {
+        mapName = name;
+    }
+
+    @Override
+    public void entry(Object key, long count) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", mapName);
+        generator.writeFieldName("key");
+        if (key instanceof String string) {
+            generator.writeString(string);
+        } else if (key instanceof Float number) {
+            generator.writeNumber(number);
+        } else {
+            generator.writeObject(key);
+        }
+        generator.writeNumberField("count", count);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,139 @@
+package org.prof.it.soft.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is an input stream over a memory-mapped file.
+ * <p>
+ * The file is mapped in segments of at most {@link #SEGMENT_SIZE} bytes, one segment at a time,
+ * so files larger than 2 GB can be read as well. Reading copies the bytes straight from the mapped pages.
+ * The stream can also be limited to a range of the file.
+ */
+public class MappedFileInputStream extends InputStream {
+
+    /**
+     * The maximum size of a mapped segment.
+     */
+    public static final long SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    /**
+     * The position in the file where the stream ends (exclusive).
+     */
+    private final long end;
+
+    private final long segmentSize;
+
+    /**
+     * The position of the current segment in the file.
+     */
+    private long segmentPosition;
+
+    private MappedByteBuffer segment;
+
+    public MappedFileInputStream(Path path) throws IOException {
+        this(path, SEGMENT_SIZE);
+    }
+
+    public MappedFileInputStream(Path path, long segmentSize) throws IOException {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.end = channel.size();
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Creates a stream over a range of the file.
+     *
+     * @param path  the path of the file
+     * @param start the position of the first byte of the range
+     * @param end   the position after the last byte of the range
+     * @throws IOException if an I/O error occurs
+     */
+    public MappedFileInputStream(Path path, long start, long end) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (start < 0 || start > end || end > channel.size()) {
+            channel.close();
+            throw new IllegalArgumentException("Invalid range: " + start + "-" + end);
+        }
+
+        this.end = end;
+        this.segmentSize = SEGMENT_SIZE;
+        this.segmentPosition = start;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextSegment() ? segment.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        if (!nextSegment()) {
+            return -1;
+        }
+
+        int count = Math.min(length, segment.remaining());
+        segment.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, end - position());
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = Math.max(0, Math.min(count, end - position()));
+        segmentPosition = position() + skipped;
+        segment = null;
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        channel.close();
+    }
+
+    /**
+     * Returns the position of the next byte in the file.
+     */
+    private long position() {
+        return segment == null ? segmentPosition : segmentPosition + segment.position();
+    }
+
+    /**
+     * Maps the next segment if the current one is exhausted.
+     *
+     * @return true if there are bytes left, false at the end of the file
+     */
+    private boolean nextSegment() throws IOException {
+        if (segment != null && segment.hasRemaining()) {
+            return true;
+        }
+
+        long position = position();
+        if (position >= end) {
+            return false;
+        }
+
+        segmentPosition = position;
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, end - position));
+        return true;
+    }
+}
@@ -0,0 +1,190 @@
+package org.prof.it.soft.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * This class is an input stream that reads a file or another stream on a background thread, one block ahead of the reader.
+ * <p>
+ * Two direct buffers take turns: while the reader consumes one block, the background thread fills the other,
+ * so reading from disk, or decompressing, overlaps with parsing.
+ * The background thread is a daemon and stops when the stream is closed.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    /**
+     * The size of a block read ahead.
+     */
+    public static final int BLOCK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The buffer handed to the reader at the end of the file or after an error.
+     */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final ReadableByteChannel channel;
+
+    // Room for both blocks and the end marker
+    private final BlockingQueue<ByteBuffer> filledBuffers = new ArrayBlockingQueue<>(3);
+
+    private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(2);
+
+    private final Thread readerThread;
+
+    private volatile IOException failure;
+
+    private ByteBuffer current;
+
+    public ReadAheadInputStream(Path path) throws IOException {
+        this(path, BLOCK_SIZE);
+    }
+
+    public ReadAheadInputStream(Path path, int blockSize) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ), blockSize, "read-ahead-" + path.getFileName());
+    }
+
+    /**
+     * Creates a stream that reads the channel on a background thread.
+     *
+     * @param channel    the channel to read, it is closed with the stream
+     * @param blockSize  the size of a block read ahead
+     * @param threadName the name of the background thread
+     */
+    public ReadAheadInputStream(ReadableByteChannel channel, int blockSize, String threadName) {
+        this.channel = channel;
+        freeBuffers.add(ByteBuffer.allocateDirect(blockSize));
+        freeBuffers.add(ByteBuffer.allocateDirect(blockSize));
+
+        readerThread = new Thread(this::readAhead, threadName);
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Creates a stream that reads another stream on a background thread, e.g. to decompress it
+     * while the decompressed bytes are parsed.
+     *
+     * @param source     the stream to read, it is closed with the stream
+     * @param blockSize  the size of a block read ahead
+     * @param threadName the name of the background thread
+     * @return the read-ahead stream
+     */
+    public static ReadAheadInputStream of(InputStream source, int blockSize, String threadName) {
+        return new ReadAheadInputStream(Channels.newChannel(source), blockSize, threadName);
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextBuffer() ? current.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        if (!nextBuffer()) {
+            return -1;
+        }
+
+        int count = Math.min(length, current.remaining());
+        current.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        readerThread.interrupt();
+        channel.close();
+
+        // The source must not be read any more once the stream is closed, e.g. the next entry of an archive
+        try {
+            readerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the read-ahead thread");
+        }
+    }
+
+    /**
+     * Takes the next filled buffer if the current one is exhausted.
+     *
+     * @return true if there are bytes left, false at the end of the file
+     */
+    private boolean nextBuffer() throws IOException {
+        if (current != null && current.hasRemaining()) {
+            return true;
+        }
+
+        if (current == END) {
+            return false;
+        }
+
+        if (current != null) {
+            freeBuffers.add(current);
+        }
+
+        try {
+            current = filledBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the file to be read");
+        }
+
+        if (current == END) {
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Fills the free buffers one after another until the end of the source, runs on the background thread.
+     */
+    private void readAhead() {
+        try {
+            while (true) {
+                ByteBuffer buffer = freeBuffers.take();
+                buffer.clear();
+
+                int read = 0;
+                while (buffer.hasRemaining() && (read = channel.read(buffer)) >= 0) {
+                    // Fill the whole block, a single read may return fewer bytes
+                }
+
+                buffer.flip();
+                if (buffer.hasRemaining()) {
+                    filledBuffers.put(buffer);
+                }
+
+                if (read < 0) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // The stream is closed
+            return;
+        } catch (IOException | RuntimeException e) {
+            // Closing the stream closes the source under a running read, which is not an error
+            if (!channel.isOpen()) {
+                return;
+            }
+            failure = e instanceof IOException ioException ? ioException : new IOException(e);
+        }
+
+        filledBuffers.offer(END);
+    }
+}
@@ -0,0 +1,58 @@
+package org.prof.it.soft.io;
+
+import java.io.IOException;
+
+/**
+ * This interface represents a consumer of a flattened statistic: its single values, e.g. the average salary,
+ * and the entries of its maps, e.g. the vacancy count of every position, in the order they are written.
+ * <p>
+ * The writers of the output formats are visitors, and {@link BinaryStatisticReader} replays a binary statistic
+ * to a visitor, so a statistic can be converted between formats entry by entry, without materializing it.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     visitor.value("average-salary", 1500.0);
+ *     visitor.beginMap("vacancy-count-by-salary-statistic", Float.class, 2);
+ *     visitor.entry(1000.0f, 10);
+ *     visitor.entry(2000.0f, 5);
+ *     visitor.endMap();
+ * </pre>
+ */
+public interface StatisticVisitor {
+
+    /**
+     * Visits a single value of the statistic.
+     *
+     * @param name  the name of the value, e.g. "average-salary"
+     * @param value the value, a Long or a Double
+     * @throws IOException if an I/O error occurs
+     */
+    void value(String name, Number value) throws IOException;
+
+    /**
+     * Visits the start of a map of the statistic, its entries follow.
+     *
+     * @param name    the name of the map, e.g. "vacancy-count-by-position-statistic"
+     * @param keyType the type of the keys, String, Float, RecruiterDto or CrossTabKeyDto
+     * @param size    the number of entries
+     * @throws IOException if an I/O error occurs
+     */
+    void beginMap(String name, Class<?> keyType, int size) throws IOException;
+
+    /**
+     * Visits an entry of the current map.
+     *
+     * @param key   the key, a String, a Float, a RecruiterDto or a CrossTabKeyDto
+     * @param count the count of the key
+     * @throws IOException if an I/O error occurs
+     */
+    void entry(Object key, long count) throws IOException;
+
+    /**
+     * Visits the end of the current map.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    default void endMap() throws IOException {
+    }
+}
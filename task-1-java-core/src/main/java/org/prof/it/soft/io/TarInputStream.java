@@ -0,0 +1,280 @@
+package org.prof.it.soft.io;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class reads the entries of a tar archive (ustar, GNU and pax formats) one after another, like
+ * {@link java.util.zip.ZipInputStream} does for zip archives. The JDK has no tar support, and only the entry names,
+ * sizes and types are needed here.
+ * <p>
+ * {@link #getNextEntry()} moves to the next entry, then the stream returns the content of that entry.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     try (TarInputStream tarInputStream = new TarInputStream(inputStream)) {
+ *         TarInputStream.Entry entry;
+ *         while ((entry = tarInputStream.getNextEntry()) != null) {
+ *             byte[] content = tarInputStream.readAllBytes();
+ *         }
+ *     }
+ * </pre>
+ */
+public class TarInputStream extends FilterInputStream {
+
+    private static final int BLOCK_SIZE = 512;
+
+    private final byte[] header = new byte[BLOCK_SIZE];
+
+    /**
+     * The number of content bytes of the current entry that are not read yet.
+     */
+    private long remaining;
+
+    /**
+     * The number of padding bytes after the content of the current entry.
+     */
+    private long padding;
+
+    public TarInputStream(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    /**
+     * Skips the rest of the current entry and reads the header of the next one.
+     * Directories, links and other special entries are returned as well, see {@link Entry#isFile()}.
+     *
+     * @return the next entry, or null at the end of the archive
+     * @throws IOException if an I/O error occurs or the archive is corrupted
+     */
+    public Entry getNextEntry() throws IOException {
+        String longName = null;
+
+        while (true) {
+            skipFully(remaining + padding);
+            remaining = 0;
+            padding = 0;
+
+            if (!readBlock()) {
+                return null;
+            }
+
+            if (isZeroBlock()) {
+                // The end of the archive is marked with zero blocks
+                return null;
+            }
+
+            long size = parseSize();
+            byte type = header[156];
+            String name = longName != null ? longName : parseName();
+            longName = null;
+
+            remaining = size;
+            padding = (BLOCK_SIZE - size % BLOCK_SIZE) % BLOCK_SIZE;
+
+            if (type == 'L' || type == 'x') {
+                // A GNU long name or a pax extended header, both describe the next entry
+                String content = new String(readContent(), StandardCharsets.UTF_8);
+                longName = type == 'L' ? trimNul(content) : parsePaxPath(content);
+                continue;
+            }
+
+            if (type == 'g') {
+                // A pax global header, nothing of interest here
+                continue;
+            }
+
+            return new Entry(name, size, type == '0' || type == 0);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of the tar archive");
+        }
+
+        remaining--;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        int read = in.read(bytes, offset, (int) Math.min(length, remaining));
+        if (read < 0) {
+            throw new EOFException("Unexpected end of the tar archive");
+        }
+
+        remaining -= read;
+        return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = Math.min(Math.max(count, 0), remaining);
+        skipFully(skipped);
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(remaining, in.available());
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private byte[] readContent() throws IOException {
+        if (remaining > Integer.MAX_VALUE) {
+            throw new IOException("Tar header entry is too large");
+        }
+
+        byte[] content = new byte[(int) remaining];
+        readFully(content);
+        remaining = 0;
+        return content;
+    }
+
+    private boolean readBlock() throws IOException {
+        int read = in.readNBytes(header, 0, BLOCK_SIZE);
+        if (read == 0) {
+            return false;
+        }
+        if (read < BLOCK_SIZE) {
+            throw new EOFException("Unexpected end of the tar archive");
+        }
+        return true;
+    }
+
+    private void readFully(byte[] bytes) throws IOException {
+        if (in.readNBytes(bytes, 0, bytes.length) < bytes.length) {
+            throw new EOFException("Unexpected end of the tar archive");
+        }
+    }
+
+    private void skipFully(long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                // Some streams can't skip, read the bytes instead
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of the tar archive");
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    private boolean isZeroBlock() {
+        for (byte b : header) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String parseName() {
+        String name = string(0, 100);
+        // The ustar format keeps the beginning of long paths in a prefix field
+        if (string(257, 5).equals("ustar")) {
+            String prefix = string(345, 155);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    private long parseSize() throws IOException {
+        if ((header[124] & 0x80) != 0) {
+            // GNU base-256 encoding of sizes over 8 GB
+            long size = 0;
+            for (int i = 125; i < 136; i++) {
+                size = (size << 8) | (header[i] & 0xFF);
+            }
+            return size;
+        }
+
+        String octal = string(124, 12).trim();
+        try {
+            return octal.isEmpty() ? 0 : Long.parseLong(octal, 8);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid tar entry size: " + octal, e);
+        }
+    }
+
+    private String string(int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static String trimNul(String value) {
+        int end = value.indexOf('\0');
+        return end < 0 ? value : value.substring(0, end);
+    }
+
+    /**
+     * Finds the path in the records of a pax extended header, e.g. "30 path=some/very/long/name.json\n".
+     */
+    private static String parsePaxPath(String content) {
+        for (String record : content.split("\n")) {
+            int keyStart = record.indexOf(' ');
+            if (keyStart >= 0 && record.startsWith("path=", keyStart + 1)) {
+                return record.substring(keyStart + 1 + "path=".length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This class represents an entry of a tar archive.
+     */
+    @Getter
+    @ToString
+    @RequiredArgsConstructor
+    public static class Entry {
+
+        /**
+         * The path of the entry in the archive.
+         */
+        private final String name;
+
+        /**
+         * The size of the content of the entry.
+         */
+        private final long size;
+
+        /**
+         * Whether the entry is a regular file.
+         */
+        private final boolean file;
+    }
+}
@@ -0,0 +1,48 @@
+package org.prof.it.soft.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class is the JDK Flight Recorder event of a parsed input file, or of a range of a split file.
+ * The duration of the event is the time it took to read and parse the file.
+ * <p>
+ * The event costs next to nothing while no recording is running, so it is always emitted. It can be recorded with e.g.
+ * {@code java -XX:StartFlightRecording:filename=run.jfr -jar app.jar ...} and inspected with {@code jfr print --events
+ * org.prof.it.soft.FileParsed run.jfr}.
+ */
+@Name(FileParsedEvent.NAME)
+@Label("Vacancy File Parsed")
+@Category("Vacancy Statistics")
+@Description("A file of vacancies was read and parsed")
+public class FileParsedEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    public static final String NAME = "org.prof.it.soft.FileParsed";
+
+    @Label("Source")
+    @Description("The path of the file, with the byte range of a split file")
+    String source;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Records")
+    @Description("The number of vacancies handed to the aggregators")
+    long records;
+
+    @Label("Skipped Records")
+    @Description("The number of records without a required field or malformed")
+    long skippedRecords;
+
+    @Label("Filtered Records")
+    @Description("The number of vacancies dropped by the filter")
+    long filteredRecords;
+}
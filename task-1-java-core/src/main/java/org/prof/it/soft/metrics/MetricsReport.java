@@ -0,0 +1,142 @@
+package org.prof.it.soft.metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is the performance report of a run, written as JSON by {@link RunMetrics#writeReport(java.nio.file.Path)}.
+ * <p>
+ * The wall-clock phases add up to about the wall time of the run. The thread times are summed over all worker threads,
+ * so with several threads they can exceed the wall time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetricsReport {
+
+    /**
+     * The wall-clock time of the run in milliseconds.
+     */
+    @JsonProperty("wall_time_ms")
+    private double wallTimeMs;
+
+    /**
+     * The number of parsed files and ranges of split files.
+     */
+    @JsonProperty("files")
+    private long files;
+
+    /**
+     * The number of files whose statistics were read from the cache.
+     */
+    @JsonProperty("cached_files")
+    private long cachedFiles;
+
+    /**
+     * The number of parsed bytes, compressed files count with their compressed size.
+     */
+    @JsonProperty("bytes")
+    private long bytes;
+
+    /**
+     * The number of vacancies handed to the aggregators.
+     */
+    @JsonProperty("records")
+    private long records;
+
+    /**
+     * The number of records without a required field or malformed.
+     */
+    @JsonProperty("skipped_records")
+    private long skippedRecords;
+
+    /**
+     * The number of vacancies dropped by the filter.
+     */
+    @JsonProperty("filtered_records")
+    private long filteredRecords;
+
+    /**
+     * The parsed bytes per second of wall time.
+     */
+    @JsonProperty("bytes_per_second")
+    private double bytesPerSecond;
+
+    /**
+     * The vacancies per second of wall time.
+     */
+    @JsonProperty("records_per_second")
+    private double recordsPerSecond;
+
+    /**
+     * The wall-clock time of every phase in milliseconds, e.g. "aggregate", "generate" and "write".
+     */
+    @JsonProperty("phases_ms")
+    private Map<String, Double> phasesMs;
+
+    /**
+     * The time of the work of the worker threads in milliseconds, summed over the threads, e.g. "parse" and "merge".
+     */
+    @JsonProperty("thread_time_ms")
+    private Map<String, Double> threadTimeMs;
+
+    /**
+     * The busy time of every worker thread.
+     */
+    @JsonProperty("threads")
+    private List<ThreadUtilization> threads;
+
+    /**
+     * The time spent in garbage collections during the run in milliseconds.
+     */
+    @JsonProperty("gc_time_ms")
+    private long gcTimeMs;
+
+    /**
+     * The number of garbage collections during the run.
+     */
+    @JsonProperty("gc_count")
+    private long gcCount;
+
+    /**
+     * The peak heap usage in bytes, the sum of the peaks of the heap memory pools since the JVM started
+     * or since the peaks were reset by {@link RunMetrics#resetPeakHeapUsage()}.
+     */
+    @JsonProperty("peak_heap_bytes")
+    private long peakHeapBytes;
+
+    /**
+     * The busy time of a worker thread.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ThreadUtilization {
+
+        /**
+         * The name of the thread.
+         */
+        @JsonProperty("name")
+        private String name;
+
+        /**
+         * The time the thread parsed files and merged their statistics, in milliseconds.
+         */
+        @JsonProperty("busy_ms")
+        private double busyMs;
+
+        /**
+         * The busy time divided by the wall time of the run.
+         */
+        @JsonProperty("utilization")
+        private double utilization;
+    }
+}
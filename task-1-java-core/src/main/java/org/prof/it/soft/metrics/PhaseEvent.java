@@ -0,0 +1,26 @@
+package org.prof.it.soft.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class is the JDK Flight Recorder event of a phase of a run, e.g. "aggregate", "generate" or "write".
+ * The duration of the event is the wall-clock time of the phase.
+ */
+@Name(PhaseEvent.NAME)
+@Label("Vacancy Statistics Phase")
+@Category("Vacancy Statistics")
+@Description("A phase of the calculation of the vacancy statistics")
+public class PhaseEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    public static final String NAME = "org.prof.it.soft.Phase";
+
+    @Label("Phase")
+    String phase;
+}
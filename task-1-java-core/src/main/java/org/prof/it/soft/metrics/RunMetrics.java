@@ -0,0 +1,314 @@
+package org.prof.it.soft.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects the performance metrics of a run: the parsed files, bytes and records, the wall-clock time
+ * of every phase, the busy time of every worker thread, and the garbage collections and peak heap usage of the JVM.
+ * <p>
+ * Every parsed file and every phase is also emitted as a JDK Flight Recorder event ({@link FileParsedEvent},
+ * {@link PhaseEvent}), so a recording shows the same numbers on a timeline. All methods are thread-safe,
+ * the counters are {@link LongAdder}s updated once per file, not once per vacancy.
+ * <p>
+ * The run starts when the metrics are created: the garbage collection counters are read. The peak usage of the heap
+ * pools is state of the whole JVM, so it is not reset by the metrics, see {@link #resetPeakHeapUsage()}.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     RunMetrics runMetrics = new RunMetrics();
+ *     try (RunMetrics.Phase phase = runMetrics.startPhase("write")) {
+ *         write(statistics);
+ *     }
+ *     runMetrics.writeReport(Path.of("report.json"));
+ * </pre>
+ */
+public class RunMetrics {
+
+    private final long startNanos = System.nanoTime();
+
+    private final long startGcTimeMs;
+
+    private final long startGcCount;
+
+    private final LongAdder files = new LongAdder();
+
+    private final LongAdder cachedFiles = new LongAdder();
+
+    private final LongAdder bytes = new LongAdder();
+
+    private final LongAdder records = new LongAdder();
+
+    private final LongAdder skippedRecords = new LongAdder();
+
+    private final LongAdder filteredRecords = new LongAdder();
+
+    /**
+     * The wall-clock nanoseconds of every phase, in the order the phases first ended. Guarded by itself.
+     */
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+    /**
+     * The nanoseconds of the work of the worker threads, summed over the threads.
+     */
+    private final Map<String, LongAdder> threadWorkNanos = new ConcurrentHashMap<>();
+
+    /**
+     * The busy nanoseconds of every worker thread, by the name of the thread.
+     */
+    private final Map<String, LongAdder> busyNanos = new ConcurrentHashMap<>();
+
+    /**
+     * Starts the metrics of a run.
+     */
+    public RunMetrics() {
+        long gcTimeMs = 0;
+        long gcCount = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcTimeMs += Math.max(collector.getCollectionTime(), 0);
+            gcCount += Math.max(collector.getCollectionCount(), 0);
+        }
+        this.startGcTimeMs = gcTimeMs;
+        this.startGcCount = gcCount;
+    }
+
+    /**
+     * Resets the peak usage of the heap pools of the JVM, so the report of the next run shows the peak of that run.
+     * It affects every user of the memory pools in the JVM, so only the owner of the process, e.g. the command line,
+     * should call it.
+     */
+    public static void resetPeakHeapUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Starts timing the parsing of a file, or of a range of a split file.
+     *
+     * @param source the path of the file
+     * @param bytes  the size of the file or range
+     * @return the timer of the file, to be finished when the file is parsed
+     */
+    public FileTimer startFile(@NonNull String source, long bytes) {
+        return new FileTimer(source, bytes);
+    }
+
+    /**
+     * Counts a file whose statistics were read from the cache.
+     */
+    public void fileCached() {
+        cachedFiles.increment();
+    }
+
+    /**
+     * Starts a wall-clock phase of the run. Phases with the same name add up.
+     *
+     * @param name the name of the phase, e.g. "aggregate"
+     * @return the phase, to be closed when the phase ends
+     */
+    public Phase startPhase(@NonNull String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * Adds the time of a piece of work of a worker thread, e.g. "merge".
+     *
+     * @param work  the name of the work
+     * @param nanos the time of the work in nanoseconds
+     */
+    public void addThreadWork(@NonNull String work, long nanos) {
+        threadWorkNanos.computeIfAbsent(work, key -> new LongAdder()).add(nanos);
+    }
+
+    /**
+     * Adds busy time of the current worker thread.
+     *
+     * @param nanos the busy time in nanoseconds
+     */
+    public void addBusyTime(long nanos) {
+        busyNanos.computeIfAbsent(threadName(Thread.currentThread()), key -> new LongAdder()).add(nanos);
+    }
+
+    /**
+     * Creates the report of the run so far.
+     *
+     * @return the report
+     */
+    public MetricsReport report() {
+        long wallNanos = Math.max(System.nanoTime() - startNanos, 1);
+        double wallSeconds = wallNanos / 1e9;
+
+        Map<String, Double> phasesMs = new LinkedHashMap<>();
+        synchronized (phaseNanos) {
+            phaseNanos.forEach((phase, nanos) -> phasesMs.put(phase, millis(nanos)));
+        }
+
+        Map<String, Double> threadTimeMs = new LinkedHashMap<>();
+        threadWorkNanos.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(work -> threadTimeMs.put(work.getKey(), millis(work.getValue().sum())));
+
+        List<MetricsReport.ThreadUtilization> threads = busyNanos.entrySet().stream()
+                .map(thread -> new MetricsReport.ThreadUtilization(thread.getKey(), millis(thread.getValue().sum()),
+                        (double) thread.getValue().sum() / wallNanos))
+                .sorted(Comparator.comparing(MetricsReport.ThreadUtilization::getName))
+                .toList();
+
+        long gcTimeMs = 0;
+        long gcCount = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcTimeMs += Math.max(collector.getCollectionTime(), 0);
+            gcCount += Math.max(collector.getCollectionCount(), 0);
+        }
+
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        return MetricsReport.builder()
+                .wallTimeMs(millis(wallNanos))
+                .files(files.sum())
+                .cachedFiles(cachedFiles.sum())
+                .bytes(bytes.sum())
+                .records(records.sum())
+                .skippedRecords(skippedRecords.sum())
+                .filteredRecords(filteredRecords.sum())
+                .bytesPerSecond(bytes.sum() / wallSeconds)
+                .recordsPerSecond(records.sum() / wallSeconds)
+                .phasesMs(phasesMs)
+                .threadTimeMs(threadTimeMs)
+                .threads(threads)
+                .gcTimeMs(gcTimeMs - startGcTimeMs)
+                .gcCount(gcCount - startGcCount)
+                .peakHeapBytes(peakHeapBytes)
+                .build();
+    }
+
+    /**
+     * Writes the report of the run so far as indented JSON.
+     *
+     * @param output the path of the report
+     * @throws IOException if the report can't be written
+     */
+    public void writeReport(@NonNull Path output) throws IOException {
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output.toFile(), report());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String threadName(Thread thread) {
+        // Virtual threads have no name by default
+        return thread.getName().isEmpty() ? "thread-" + thread.getId() : thread.getName();
+    }
+
+    /**
+     * The timer of a parsed file, which adds the file to the metrics and commits its {@link FileParsedEvent}.
+     * It is used by one thread.
+     */
+    public final class FileTimer {
+
+        private final FileParsedEvent event = new FileParsedEvent();
+
+        private final long start = System.nanoTime();
+
+        private long fileRecords;
+
+        private long fileSkippedRecords;
+
+        private long fileFilteredRecords;
+
+        private FileTimer(String source, long bytes) {
+            event.begin();
+            event.source = source;
+            event.bytes = bytes;
+        }
+
+        /**
+         * Adds the records of a parsed document of the file, a compressed archive may hold several documents.
+         *
+         * @param records         the number of vacancies handed to the aggregators
+         * @param skippedRecords  the number of records without a required field or malformed
+         * @param filteredRecords the number of vacancies dropped by the filter
+         */
+        public void add(long records, long skippedRecords, long filteredRecords) {
+            fileRecords += records;
+            fileSkippedRecords += skippedRecords;
+            fileFilteredRecords += filteredRecords;
+        }
+
+        /**
+         * Adds the file to the metrics and commits its event.
+         */
+        public void finish() {
+            long nanos = System.nanoTime() - start;
+            files.increment();
+            bytes.add(event.bytes);
+            records.add(fileRecords);
+            skippedRecords.add(fileSkippedRecords);
+            filteredRecords.add(fileFilteredRecords);
+            addThreadWork("parse", nanos);
+
+            if (event.shouldCommit()) {
+                event.records = fileRecords;
+                event.skippedRecords = fileSkippedRecords;
+                event.filteredRecords = fileFilteredRecords;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * A wall-clock phase of the run, which adds its time to the metrics and commits its {@link PhaseEvent} when closed.
+     */
+    public final class Phase implements AutoCloseable {
+
+        private final PhaseEvent event = new PhaseEvent();
+
+        private final String name;
+
+        private final long start = System.nanoTime();
+
+        private Phase(String name) {
+            this.name = name;
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - start;
+            synchronized (phaseNanos) {
+                phaseNanos.merge(name, nanos, Long::sum);
+            }
+
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.commit();
+            }
+        }
+    }
+}
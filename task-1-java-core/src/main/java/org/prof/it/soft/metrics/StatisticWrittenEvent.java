@@ -0,0 +1,54 @@
+package org.prof.it.soft.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class is the JDK Flight Recorder event of a statistic written to a file.
+ * The duration of the event is the time it took to serialize and write the statistic.
+ */
+@Name(StatisticWrittenEvent.NAME)
+@Label("Vacancy Statistic Written")
+@Category("Vacancy Statistics")
+@Description("A statistic was written to a file")
+public class StatisticWrittenEvent extends Event {
+
+    /**
+     * The name of the event.
+     */
+    public static final String NAME = "org.prof.it.soft.StatisticWritten";
+
+    @Label("Path")
+    String path;
+
+    @Label("Format")
+    String format;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Ends the event and commits it with the written file, if the event is enabled.
+     *
+     * @param output the written file
+     * @param format the output format
+     * @throws IOException if the size of the file can't be read
+     */
+    public void commit(Path output, String format) throws IOException {
+        if (shouldCommit()) {
+            this.path = output.toString();
+            this.format = format;
+            this.bytes = Files.size(output);
+            commit();
+        }
+    }
+}
@@ -1,21 +1,49 @@
 package org.prof.it.soft.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.prof.it.soft.dto.AbstractDto;
 import org.prof.it.soft.dto.VacancyDto;
+import org.prof.it.soft.dto.stats.CrossTabVacancyStatsDto;
+import org.prof.it.soft.dto.stats.RecruiterVacancyStatsDto;
+import org.prof.it.soft.io.BinaryStatisticReader;
+import org.prof.it.soft.io.BinaryStatisticWriter;
+import org.prof.it.soft.io.CsvStatisticWriter;
+import org.prof.it.soft.io.JsonLinesStatisticWriter;
+import org.prof.it.soft.io.StatisticVisitor;
+import org.prof.it.soft.metrics.StatisticWrittenEvent;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This class is responsible for serializing and deserializing DTOs.
- * It supports both JSON and XML formats.
+ * It supports both JSON and XML formats, and writes statistics as CSV, JSON Lines or a compact binary format as well.
  */
 @RequiredArgsConstructor
 public class DtoSerializer {
@@ -59,6 +87,263 @@ public class DtoSerializer {
         xmlMapper.writeValue(output, dto);
     }
 
+    /**
+     * Converts a DTO to an XML file, streaming it through a buffered and optionally compressed stream.
+     * <p>
+     * The {@link ToXmlGenerator} writes every {@code <item>} of the statistic maps to the stream as soon as it is serialized,
+     * so the memory needed for writing is the buffer, no matter how many keys the statistic has.
+     *
+     * @param dto the DTO to convert
+     * @param output the output file
+     * @param options the output options, e.g. compact or gzip-compressed output
+     * @throws Exception if an error occurs during conversion
+     */
+    public void objectToXmlFile(@NonNull AbstractDto dto, @NonNull Path output, @NonNull OutputOptions options) throws Exception {
+        try (OutputStream outputStream = openOutputStream(output, options)) {
+            objectToXml(dto, outputStream, options);
+        }
+    }
+
+    /**
+     * Converts a DTO to XML and writes it to a stream. The stream is not closed.
+     *
+     * @param dto the DTO to convert
+     * @param outputStream the stream to write to
+     * @param options the output options, only compact is used
+     * @throws Exception if an error occurs during conversion
+     */
+    public void objectToXml(@NonNull AbstractDto dto, @NonNull OutputStream outputStream, @NonNull OutputOptions options) throws Exception {
+        // The generator must not close the stream, the caller may write to it after the document
+        writer(xmlMapper, options).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(outputStream, dto);
+    }
+
+    /**
+     * Converts a DTO to an XML file, replacing the file atomically.
+     * The XML is written to a temporary file next to the output file and then moved over it,
+     * so readers of the output file never see a partially written document.
+     *
+     * @param dto the DTO to convert
+     * @param output the output file
+     * @throws Exception if an error occurs during conversion
+     */
+    public void objectToXmlFileAtomically(@NonNull AbstractDto dto, @NonNull Path output) throws Exception {
+        objectToXmlFileAtomically(dto, output, OutputOptions.DEFAULT);
+    }
+
+    /**
+     * Converts a DTO to an XML file with the given output options, replacing the file atomically.
+     *
+     * @param dto the DTO to convert
+     * @param output the output file
+     * @param options the output options, e.g. compact or gzip-compressed output
+     * @throws Exception if an error occurs during conversion
+     * @see #objectToXmlFileAtomically(AbstractDto, Path)
+     */
+    public void objectToXmlFileAtomically(@NonNull AbstractDto dto, @NonNull Path output, @NonNull OutputOptions options) throws Exception {
+        objectToFileAtomically(dto, output, OutputFormat.XML, options);
+    }
+
+    /**
+     * Converts a statistic DTO to a file of the given format, streaming it through a buffered and optionally
+     * compressed stream. Every written file is emitted as a {@link StatisticWrittenEvent}.
+     *
+     * @param dto the statistic DTO to convert
+     * @param output the output file
+     * @param format the output format
+     * @param options the output options, e.g. compact or gzip-compressed output
+     * @throws Exception if an error occurs during conversion
+     */
+    public void objectToFile(@NonNull AbstractDto dto, @NonNull Path output, @NonNull OutputFormat format,
+                             @NonNull OutputOptions options) throws Exception {
+        StatisticWrittenEvent event = new StatisticWrittenEvent();
+        event.begin();
+        try (OutputStream outputStream = openOutputStream(output, options)) {
+            objectToStream(dto, outputStream, format, options);
+        }
+        event.commit(output, format.getExtension());
+    }
+
+    /**
+     * Converts a statistic DTO to a file of the given format, replacing the file atomically.
+     * The statistic is written to a temporary file next to the output file and then moved over it,
+     * so readers of the output file never see a partially written statistic.
+     *
+     * @param dto the statistic DTO to convert
+     * @param output the output file
+     * @param format the output format
+     * @param options the output options, e.g. compact or gzip-compressed output
+     * @throws Exception if an error occurs during conversion
+     */
+    public void objectToFileAtomically(@NonNull AbstractDto dto, @NonNull Path output, @NonNull OutputFormat format,
+                                       @NonNull OutputOptions options) throws Exception {
+        Path directory = output.toAbsolutePath().getParent();
+        Path temporaryOutput = Files.createTempFile(directory, output.getFileName().toString(), ".tmp");
+
+        try {
+            objectToFile(dto, temporaryOutput, format, options);
+            Files.move(temporaryOutput, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryOutput);
+        }
+    }
+
+    /**
+     * Converts a statistic DTO to the given format and writes it to a stream. The stream is not closed.
+     *
+     * @param dto the statistic DTO to convert
+     * @param outputStream the stream to write to
+     * @param format the output format
+     * @param options the output options, only compact is used
+     * @throws Exception if an error occurs during conversion
+     */
+    public void objectToStream(@NonNull AbstractDto dto, @NonNull OutputStream outputStream, @NonNull OutputFormat format,
+                               @NonNull OutputOptions options) throws Exception {
+        switch (format) {
+            case XML -> objectToXml(dto, outputStream, options);
+            case CSV -> {
+                Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+                List<String> keyColumns = dto instanceof RecruiterVacancyStatsDto
+                        ? CsvStatisticWriter.RECRUITER_KEY_COLUMNS
+                        : dto instanceof CrossTabVacancyStatsDto
+                        ? CsvStatisticWriter.CROSS_TAB_KEY_COLUMNS
+                        : CsvStatisticWriter.KEY_COLUMNS;
+                visitStatistic(dto, new CsvStatisticWriter(writer, keyColumns));
+                writer.flush();
+            }
+            case JSON_LINES -> {
+                try (JsonGenerator generator = jsonMapper.createGenerator(outputStream)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    visitStatistic(dto, new JsonLinesStatisticWriter(generator));
+                }
+            }
+            case BINARY -> {
+                BinaryStatisticWriter writer = new BinaryStatisticWriter(outputStream);
+                visitStatistic(dto, writer);
+                writer.finish();
+            }
+        }
+    }
+
+    /**
+     * Passes the values and the map entries of a statistic DTO to a visitor, in the order of the DTO's properties.
+     * The values and maps are named as in the XML output, e.g. "average-salary", and null values are skipped.
+     *
+     * @param dto the statistic DTO
+     * @param visitor the visitor
+     * @throws IOException if the visitor fails to write
+     */
+    public void visitStatistic(@NonNull AbstractDto dto, @NonNull StatisticVisitor visitor) throws IOException {
+        BeanDescription description = xmlMapper.getSerializationConfig().introspect(xmlMapper.constructType(dto.getClass()));
+
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (!property.couldSerialize()) {
+                continue;
+            }
+
+            Object value = property.getAccessor().getValue(dto);
+            if (value instanceof Map<?, ?> map) {
+                visitor.beginMap(property.getName(), property.getPrimaryType().getKeyType().getRawClass(), map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    visitor.entry(entry.getKey(), ((Number) entry.getValue()).longValue());
+                }
+                visitor.endMap();
+            } else if (value instanceof Number number) {
+                visitor.value(property.getName(), number);
+            }
+        }
+    }
+
+    /**
+     * Reads a statistic DTO from the binary format, the values and maps are set by their names in the XML output.
+     *
+     * @param inputStream the stream to read from, it is not closed
+     * @param type the type of the statistic DTO
+     * @param <T> the type of the statistic DTO
+     * @return the statistic DTO
+     * @throws Exception if an error occurs during reading or the statistic doesn't match the type
+     */
+    public <T extends AbstractDto> T binaryToObject(@NonNull InputStream inputStream, @NonNull Class<T> type) throws Exception {
+        BeanDescription description = xmlMapper.getDeserializationConfig().introspect(xmlMapper.constructType(type));
+        Map<String, BeanPropertyDefinition> properties = new HashMap<>();
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (property.getMutator() != null) {
+                properties.put(property.getName(), property);
+            }
+        }
+
+        T dto = type.getDeclaredConstructor().newInstance();
+        new BinaryStatisticReader(inputStream).accept(new StatisticVisitor() {
+
+            private Map<Object, Long> map;
+
+            @Override
+            public void value(String name, Number value) throws IOException {
+                BeanPropertyDefinition property = property(name);
+                if (property.getPrimaryType().getRawClass() == Long.class) {
+                    property.getMutator().setValue(dto, value.longValue());
+                } else {
+                    property.getMutator().setValue(dto, value.doubleValue());
+                }
+            }
+
+            @Override
+            public void beginMap(String name, Class<?> keyType, int size) throws IOException {
+                map = new LinkedHashMap<>((int) (size / 0.75f) + 1);
+                property(name).getMutator().setValue(dto, map);
+            }
+
+            @Override
+            public void entry(Object key, long count) {
+                map.put(key, count);
+            }
+
+            private BeanPropertyDefinition property(String name) throws IOException {
+                BeanPropertyDefinition property = properties.get(name);
+                if (property == null) {
+                    throw new IOException("Unknown statistic " + name + " of " + type.getSimpleName());
+                }
+                return property;
+            }
+        });
+
+        return dto;
+    }
+
+    /**
+     * Reads a statistic DTO from a binary file, which may be compressed with gzip.
+     *
+     * @param input the input file
+     * @param type the type of the statistic DTO
+     * @param <T> the type of the statistic DTO
+     * @return the statistic DTO
+     * @throws Exception if an error occurs during reading or the statistic doesn't match the type
+     * @see #binaryToObject(InputStream, Class)
+     */
+    public <T extends AbstractDto> T binaryFileToObject(@NonNull Path input, @NonNull Class<T> type) throws Exception {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(input))) {
+            // A gzip stream starts with the bytes 1f 8b
+            inputStream.mark(2);
+            boolean gzip = inputStream.read() == 0x1f && inputStream.read() == 0x8b;
+            inputStream.reset();
+
+            return binaryToObject(gzip ? new GZIPInputStream(inputStream, OutputOptions.DEFAULT_BUFFER_SIZE) : inputStream, type);
+        }
+    }
+
+    /**
+     * Converts a DTO to a JSON file, streaming it through a buffered and optionally compressed stream.
+     *
+     * @param dto the DTO to convert
+     * @param output the output file
+     * @param options the output options, e.g. compact or gzip-compressed output
+     * @throws Exception if an error occurs during conversion
+     */
+    public void objectToJsonFile(@NonNull AbstractDto dto, @NonNull Path output, @NonNull OutputOptions options) throws Exception {
+        try (OutputStream outputStream = openOutputStream(output, options)) {
+            writer(jsonMapper, options).writeValue(outputStream, dto);
+        }
+    }
+
     /**
      * Converts a collection of DTOs to a JSON file.
      *
@@ -102,4 +387,65 @@ public class DtoSerializer {
     public List<VacancyDto> jsonFileToVacancyDtoList(@NonNull File jsonFile) throws Exception {
         return jsonMapper.readValue(jsonFile, jsonMapper.getTypeFactory().constructCollectionType(List.class, VacancyDto.class));
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns a writer of the mapper, without indentation in the compact mode.
+     */
+    private static ObjectWriter writer(ObjectMapper mapper, OutputOptions options) {
+        return options.compact() ? mapper.writer().without(SerializationFeature.INDENT_OUTPUT) : mapper.writer();
+    }
+
+    /**
+     * Opens a buffered stream to the output file, compressing the written bytes with gzip if requested.
+     * The buffer sits in front of the compressor, so the compressor and the file see large writes only.
+     */
+    private static OutputStream openOutputStream(Path output, OutputOptions options) throws IOException {
+        OutputStream outputStream = Files.newOutputStream(output);
+        try {
+            if (options.gzip()) {
+                outputStream = new GZIPOutputStream(outputStream, options.bufferSize());
+            }
+            return new BufferedOutputStream(outputStream, options.bufferSize());
+        } catch (IOException e) {
+            outputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * This record represents the options of writing a DTO to a file.
+     *
+     * @param compact    whether the output is written without indentation
+     * @param gzip       whether the output is compressed with gzip
+     * @param bufferSize the size of the output buffer in bytes
+     */
+    public record OutputOptions(boolean compact, boolean gzip, int bufferSize) {
+
+        /**
+         * The default size of the output buffer.
+         */
+        public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+        /**
+         * Indented, uncompressed output with the default buffer size.
+         */
+        public static final OutputOptions DEFAULT = new OutputOptions(false, false, DEFAULT_BUFFER_SIZE);
+
+        public OutputOptions {
+            if (bufferSize <= 0) {
+                throw new IllegalArgumentException("Buffer size must be positive");
+            }
+        }
+
+        /**
+         * Returns the options with the default buffer size.
+         *
+         * @param compact whether the output is written without indentation
+         * @param gzip    whether the output is compressed with gzip
+         * @return the output options
+         */
+        public static OutputOptions of(boolean compact, boolean gzip) {
+            return new OutputOptions(compact, gzip, DEFAULT_BUFFER_SIZE);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.prof.it.soft.service;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This enum represents the ways the files of a directory are distributed between threads.
+ * <ul>
+ *     <li>{@link #FIXED} uses a fixed pool of platform threads with a shared queue.</li>
+ *     <li>{@link #FORK_JOIN} uses a work-stealing pool, idle threads take tasks from busy ones.</li>
+ *     <li>{@link #VIRTUAL} starts a virtual thread per task, which suits corpora on high-latency storage such as NFS,
+ *     where the threads mostly wait for I/O. It needs Java 21 or newer and falls back to {@link #FIXED} otherwise.</li>
+ * </ul>
+ */
+@Slf4j
+public enum ExecutionStrategy {
+
+    FIXED {
+        @Override
+        public ExecutorService createExecutor(int countThreads) {
+            return Executors.newFixedThreadPool(countThreads);
+        }
+    },
+
+    FORK_JOIN {
+        @Override
+        public ExecutorService createExecutor(int countThreads) {
+            return new ForkJoinPool(countThreads);
+        }
+    },
+
+    VIRTUAL {
+        @Override
+        public ExecutorService createExecutor(int countThreads) {
+            if (!isAvailable()) {
+                log.warn("Virtual threads are not supported by this JVM, falling back to a fixed thread pool");
+                return FIXED.createExecutor(countThreads);
+            }
+            try {
+                return (ExecutorService) VirtualThreads.NEW_EXECUTOR.invoke(null);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Virtual-thread executor can't be created", e);
+            }
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return VirtualThreads.NEW_EXECUTOR != null;
+        }
+    };
+
+    /**
+     * Creates an executor for the given number of threads.
+     * The virtual-thread executor ignores the number of threads, it starts a thread per task.
+     *
+     * @param countThreads the number of threads
+     * @return a new executor, the caller has to shut it down
+     */
+    public abstract ExecutorService createExecutor(int countThreads);
+
+    /**
+     * Returns whether the strategy is supported by this JVM. Only virtual threads need Java 21 or newer.
+     *
+     * @return true if the executors of the strategy are created as described, false if they fall back to {@link #FIXED}
+     */
+    public boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Returns the strategy the executors are actually created with: {@link #FIXED} for virtual threads
+     * on a JVM without them, the strategy itself otherwise.
+     *
+     * @return the effective strategy
+     */
+    public ExecutionStrategy effective() {
+        return isAvailable() ? this : FIXED;
+    }
+
+    /**
+     * Returns the strategy with the given name, case-insensitive and with dashes allowed, e.g. "fork-join".
+     *
+     * @param name the name of the strategy
+     * @return the strategy
+     * @throws IllegalArgumentException if there is no strategy with the name
+     */
+    public static ExecutionStrategy of(@NonNull String name) {
+        return switch (name.trim().toLowerCase().replace('-', '_')) {
+            case "fixed" -> FIXED;
+            case "fork_join", "forkjoin" -> FORK_JOIN;
+            case "virtual" -> VIRTUAL;
+            default -> throw new IllegalArgumentException("Invalid execution strategy: " + name);
+        };
+    }
+
+    /**
+     * The factory of virtual-thread executors, looked up reflectively, so the application still runs on Java 17.
+     */
+    private static final class VirtualThreads {
+
+        private static final Method NEW_EXECUTOR = lookup();
+
+        private static Method lookup() {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.prof.it.soft.service;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * This enum represents the formats the statistics can be written in.
+ * <ul>
+ *     <li>{@link #XML} is the original format, one document per statistic.</li>
+ *     <li>{@link #CSV} writes one row per value and per map entry, see {@link org.prof.it.soft.io.CsvStatisticWriter}.</li>
+ *     <li>{@link #JSON_LINES} writes one JSON object per line, see {@link org.prof.it.soft.io.JsonLinesStatisticWriter}.</li>
+ *     <li>{@link #BINARY} writes a compact format with a string dictionary and varint counts, which is read back with
+ *     {@link org.prof.it.soft.io.BinaryStatisticReader}, see {@link org.prof.it.soft.io.BinaryStatisticWriter}.</li>
+ * </ul>
+ */
+@Getter
+public enum OutputFormat {
+
+    XML("xml"),
+
+    CSV("csv"),
+
+    JSON_LINES("jsonl"),
+
+    BINARY("bin");
+
+    /**
+     * The extension of the files of this format, without the dot.
+     */
+    private final String extension;
+
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the format with the given name, case-insensitive and with dashes allowed, e.g. "json-lines" or "jsonl".
+     *
+     * @param name the name of the format
+     * @return the format
+     * @throws IllegalArgumentException if there is no format with the name
+     */
+    public static OutputFormat of(@NonNull String name) {
+        return switch (name.trim().toLowerCase().replace('-', '_')) {
+            case "xml" -> XML;
+            case "csv" -> CSV;
+            case "json_lines", "jsonl", "ndjson" -> JSON_LINES;
+            case "binary", "bin" -> BINARY;
+            default -> throw new IllegalArgumentException("Invalid output format: " + name);
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package org.prof.it.soft.service;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.prof.it.soft.io.JsonLines;
+import org.prof.it.soft.service.aggregator.VacancyField;
+import org.prof.it.soft.service.aggregator.VacancyRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+/**
+ * This class holds the reusable state of a parser: the record of the current vacancy, the learned field order,
+ * the line buffer of JSON Lines and the buffers of the JSON Lines detection. The buffers are allocated when first needed.
+ * <p>
+ * Without it, every parsed document allocates more than a hundred kilobytes of buffers, which dominates the cost
+ * of a corpus of many small files. A state is used by one parser at a time; {@link VacancyStatsService} keeps a pool
+ * of states, so every worker, a platform or a virtual thread, takes a warm state for each file and returns it after.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     ParserState parserState = new ParserState();
+ *     PushbackInputStream inputStream = parserState.pushback(rawStream);
+ *     if (parserState.detectJsonLines(inputStream)) {
+ *         new VacancyStatisticJsonLinesParser(jsonFactory, inputStream, VacancyFilter.NONE, parserState).processJsonFile(aggregators);
+ *     }
+ *     parserState.release();
+ * </pre>
+ */
+public final class ParserState {
+
+    /**
+     * The record of the current vacancy, reset for every vacancy.
+     */
+    @Getter
+    private final VacancyRecord vacancyRecord = new VacancyRecord();
+
+    /**
+     * The field that is expected after the start of a vacancy (index 0) or after a field (index ordinal + 1),
+     * learned from the previous vacancies. It is only a guess, so it is kept from file to file.
+     */
+    @Getter
+    private final VacancyField[] expectedFields = new VacancyField[VacancyField.values().length + 1];
+
+    private byte[] lineBuffer;
+
+    private byte[] detectionBuffer;
+
+    private ReusablePushbackInputStream pushbackInputStream;
+
+    /**
+     * Returns the line buffer of JSON Lines. A parser that needs a longer line grows a copy of its own.
+     *
+     * @return the line buffer
+     */
+    public byte[] getLineBuffer() {
+        if (lineBuffer == null) {
+            lineBuffer = new byte[VacancyStatisticJsonLinesParser.BUFFER_SIZE];
+        }
+        return lineBuffer;
+    }
+
+    /**
+     * Wraps a stream into the pushback stream of the state, which is needed to detect JSON Lines.
+     * The pushback stream stays valid until the state is released.
+     *
+     * @param inputStream the stream of a document
+     * @return the pushback stream reading the document
+     */
+    public PushbackInputStream pushback(@NonNull InputStream inputStream) {
+        if (pushbackInputStream == null) {
+            pushbackInputStream = new ReusablePushbackInputStream();
+        }
+        pushbackInputStream.wrap(inputStream);
+        return pushbackInputStream;
+    }
+
+    /**
+     * Returns whether a stream is a JSON Lines document, see {@link JsonLines#detect(PushbackInputStream, byte[])}.
+     *
+     * @param inputStream the stream returned by {@link #pushback(InputStream)}
+     * @return true if the stream is a JSON Lines document, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean detectJsonLines(@NonNull PushbackInputStream inputStream) throws IOException {
+        if (detectionBuffer == null) {
+            detectionBuffer = new byte[JsonLines.DETECTION_SIZE];
+        }
+        return JsonLines.detect(inputStream, detectionBuffer);
+    }
+
+    /**
+     * Releases the stream of the last document, so the state holds no reference to it while it is pooled.
+     */
+    public void release() {
+        if (pushbackInputStream != null) {
+            pushbackInputStream.wrap(null);
+        }
+        vacancyRecord.reset();
+    }
+
+    /**
+     * A pushback stream whose buffer outlives the wrapped streams. Closing it closes only the wrapped stream,
+     * unlike {@link PushbackInputStream#close()}, which drops the buffer.
+     */
+    private static final class ReusablePushbackInputStream extends PushbackInputStream {
+
+        private ReusablePushbackInputStream() {
+            super(null, JsonLines.DETECTION_SIZE);
+        }
+
+        private void wrap(InputStream inputStream) {
+            in = inputStream;
+            pos = buf.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+}
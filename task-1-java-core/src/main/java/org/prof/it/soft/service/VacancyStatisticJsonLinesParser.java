@@ -0,0 +1,217 @@
+package org.prof.it.soft.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.prof.it.soft.io.JsonLines;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+import org.prof.it.soft.service.aggregator.VacancyRecord;
+import org.prof.it.soft.service.filter.VacancyFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * This class parses JSON Lines (NDJSON) input, one vacancy object per line, see {@link JsonLines}.
+ * <p>
+ * Every line is parsed on its own, straight from the read buffer, by the same field matching as
+ * {@link VacancyStatisticJsonParser}. A line that is not a single well-formed JSON object is skipped and counted
+ * as malformed, the vacancies of the other lines are still aggregated, so a broken record of a producer
+ * doesn't fail the whole file. Empty lines are ignored.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     VacancyStatisticJsonLinesParser parser = new VacancyStatisticJsonLinesParser(jsonFactory, inputStream);
+ *     parser.processJsonFile(aggregators);
+ *     long malformedLineCount = parser.getMalformedLineCount();
+ * </pre>
+ */
+@Slf4j
+public class VacancyStatisticJsonLinesParser extends VacancyStatisticJsonParser {
+
+    /**
+     * The initial size of the line buffer, it grows to hold the longest line.
+     */
+    protected static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The number of malformed lines that are logged, the others are only counted.
+     */
+    protected static final int MAX_LOGGED_ERRORS = 10;
+
+    private final JsonFactory jsonFactory;
+
+    private final InputStream inputStream;
+
+    private byte[] buffer;
+
+    /**
+     * The number of non-empty lines read.
+     */
+    @Getter
+    private long lineCount;
+
+    /**
+     * The number of lines that were skipped because they are not a single well-formed JSON object.
+     */
+    @Getter
+    private long malformedLineCount;
+
+    /**
+     * Creates a parser of the lines of the input stream. The input stream is not closed.
+     *
+     * @param jsonFactory the factory of the parsers of the lines
+     * @param inputStream the input stream
+     */
+    public VacancyStatisticJsonLinesParser(@NonNull JsonFactory jsonFactory, @NonNull InputStream inputStream) {
+        this(jsonFactory, inputStream, VacancyFilter.NONE);
+    }
+
+    /**
+     * Creates a parser of the lines of the input stream, which keeps only the vacancies accepted by the filter.
+     * The input stream is not closed.
+     *
+     * @param jsonFactory   the factory of the parsers of the lines
+     * @param inputStream   the input stream
+     * @param vacancyFilter the filter of the vacancies
+     */
+    public VacancyStatisticJsonLinesParser(@NonNull JsonFactory jsonFactory,
+                                           @NonNull InputStream inputStream,
+                                           @NonNull VacancyFilter vacancyFilter) {
+        this(jsonFactory, inputStream, vacancyFilter, new ParserState());
+    }
+
+    /**
+     * Creates a parser of the lines of the input stream, which keeps only the vacancies accepted by the filter
+     * and reads the lines into the buffer of the given state. The input stream is not closed.
+     *
+     * @param jsonFactory   the factory of the parsers of the lines
+     * @param inputStream   the input stream
+     * @param vacancyFilter the filter of the vacancies
+     * @param parserState   the reusable state of the parser
+     */
+    public VacancyStatisticJsonLinesParser(@NonNull JsonFactory jsonFactory,
+                                           @NonNull InputStream inputStream,
+                                           @NonNull VacancyFilter vacancyFilter,
+                                           @NonNull ParserState parserState) {
+        super(null, vacancyFilter, parserState);
+        this.jsonFactory = jsonFactory;
+        this.inputStream = inputStream;
+        this.buffer = parserState.getLineBuffer();
+    }
+
+    /**
+     * Processes the lines of the input and feeds the vacancy of every well-formed line to all given aggregators.
+     *
+     * @param aggregators the aggregators to feed
+     * @throws IOException if an I/O error occurs reading the input
+     */
+    @Override
+    public void processJsonFile(@NonNull Collection<? extends StatisticAggregator> aggregators) throws IOException {
+        int projectedMask = projectedMask(aggregators);
+        VacancyRecord vacancyRecord = parserState.getVacancyRecord();
+
+        int start = 0;
+        int limit = 0;
+        int scanned = 0;
+        long lineNumber = 0;
+        boolean endOfStream = false;
+
+        while (true) {
+            int lineBreak = JsonLines.indexOfLineBreak(buffer, scanned, limit);
+
+            if (lineBreak < 0) {
+                if (endOfStream) {
+                    if (start < limit) {
+                        processLine(start, limit - start, ++lineNumber, vacancyRecord, projectedMask, aggregators);
+                    }
+                    return;
+                }
+
+                // Move the incomplete line to the start of the buffer, grow the buffer if the line fills it
+                scanned = limit - start;
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, scanned);
+                } else if (limit == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                start = 0;
+                limit = scanned;
+
+                int read = inputStream.read(buffer, limit, buffer.length - limit);
+                if (read < 0) {
+                    endOfStream = true;
+                } else {
+                    limit += read;
+                }
+                continue;
+            }
+
+            processLine(start, lineBreak - start, ++lineNumber, vacancyRecord, projectedMask, aggregators);
+            start = lineBreak + 1;
+            scanned = start;
+        }
+    }
+
+    /**
+     * Parses a line of the buffer and hands its vacancy to the aggregators, or counts the line as malformed.
+     */
+    private void processLine(int offset,
+                             int length,
+                             long lineNumber,
+                             VacancyRecord vacancyRecord,
+                             int projectedMask,
+                             Collection<? extends StatisticAggregator> aggregators) throws IOException {
+        try (JsonParser lineParser = jsonFactory.createParser(buffer, offset, length)) {
+            jsonParser = lineParser;
+
+            JsonToken jsonToken = lineParser.nextToken();
+            if (jsonToken == null) {
+                // An empty line
+                return;
+            }
+            lineCount++;
+
+            if (jsonToken != JsonToken.START_OBJECT) {
+                malformedLine(lineNumber, "not a JSON object");
+                return;
+            }
+
+            boolean complete = processObject(vacancyRecord, projectedMask);
+            if (lineParser.currentToken() != JsonToken.END_OBJECT) {
+                malformedLine(lineNumber, "truncated JSON object");
+            } else if (lineParser.nextToken() != null) {
+                malformedLine(lineNumber, "more than one JSON value");
+            } else if (complete) {
+                processEndObject(vacancyRecord, aggregators);
+            }
+        } catch (JsonProcessingException e) {
+            malformedLine(lineNumber, e.getOriginalMessage());
+        } finally {
+            jsonParser = null;
+        }
+    }
+
+    /**
+     * Returns the number of records skipped because they lack a required field, including the malformed lines.
+     *
+     * @return the number of skipped records
+     */
+    @Override
+    public long getSkippedCount() {
+        return skippedCount + malformedLineCount;
+    }
+
+    private void malformedLine(long lineNumber, String reason) {
+        malformedLineCount++;
+        if (malformedLineCount <= MAX_LOGGED_ERRORS) {
+            log.warn("Skipping malformed line {}: {}", lineNumber, reason);
+        }
+    }
+}
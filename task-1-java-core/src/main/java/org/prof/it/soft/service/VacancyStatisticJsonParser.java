@@ -2,9 +2,13 @@ package org.prof.it.soft.service;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import org.prof.it.soft.dto.RecruiterDto;
+import org.prof.it.soft.service.aggregator.FieldStatisticAggregator;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+import org.prof.it.soft.service.aggregator.VacancyField;
+import org.prof.it.soft.service.aggregator.VacancyRecord;
+import org.prof.it.soft.service.filter.VacancyFilter;
 
 import java.io.IOException;
 import java.util.*;
@@ -14,21 +18,92 @@ import java.util.*;
  * The statistics are calculated by counting the occurrences of unique values for the specified field.
  *
  * <b>This class doesn't return a list of Vacancy objects, but instead calculates statistics based on the specified field.</b>
+ * Several statistics can be calculated in a single pass by handing every vacancy to a list of {@link StatisticAggregator}s.
+ * A {@link VacancyFilter} drops the vacancies that fail its conditions while their fields stream past.
  *
  * The class uses the Jackson library to parse the JSON data.
  */
-@RequiredArgsConstructor
 public class VacancyStatisticJsonParser {
 
     /**
      * A set of required fields for each JSON object.
+     * The parser itself checks them with {@link VacancyField#requiredMask()}.
      */
     public final static Set<String> requiredFields = Set.of("position", "recruiter_first_name");
 
     /**
-     * The JsonParser used to parse the JSON data.
+     * The JsonParser used to parse the JSON data. Subclasses may replace it, e.g. with a parser per line.
      */
-    protected final JsonParser jsonParser;
+    protected JsonParser jsonParser;
+
+    /**
+     * The field that is expected after the start of a vacancy (index 0) or after a field (index ordinal + 1).
+     * It is learned from the previous vacancies, as the vacancies of a file usually have the same field order.
+     */
+    protected final VacancyField[] expectedFields;
+
+    /**
+     * The reusable state of the parser, which may be shared with the parsers of the previous documents.
+     */
+    protected final ParserState parserState;
+
+    /**
+     * The filter of the vacancies that are handed to the aggregators.
+     */
+    @Getter
+    protected final VacancyFilter vacancyFilter;
+
+    /**
+     * The number of vacancies handed to the aggregators.
+     */
+    @Getter
+    protected long vacancyCount;
+
+    /**
+     * The number of JSON objects skipped because they lack a required field.
+     */
+    @Getter
+    protected long skippedCount;
+
+    /**
+     * The number of vacancies dropped by the filter.
+     */
+    @Getter
+    protected long filteredCount;
+
+    /**
+     * Creates a parser of the vacancies read by the given JsonParser.
+     *
+     * @param jsonParser the JsonParser used to parse the JSON data
+     */
+    public VacancyStatisticJsonParser(JsonParser jsonParser) {
+        this(jsonParser, VacancyFilter.NONE);
+    }
+
+    /**
+     * Creates a parser of the vacancies read by the given JsonParser, which keeps only the vacancies accepted by the filter.
+     *
+     * @param jsonParser    the JsonParser used to parse the JSON data
+     * @param vacancyFilter the filter of the vacancies
+     */
+    public VacancyStatisticJsonParser(JsonParser jsonParser, @NonNull VacancyFilter vacancyFilter) {
+        this(jsonParser, vacancyFilter, new ParserState());
+    }
+
+    /**
+     * Creates a parser of the vacancies read by the given JsonParser, which keeps only the vacancies accepted by the filter
+     * and reuses the given state instead of allocating its own. The state must not be used by another parser at the same time.
+     *
+     * @param jsonParser    the JsonParser used to parse the JSON data
+     * @param vacancyFilter the filter of the vacancies
+     * @param parserState   the reusable state of the parser
+     */
+    public VacancyStatisticJsonParser(JsonParser jsonParser, @NonNull VacancyFilter vacancyFilter, @NonNull ParserState parserState) {
+        this.jsonParser = jsonParser;
+        this.vacancyFilter = vacancyFilter;
+        this.parserState = parserState;
+        this.expectedFields = parserState.getExpectedFields();
+    }
 
     /**
      * Processes the JSON file and calculates the statistics based on the specified statistic field.
@@ -45,84 +120,185 @@ public class VacancyStatisticJsonParser {
      * @throws IOException if an I/O error occurs
      */
     public Map<Object, Long> processJsonFile(@NonNull String statisticField) throws IOException {
-        Map<Object, Long> statisticMap = new HashMap<>();
+        StatisticAggregator aggregator = StatisticAggregator.create(statisticField);
+        processJsonFile(List.of(aggregator));
+        return aggregator.getStatisticMap();
+    }
 
-        // Initialize a set to store the current object's required fields
-        Set<String> currentObjectRequiredFields = new HashSet<>();
-        // Initialize variables to store the current field, recruiter details, and current value
-        String currentField = null;
-        String recruiterFirstName = null;
-        String recruiterLastName = null;
-        String recruiterCompanyName = null;
-        Object currentValue = null;
+    /**
+     * Processes the JSON file and feeds every vacancy to all given aggregators.
+     * This allows calculating any number of statistics in a single pass over the file,
+     * so the file is read and tokenized only once.
+     * <p>
+     * Every JSON object outside a vacancy is treated as a vacancy. Inside a vacancy, nested objects and arrays
+     * are skipped as a whole, and only the values of the fields read by the aggregators are decoded,
+     * so unknown fields cost almost nothing no matter how large they are.
+     *
+     * @param aggregators the aggregators to feed
+     * @throws IOException if an I/O error occurs
+     */
+    public void processJsonFile(@NonNull Collection<? extends StatisticAggregator> aggregators) throws IOException {
+        // Only the fields read by the aggregators are decoded, the other values are skipped
+        int projectedMask = projectedMask(aggregators);
+        VacancyRecord vacancyRecord = parserState.getVacancyRecord();
 
         JsonToken jsonToken;
         // Loop through the JSON tokens until the end of the file
         while ((jsonToken = jsonParser.nextToken()) != null) {
-            switch (jsonToken) {
-                case START_OBJECT:
-                    // Clear the current object's required fields and reset recruiter details
-                    currentObjectRequiredFields.clear();
-                    recruiterFirstName = null;
-                    recruiterLastName = null;
-                    recruiterCompanyName = null;
-                    break;
-                case END_OBJECT:
-                    // If the current object contains all required fields, process the end object
-                    if (requiredFields.equals(currentObjectRequiredFields)) {
-                        processEndObject(statisticMap,
-                                statisticField,
-                                recruiterFirstName,
-                                recruiterLastName,
-                                recruiterCompanyName,
-                                currentValue);
-                    }
-                    // Reset the current value
-                    currentValue = null;
-                    break;
-                case FIELD_NAME:
-                    // Store the current field name
-                    currentField = jsonParser.getText();
-                    break;
-                case VALUE_STRING:
-                    // If the current field is a required field, add it to the current object's required fields
-                    if (requiredFields.contains(currentField)) {
-                        currentObjectRequiredFields.add(currentField);
-                    }
+            if (jsonToken == JsonToken.START_OBJECT) {
+                // If the vacancy contains all required fields, process the end object
+                if (processObject(vacancyRecord, projectedMask)) {
+                    processEndObject(vacancyRecord, aggregators);
+                }
+            }
+        }
+    }
 
-                    String value = jsonParser.getValueAsString();
-                    // Update the current value or recruiter details based on the statistic field and current field
-                    if (value != null) {
-                        if (statisticField.equals(currentField)) {
-                            currentValue = value;
-                        } else if ("recruiter".equals(statisticField) && currentField != null) {
-                            switch (currentField) {
-                                case "recruiter_first_name" -> recruiterFirstName = value;
-                                case "recruiter_last_name" -> recruiterLastName = value;
-                                case "recruiter_company_name" -> recruiterCompanyName = value;
-                            }
-                        }
-                    }
+    /**
+     * Returns the mask of the fields read by the aggregators and the filter, only their values have to be decoded.
+     *
+     * @param aggregators the aggregators
+     * @return the mask of the projected fields
+     */
+    protected int projectedMask(Collection<? extends StatisticAggregator> aggregators) {
+        int projectedMask = vacancyFilter.getFieldMask();
+        for (StatisticAggregator aggregator : aggregators) {
+            projectedMask |= VacancyField.maskOf(aggregator.getProjectedFields());
+        }
+        return projectedMask;
+    }
+
+    /**
+     * Reads the fields of a vacancy, the parser must point to the START_OBJECT token of the vacancy.
+     * When the method returns, the parser points to the matching END_OBJECT token.
+     * <p>
+     * Field names are matched against the pre-encoded names of {@link VacancyField}. The parser remembers which field
+     * followed which one in the previous vacancies and checks that field first with
+     * {@link JsonParser#nextFieldName(com.fasterxml.jackson.core.SerializableString)}, which compares the raw input
+     * without a symbol table lookup. Otherwise the canonical (already interned) field name is used.
+     * <p>
+     * The conditions of the filter on a field are checked as soon as the field is decoded. If one fails,
+     * the rest of the object is skipped without decoding it.
+     *
+     * @param vacancyRecord the record to fill with the values of the vacancy
+     * @param projectedMask the mask of fields whose values are decoded
+     * @return true if the vacancy contains all required fields and is accepted by the filter, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    protected boolean processObject(VacancyRecord vacancyRecord, int projectedMask) throws IOException {
+        vacancyRecord.reset();
+        int presentMask = 0;
+        int filterMask = vacancyFilter.getFieldMask();
+        int passedMask = 0;
+        int previousField = 0;
+
+        while (true) {
+            VacancyField field;
+            VacancyField expectedField = previousField >= 0 ? expectedFields[previousField] : null;
 
+            if (expectedField != null && jsonParser.nextFieldName(expectedField.getSerializedName())) {
+                field = expectedField;
+            } else {
+                // nextFieldName has already moved to the next token, otherwise move to it now
+                JsonToken jsonToken = expectedField != null ? jsonParser.currentToken() : jsonParser.nextToken();
+                if (jsonToken != JsonToken.FIELD_NAME) {
+                    // END_OBJECT, or the end of a truncated input
                     break;
-                case VALUE_NUMBER_FLOAT, VALUE_NUMBER_INT:
-                    // If the statistic field matches the current field, update the current value with the number
-                    if (Objects.equals(statisticField, currentField)) {
-                        double num = jsonParser.getValueAsDouble();
+                }
+
+                field = VacancyField.of(jsonParser.currentName());
+                if (field != null && previousField >= 0) {
+                    expectedFields[previousField] = field;
+                }
+            }
+
+            JsonToken valueToken = jsonParser.nextToken();
 
-                        currentValue = String.valueOf(num);
+            if (field == null || (field.getMask() & projectedMask) == 0 && !field.isRequired()) {
+                // Unknown or unused field: skip the value without decoding it, including nested objects and arrays
+                jsonParser.skipChildren();
+                previousField = field == null ? -1 : field.ordinal() + 1;
+                continue;
+            }
+
+            switch (valueToken) {
+                case VALUE_STRING -> {
+                    presentMask |= field.getMask();
+                    if (field == VacancyField.TECHNOLOGY_STACK && (field.getMask() & projectedMask) != 0) {
+                        // The technologies are tokenized from the characters, without creating a string
+                        vacancyRecord.setTechnologyStack(jsonParser.getTextCharacters(),
+                                jsonParser.getTextOffset(), jsonParser.getTextLength());
+                    } else if ((field.getMask() & projectedMask) != 0) {
+                        vacancyRecord.set(field, jsonParser.getText());
+                    }
+                }
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+                    // If the field accepts numbers, update its value with the number
+                    if (field.isNumeric() && (field.getMask() & projectedMask) != 0) {
+                        double num = jsonParser.getValueAsDouble();
 
-                        // If the statistic field is "salary" and the number is negative, ignore the current value
-                        if ("salary".equals(statisticField) && num < 0) {
-                            currentValue = null;
+                        if (field == VacancyField.SALARY) {
+                            // The salary is counted as a number, a negative salary is ignored
+                            vacancyRecord.setSalaryAmount(num < 0 ? Double.NaN : num);
+                        } else {
+                            vacancyRecord.set(field, String.valueOf(num));
                         }
                     }
+                }
+                default -> jsonParser.skipChildren();
+            }
+
+            if ((field.getMask() & filterMask) != 0) {
+                if (!vacancyFilter.test(field, vacancyRecord)) {
+                    // The vacancy is dropped, none of its other fields has to be decoded
+                    filteredCount++;
+                    skipRestOfObject();
+                    return false;
+                }
+                passedMask |= field.getMask();
             }
+
+            previousField = field.ordinal() + 1;
         }
 
-        return statisticMap;
+        int requiredMask = VacancyField.requiredMask();
+        if ((presentMask & requiredMask) != requiredMask) {
+            skippedCount++;
+            return false;
+        }
+        if ((passedMask & filterMask) != filterMask) {
+            // A filtered field is missing
+            filteredCount++;
+            return false;
+        }
+        return true;
     }
 
+    /**
+     * Skips the remaining fields of the current object, including nested objects and arrays, without decoding them.
+     * When the method returns, the parser points to the END_OBJECT token of the object.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    protected void skipRestOfObject() throws IOException {
+        JsonToken jsonToken;
+        while ((jsonToken = jsonParser.nextToken()) != null && jsonToken != JsonToken.END_OBJECT) {
+            jsonParser.skipChildren();
+        }
+    }
+
+    /**
+     * Processes the end of a JSON object and hands the complete vacancy to every aggregator.
+     *
+     * @param vacancyRecord the values of the vacancy
+     * @param aggregators   the aggregators to feed
+     */
+    protected void processEndObject(VacancyRecord vacancyRecord, Collection<? extends StatisticAggregator> aggregators) {
+        vacancyCount++;
+        for (StatisticAggregator aggregator : aggregators) {
+            aggregator.aggregate(vacancyRecord);
+        }
+    }
 
     /**
      * Processes the end of a JSON object and updates the statistics map based on the statistic field and the current value.
@@ -130,6 +306,8 @@ public class VacancyStatisticJsonParser {
      * If the statistic field is "recruiter", a RecruiterDto object is created and used as the key to increment the value in the statistics map.
      * If the statistic field is "technology_stack" and the current value is not null, the current value is split into technologies and each technology is used as the key to increment the value in the statistics map.
      * If the current value is not null and the statistic field is neither "recruiter" nor "technology_stack", the current value is used as the key to increment the value in the statistics map.
+     * <p>
+     * The statistic is calculated by the same {@link StatisticAggregator} that is used when parsing a file.
      *
      * @param statisticMap         the map to update with the statistics
      * @param statisticField       the statistic field to calculate
@@ -144,30 +322,20 @@ public class VacancyStatisticJsonParser {
                                     String recruiterLastName,
                                     String recruiterCompanyName,
                                     Object currentValue) {
-        if ("recruiter".equals(statisticField)) {
-            RecruiterDto recruiterDto = RecruiterDto.builder()
-                    .firstName(recruiterFirstName)
-                    .lastName(recruiterLastName)
-                    .companyName(recruiterCompanyName)
-                    .build();
-            incrementValue(statisticMap, recruiterDto);
-        } else if ("technology_stack".equals(statisticField) && currentValue != null) {
-            for (String tech : ((String) currentValue).split(",\\s+")) {
-                incrementValue(statisticMap, tech);
-            }
-        } else if (currentValue != null) {
-            incrementValue(statisticMap, currentValue);
+        VacancyRecord vacancyRecord = new VacancyRecord();
+        vacancyRecord.setRecruiterFirstName(recruiterFirstName);
+        vacancyRecord.setRecruiterLastName(recruiterLastName);
+        vacancyRecord.setRecruiterCompanyName(recruiterCompanyName);
+
+        StatisticAggregator aggregator;
+        if (vacancyRecord.setStatisticValue(statisticField, currentValue) || "recruiter".equals(statisticField)) {
+            aggregator = StatisticAggregator.create(statisticField);
+        } else {
+            aggregator = new FieldStatisticAggregator(statisticField, Set.of(), record -> currentValue);
         }
-    }
 
-    /**
-     * Increment value in statistic map
-     *
-     * @param statisticMap map to increment value
-     * @param key key to increment
-     */
-    protected void incrementValue(Map<Object, Long> statisticMap, Object key) {
-        statisticMap.put(key, statisticMap.getOrDefault(key, 0L) + 1);
+        processEndObject(vacancyRecord, List.of(aggregator));
+        aggregator.getStatisticMap().forEach((key, count) -> statisticMap.merge(key, count, Long::sum));
     }
 
 }
@@ -1,33 +1,66 @@
 package org.prof.it.soft.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.prof.it.soft.cache.StatisticCache;
+import org.prof.it.soft.collection.FloatLongCountingTable;
+import org.prof.it.soft.collection.ObjectLongCountingTable;
+import org.prof.it.soft.collection.SortedCountMap;
 import org.prof.it.soft.config.Configuration;
 import org.prof.it.soft.dto.AbstractDto;
 import org.prof.it.soft.dto.RecruiterDto;
 import org.prof.it.soft.dto.VacancyDto;
+import org.prof.it.soft.dto.stats.CrossTabVacancyStatsDto;
+import org.prof.it.soft.dto.stats.DistinctCountVacancyStatsDto;
 import org.prof.it.soft.dto.stats.PositionVacancyStatsDto;
 import org.prof.it.soft.dto.stats.RecruiterVacancyStatsDto;
 import org.prof.it.soft.dto.stats.SalaryVacancyStatsDto;
 import org.prof.it.soft.dto.stats.TechnologyVacancyStatsDto;
 import org.prof.it.soft.entity.Vacancy;
+import org.prof.it.soft.io.CorpusFormat;
+import org.prof.it.soft.io.FileDiscovery;
+import org.prof.it.soft.io.InputBackend;
+import org.prof.it.soft.io.JsonArrayRange;
+import org.prof.it.soft.io.JsonArraySplitter;
+import org.prof.it.soft.io.JsonLines;
+import org.prof.it.soft.metrics.RunMetrics;
+import org.prof.it.soft.service.aggregator.AbstractStatisticAggregator;
+import org.prof.it.soft.service.aggregator.CrossTabDimension;
+import org.prof.it.soft.service.aggregator.CrossTabStatisticAggregator;
+import org.prof.it.soft.service.aggregator.DistinctCountStatisticAggregator;
+import org.prof.it.soft.service.aggregator.RecruiterKey;
+import org.prof.it.soft.service.aggregator.SalaryBuckets;
+import org.prof.it.soft.service.aggregator.SalaryStatisticAggregator;
+import org.prof.it.soft.service.aggregator.StatisticAccumulator;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+import org.prof.it.soft.service.filter.VacancyFilter;
+import org.prof.it.soft.sketch.QuantileSketch;
+import org.prof.it.soft.sketch.SpaceSavingSketch;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.DoubleStream;
-import java.util.stream.Stream;
 
 /**
  * This class provides methods to calculate various statistics related to vacancies.
@@ -38,13 +71,181 @@ public class VacancyStatsService {
     /**
      * A set of allowed statistic fields.
      */
-    public final static Set<String> allowedStatisticFields = Set.of("position", "salary", "recruiter", "technology_stack");
+    public final static Set<String> allowedStatisticFields = Set.of("position", "salary", "recruiter", "technology_stack",
+            "distinct_recruiter", "distinct_position", "distinct_company");
+
+    /**
+     * Returns whether a statistic field is allowed: one of {@link #allowedStatisticFields}, or a cross-tab statistic
+     * of two dimensions separated by "+", e.g. "position+technology_stack" (see {@link CrossTabDimension}).
+     *
+     * @param statisticField the statistic field
+     * @return true if the statistic field is allowed, false otherwise
+     */
+    public static boolean isAllowedStatisticField(String statisticField) {
+        return statisticField != null
+                && (allowedStatisticFields.contains(statisticField) || CrossTabStatisticAggregator.isCrossTab(statisticField));
+    }
 
     /**
      * The default number of threads to use for calculations in parallel mode.
      */
     public final static int DEFAULT_COUNT_THREADS = 4;
 
+    /**
+     * The default number of virtual threads, which is the number of files read at once with {@link ExecutionStrategy#VIRTUAL}.
+     * Virtual threads mostly wait for I/O, so far more of them than cores are needed to hide the latency of slow storage.
+     */
+    public final static int DEFAULT_VIRTUAL_COUNT_THREADS = 256;
+
+    /**
+     * JSON files of at least this size are split into ranges that are parsed in parallel.
+     */
+    public final static long SPLIT_FILE_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * The minimum size of a range of a split JSON file.
+     */
+    public final static long MIN_SPLIT_RANGE_SIZE = 8L * 1024 * 1024;
+
+    /**
+     * The maximum number of idle buffer sets of the JSON parsers kept for reuse.
+     */
+    public final static int JSON_BUFFER_POOL_SIZE = 256;
+
+    /**
+     * The factory of the JSON parsers. It is thread-safe and shared by all threads,
+     * so the symbol tables of field names are reused between files.
+     * The buffers of the parsers are recycled through a bounded pool shared by all threads rather than a thread-local,
+     * so virtual threads, which live for a single file, reuse warm buffers as well as platform threads do.
+     */
+    protected final static JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .recyclerPool(JsonRecyclerPools.newBoundedPool(JSON_BUFFER_POOL_SIZE))
+            .build();
+
+    /**
+     * The strategy used to distribute the files between threads in parallel mode.
+     */
+    @Getter
+    protected final ExecutionStrategy executionStrategy;
+
+    /**
+     * The number of threads to use for calculations in parallel mode.
+     */
+    @Getter
+    protected final int countThreads;
+
+    /**
+     * The discovery of the JSON files in the directory tree.
+     */
+    @Getter
+    protected final FileDiscovery fileDiscovery;
+
+    /**
+     * The cache of the statistics of every file, or null if every file is parsed on every run.
+     */
+    @Getter
+    protected final StatisticCache statisticCache;
+
+    /**
+     * The filter of the vacancies the statistics are calculated for, evaluated by the parser.
+     */
+    @Getter
+    protected final VacancyFilter vacancyFilter;
+
+    /**
+     * The performance metrics of the last run of the service, e.g. for a report of a command-line run.
+     * They are replaced when a run starts, see {@link #startRunMetrics()}.
+     */
+    @Getter
+    protected volatile RunMetrics runMetrics = new RunMetrics();
+
+    /**
+     * The idle parser states, see {@link ParserState}. A state is taken for every document and returned after it,
+     * a new state is created when none is idle, and at most one state per task in flight is kept.
+     */
+    protected final BlockingQueue<ParserState> parserStates;
+
+    /**
+     * Creates a service that uses a fixed pool of {@link #DEFAULT_COUNT_THREADS} threads in parallel mode
+     * and reads every JSON file of the directory tree.
+     */
+    public VacancyStatsService() {
+        this(ExecutionStrategy.FIXED, DEFAULT_COUNT_THREADS);
+    }
+
+    /**
+     * Creates a service with the given execution strategy.
+     *
+     * @param executionStrategy the strategy used to distribute the files between threads
+     * @param countThreads      the number of threads to use
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public VacancyStatsService(@NonNull ExecutionStrategy executionStrategy, int countThreads) {
+        this(executionStrategy, countThreads, new FileDiscovery());
+    }
+
+    /**
+     * Creates a service with the given execution strategy and discovery of the JSON files.
+     *
+     * @param executionStrategy the strategy used to distribute the files between threads
+     * @param countThreads      the number of threads to use
+     * @param fileDiscovery     the discovery of the JSON files in the directory tree
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public VacancyStatsService(@NonNull ExecutionStrategy executionStrategy,
+                               int countThreads,
+                               @NonNull FileDiscovery fileDiscovery) {
+        this(executionStrategy, countThreads, fileDiscovery, null);
+    }
+
+    /**
+     * Creates a service with the given execution strategy, discovery of the JSON files and statistic cache.
+     * With a cache, only new and changed files are parsed, the statistics of the other files are read from the cache.
+     *
+     * @param executionStrategy the strategy used to distribute the files between threads
+     * @param countThreads      the number of threads to use
+     * @param fileDiscovery     the discovery of the JSON files in the directory tree
+     * @param statisticCache    the cache of the statistics of every file, or null to parse every file
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public VacancyStatsService(@NonNull ExecutionStrategy executionStrategy,
+                               int countThreads,
+                               @NonNull FileDiscovery fileDiscovery,
+                               StatisticCache statisticCache) {
+        this(executionStrategy, countThreads, fileDiscovery, statisticCache, VacancyFilter.NONE);
+    }
+
+    /**
+     * Creates a service with the given execution strategy, discovery of the JSON files, statistic cache and filter.
+     * Only the vacancies accepted by the filter are counted. The statistics of a filtered run are cached apart from
+     * the statistics of other filters, see {@link StatisticCache#withScope(String)}.
+     *
+     * @param executionStrategy the strategy used to distribute the files between threads
+     * @param countThreads      the number of threads to use
+     * @param fileDiscovery     the discovery of the JSON files in the directory tree
+     * @param statisticCache    the cache of the statistics of every file, or null to parse every file
+     * @param vacancyFilter     the filter of the vacancies
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public VacancyStatsService(@NonNull ExecutionStrategy executionStrategy,
+                               int countThreads,
+                               @NonNull FileDiscovery fileDiscovery,
+                               StatisticCache statisticCache,
+                               @NonNull VacancyFilter vacancyFilter) {
+        if (countThreads <= 0) {
+            throw new IllegalArgumentException("Count threads must be positive");
+        }
+
+        this.executionStrategy = executionStrategy;
+        this.countThreads = countThreads;
+        this.fileDiscovery = fileDiscovery;
+        this.statisticCache = statisticCache == null || vacancyFilter.isEmpty()
+                ? statisticCache
+                : statisticCache.withScope(vacancyFilter.toString());
+        this.vacancyFilter = vacancyFilter;
+        this.parserStates = new ArrayBlockingQueue<>(getMaxTasksInFlight(countThreads));
+    }
+
     /**
      * Calculates salary statistics for a list of vacancies.
      *
@@ -58,19 +259,8 @@ public class VacancyStatsService {
 
         Map<Float, Long> map = sortByValue(statisticMap);
 
-        // Calculate the average, maximum, and minimum salary, and return the statistics
-        DoubleSummaryStatistics stats = map.entrySet().stream()
-                .flatMapToDouble(entry -> DoubleStream.generate(entry.getKey()::doubleValue)
-                        .limit(entry.getValue()))
-                .summaryStatistics();
-
-        return SalaryVacancyStatsDto
-                .builder()
-                .vacancyCountBySalary(map)
-                .averageSalary(stats.getAverage())
-                .maxSalary(stats.getMax())
-                .minSalary(stats.getMin())
-                .build();
+        // Calculate the average, maximum, minimum salary and the percentiles, and return the statistics
+        return generateSalaryDto(bucketSalaries(map), sketchOf(map));
     }
 
     /**
@@ -139,7 +329,7 @@ public class VacancyStatsService {
     /**
      * Calculates vacancy statistics for a directory of JSON files.
      * The statistics are calculated by counting the occurrences of unique values for the specified field.
-     * The statistics are calculated using the default number of threads.
+     * The statistics are calculated using the execution strategy and the number of threads of the service.
      *
      * @param folderPath     the path to the directory
      * @param statisticField the statistic field to calculate
@@ -147,7 +337,7 @@ public class VacancyStatsService {
      * @throws IOException if an I/O error occurs
      */
     public AbstractDto calculateVacancyStats(Path folderPath, String statisticField) throws IOException {
-        return calculateVacancyStats(folderPath, statisticField, DEFAULT_COUNT_THREADS);
+        return calculateVacancyStats(folderPath, statisticField, countThreads);
     }
 
 
@@ -163,70 +353,469 @@ public class VacancyStatsService {
      */
     protected AbstractDto calculateVacancyStats(Path folderPath, String statisticField, int countThreads) throws IOException {
         // If statistic field is not allowed, throw an exception
-        if (!allowedStatisticFields.contains(statisticField)) {
+        if (!isAllowedStatisticField(statisticField)) {
             throw new IllegalArgumentException("Invalid statistic field");
         }
 
-        List<File> jsonFiles;
+        return calculateVacancyStats(folderPath, List.of(statisticField), countThreads).get(statisticField);
+    }
 
-        // Get a list of JSON files in the directory
-        try (Stream<Path> jsonPaths = Files.list(folderPath).filter(path -> path.toString().endsWith(".json"))) {
-            jsonFiles = jsonPaths.map(Path::toFile).toList();
+    /**
+     * Calculates several vacancy statistics for a directory of JSON files in a single pass.
+     * Every file is read and tokenized only once, no matter how many statistics are calculated.
+     * The statistics are calculated using the execution strategy and the number of threads of the service.
+     *
+     * @param folderPath      the path to the directory
+     * @param statisticFields the statistic fields to calculate
+     * @return a map of statistic fields to AbstractDto objects containing the calculated statistics, in the order of the fields
+     * @throws IOException if an I/O error occurs
+     */
+    public Map<String, AbstractDto> calculateVacancyStats(Path folderPath, Collection<String> statisticFields) throws IOException {
+        return calculateVacancyStats(folderPath, statisticFields, countThreads);
+    }
+
+    /**
+     * Calculates several vacancy statistics for a single stream of JSON documents, e.g. the standard input.
+     * The stream may be gzip or deflate compressed, or a zip or tar archive of JSON files (optionally gzip compressed),
+     * the format is detected from the first bytes. The stream is parsed on the calling thread, while it is decompressed
+     * on another one. The stream is not closed.
+     *
+     * @param inputStream     the stream of JSON documents
+     * @param statisticFields the statistic fields to calculate
+     * @return a map of statistic fields to AbstractDto objects containing the calculated statistics, in the order of the fields
+     * @throws IOException if an I/O error occurs
+     */
+    public Map<String, AbstractDto> calculateVacancyStats(@NonNull InputStream inputStream,
+                                                          Collection<String> statisticFields) throws IOException {
+        List<StatisticAggregator> aggregators = createAggregators(validateStatisticFields(statisticFields));
+
+        RunMetrics metrics = startRunMetrics();
+        try (RunMetrics.Phase phase = metrics.startPhase("aggregate")) {
+            CorpusFormat.forEachDetectedDocument(nonClosing(inputStream), "stdin", (name, documentStream) -> {
+                // The size of the standard input is unknown, only its records are counted
+                RunMetrics.FileTimer fileTimer = metrics.startFile(name, 0);
+                countRecords(fileTimer, parseVacancies(documentStream, aggregators));
+                fileTimer.finish();
+            });
         }
 
-        // Create a fixed thread pool executor with the specified number of threads
-        ExecutorService executor = Executors.newFixedThreadPool(countThreads);
+        return generateStatisticDtos(aggregators);
+    }
+
+    /**
+     * Calculates several vacancy statistics for a directory of JSON files in a single pass using a specified number of threads.
+     * The files are found in the whole directory tree by the {@link FileDiscovery} of the service and are submitted
+     * while the tree is walked, at most {@link #getMaxTasksInFlight(int)} at a time.
+     * Every file is parsed once and each vacancy is handed to one {@link StatisticAggregator} per statistic field.
+     * Large files are split by the {@link JsonArraySplitter} into ranges that are parsed in parallel as well.
+     * The aggregators of every file and range are merged into a {@link StatisticAccumulator} as soon as they are ready.
+     * With a {@link StatisticCache}, unchanged files are not parsed at all, their cached statistics are merged instead.
+     *
+     * @param folderPath      the path to the directory
+     * @param statisticFields the statistic fields to calculate
+     * @param countThreads    the number of threads to use
+     * @return a map of statistic fields to AbstractDto objects containing the calculated statistics, in the order of the fields
+     * @throws IOException if an I/O error occurs
+     */
+    protected Map<String, AbstractDto> calculateVacancyStats(Path folderPath,
+                                                             Collection<String> statisticFields,
+                                                             int countThreads) throws IOException {
+        List<String> fields = validateStatisticFields(statisticFields);
+        startRunMetrics();
+
+        List<StatisticAggregator> aggregators = aggregateFolder(folderPath, fields, countThreads, null);
+        pruneStatisticCache();
+
+        // Merge the stripes of the accumulator, the statistics are sorted only once, when the DTOs are generated
+        return generateStatisticDtos(aggregators);
+    }
+
+    /**
+     * Calculates the raw statistics of a directory of JSON files, see {@link #calculateVacancyStats(Path, Collection, int)}.
+     * A listener is handed the statistics of every whole file as well, e.g. to update the statistics of a watched
+     * directory when a file changes; the ranges of a split file are then collected per file before they are merged.
+     *
+     * @param folderPath   the path to the directory
+     * @param fields       the validated statistic fields to calculate
+     * @param countThreads the number of threads to use
+     * @param listener     the listener of the statistics of every file, or null
+     * @return a list of aggregators of all files, one per statistic field, in the order of the fields
+     * @throws IOException if an I/O error occurs
+     */
+    protected List<StatisticAggregator> aggregateFolder(Path folderPath,
+                                                        List<String> fields,
+                                                        int countThreads,
+                                                        FileStatisticsListener listener) throws IOException {
+        // Create an executor of the execution strategy with the specified number of threads
+        ExecutorService executor = executionStrategy.createExecutor(countThreads);
+        RunMetrics.Phase aggregatePhase = runMetrics.startPhase("aggregate");
+
+        // The results of the files are merged in the order the files are finished, while other files are still parsed
+        StatisticAccumulator accumulator = new StatisticAccumulator(fields, getStripeCount(countThreads));
+
+        // Only a limited number of files and ranges are submitted at once, the directory walk waits for a free slot
+        int maxTasksInFlight = getMaxTasksInFlight(countThreads);
+        Semaphore tasksInFlight = new Semaphore(maxTasksInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Consumer<CompletableFuture<Void>> release = future -> future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                failure.compareAndSet(null, throwable);
+            }
+            tasksInFlight.release();
+        });
+
+        try {
+            fileDiscovery.discover(folderPath, path -> {
+                File file = path.toFile();
+                // Only plain JSON files can be split, compressed files and archives are read as a whole
+                long rangeSize = CorpusFormat.of(path) == CorpusFormat.JSON ? getSplitRangeSize(file.length(), countThreads) : 0;
+                if (rangeSize <= 0) {
+                    tasksInFlight.acquireUninterruptibly();
+                    release.accept(aggregateAsync(file, listener == null
+                            ? () -> aggregateCachedVacancyStats(file, fields)
+                            : () -> {
+                                // The attributes are read before the file is parsed, so a change in the meantime is noticed
+                                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                                List<StatisticAggregator> aggregators = aggregateCachedVacancyStats(file, fields);
+                                listener.accept(path, attributes, aggregators);
+                                return aggregators;
+                            }, accumulator, executor));
+                    return;
+                }
 
-        // Create a list of CompletableFuture objects for each JSON file
-        List<CompletableFuture<AbstractDto>> futures = jsonFiles.stream()
-                .map(file -> CompletableFuture.supplyAsync(() -> {
-                    VacancyStatsService vacancyStatsService = new VacancyStatsService();
+                if (statisticCache == null && listener == null) {
+                    splitVacancyStats(file, rangeSize, fields, accumulator, tasksInFlight, release, executor, new AtomicBoolean(true));
+                    return;
+                }
+
+                BasicFileAttributes attributes = null;
+                if (listener != null) {
                     try {
-                        return vacancyStatsService.calculateVacancyStats(file, statisticField);
+                        attributes = Files.readAttributes(path, BasicFileAttributes.class);
                     } catch (IOException e) {
                         log.error("Error processing file: {}", file, e);
-                        return null;
+                        return;
                     }
-                }, executor))
-                .toList();
+                }
+                BasicFileAttributes fileAttributes = attributes;
 
-        // Join the futures to get the list of AbstractDto objects
-        List<AbstractDto> abstractDtos = futures.stream()
-                .map(CompletableFuture::join)
-                .toList();
+                // A large file is looked up before it is split, a changed file is split and its ranges are collected
+                // separately, so the statistics of the whole file can be stored once every range is parsed
+                Optional<List<StatisticAggregator>> cached = statisticCache == null ? Optional.empty() : loadCachedVacancyStats(file, fields);
+                if (cached.isPresent()) {
+                    if (listener != null) {
+                        listener.accept(path, fileAttributes, cached.get());
+                    }
+                    accumulator.add(cached.get());
+                    return;
+                }
 
-        // Shutdown the executor
-        executor.shutdown();
+                StatisticCache.FileVersion version = statisticCache == null ? null : readFileVersion(file);
+                StatisticAccumulator fileAccumulator = new StatisticAccumulator(fields, getStripeCount(countThreads));
+                AtomicBoolean complete = new AtomicBoolean(true);
+                List<CompletableFuture<Void>> rangeFutures = new ArrayList<>();
+                splitVacancyStats(file, rangeSize, fields, fileAccumulator, tasksInFlight, future -> {
+                    rangeFutures.add(future);
+                    release.accept(future);
+                }, executor, complete);
 
-        var mapExtractor = getMapExtractor(statisticField);
-        Map<Object, Long> mapStatistic = abstractDtos.stream()
-                .map(mapExtractor)
-                .flatMap(map -> map.entrySet().stream())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        Long::sum));
+                tasksInFlight.acquireUninterruptibly();
+                release.accept(CompletableFuture.allOf(rangeFutures.toArray(CompletableFuture[]::new)).thenRunAsync(() -> {
+                    List<StatisticAggregator> aggregators = fileAccumulator.getAggregators();
+                    if (complete.get()) {
+                        storeCachedVacancyStats(file, version, aggregators);
+                    }
+                    if (listener != null) {
+                        listener.accept(path, fileAttributes, aggregators);
+                    }
+                    accumulator.add(aggregators);
+                }, executor));
+            });
+        } finally {
+            // Wait for every submitted file and range to be merged, then shutdown the executor
+            tasksInFlight.acquireUninterruptibly(maxTasksInFlight);
+            executor.shutdown();
+            aggregatePhase.close();
+        }
+
+        if (failure.get() != null) {
+            throw new CompletionException(failure.get());
+        }
 
-        return generateStatisticDto(mapStatistic, statisticField);
+        return accumulator.getAggregators();
     }
 
     /**
-     * Returns a function that extracts a map of statistics from an AbstractDto object based on a statistic field.
+     * Splits a large JSON file into ranges and submits every range to the executor.
+     * The ranges are parsed while the rest of the file is still being split.
+     * If the file can't be split or a range can't be read, the error is logged and the flag is cleared.
      *
-     * @param statisticField the statistic field
-     * @return a function that extracts a map of statistics from an AbstractDto object
-     * @throws IllegalArgumentException if the statistic field is invalid
+     * @param file          the JSON file
+     * @param rangeSize     the size of the ranges in bytes
+     * @param fields        the statistic fields to calculate
+     * @param accumulator   the accumulator to merge the results of the ranges into
+     * @param tasksInFlight the semaphore limiting the number of tasks in flight
+     * @param release       the consumer of the futures of the ranges, releasing their permits
+     * @param executor      the executor to run the ranges on
+     * @param complete      the flag that is cleared if any part of the file is skipped
      */
-    protected Function<AbstractDto, Map<?, Long>> getMapExtractor(String statisticField) {
-        return switch (statisticField) {
-            case "position" -> dto -> ((PositionVacancyStatsDto) dto).getVacancyCountByPosition();
-            case "salary" -> dto -> ((SalaryVacancyStatsDto) dto).getVacancyCountBySalary();
-            case "recruiter" -> dto -> ((RecruiterVacancyStatsDto) dto).getVacancyCountByRecruiter();
-            case "technology_stack" -> dto -> ((TechnologyVacancyStatsDto) dto).getVacancyCountByTechnology();
-            default -> throw new IllegalArgumentException("Invalid statistic field");
+    protected void splitVacancyStats(File file,
+                                     long rangeSize,
+                                     List<String> fields,
+                                     StatisticAccumulator accumulator,
+                                     Semaphore tasksInFlight,
+                                     Consumer<CompletableFuture<Void>> release,
+                                     ExecutorService executor,
+                                     AtomicBoolean complete) {
+        try {
+            new JsonArraySplitter().split(file.toPath(), rangeSize, range -> {
+                tasksInFlight.acquireUninterruptibly();
+                release.accept(aggregateAsync(range, () -> {
+                    try {
+                        return aggregateVacancyStats(range, fields);
+                    } catch (IOException e) {
+                        complete.set(false);
+                        throw e;
+                    }
+                }, accumulator, executor));
+            });
+        } catch (IOException e) {
+            complete.set(false);
+            log.error("Error splitting file: {}", file, e);
+        }
+    }
+
+    /**
+     * Returns the statistics of a file from the statistic cache, or parses the file and stores its statistics
+     * if it is new or has changed. Without a cache, the file is always parsed.
+     *
+     * @param file   the JSON file
+     * @param fields the statistic fields to calculate
+     * @return a list of aggregators, one per statistic field, in the order of the fields
+     * @throws IOException if an I/O error occurs
+     */
+    protected List<StatisticAggregator> aggregateCachedVacancyStats(File file, List<String> fields) throws IOException {
+        if (statisticCache == null) {
+            return aggregateVacancyStats(file, fields);
+        }
+
+        Optional<List<StatisticAggregator>> cached = loadCachedVacancyStats(file, fields);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        // The version is read before the file is parsed, so a file changed while it is parsed is parsed again by the next run
+        StatisticCache.FileVersion version = readFileVersion(file);
+        List<StatisticAggregator> aggregators = aggregateVacancyStats(file, fields);
+        storeCachedVacancyStats(file, version, aggregators);
+        return aggregators;
+    }
+
+    /**
+     * Starts the metrics of a new run, so the counters of the previous runs are not mixed into it.
+     * The runs of a service are measured one at a time, the metrics of overlapping runs are not separated.
+     *
+     * @return the metrics of the new run
+     */
+    protected RunMetrics startRunMetrics() {
+        RunMetrics metrics = new RunMetrics();
+        runMetrics = metrics;
+        return metrics;
+    }
+
+    /**
+     * Loads the statistics of a file from the statistic cache.
+     * A cache that can't be read is treated as a miss, so the file is parsed again.
+     *
+     * @param file   the JSON file
+     * @param fields the statistic fields to calculate
+     * @return the cached aggregators, or empty if the file is not cached or has changed
+     */
+    protected Optional<List<StatisticAggregator>> loadCachedVacancyStats(File file, List<String> fields) {
+        try {
+            Optional<List<StatisticAggregator>> cached = statisticCache.load(file.toPath(), fields);
+            if (cached.isPresent()) {
+                runMetrics.fileCached();
+            }
+            return cached;
+        } catch (IOException e) {
+            log.warn("Error reading the statistic cache of file: {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads the version of a file for the statistic cache, before the file is parsed.
+     *
+     * @param file the JSON file
+     * @return the version of the file, or null if it can't be read, so the statistics of the file are not stored
+     */
+    protected StatisticCache.FileVersion readFileVersion(File file) {
+        try {
+            return statisticCache.version(file.toPath());
+        } catch (IOException e) {
+            log.warn("Error reading the version of file: {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the statistics of a file in the statistic cache under the version the file had before it was parsed.
+     * A cache that can't be written only costs the next run a parse, so the error is logged and ignored.
+     *
+     * @param file        the JSON file
+     * @param version     the version of the file read before it was parsed, or null to store nothing
+     * @param aggregators the statistics of the whole file
+     */
+    protected void storeCachedVacancyStats(File file, StatisticCache.FileVersion version, List<StatisticAggregator> aggregators) {
+        if (version == null) {
+            return;
+        }
+        try {
+            statisticCache.store(file.toPath(), version, aggregators);
+        } catch (IOException e) {
+            log.warn("Error writing the statistic cache of file: {}", file, e);
+        }
+    }
+
+    /**
+     * Removes the cache entries of files that no longer exist, so the cache doesn't grow with every deleted
+     * or renamed file. A cache that can't be pruned is only larger, so the error is logged and ignored.
+     */
+    protected void pruneStatisticCache() {
+        if (statisticCache == null) {
+            return;
+        }
+        try {
+            int removed = statisticCache.prune();
+            if (removed > 0) {
+                log.debug("Removed {} entries of deleted files from the statistic cache", removed);
+            }
+        } catch (IOException e) {
+            log.warn("Error pruning the statistic cache: {}", statisticCache.getDirectory(), e);
+        }
+    }
+
+    /**
+     * Generates a statistic DTO for every aggregator.
+     *
+     * @param aggregators the filled aggregators
+     * @return a map of statistic fields to AbstractDto objects, in the order of the aggregators
+     */
+    protected Map<String, AbstractDto> generateStatisticDtos(List<StatisticAggregator> aggregators) {
+        try (RunMetrics.Phase phase = runMetrics.startPhase("generate")) {
+            Map<String, AbstractDto> statistics = new LinkedHashMap<>();
+            for (StatisticAggregator aggregator : aggregators) {
+                statistics.put(aggregator.getStatisticField(), generateStatisticDto(aggregator));
+            }
+
+            return statistics;
+        }
+    }
+
+    /**
+     * Wraps a stream, so closing the wrapper doesn't close the stream, e.g. the standard input.
+     *
+     * @param inputStream the stream to wrap
+     * @return the wrapper
+     */
+    protected static InputStream nonClosing(InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            @Override
+            public void close() {
+                // The stream is closed by its owner
+            }
         };
     }
 
+    /**
+     * Returns the maximum number of files and ranges that are submitted to the executor at once.
+     * It keeps every thread busy while the next files are found, but doesn't queue up the whole directory tree.
+     * With virtual threads, it is the number of files read at once.
+     *
+     * @param countThreads the number of threads
+     * @return the maximum number of tasks in flight
+     */
+    protected int getMaxTasksInFlight(int countThreads) {
+        return executionStrategy.effective() == ExecutionStrategy.VIRTUAL ? countThreads : countThreads * 2;
+    }
+
+    /**
+     * Returns the number of stripes of the accumulators, the number of threads that can merge results at once.
+     * Merging is pure computation, so with virtual threads there are no more stripes than cores.
+     *
+     * @param countThreads the number of threads
+     * @return the number of stripes
+     */
+    protected int getStripeCount(int countThreads) {
+        return executionStrategy.effective() == ExecutionStrategy.VIRTUAL
+                ? Math.min(countThreads, Runtime.getRuntime().availableProcessors())
+                : countThreads;
+    }
+
+    /**
+     * Returns the default number of threads of an execution strategy: {@link #DEFAULT_VIRTUAL_COUNT_THREADS}
+     * for virtual threads, {@link #DEFAULT_COUNT_THREADS} for the pools of platform threads. On a JVM without
+     * virtual threads, the virtual strategy falls back to a fixed pool, which gets the default of a fixed pool,
+     * not hundreds of platform threads.
+     *
+     * @param executionStrategy the execution strategy
+     * @return the default number of threads
+     */
+    public static int getDefaultCountThreads(@NonNull ExecutionStrategy executionStrategy) {
+        return executionStrategy.effective() == ExecutionStrategy.VIRTUAL ? DEFAULT_VIRTUAL_COUNT_THREADS : DEFAULT_COUNT_THREADS;
+    }
+
+    /**
+     * Runs an aggregation task on the executor and merges its result into the accumulator
+     * on the same thread, so the result becomes garbage as soon as it is merged.
+     * If the task fails with an I/O error, the error is logged and nothing is merged.
+     *
+     * @param source      the file or range the task reads, used in the log message
+     * @param task        the aggregation task
+     * @param accumulator the accumulator to merge the result into
+     * @param executor    the executor to run the task on
+     * @return a future that completes when the result is merged
+     */
+    protected CompletableFuture<Void> aggregateAsync(Object source,
+                                                     AggregationTask task,
+                                                     StatisticAccumulator accumulator,
+                                                     ExecutorService executor) {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                List<StatisticAggregator> aggregators = task.aggregate();
+                long merge = System.nanoTime();
+                accumulator.add(aggregators);
+                runMetrics.addThreadWork("merge", System.nanoTime() - merge);
+            } catch (IOException e) {
+                log.error("Error processing file: {}", source, e);
+            } finally {
+                runMetrics.addBusyTime(System.nanoTime() - start);
+            }
+        }, executor);
+    }
+
+    /**
+     * Validates the statistic fields and removes duplicates, keeping the order of the fields.
+     *
+     * @param statisticFields the statistic fields to validate
+     * @return a list of unique statistic fields
+     * @throws IllegalArgumentException if there are no statistic fields or any of them is invalid
+     */
+    protected List<String> validateStatisticFields(Collection<String> statisticFields) {
+        if (statisticFields == null || statisticFields.isEmpty()) {
+            throw new IllegalArgumentException("No statistic fields");
+        }
+
+        for (String statisticField : statisticFields) {
+            if (!isAllowedStatisticField(statisticField)) {
+                throw new IllegalArgumentException("Invalid statistic field");
+            }
+        }
+
+        return List.copyOf(new LinkedHashSet<>(statisticFields));
+    }
 
     /**
      * Calculates vacancy statistics for a JSON file.
@@ -238,19 +827,281 @@ public class VacancyStatsService {
      * @throws IOException              if an I/O error occurs
      */
     protected AbstractDto calculateVacancyStats(File jsonFile, String statisticField) throws IOException {
-        if (statisticField == null || !allowedStatisticFields.contains(statisticField)) {
+        if (!isAllowedStatisticField(statisticField)) {
             throw new IllegalArgumentException("Invalid statistic field");
         }
 
-        Map<Object, Long> mapStatistic;
-        ObjectMapper mapper = new ObjectMapper();
+        return generateStatisticDto(aggregateVacancyStats(jsonFile, List.of(statisticField)).get(0));
+    }
+
+    /**
+     * Parses a JSON file once and calculates the raw statistics for every given statistic field.
+     * The file is read with the {@link InputBackend} chosen by its size. A compressed file or an archive
+     * (see {@link CorpusFormat}) is read in place, the statistics of all of its JSON documents are added up.
+     *
+     * @param jsonFile        the JSON file
+     * @param statisticFields the statistic fields to calculate
+     * @return a list of aggregators, one per statistic field, in the order of the fields
+     * @throws IllegalArgumentException if any statistic field is invalid
+     * @throws IOException              if an I/O error occurs
+     */
+    protected List<StatisticAggregator> aggregateVacancyStats(File jsonFile, Collection<String> statisticFields) throws IOException {
+        List<StatisticAggregator> aggregators = createAggregators(statisticFields);
+        Path jsonPath = jsonFile.toPath();
+
+        // Jackson reads raw bytes with its UTF-8 parser, the file is never decoded with the platform charset.
+        // Compressed files and archives are read in place, every JSON document of an archive adds to the same statistics.
+        RunMetrics.FileTimer fileTimer = runMetrics.startFile(jsonPath.toString(), jsonFile.length());
+        CorpusFormat.of(jsonPath).forEachDocument(jsonPath,
+                (name, inputStream) -> countRecords(fileTimer, parseVacancies(inputStream, aggregators)));
+        fileTimer.finish();
+
+        return aggregators;
+    }
+
+    /**
+     * Parses a range of a JSON file once and calculates the raw statistics for every given statistic field.
+     *
+     * @param range           the range of the JSON file
+     * @param statisticFields the statistic fields to calculate
+     * @return a list of aggregators, one per statistic field, in the order of the fields
+     * @throws IllegalArgumentException if any statistic field is invalid
+     * @throws IOException              if an I/O error occurs
+     */
+    protected List<StatisticAggregator> aggregateVacancyStats(JsonArrayRange range, Collection<String> statisticFields) throws IOException {
+        List<StatisticAggregator> aggregators = createAggregators(statisticFields);
+        RunMetrics.FileTimer fileTimer = runMetrics.startFile(
+                range.getPath() + " [" + range.getStart() + ", " + range.getEnd() + ")", range.length());
+        try (InputStream inputStream = range.open()) {
+            // A range of a JSON Lines file may start with a malformed line, so it is not detected again
+            countRecords(fileTimer, range.isLines()
+                    ? parseVacancyLines(inputStream, aggregators)
+                    : parseVacancies(inputStream, aggregators));
+        }
+        fileTimer.finish();
+        return aggregators;
+    }
+
+    /**
+     * Parses a JSON document once and calculates the raw statistics for every given statistic field.
+     * The input stream is not closed.
+     *
+     * @param inputStream     the input stream of the JSON document
+     * @param statisticFields the statistic fields to calculate
+     * @return a list of aggregators, one per statistic field, in the order of the fields
+     * @throws IllegalArgumentException if any statistic field is invalid
+     * @throws IOException              if an I/O error occurs
+     */
+    protected List<StatisticAggregator> aggregateVacancyStats(InputStream inputStream, Collection<String> statisticFields) throws IOException {
+        List<StatisticAggregator> aggregators = createAggregators(statisticFields);
+        parseVacancies(inputStream, aggregators);
+        return aggregators;
+    }
+
+    /**
+     * Parses a JSON document and hands every vacancy to the given aggregators.
+     * A JSON Lines document (see {@link JsonLines}) is parsed line by line, skipping malformed lines.
+     *
+     * @param inputStream the input stream of the JSON document
+     * @param aggregators the aggregators to feed
+     * @return the parser of the document, with the counts of its records
+     * @throws IOException if an I/O error occurs
+     */
+    protected VacancyStatisticJsonParser parseVacancies(InputStream inputStream,
+                                                        Collection<? extends StatisticAggregator> aggregators) throws IOException {
+        ParserState parserState = acquireParserState();
+        try {
+            PushbackInputStream pushbackInputStream = parserState.pushback(inputStream);
+            if (parserState.detectJsonLines(pushbackInputStream)) {
+                return parseVacancyLines(pushbackInputStream, aggregators, parserState);
+            }
+
+            try (JsonParser jsonParser = JSON_FACTORY.createParser(pushbackInputStream)) {
+                VacancyStatisticJsonParser vacancyStatisticJsonParser = new VacancyStatisticJsonParser(jsonParser, vacancyFilter, parserState);
+                vacancyStatisticJsonParser.processJsonFile(aggregators);
+                return vacancyStatisticJsonParser;
+            }
+        } finally {
+            releaseParserState(parserState);
+        }
+    }
+
+    /**
+     * Parses a JSON Lines document and hands the vacancy of every well-formed line to the given aggregators.
+     * Malformed lines are skipped and reported in the log.
+     *
+     * @param inputStream the input stream of the JSON Lines document
+     * @param aggregators the aggregators to feed
+     * @return the parser of the document, with the counts of its records
+     * @throws IOException if an I/O error occurs
+     */
+    protected VacancyStatisticJsonParser parseVacancyLines(InputStream inputStream,
+                                                           Collection<? extends StatisticAggregator> aggregators) throws IOException {
+        ParserState parserState = acquireParserState();
+        try {
+            return parseVacancyLines(inputStream, aggregators, parserState);
+        } finally {
+            releaseParserState(parserState);
+        }
+    }
+
+    /**
+     * Parses a JSON Lines document with the given parser state, see {@link #parseVacancyLines(InputStream, Collection)}.
+     *
+     * @param inputStream the input stream of the JSON Lines document
+     * @param aggregators the aggregators to feed
+     * @param parserState the reusable state of the parser
+     * @return the parser of the document, with the counts of its records
+     * @throws IOException if an I/O error occurs
+     */
+    protected VacancyStatisticJsonParser parseVacancyLines(InputStream inputStream,
+                                                           Collection<? extends StatisticAggregator> aggregators,
+                                                           ParserState parserState) throws IOException {
+        VacancyStatisticJsonLinesParser linesParser = new VacancyStatisticJsonLinesParser(JSON_FACTORY, inputStream, vacancyFilter, parserState);
+        linesParser.processJsonFile(aggregators);
+
+        if (linesParser.getMalformedLineCount() > 0) {
+            log.warn("Skipped {} malformed of {} lines", linesParser.getMalformedLineCount(), linesParser.getLineCount());
+        }
+        return linesParser;
+    }
+
+    /**
+     * Takes an idle parser state from the pool, or creates a new one if none is idle.
+     *
+     * @return the parser state, to be released after the document
+     */
+    protected ParserState acquireParserState() {
+        ParserState parserState = parserStates.poll();
+        return parserState != null ? parserState : new ParserState();
+    }
+
+    /**
+     * Returns a parser state to the pool. The state is dropped if the pool is full.
+     *
+     * @param parserState the parser state
+     */
+    protected void releaseParserState(ParserState parserState) {
+        parserState.release();
+        parserStates.offer(parserState);
+    }
+
+    /**
+     * Adds the counts of the records of a parsed document to the timer of its file.
+     *
+     * @param fileTimer the timer of the file
+     * @param parser    the parser of the document
+     */
+    protected static void countRecords(RunMetrics.FileTimer fileTimer, VacancyStatisticJsonParser parser) {
+        fileTimer.add(parser.getVacancyCount(), parser.getSkippedCount(), parser.getFilteredCount());
+    }
+
+    /**
+     * Creates an empty aggregator for every statistic field.
+     *
+     * @param statisticFields the statistic fields
+     * @return a list of aggregators, one per statistic field, in the order of the fields
+     * @throws IllegalArgumentException if any statistic field is invalid
+     */
+    protected List<StatisticAggregator> createAggregators(Collection<String> statisticFields) {
+        return statisticFields.stream()
+                .map(StatisticAggregator::create)
+                .toList();
+    }
+
+    /**
+     * Returns the size of the ranges a JSON file is split into, so it is parsed by several threads.
+     * Files smaller than {@link #SPLIT_FILE_SIZE} are not split, larger files are split into about four ranges
+     * per thread (but not smaller than {@link #MIN_SPLIT_RANGE_SIZE}), so a slow range doesn't hold up the others.
+     *
+     * @param fileSize     the size of the file in bytes
+     * @param countThreads the number of threads
+     * @return the size of the ranges in bytes, or 0 if the file is not split
+     */
+    protected long getSplitRangeSize(long fileSize, int countThreads) {
+        if (countThreads <= 1 || fileSize < SPLIT_FILE_SIZE) {
+            return 0;
+        }
+
+        return Math.max(MIN_SPLIT_RANGE_SIZE, fileSize / (countThreads * 4L));
+    }
 
-        try (JsonParser jsonParser = mapper.createParser(new BufferedReader(new FileReader(jsonFile)))) {
-            VacancyStatisticJsonParser vacancyStatisticJsonParser = new VacancyStatisticJsonParser(jsonParser);
-            mapStatistic = vacancyStatisticJsonParser.processJsonFile(statisticField);
+    /**
+     * Generates a statistic DTO based on a filled aggregator.
+     * The salary statistic is generated from the sketch of its aggregator, the distinct counts from their
+     * HyperLogLog sketches, the statistics of the top-K mode from their heavy hitters with error bounds,
+     * the other statistics from their counting tables.
+     *
+     * @param aggregator the aggregator
+     * @return an AbstractDto object containing the statistics
+     */
+    protected AbstractDto generateStatisticDto(StatisticAggregator aggregator) {
+        if (aggregator instanceof SalaryStatisticAggregator salaryAggregator) {
+            FloatLongCountingTable salaryTable = salaryAggregator.getSalaryTable();
+            SalaryBuckets salaryBuckets = Configuration.getSalaryBuckets();
+            if (salaryBuckets != null) {
+                salaryTable = salaryBuckets.bucket(salaryTable);
+            }
+            return generateSalaryDto(SortedCountMap.of(salaryTable), salaryAggregator.getSketch());
         }
 
-        return generateStatisticDto(mapStatistic, statisticField);
+        if (aggregator instanceof CrossTabStatisticAggregator crossTabAggregator) {
+            return generateCrossTabDto(crossTabAggregator);
+        }
+
+        if (aggregator instanceof DistinctCountStatisticAggregator distinctAggregator) {
+            return DistinctCountVacancyStatsDto.builder()
+                    .distinctCount(distinctAggregator.getSketch().cardinality())
+                    .relativeError(distinctAggregator.getSketch().getRelativeError())
+                    .build();
+        }
+
+        if (aggregator instanceof AbstractStatisticAggregator countingAggregator && countingAggregator.getHeavyHitters() != null) {
+            return generateTopKDto(countingAggregator.getHeavyHitters(), countingAggregator.getTopK(), aggregator.getStatisticField());
+        }
+
+        if (aggregator instanceof AbstractStatisticAggregator countingAggregator) {
+            return generateStatisticDto(countingAggregator.getStatisticTable(), aggregator.getStatisticField());
+        }
+
+        return generateStatisticDto(aggregator.getStatisticMap(), aggregator.getStatisticField());
+    }
+
+    /**
+     * Generates a CrossTabVacancyStatsDto object based on a filled cross-tab aggregator.
+     * The packed cells are sorted into a {@link SortedCountMap} and converted to their values only once, for the DTO.
+     *
+     * @param aggregator the cross-tab aggregator
+     * @return a CrossTabVacancyStatsDto object containing the statistics
+     */
+    protected CrossTabVacancyStatsDto generateCrossTabDto(CrossTabStatisticAggregator aggregator) {
+        return CrossTabVacancyStatsDto.builder()
+                .vacancyCountByCell(SortedCountMap.of(aggregator.getCellTable(), aggregator::toCrossTabKey))
+                .build();
+    }
+
+    /**
+     * Generates a statistic DTO based on a counting table and a statistic field.
+     * The table is sorted into a {@link SortedCountMap}, which keeps the keys and counts in two arrays
+     * instead of an entry and a boxed count per key, so the DTO of a statistic with millions of keys stays compact.
+     *
+     * @param statisticTable the table of keys to counts
+     * @param statisticField the statistic field
+     * @return an AbstractDto object containing the statistics
+     */
+    protected AbstractDto generateStatisticDto(ObjectLongCountingTable<Object> statisticTable, String statisticField) {
+        return switch (statisticField) {
+            case "position" -> PositionVacancyStatsDto.builder()
+                    .vacancyCountByPosition(SortedCountMap.of(statisticTable, Object::toString))
+                    .build();
+            case "recruiter" -> RecruiterVacancyStatsDto.builder()
+                    .vacancyCountByRecruiter(SortedCountMap.of(statisticTable, key -> ((RecruiterKey) key).toRecruiterDto()))
+                    .build();
+            case "technology_stack" -> TechnologyVacancyStatsDto.builder()
+                    .vacancyCountByTechnology(SortedCountMap.of(statisticTable, Object::toString))
+                    .build();
+            default -> generateStatisticDto(statisticTable.toMap(), statisticField);
+        };
     }
 
     /**
@@ -282,6 +1133,48 @@ public class VacancyStatsService {
                 .build();
     }
 
+    /**
+     * Generates a statistic DTO of the top K keys of a heavy hitters sketch.
+     * Every key is reported with its estimated count and the maximum overestimation of the count,
+     * and the DTO reports the maximum count of a key that isn't reported.
+     *
+     * @param heavyHitters   the sketch of the most frequent keys
+     * @param topK           the number of reported keys
+     * @param statisticField the statistic field, "position" or "technology_stack"
+     * @return an AbstractDto object containing the statistics
+     * @throws IllegalArgumentException if the statistic field doesn't support the top-K mode
+     */
+    protected AbstractDto generateTopKDto(SpaceSavingSketch<Object> heavyHitters, int topK, String statisticField) {
+        List<SpaceSavingSketch.Item<Object>> items = heavyHitters.topK(topK);
+
+        // The items are sorted by their counts already
+        Map<String, Long> vacancyCounts = new LinkedHashMap<>();
+        Map<String, Long> countErrors = new LinkedHashMap<>();
+        for (SpaceSavingSketch.Item<Object> item : items) {
+            vacancyCounts.put(item.key().toString(), item.count());
+            countErrors.put(item.key().toString(), item.error());
+        }
+
+        // A key that isn't reported is either not monitored or has at most the count of the last reported key
+        long maxUnreportedCount = items.size() < topK
+                ? heavyHitters.getMaxError()
+                : Math.max(heavyHitters.getMaxError(), items.get(items.size() - 1).count());
+
+        return switch (statisticField) {
+            case "position" -> PositionVacancyStatsDto.builder()
+                    .vacancyCountByPosition(vacancyCounts)
+                    .countErrorByPosition(countErrors)
+                    .maxUnreportedCount(maxUnreportedCount)
+                    .build();
+            case "technology_stack" -> TechnologyVacancyStatsDto.builder()
+                    .vacancyCountByTechnology(vacancyCounts)
+                    .countErrorByTechnology(countErrors)
+                    .maxUnreportedCount(maxUnreportedCount)
+                    .build();
+            default -> throw new IllegalArgumentException("Invalid statistic field");
+        };
+    }
+
     /**
      * Generates a SalaryVacancyStatsDto object based on a map of salary statistics.
      *
@@ -291,18 +1184,70 @@ public class VacancyStatsService {
     protected SalaryVacancyStatsDto generateSalaryDto(Map<Object, Long> statisticMap) {
         Map<Float, Long> map = sortByValue(statisticMap, key -> Float.valueOf(key.toString()));
 
-        DoubleSummaryStatistics stats = map.entrySet().stream()
-                .flatMapToDouble(entry -> DoubleStream.generate(entry.getKey()::doubleValue)
-                        .limit(entry.getValue()))
-                .summaryStatistics();
+        return generateSalaryDto(bucketSalaries(map), sketchOf(map));
+    }
 
-        return SalaryVacancyStatsDto
+    /**
+     * Generates a SalaryVacancyStatsDto object based on a sorted map of salary statistics and a sketch of the same salaries.
+     * The minimum, average and maximum salary are exact, the percentiles are within the accuracy of the sketch.
+     * If there are no salaries, the minimum is positive infinity, the maximum is negative infinity, the average is zero
+     * and the percentiles are omitted, the same as {@link DoubleSummaryStatistics} of no values.
+     *
+     * @param vacancyCountBySalary the sorted map of salary statistics
+     * @param sketch               the sketch of the salaries
+     * @return a SalaryVacancyStatsDto object containing the statistics
+     */
+    protected SalaryVacancyStatsDto generateSalaryDto(Map<Float, Long> vacancyCountBySalary, QuantileSketch sketch) {
+        SalaryVacancyStatsDto.SalaryVacancyStatsDtoBuilder builder = SalaryVacancyStatsDto
                 .builder()
-                .vacancyCountBySalary(map)
-                .averageSalary(stats.getAverage())
-                .maxSalary(stats.getMax())
-                .minSalary(stats.getMin())
-                .build();
+                .vacancyCountBySalary(vacancyCountBySalary)
+                .averageSalary(sketch.getAverage())
+                .maxSalary(sketch.getMax())
+                .minSalary(sketch.getMin());
+
+        if (!sketch.isEmpty()) {
+            builder.p50Salary(sketch.quantile(0.5))
+                    .p75Salary(sketch.quantile(0.75))
+                    .p90Salary(sketch.quantile(0.9))
+                    .p99Salary(sketch.quantile(0.99));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Groups the number of vacancies per salary by the salary ranges of {@link Configuration#getSalaryBuckets()}.
+     *
+     * @param vacancyCountBySalary the sorted number of vacancies per salary
+     * @return the sorted number of vacancies per range, or the same map if no ranges are configured
+     */
+    protected Map<Float, Long> bucketSalaries(Map<Float, Long> vacancyCountBySalary) {
+        SalaryBuckets salaryBuckets = Configuration.getSalaryBuckets();
+        if (salaryBuckets == null) {
+            return vacancyCountBySalary;
+        }
+
+        FloatLongCountingTable bucketTable = new FloatLongCountingTable();
+        vacancyCountBySalary.forEach((salary, count) -> bucketTable.add(salaryBuckets.lowerBound(salary), count));
+        return SortedCountMap.of(bucketTable);
+    }
+
+    /**
+     * Builds a sketch of the salaries from the number of vacancies per salary,
+     * adding every salary once with its count instead of once per vacancy.
+     * The sketch holds only finite non-negative salaries, the others are left out of it.
+     *
+     * @param vacancyCountBySalary the number of vacancies per salary
+     * @return a sketch of the salaries
+     */
+    protected QuantileSketch sketchOf(Map<Float, Long> vacancyCountBySalary) {
+        QuantileSketch sketch = new QuantileSketch();
+        vacancyCountBySalary.forEach((salary, count) -> {
+            if (SalaryStatisticAggregator.isValidSalary(salary)) {
+                sketch.add(salary, count);
+            }
+        });
+        return sketch;
     }
 
     /**
@@ -366,4 +1311,37 @@ public class VacancyStatsService {
                         LinkedHashMap::new
                 ));
     }
+
+    /**
+     * This interface represents a listener of the statistics of every file of a directory, see
+     * {@link #aggregateFolder(Path, List, int, FileStatisticsListener)}. It is called by several threads at once.
+     */
+    @FunctionalInterface
+    protected interface FileStatisticsListener {
+
+        /**
+         * Receives the statistics of a whole file. The aggregators are merged into the total as well,
+         * they must not be modified.
+         *
+         * @param file        the file
+         * @param attributes  the attributes of the file, read before it was parsed
+         * @param aggregators the statistics of the file, one aggregator per statistic field
+         */
+        void accept(Path file, BasicFileAttributes attributes, List<StatisticAggregator> aggregators);
+    }
+
+    /**
+     * This interface represents a task that parses a file or a range of a file.
+     */
+    @FunctionalInterface
+    protected interface AggregationTask {
+
+        /**
+         * Calculates the raw statistics.
+         *
+         * @return a list of aggregators, one per statistic field
+         * @throws IOException if an I/O error occurs
+         */
+        List<StatisticAggregator> aggregate() throws IOException;
+    }
 }
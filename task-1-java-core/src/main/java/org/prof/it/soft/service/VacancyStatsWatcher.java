@@ -0,0 +1,378 @@
+package org.prof.it.soft.service;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.prof.it.soft.dto.AbstractDto;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * This class keeps the vacancy statistics of a directory tree up to date while its files change.
+ * <p>
+ * The statistics of every file are kept in memory next to their total. When files are added, modified or deleted,
+ * the old statistics of the changed files are subtracted from the total and their new statistics are added,
+ * so an update costs time proportional to the changed files, not to the whole directory tree.
+ * The changes are reported by a {@link WatchService}, and are collected until no change has been reported
+ * for the debounce time, so a file that is still being written is parsed only once.
+ * A file whose size and modification time haven't changed is not parsed again.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     try (VacancyStatsWatcher watcher = new VacancyStatsWatcher(service, folder, List.of("position"))) {
+ *         write(watcher.start());
+ *         watcher.watch(statistics -&gt; write(statistics));
+ *     }
+ * </pre>
+ */
+@Slf4j
+public class VacancyStatsWatcher implements Closeable {
+
+    /**
+     * The default time without changes after which the collected changes are applied.
+     */
+    public final static Duration DEFAULT_DEBOUNCE = Duration.ofMillis(500);
+
+    /**
+     * Changes are applied at the latest after this many debounce times, even if files keep changing.
+     */
+    protected final static int MAX_DEBOUNCE_PERIODS = 10;
+
+    /**
+     * The service used to parse the files.
+     */
+    @Getter
+    protected final VacancyStatsService vacancyStatsService;
+
+    /**
+     * The watched directory.
+     */
+    @Getter
+    protected final Path folderPath;
+
+    /**
+     * The statistic fields to calculate.
+     */
+    @Getter
+    protected final List<String> statisticFields;
+
+    /**
+     * The time without changes after which the collected changes are applied.
+     */
+    @Getter
+    protected final Duration debounce;
+
+    /**
+     * The statistics of every file, by the path of the file.
+     */
+    protected final Map<Path, FileStatistics> fileStatistics = new HashMap<>();
+
+    /**
+     * The total statistics of all files, one aggregator per statistic field.
+     */
+    protected final List<StatisticAggregator> totals;
+
+    protected final WatchService watchService;
+
+    /**
+     * Creates a watcher with the {@link #DEFAULT_DEBOUNCE} time.
+     *
+     * @param vacancyStatsService the service used to parse the files
+     * @param folderPath          the directory to watch
+     * @param statisticFields     the statistic fields to calculate
+     * @throws IOException if the watch service can't be created
+     */
+    public VacancyStatsWatcher(@NonNull VacancyStatsService vacancyStatsService,
+                               @NonNull Path folderPath,
+                               Collection<String> statisticFields) throws IOException {
+        this(vacancyStatsService, folderPath, statisticFields, DEFAULT_DEBOUNCE);
+    }
+
+    /**
+     * Creates a watcher.
+     *
+     * @param vacancyStatsService the service used to parse the files
+     * @param folderPath          the directory to watch
+     * @param statisticFields     the statistic fields to calculate
+     * @param debounce            the time without changes after which the collected changes are applied
+     * @throws IllegalArgumentException if any statistic field is invalid or approximate, or the debounce time is negative
+     * @throws IOException              if the watch service can't be created
+     */
+    public VacancyStatsWatcher(@NonNull VacancyStatsService vacancyStatsService,
+                               @NonNull Path folderPath,
+                               Collection<String> statisticFields,
+                               @NonNull Duration debounce) throws IOException {
+        if (debounce.isNegative()) {
+            throw new IllegalArgumentException("Debounce must not be negative");
+        }
+
+        this.vacancyStatsService = vacancyStatsService;
+        this.folderPath = folderPath;
+        this.statisticFields = vacancyStatsService.validateStatisticFields(statisticFields);
+        this.debounce = debounce;
+        this.totals = vacancyStatsService.createAggregators(this.statisticFields);
+        if (totals.stream().anyMatch(StatisticAggregator::isApproximate)) {
+            throw new IllegalArgumentException("Approximate statistics of the top-K mode can't be watched");
+        }
+        this.watchService = folderPath.getFileSystem().newWatchService();
+    }
+
+    /**
+     * Starts watching the directory tree and calculates the statistics of all of its files.
+     * The directories are watched before the files are parsed, so no change made in the meantime is lost.
+     * The files are parsed by the pipeline of the service: they are submitted while the tree is walked, a few at a time,
+     * and large files are split. Only the statistics of every file are kept, for the updates of changed files.
+     *
+     * @return a map of statistic fields to AbstractDto objects containing the calculated statistics, in the order of the fields
+     * @throws IOException if the directory tree can't be read
+     */
+    public Map<String, AbstractDto> start() throws IOException {
+        register(folderPath);
+        vacancyStatsService.startRunMetrics();
+
+        // The worker threads only record the statistics of every file, the totals come from the striped accumulator
+        List<StatisticAggregator> aggregators = vacancyStatsService.aggregateFolder(folderPath, statisticFields,
+                vacancyStatsService.getCountThreads(), (file, attributes, fileAggregators) -> {
+                    FileStatistics statistics = new FileStatistics(attributes.size(),
+                            attributes.lastModifiedTime().toMillis(), fileAggregators);
+                    synchronized (fileStatistics) {
+                        fileStatistics.put(file, statistics);
+                    }
+                });
+        for (int i = 0; i < totals.size(); i++) {
+            totals.get(i).merge(aggregators.get(i));
+        }
+
+        return getStatistics();
+    }
+
+    /**
+     * Applies the changes of the directory tree until the watcher is closed or the thread is interrupted,
+     * and hands the updated statistics to the listener after every applied batch of changes.
+     *
+     * @param listener the listener of the updated statistics
+     * @throws IOException if the directory tree can't be read
+     */
+    public void watch(@NonNull Consumer<Map<String, AbstractDto>> listener) throws IOException {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (processChanges(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+                    listener.accept(getStatistics());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Stopped watching {}", folderPath);
+        }
+    }
+
+    /**
+     * Waits for the next change of the directory tree, collects the changes until no change is reported
+     * for the debounce time, and applies them to the statistics.
+     *
+     * @param timeout the maximum time to wait for the first change
+     * @param unit    the unit of the timeout
+     * @return true if the statistics have changed, false if there was no change or only unchanged files were reported
+     * @throws IOException          if the directory tree can't be read
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean processChanges(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        WatchKey watchKey = watchService.poll(timeout, unit);
+        if (watchKey == null) {
+            return false;
+        }
+
+        Set<Path> changedPaths = new LinkedHashSet<>();
+        boolean overflow = collectChanges(watchKey, changedPaths);
+
+        long deadline = System.nanoTime() + debounce.toNanos() * MAX_DEBOUNCE_PERIODS;
+        while (System.nanoTime() < deadline && (watchKey = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+            overflow |= collectChanges(watchKey, changedPaths);
+        }
+
+        if (overflow) {
+            // Some events were lost, every known and every existing file is checked, only changed files are parsed
+            log.warn("Too many changes in {}, checking all files", folderPath);
+            changedPaths.addAll(fileStatistics.keySet());
+            vacancyStatsService.getFileDiscovery().discover(folderPath, changedPaths::add);
+        }
+
+        // Every batch of changes is a run of its own, so the metrics don't grow for as long as the folder is watched
+        vacancyStatsService.startRunMetrics();
+        boolean changed = false;
+        for (Path changedPath : changedPaths) {
+            changed |= applyChange(changedPath);
+        }
+
+        return changed;
+    }
+
+    /**
+     * Returns the current statistics of the directory tree.
+     *
+     * @return a map of statistic fields to AbstractDto objects containing the statistics, in the order of the fields
+     */
+    public Map<String, AbstractDto> getStatistics() {
+        return vacancyStatsService.generateStatisticDtos(totals);
+    }
+
+    /**
+     * Stops watching the directory tree. A running {@link #watch(Consumer)} returns.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Collects the changed paths of a watch key and resets the key.
+     * New directories are watched as well, and their files are collected, as they may have been created
+     * before the directory was watched.
+     *
+     * @param watchKey     the watch key
+     * @param changedPaths the collected changed paths
+     * @return true if events were lost, false otherwise
+     * @throws IOException if a new directory can't be watched
+     */
+    protected boolean collectChanges(WatchKey watchKey, Set<Path> changedPaths) throws IOException {
+        Path directory = (Path) watchKey.watchable();
+        boolean overflow = false;
+
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                register(path);
+                try (Stream<Path> files = Files.walk(path)) {
+                    files.filter(Files::isRegularFile).forEach(changedPaths::add);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            } else {
+                changedPaths.add(path);
+            }
+        }
+
+        watchKey.reset();
+        return overflow;
+    }
+
+    /**
+     * Applies the change of a path to the statistics. A new or modified file is parsed, and its old statistics
+     * are replaced. The statistics of a deleted file, or of all files of a deleted directory, are removed.
+     *
+     * @param path the changed path
+     * @return true if the statistics have changed, false otherwise
+     */
+    protected boolean applyChange(Path path) {
+        if (Files.isRegularFile(path) && vacancyStatsService.getFileDiscovery().matches(folderPath.relativize(path))) {
+            FileStatistics current = fileStatistics.get(path);
+            if (current != null && current.isUnchanged(path)) {
+                return false;
+            }
+
+            // A file that can't be read is usually still being written, its old statistics are kept until the next change
+            Optional<FileStatistics> statistics = readFileStatistics(path);
+            statistics.ifPresent(newStatistics -> put(path, newStatistics));
+            return statistics.isPresent();
+        }
+
+        if (Files.isDirectory(path)) {
+            return false;
+        }
+
+        // A deleted directory isn't known as such, so the files below the path are removed as well
+        List<Path> removedFiles = fileStatistics.containsKey(path)
+                ? List.of(path)
+                : fileStatistics.keySet().stream().filter(file -> file.startsWith(path)).toList();
+        removedFiles.forEach(this::remove);
+        return !removedFiles.isEmpty();
+    }
+
+    /**
+     * Parses a file, or reads its statistics from the statistic cache of the service.
+     *
+     * @param file the file
+     * @return the statistics of the file, or empty if the file can't be read
+     */
+    protected Optional<FileStatistics> readFileStatistics(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            List<StatisticAggregator> aggregators = vacancyStatsService.aggregateCachedVacancyStats(file.toFile(), statisticFields);
+            return Optional.of(new FileStatistics(attributes.size(), attributes.lastModifiedTime().toMillis(), aggregators));
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Error processing file: {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private void put(Path file, FileStatistics statistics) {
+        FileStatistics previous = fileStatistics.put(file, statistics);
+        for (int i = 0; i < totals.size(); i++) {
+            if (previous != null) {
+                totals.get(i).subtract(previous.aggregators().get(i));
+            }
+            totals.get(i).merge(statistics.aggregators().get(i));
+        }
+    }
+
+    private void remove(Path file) {
+        FileStatistics previous = fileStatistics.remove(file);
+        for (int i = 0; i < totals.size(); i++) {
+            totals.get(i).subtract(previous.aggregators().get(i));
+        }
+    }
+
+    private void register(Path directory) throws IOException {
+        try (Stream<Path> directories = Files.walk(directory)) {
+            for (Path subdirectory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                subdirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * This record represents the statistics of a file and the state of the file they were calculated from.
+     *
+     * @param size         the size of the file
+     * @param lastModified the modification time of the file in milliseconds
+     * @param aggregators  the statistics of the file, one aggregator per statistic field
+     */
+    protected record FileStatistics(long size, long lastModified, List<StatisticAggregator> aggregators) {
+
+        /**
+         * Returns whether the file still has the same size and modification time.
+         *
+         * @param file the file
+         * @return true if the file is unchanged, false otherwise
+         */
+        boolean isUnchanged(Path file) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                return attributes.size() == size && attributes.lastModifiedTime().toMillis() == lastModified;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
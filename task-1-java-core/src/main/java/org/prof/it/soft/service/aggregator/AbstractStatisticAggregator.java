@@ -0,0 +1,167 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.prof.it.soft.collection.ObjectLongCountingTable;
+import org.prof.it.soft.config.Configuration;
+import org.prof.it.soft.sketch.SpaceSavingSketch;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class is a base for aggregators that count the occurrences of unique keys.
+ * The counts are kept in an {@link ObjectLongCountingTable}, so counting a key doesn't box the count.
+ * <p>
+ * In the top-K mode, the counts are kept in a {@link SpaceSavingSketch} instead, which needs bounded memory
+ * no matter how many distinct keys there are, and only the top K keys with their approximate counts are reported.
+ */
+@Getter
+public abstract class AbstractStatisticAggregator implements StatisticAggregator {
+
+    /**
+     * The initial number of keys of the counting table.
+     */
+    protected static final int EXPECTED_KEYS = 64;
+
+    /**
+     * The statistic field calculated by this aggregator.
+     */
+    protected final String statisticField;
+
+    /**
+     * The table of unique keys to the number of occurrences, or null in the top-K mode.
+     */
+    protected final ObjectLongCountingTable<Object> statisticTable;
+
+    /**
+     * The number of reported keys in the top-K mode, or 0 if every key is counted exactly.
+     */
+    protected final int topK;
+
+    /**
+     * The sketch of the most frequent keys in the top-K mode, or null if every key is counted exactly.
+     */
+    protected final SpaceSavingSketch<Object> heavyHitters;
+
+    protected AbstractStatisticAggregator(String statisticField) {
+        this(statisticField, 0);
+    }
+
+    /**
+     * Creates an aggregator that counts every key exactly, or only the most frequent keys in the top-K mode.
+     *
+     * @param statisticField the statistic field calculated by this aggregator
+     * @param topK           the number of reported keys, or 0 to count every key exactly
+     */
+    protected AbstractStatisticAggregator(String statisticField, int topK) {
+        this.statisticField = statisticField;
+        this.topK = Math.max(topK, 0);
+        if (this.topK > 0) {
+            this.statisticTable = null;
+            this.heavyHitters = new SpaceSavingSketch<>(Configuration.getTopKCounters(this.topK));
+        } else {
+            this.statisticTable = new ObjectLongCountingTable<>(EXPECTED_KEYS, Configuration.isOffHeapStatistics());
+            this.heavyHitters = null;
+        }
+    }
+
+    @Override
+    public boolean isApproximate() {
+        return heavyHitters != null;
+    }
+
+    /**
+     * Returns the calculated statistic. In the top-K mode, only the top K keys with their estimated counts are returned.
+     *
+     * @return the statistic map
+     */
+    @Override
+    public Map<Object, Long> getStatisticMap() {
+        Map<Object, Long> statisticMap = new HashMap<>();
+        if (heavyHitters == null) {
+            statisticTable.forEach((key, count) -> statisticMap.put(toStatisticKey(key), count));
+            return statisticMap;
+        }
+
+        for (SpaceSavingSketch.Item<Object> item : heavyHitters.topK(topK)) {
+            statisticMap.put(toStatisticKey(item.key()), item.count());
+        }
+        return statisticMap;
+    }
+
+    /**
+     * Converts a counted key to the key reported in the statistic map, e.g. a compact recruiter key
+     * to a RecruiterDto. The keys are reported as they are by default.
+     *
+     * @param key the counted key
+     * @return the reported key
+     */
+    protected Object toStatisticKey(Object key) {
+        return key;
+    }
+
+    /**
+     * Converts a key of a statistic map, e.g. of a statistic loaded from the cache, to the counted key.
+     * It is the inverse of {@link #toStatisticKey(Object)}.
+     *
+     * @param key the reported key
+     * @return the counted key
+     */
+    protected Object fromStatisticKey(Object key) {
+        return key;
+    }
+
+    @Override
+    public void merge(@NonNull StatisticAggregator other) {
+        if (!statisticField.equals(other.getStatisticField())) {
+            throw new IllegalArgumentException("Cannot merge statistic " + other.getStatisticField() + " into " + statisticField);
+        }
+
+        if (other instanceof AbstractStatisticAggregator countingAggregator) {
+            if (heavyHitters == null && countingAggregator.heavyHitters == null) {
+                statisticTable.addAll(countingAggregator.statisticTable);
+            } else if (heavyHitters == null) {
+                throw new IllegalArgumentException("Cannot merge approximate statistic " + statisticField + " into exact one");
+            } else if (countingAggregator.heavyHitters != null) {
+                heavyHitters.merge(countingAggregator.heavyHitters);
+            } else {
+                countingAggregator.statisticTable.forEach(heavyHitters::add);
+            }
+        } else if (heavyHitters == null) {
+            other.getStatisticMap().forEach((key, count) -> statisticTable.add(fromStatisticKey(key), count));
+        } else {
+            other.getStatisticMap().forEach((key, count) -> heavyHitters.add(fromStatisticKey(key), count));
+        }
+    }
+
+    @Override
+    public void subtract(@NonNull StatisticAggregator other) {
+        if (!statisticField.equals(other.getStatisticField())) {
+            throw new IllegalArgumentException("Cannot subtract statistic " + other.getStatisticField() + " from " + statisticField);
+        }
+
+        if (heavyHitters != null) {
+            throw new UnsupportedOperationException("Approximate statistic " + statisticField + " can't be subtracted");
+        }
+
+        if (other instanceof AbstractStatisticAggregator countingAggregator && countingAggregator.statisticTable != null) {
+            statisticTable.subtractAll(countingAggregator.statisticTable);
+        } else {
+            other.getStatisticMap().forEach((key, count) -> statisticTable.subtract(fromStatisticKey(key), count));
+        }
+    }
+
+    /**
+     * Increment value in statistic table
+     *
+     * @param key key to increment
+     */
+    protected void incrementValue(Object key) {
+        if (heavyHitters == null) {
+            statisticTable.increment(key);
+        } else {
+            heavyHitters.add(key);
+        }
+    }
+}
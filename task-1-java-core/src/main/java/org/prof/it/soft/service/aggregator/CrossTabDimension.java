@@ -0,0 +1,48 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enum represents the dimensions a cross-tab statistic can count the vacancies by.
+ * <p>
+ * The technology stack is the only dimension with several values per vacancy: a vacancy is counted once per technology.
+ * The company is the company of the recruiter.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CrossTabDimension {
+
+    POSITION("position", VacancyField.POSITION),
+    SALARY("salary", VacancyField.SALARY),
+    TECHNOLOGY_STACK("technology_stack", VacancyField.TECHNOLOGY_STACK),
+    COMPANY("company", VacancyField.RECRUITER_COMPANY_NAME);
+
+    /**
+     * The name of the dimension in a cross-tab statistic field, e.g. "position" in "position+technology_stack".
+     */
+    private final String name;
+
+    /**
+     * The vacancy field the values of the dimension are read from.
+     */
+    private final VacancyField field;
+
+    /**
+     * Returns the dimension with the given name.
+     *
+     * @param name the name of the dimension
+     * @return the dimension
+     * @throws IllegalArgumentException if there is no dimension with the name
+     */
+    public static CrossTabDimension of(@NonNull String name) {
+        return switch (name) {
+            case "position" -> POSITION;
+            case "salary" -> SALARY;
+            case "technology_stack" -> TECHNOLOGY_STACK;
+            case "company" -> COMPANY;
+            default -> throw new IllegalArgumentException("Invalid cross-tab dimension: " + name);
+        };
+    }
+}
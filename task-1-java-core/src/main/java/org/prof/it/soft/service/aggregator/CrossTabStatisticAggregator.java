@@ -0,0 +1,311 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.prof.it.soft.collection.LongLongCountingTable;
+import org.prof.it.soft.collection.TokenDictionary;
+import org.prof.it.soft.config.Configuration;
+import org.prof.it.soft.dto.CrossTabKeyDto;
+import org.prof.it.soft.text.CommaTokenizer;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class counts the vacancies by the pairs of values of two dimensions, e.g. by position and technology
+ * for the statistic field "position+technology_stack".
+ * <p>
+ * Every value of a dimension gets an int id: the strings from a {@link TokenDictionary} of the dimension,
+ * the salaries their float bits. The ids of a cell are packed into one long key of a {@link LongLongCountingTable},
+ * so counting a vacancy creates no tuple object and no boxed key. The technologies are tokenized in place, the same
+ * as by {@link TechnologyStackStatisticAggregator}, and a vacancy is counted once for each of its technologies.
+ * Vacancies without a value of either dimension are skipped.
+ * <p>
+ * The statistic map reports the cells as {@link CrossTabKeyDto}s of strings, salaries as e.g. "1000.0",
+ * and the ids of two aggregators are matched by these strings when they are merged.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     CrossTabStatisticAggregator aggregator = CrossTabStatisticAggregator.of("position+technology_stack");
+ *     new VacancyStatisticJsonParser(jsonParser).processJsonFile(List.of(aggregator));
+ *     Map&lt;Object, Long&gt; cells = aggregator.getStatisticMap(); // {CrossTabKeyDto(Java Developer, Spring)=3, ...}
+ * </pre>
+ */
+public class CrossTabStatisticAggregator implements StatisticAggregator {
+
+    /**
+     * The separator of the two dimensions in a cross-tab statistic field.
+     */
+    public static final String SEPARATOR = "+";
+
+    /**
+     * The statistic field calculated by this aggregator, e.g. "position+technology_stack".
+     */
+    @Getter
+    protected final String statisticField;
+
+    /**
+     * The dimension of the rows, the first value of a cell.
+     */
+    @Getter
+    protected final CrossTabDimension rowDimension;
+
+    /**
+     * The dimension of the columns, the second value of a cell.
+     */
+    @Getter
+    protected final CrossTabDimension columnDimension;
+
+    /**
+     * The table of packed cells to the number of occurrences.
+     */
+    @Getter
+    protected final LongLongCountingTable cellTable =
+            new LongLongCountingTable(AbstractStatisticAggregator.EXPECTED_KEYS, Configuration.isOffHeapStatistics());
+
+    private final Axis rows;
+
+    private final Axis columns;
+
+    /**
+     * Creates an aggregator of the pairs of values of two different dimensions.
+     *
+     * @param rowDimension    the dimension of the rows
+     * @param columnDimension the dimension of the columns
+     * @throws IllegalArgumentException if the dimensions are the same
+     */
+    public CrossTabStatisticAggregator(@NonNull CrossTabDimension rowDimension, @NonNull CrossTabDimension columnDimension) {
+        if (rowDimension == columnDimension) {
+            throw new IllegalArgumentException("Invalid statistic field");
+        }
+        this.statisticField = rowDimension.getName() + SEPARATOR + columnDimension.getName();
+        this.rowDimension = rowDimension;
+        this.columnDimension = columnDimension;
+        this.rows = new Axis(rowDimension);
+        this.columns = new Axis(columnDimension);
+    }
+
+    /**
+     * Creates an aggregator of a cross-tab statistic field, two different dimensions separated by "+".
+     *
+     * @param statisticField the statistic field, e.g. "position+technology_stack"
+     * @return a new aggregator
+     * @throws IllegalArgumentException if the statistic field is not a valid cross-tab statistic field
+     */
+    public static CrossTabStatisticAggregator of(@NonNull String statisticField) {
+        int separator = statisticField.indexOf(SEPARATOR);
+        if (separator < 0 || statisticField.indexOf(SEPARATOR, separator + 1) >= 0) {
+            throw new IllegalArgumentException("Invalid statistic field");
+        }
+
+        return new CrossTabStatisticAggregator(CrossTabDimension.of(statisticField.substring(0, separator)),
+                CrossTabDimension.of(statisticField.substring(separator + 1)));
+    }
+
+    /**
+     * Returns whether a statistic field is a valid cross-tab statistic field.
+     *
+     * @param statisticField the statistic field
+     * @return true if the statistic field consists of two different dimensions separated by "+", false otherwise
+     */
+    public static boolean isCrossTab(String statisticField) {
+        if (statisticField == null || !statisticField.contains(SEPARATOR)) {
+            return false;
+        }
+
+        try {
+            of(statisticField);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Set<VacancyField> getProjectedFields() {
+        return EnumSet.of(rowDimension.getField(), columnDimension.getField());
+    }
+
+    @Override
+    public void aggregate(VacancyRecord vacancyRecord) {
+        int rowCount = rows.collect(vacancyRecord);
+        if (rowCount == 0) {
+            return;
+        }
+        int columnCount = columns.collect(vacancyRecord);
+
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                cellTable.increment(LongLongCountingTable.pack(rows.ids[row], columns.ids[column]));
+            }
+        }
+    }
+
+    /**
+     * Returns the calculated statistic, where the keys are the cells as {@link CrossTabKeyDto}s.
+     *
+     * @return the statistic map
+     */
+    @Override
+    public Map<Object, Long> getStatisticMap() {
+        Map<Object, Long> statisticMap = new HashMap<>();
+        cellTable.forEach((cell, count) -> statisticMap.put(toCrossTabKey(cell), count));
+        return statisticMap;
+    }
+
+    /**
+     * Converts a packed cell of the cell table to the values of its dimensions.
+     *
+     * @param cell the packed cell
+     * @return the cell as a DTO
+     */
+    public CrossTabKeyDto toCrossTabKey(long cell) {
+        return new CrossTabKeyDto(rows.value(LongLongCountingTable.first(cell)),
+                columns.value(LongLongCountingTable.second(cell)));
+    }
+
+    @Override
+    public void merge(@NonNull StatisticAggregator other) {
+        checkStatisticField(other, "merge");
+
+        if (other instanceof CrossTabStatisticAggregator crossTabAggregator) {
+            // The dictionaries of the other aggregator assign different ids, the cells are matched by their values
+            crossTabAggregator.cellTable.forEach((cell, count) -> cellTable.add(
+                    remap(crossTabAggregator, cell), count));
+        } else {
+            other.getStatisticMap().forEach((key, count) -> cellTable.add(fromCrossTabKey((CrossTabKeyDto) key), count));
+        }
+    }
+
+    @Override
+    public void subtract(@NonNull StatisticAggregator other) {
+        checkStatisticField(other, "subtract");
+
+        if (other instanceof CrossTabStatisticAggregator crossTabAggregator) {
+            crossTabAggregator.cellTable.forEach((cell, count) -> cellTable.subtract(
+                    remap(crossTabAggregator, cell), count));
+        } else {
+            other.getStatisticMap().forEach((key, count) -> cellTable.subtract(fromCrossTabKey((CrossTabKeyDto) key), count));
+        }
+    }
+
+    private long remap(CrossTabStatisticAggregator other, long cell) {
+        return LongLongCountingTable.pack(rows.remap(other.rows, LongLongCountingTable.first(cell)),
+                columns.remap(other.columns, LongLongCountingTable.second(cell)));
+    }
+
+    private long fromCrossTabKey(CrossTabKeyDto key) {
+        return LongLongCountingTable.pack(rows.id(key.getRow()), columns.id(key.getColumn()));
+    }
+
+    private void checkStatisticField(StatisticAggregator other, String operation) {
+        if (!statisticField.equals(other.getStatisticField())) {
+            throw new IllegalArgumentException("Cannot " + operation + " statistic " + other.getStatisticField()
+                    + " with " + statisticField);
+        }
+    }
+
+    /**
+     * The ids of the values of one dimension, and the ids of the current vacancy.
+     */
+    private static final class Axis {
+
+        private final CrossTabDimension dimension;
+
+        /**
+         * The ids of the string values, or null for the salaries, whose ids are their float bits.
+         */
+        private final TokenDictionary dictionary;
+
+        private final CommaTokenizer.TokenConsumer technologyCollector = this::collectTechnology;
+
+        private int[] ids = new int[8];
+
+        private int count;
+
+        private Axis(CrossTabDimension dimension) {
+            this.dimension = dimension;
+            this.dictionary = dimension == CrossTabDimension.SALARY ? null : new TokenDictionary(Integer.MAX_VALUE);
+        }
+
+        /**
+         * Collects the ids of the values of the vacancy into {@link #ids}.
+         *
+         * @return the number of ids, 0 if the vacancy has no value of the dimension
+         */
+        private int collect(VacancyRecord vacancyRecord) {
+            count = 0;
+            switch (dimension) {
+                case POSITION -> add(vacancyRecord.getPosition());
+                case COMPANY -> add(vacancyRecord.getRecruiterCompanyName());
+                case SALARY -> {
+                    double amount = vacancyRecord.getSalaryAmount();
+                    if (Double.isNaN(amount) && vacancyRecord.getSalary() != null) {
+                        try {
+                            amount = Double.parseDouble(vacancyRecord.getSalary().toString());
+                        } catch (NumberFormatException e) {
+                            return 0;
+                        }
+                    }
+                    if (!Double.isNaN(amount)) {
+                        ids[count++] = salaryId((float) amount);
+                    }
+                }
+                case TECHNOLOGY_STACK -> {
+                    if (vacancyRecord.getTechnologyStackLength() >= 0) {
+                        CommaTokenizer.forEachToken(vacancyRecord.getTechnologyStackChars(), 0,
+                                vacancyRecord.getTechnologyStackLength(), technologyCollector);
+                    } else if (vacancyRecord.getTechnologyStack() != null) {
+                        char[] chars = vacancyRecord.getTechnologyStack().toString().toCharArray();
+                        CommaTokenizer.forEachToken(chars, 0, chars.length, technologyCollector);
+                    }
+                }
+            }
+            return count;
+        }
+
+        private void add(Object value) {
+            if (value != null) {
+                ids[count++] = dictionary.id(value.toString());
+            }
+        }
+
+        private void collectTechnology(char[] chars, int start, int end) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length << 1);
+            }
+            ids[count++] = dictionary.id(chars, start, end);
+        }
+
+        /**
+         * Returns the string of the value of an id.
+         */
+        private String value(int id) {
+            return dictionary == null ? Float.toString(Float.intBitsToFloat(id)) : dictionary.token(id);
+        }
+
+        /**
+         * Returns the id of the string of a value, e.g. of a statistic loaded from the cache.
+         */
+        private int id(String value) {
+            return dictionary == null ? salaryId(Float.parseFloat(value)) : dictionary.id(value);
+        }
+
+        /**
+         * Returns the id in this axis of an id of another axis of the same dimension.
+         */
+        private int remap(Axis other, int id) {
+            return dictionary == null ? id : dictionary.id(other.dictionary.token(id));
+        }
+
+        /**
+         * Returns the float bits of a salary, with -0.0 folded into 0.0.
+         */
+        private static int salaryId(float salary) {
+            return Float.floatToIntBits(salary + 0.0F);
+        }
+    }
+}
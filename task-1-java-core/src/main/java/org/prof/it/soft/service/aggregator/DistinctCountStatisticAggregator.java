@@ -0,0 +1,145 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.prof.it.soft.config.Configuration;
+import org.prof.it.soft.sketch.HyperLogLog;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class estimates the number of distinct values of a vacancy field, e.g. the number of distinct recruiters.
+ * <p>
+ * The values are not kept, only their hashes are added to a {@link HyperLogLog} sketch, so the memory doesn't depend
+ * on the number of vacancies or distinct values. A value may consist of several parts, e.g. the first name, last name
+ * and company name of a recruiter, which are hashed one after another without creating a key object.
+ * Vacancies whose parts are all missing are skipped.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     StatisticAggregator aggregator = StatisticAggregator.create("distinct_recruiter");
+ *     parser.processJsonFile(List.of(aggregator));
+ *     long distinctRecruiters = ((DistinctCountStatisticAggregator) aggregator).getSketch().cardinality();
+ * </pre>
+ */
+public class DistinctCountStatisticAggregator implements StatisticAggregator {
+
+    /**
+     * The statistic field calculated by this aggregator.
+     */
+    @Getter
+    protected final String statisticField;
+
+    /**
+     * The vacancy fields the parts of the value are extracted from.
+     */
+    @Getter
+    protected final Set<VacancyField> projectedFields;
+
+    /**
+     * The functions that extract the parts of the counted value from a vacancy.
+     */
+    protected final List<Function<VacancyRecord, Object>> partExtractors;
+
+    /**
+     * The sketch of the distinct values.
+     */
+    @Getter
+    protected final HyperLogLog sketch;
+
+    public DistinctCountStatisticAggregator(String statisticField,
+                                            Set<VacancyField> projectedFields,
+                                            List<Function<VacancyRecord, Object>> partExtractors,
+                                            int precision) {
+        this.statisticField = statisticField;
+        this.projectedFields = projectedFields;
+        this.partExtractors = partExtractors;
+        this.sketch = new HyperLogLog(precision);
+    }
+
+    /**
+     * Creates an aggregator of the distinct recruiters, identified by the first name, last name and company name
+     * together, the same as the recruiter statistic.
+     *
+     * @return a new aggregator
+     */
+    public static DistinctCountStatisticAggregator recruiters() {
+        return new DistinctCountStatisticAggregator("distinct_recruiter",
+                EnumSet.of(VacancyField.RECRUITER_FIRST_NAME, VacancyField.RECRUITER_LAST_NAME, VacancyField.RECRUITER_COMPANY_NAME),
+                List.of(VacancyRecord::getRecruiterFirstName, VacancyRecord::getRecruiterLastName, VacancyRecord::getRecruiterCompanyName),
+                Configuration.getDistinctCountPrecision());
+    }
+
+    /**
+     * Creates an aggregator of the distinct positions.
+     *
+     * @return a new aggregator
+     */
+    public static DistinctCountStatisticAggregator positions() {
+        return new DistinctCountStatisticAggregator("distinct_position", EnumSet.of(VacancyField.POSITION),
+                List.of(VacancyRecord::getPosition), Configuration.getDistinctCountPrecision());
+    }
+
+    /**
+     * Creates an aggregator of the distinct recruiter company names.
+     *
+     * @return a new aggregator
+     */
+    public static DistinctCountStatisticAggregator companies() {
+        return new DistinctCountStatisticAggregator("distinct_company", EnumSet.of(VacancyField.RECRUITER_COMPANY_NAME),
+                List.of(VacancyRecord::getRecruiterCompanyName), Configuration.getDistinctCountPrecision());
+    }
+
+    @Override
+    public void aggregate(VacancyRecord vacancyRecord) {
+        long hash = HyperLogLog.SEED;
+        boolean present = false;
+
+        for (Function<VacancyRecord, Object> partExtractor : partExtractors) {
+            Object part = partExtractor.apply(vacancyRecord);
+            present |= part != null;
+            hash = HyperLogLog.hash(hash, part);
+        }
+
+        if (present) {
+            sketch.addHash(hash);
+        }
+    }
+
+    @Override
+    public void merge(@NonNull StatisticAggregator other) {
+        if (!statisticField.equals(other.getStatisticField())) {
+            throw new IllegalArgumentException("Cannot merge statistic " + other.getStatisticField() + " into " + statisticField);
+        }
+
+        if (!(other instanceof DistinctCountStatisticAggregator distinctAggregator)) {
+            throw new IllegalArgumentException("Cannot merge statistic " + statisticField + " without its sketch");
+        }
+
+        sketch.merge(distinctAggregator.sketch);
+    }
+
+    /**
+     * The distinct count is approximate, it can't be subtracted or cached.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isApproximate() {
+        return true;
+    }
+
+    /**
+     * Returns the estimated number of distinct values by the statistic field.
+     *
+     * @return a map with a single entry
+     */
+    @Override
+    public Map<Object, Long> getStatisticMap() {
+        return Map.of(statisticField, sketch.cardinality());
+    }
+}
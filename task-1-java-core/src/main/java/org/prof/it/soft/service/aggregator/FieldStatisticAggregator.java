@@ -0,0 +1,55 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.Getter;
+
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class counts the occurrences of a single scalar value of a vacancy, e.g. the position or the salary.
+ * Vacancies without the value are skipped.
+ */
+public class FieldStatisticAggregator extends AbstractStatisticAggregator {
+
+    /**
+     * The vacancy fields the counted value is extracted from.
+     */
+    @Getter
+    protected final Set<VacancyField> projectedFields;
+
+    /**
+     * The function that extracts the counted value from a vacancy.
+     */
+    protected final Function<VacancyRecord, Object> valueExtractor;
+
+    public FieldStatisticAggregator(String statisticField,
+                                    Set<VacancyField> projectedFields,
+                                    Function<VacancyRecord, Object> valueExtractor) {
+        this(statisticField, projectedFields, valueExtractor, 0);
+    }
+
+    /**
+     * Creates an aggregator that counts every value exactly, or only the most frequent values in the top-K mode.
+     *
+     * @param statisticField  the statistic field calculated by this aggregator
+     * @param projectedFields the vacancy fields the counted value is extracted from
+     * @param valueExtractor  the function that extracts the counted value from a vacancy
+     * @param topK            the number of reported values, or 0 to count every value exactly
+     */
+    public FieldStatisticAggregator(String statisticField,
+                                    Set<VacancyField> projectedFields,
+                                    Function<VacancyRecord, Object> valueExtractor,
+                                    int topK) {
+        super(statisticField, topK);
+        this.projectedFields = projectedFields;
+        this.valueExtractor = valueExtractor;
+    }
+
+    @Override
+    public void aggregate(VacancyRecord vacancyRecord) {
+        Object value = valueExtractor.apply(vacancyRecord);
+        if (value != null) {
+            incrementValue(value);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class holds a statistic that was calculated before, e.g. loaded from the statistic cache.
+ * It can't aggregate vacancies, it is only merged into other aggregators of the same statistic field.
+ */
+public class MapStatisticAggregator implements StatisticAggregator {
+
+    /**
+     * The statistic field of the statistic.
+     */
+    @Getter
+    protected final String statisticField;
+
+    /**
+     * The unique values to the number of occurrences.
+     */
+    protected final Map<Object, Long> statisticMap;
+
+    public MapStatisticAggregator(@NonNull String statisticField, @NonNull Map<Object, Long> statisticMap) {
+        this.statisticField = statisticField;
+        this.statisticMap = new HashMap<>(statisticMap);
+    }
+
+    @Override
+    public Set<VacancyField> getProjectedFields() {
+        return Set.of();
+    }
+
+    @Override
+    public void aggregate(VacancyRecord vacancyRecord) {
+        throw new UnsupportedOperationException("A calculated statistic can't aggregate vacancies");
+    }
+
+    @Override
+    public void merge(StatisticAggregator other) {
+        throw new UnsupportedOperationException("A calculated statistic can't be changed");
+    }
+
+    @Override
+    public Map<Object, Long> getStatisticMap() {
+        return new HashMap<>(statisticMap);
+    }
+}
@@ -0,0 +1,167 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.prof.it.soft.dto.RecruiterDto;
+
+import java.util.Objects;
+
+/**
+ * This class represents a recruiter in the counting table of the recruiter statistic: an immutable triple of
+ * the first name, last name and company name with a precomputed hash code.
+ * <p>
+ * Unlike {@link RecruiterDto}, a key has no map of unknown properties, and it is hashed once when it is created.
+ * The keys are interned by an {@link Interner}, which finds the key of a recruiter by the three names without
+ * creating an object, so counting a vacancy of a known recruiter allocates nothing. A {@link RecruiterDto} is created
+ * only for the reported entries of the statistic.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     RecruiterKey.Interner interner = new RecruiterKey.Interner();
+ *     RecruiterKey key = interner.intern("Anna", "Bell", "EPAM");
+ *     RecruiterDto recruiterDto = key.toRecruiterDto();
+ * </pre>
+ */
+@Getter
+public final class RecruiterKey {
+
+    /**
+     * The recruiter's first name.
+     */
+    private final String firstName;
+
+    /**
+     * The recruiter's last name.
+     */
+    private final String lastName;
+
+    /**
+     * The recruiter's company name.
+     */
+    private final String companyName;
+
+    @Getter(AccessLevel.NONE)
+    private final int hash;
+
+    private RecruiterKey(String firstName, String lastName, String companyName, int hash) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.companyName = companyName;
+        this.hash = hash;
+    }
+
+    /**
+     * Creates the DTO of the recruiter, e.g. for an entry of the reported statistic.
+     *
+     * @return a new recruiter DTO
+     */
+    public RecruiterDto toRecruiterDto() {
+        return new RecruiterDto(firstName, lastName, companyName);
+    }
+
+    /**
+     * Returns whether the key is the recruiter with the given names.
+     */
+    private boolean matches(int hash, String firstName, String lastName, String companyName) {
+        return this.hash == hash
+                && Objects.equals(this.firstName, firstName)
+                && Objects.equals(this.lastName, lastName)
+                && Objects.equals(this.companyName, companyName);
+    }
+
+    /**
+     * Returns the same hash code as {@link RecruiterDto#hashCode()}, so the counting table keeps the recruiters
+     * in the same order, and recruiters with the same count are reported in the same order as before.
+     */
+    private static int hash(String firstName, String lastName, String companyName) {
+        int hash = 59 + (firstName == null ? 43 : firstName.hashCode());
+        hash = hash * 59 + (lastName == null ? 43 : lastName.hashCode());
+        return hash * 59 + (companyName == null ? 43 : companyName.hashCode());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof RecruiterKey other && other.matches(hash, firstName, lastName, companyName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "RecruiterKey(firstName=" + firstName + ", lastName=" + lastName + ", companyName=" + companyName + ")";
+    }
+
+    /**
+     * This class interns the recruiter keys of an aggregator: it returns the same key for the same names.
+     * The keys are kept in an open addressing hash table, which is at most half full. The class is not thread-safe.
+     */
+    public static final class Interner {
+
+        private RecruiterKey[] keys = new RecruiterKey[64];
+
+        private int size;
+
+        /**
+         * Returns the key of the recruiter with the given names, creating it only if it is not interned yet.
+         *
+         * @param firstName   the first name
+         * @param lastName    the last name
+         * @param companyName the company name
+         * @return the interned key
+         */
+        public RecruiterKey intern(String firstName, String lastName, String companyName) {
+            int hash = hash(firstName, lastName, companyName);
+            int mask = keys.length - 1;
+            int slot = spread(hash) & mask;
+
+            RecruiterKey key;
+            while ((key = keys[slot]) != null) {
+                if (key.matches(hash, firstName, lastName, companyName)) {
+                    return key;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            key = new RecruiterKey(firstName, lastName, companyName, hash);
+            keys[slot] = key;
+            if (++size > keys.length >>> 1) {
+                rehash();
+            }
+            return key;
+        }
+
+        /**
+         * Returns the interned key of a recruiter DTO.
+         *
+         * @param recruiterDto the recruiter DTO
+         * @return the interned key
+         */
+        public RecruiterKey intern(RecruiterDto recruiterDto) {
+            return intern(recruiterDto.getFirstName(), recruiterDto.getLastName(), recruiterDto.getCompanyName());
+        }
+
+        private void rehash() {
+            RecruiterKey[] oldKeys = keys;
+            keys = new RecruiterKey[oldKeys.length << 1];
+            int mask = keys.length - 1;
+
+            for (RecruiterKey key : oldKeys) {
+                if (key != null) {
+                    int slot = spread(key.hash) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = key;
+                }
+            }
+        }
+
+        private static int spread(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
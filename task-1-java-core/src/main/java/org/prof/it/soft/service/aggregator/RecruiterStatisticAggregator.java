@@ -0,0 +1,47 @@
+package org.prof.it.soft.service.aggregator;
+
+import org.prof.it.soft.dto.RecruiterDto;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * This class counts the vacancies of every recruiter.
+ * The recruiter is identified by the first name, last name and company name together.
+ * <p>
+ * The vacancies are counted by interned {@link RecruiterKey}s, so counting a vacancy of a known recruiter
+ * allocates nothing. The keys are reported as {@link RecruiterDto}s.
+ */
+public class RecruiterStatisticAggregator extends AbstractStatisticAggregator {
+
+    /**
+     * The keys of the recruiters counted by this aggregator.
+     */
+    protected final RecruiterKey.Interner interner = new RecruiterKey.Interner();
+
+    public RecruiterStatisticAggregator() {
+        super("recruiter");
+    }
+
+    @Override
+    public Set<VacancyField> getProjectedFields() {
+        return EnumSet.of(VacancyField.RECRUITER_FIRST_NAME, VacancyField.RECRUITER_LAST_NAME, VacancyField.RECRUITER_COMPANY_NAME);
+    }
+
+    @Override
+    public void aggregate(VacancyRecord vacancyRecord) {
+        incrementValue(interner.intern(vacancyRecord.getRecruiterFirstName(),
+                vacancyRecord.getRecruiterLastName(),
+                vacancyRecord.getRecruiterCompanyName()));
+    }
+
+    @Override
+    protected Object toStatisticKey(Object key) {
+        return ((RecruiterKey) key).toRecruiterDto();
+    }
+
+    @Override
+    protected Object fromStatisticKey(Object key) {
+        return key instanceof RecruiterDto recruiterDto ? interner.intern(recruiterDto) : key;
+    }
+}
@@ -0,0 +1,155 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import org.prof.it.soft.collection.FloatLongCountingTable;
+
+/**
+ * This class groups salaries into ranges, so the salary statistic reports the number of vacancies per range
+ * instead of per distinct salary, which keeps it small even if the salaries are effectively continuous.
+ * <p>
+ * Every range is reported by its lower bound. There are two kinds of ranges:
+ * <ul>
+ *     <li>fixed width ranges, e.g. 0–500, 500–1000, 1000–1500, … for a width of 500;</li>
+ *     <li>log-scale ranges, e.g. 0–500, 500–1000, 1000–2000, 2000–4000, … for a first bound of 500 and a factor of 2,
+ *     which keep the number of ranges logarithmic in the largest salary.</li>
+ * </ul>
+ * Negative salaries fall into the ranges below zero of the same width (fixed) or into the first range (log-scale).
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     SalaryBuckets buckets = SalaryBuckets.of("log:500");
+ *     float bound = buckets.lowerBound(1234F); // 1000.0
+ *     FloatLongCountingTable bucketed = buckets.bucket(salaryTable);
+ * </pre>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class SalaryBuckets {
+
+    /**
+     * The factor between the bounds of log-scale ranges if none is given.
+     */
+    public static final double DEFAULT_LOG_FACTOR = 2;
+
+    /**
+     * Whether the ranges grow on a log scale, otherwise they have a fixed width.
+     */
+    private final boolean logScale;
+
+    /**
+     * The width of the ranges, or the upper bound of the first range on a log scale.
+     */
+    private final double width;
+
+    /**
+     * The factor between the bounds of the log-scale ranges, 1 for fixed width ranges.
+     */
+    private final double factor;
+
+    private SalaryBuckets(boolean logScale, double width, double factor) {
+        if (!(width > 0) || Double.isInfinite(width)) {
+            throw new IllegalArgumentException("Salary bucket width must be positive: " + width);
+        }
+        if (logScale && (!(factor > 1) || Double.isInfinite(factor))) {
+            throw new IllegalArgumentException("Salary bucket factor must be greater than 1: " + factor);
+        }
+        this.logScale = logScale;
+        this.width = width;
+        this.factor = factor;
+    }
+
+    /**
+     * Creates ranges of a fixed width: [0, width), [width, 2 * width), ...
+     *
+     * @param width the width of the ranges
+     * @return the salary ranges
+     * @throws IllegalArgumentException if the width is not positive
+     */
+    public static SalaryBuckets fixed(double width) {
+        return new SalaryBuckets(false, width, 1);
+    }
+
+    /**
+     * Creates log-scale ranges: [0, firstBound), [firstBound, firstBound * factor), [firstBound * factor, firstBound * factor²), ...
+     *
+     * @param firstBound the upper bound of the first range
+     * @param factor     the factor between the bounds of the ranges
+     * @return the salary ranges
+     * @throws IllegalArgumentException if the first bound is not positive or the factor is not greater than 1
+     */
+    public static SalaryBuckets logScale(double firstBound, double factor) {
+        return new SalaryBuckets(true, firstBound, factor);
+    }
+
+    /**
+     * Parses salary ranges, "fixed:&lt;width&gt;" or "log:&lt;first bound&gt;[:&lt;factor&gt;]", e.g. "fixed:500" or "log:500:2".
+     *
+     * @param spec the specification of the ranges
+     * @return the salary ranges
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public static SalaryBuckets of(@NonNull String spec) {
+        String[] parts = spec.trim().toLowerCase().split(":");
+        try {
+            return switch (parts[0]) {
+                case "fixed" -> {
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Invalid salary buckets: " + spec);
+                    }
+                    yield fixed(Double.parseDouble(parts[1]));
+                }
+                case "log" -> {
+                    if (parts.length != 2 && parts.length != 3) {
+                        throw new IllegalArgumentException("Invalid salary buckets: " + spec);
+                    }
+                    yield logScale(Double.parseDouble(parts[1]),
+                            parts.length == 3 ? Double.parseDouble(parts[2]) : DEFAULT_LOG_FACTOR);
+                }
+                default -> throw new IllegalArgumentException("Invalid salary buckets: " + spec);
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid salary buckets: " + spec, e);
+        }
+    }
+
+    /**
+     * Returns the lower bound of the range of a salary.
+     *
+     * @param salary the salary
+     * @return the lower bound of its range
+     */
+    public float lowerBound(float salary) {
+        if (!logScale) {
+            return (float) (Math.floor(salary / width) * width);
+        }
+
+        if (salary < width) {
+            return 0;
+        }
+
+        double bound = width * Math.pow(factor, Math.floor(Math.log(salary / width) / Math.log(factor)));
+        // The logarithm may be off by one ulp at the bounds themselves
+        if (bound > salary) {
+            bound /= factor;
+        } else if (bound * factor <= salary) {
+            bound *= factor;
+        }
+        return (float) bound;
+    }
+
+    /**
+     * Counts the salaries of a table by their ranges.
+     *
+     * @param salaryTable the table of salaries to counts
+     * @return a new table of the lower bounds of the ranges to counts
+     */
+    public FloatLongCountingTable bucket(@NonNull FloatLongCountingTable salaryTable) {
+        FloatLongCountingTable buckets = new FloatLongCountingTable();
+        salaryTable.forEach((salary, count) -> buckets.add(lowerBound(salary), count));
+        return buckets;
+    }
+}
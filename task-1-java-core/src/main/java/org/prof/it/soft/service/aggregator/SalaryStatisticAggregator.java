@@ -0,0 +1,140 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.prof.it.soft.collection.FloatLongCountingTable;
+import org.prof.it.soft.config.Configuration;
+import org.prof.it.soft.sketch.QuantileSketch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class counts the occurrences of every salary and feeds the salaries to a {@link QuantileSketch}.
+ * <p>
+ * The salaries are counted as floats in a {@link FloatLongCountingTable}, straight from the number the parser has
+ * decoded, so counting a salary creates neither a string nor a boxed key. Only textual salaries are parsed,
+ * salaries that are not numbers, negative or too large for a float are skipped (see {@link #isValidSalary(double)}). The statistic map still reports the salaries as strings (e.g. "1000.0"),
+ * the same form as in the cache.
+ * <p>
+ * The sketch keeps the exact minimum, average and maximum salary and the approximate percentiles in constant memory,
+ * so the salary statistic doesn't have to expand the counts of every salary back into single values.
+ * Salaries are added to the sketch as floats, the same precision as the keys of the salary statistic.
+ */
+@Getter
+public class SalaryStatisticAggregator implements StatisticAggregator {
+
+    /**
+     * The table of salaries to the number of occurrences.
+     */
+    protected final FloatLongCountingTable salaryTable =
+            new FloatLongCountingTable(AbstractStatisticAggregator.EXPECTED_KEYS, Configuration.isOffHeapStatistics());
+
+    /**
+     * The sketch of the salaries.
+     */
+    protected final QuantileSketch sketch = new QuantileSketch();
+
+    @Override
+    public String getStatisticField() {
+        return "salary";
+    }
+
+    @Override
+    public Set<VacancyField> getProjectedFields() {
+        return Set.of(VacancyField.SALARY);
+    }
+
+    @Override
+    public void aggregate(VacancyRecord vacancyRecord) {
+        // The parser keeps the number it has already decoded, only textual salaries have to be parsed
+        double amount = vacancyRecord.getSalaryAmount();
+        if (Double.isNaN(amount)) {
+            Object salary = vacancyRecord.getSalary();
+            if (salary == null) {
+                return;
+            }
+            try {
+                amount = Double.parseDouble(salary.toString());
+            } catch (NumberFormatException e) {
+                return;
+            }
+        }
+        if (!isValidSalary(amount)) {
+            return;
+        }
+
+        float salary = (float) amount;
+        salaryTable.increment(salary);
+        sketch.add(salary);
+    }
+
+    /**
+     * Returns whether a salary can be counted: a non-negative number that is finite as a float,
+     * the same salaries the parser counts. The quantile sketch accepts no others.
+     *
+     * @param amount the salary
+     * @return true if the salary is counted, false if it is skipped
+     */
+    public static boolean isValidSalary(double amount) {
+        return amount >= 0 && Float.isFinite((float) amount);
+    }
+
+    /**
+     * Returns the calculated statistic, where the keys are the salaries as strings, e.g. "1000.0".
+     *
+     * @return the statistic map
+     */
+    @Override
+    public Map<Object, Long> getStatisticMap() {
+        Map<Object, Long> statisticMap = new HashMap<>();
+        salaryTable.forEach((salary, count) -> statisticMap.put(Float.toString(salary), count));
+        return statisticMap;
+    }
+
+    @Override
+    public void merge(@NonNull StatisticAggregator other) {
+        checkStatisticField(other, "merge");
+
+        if (other instanceof SalaryStatisticAggregator salaryAggregator) {
+            salaryTable.addAll(salaryAggregator.salaryTable);
+            sketch.merge(salaryAggregator.sketch);
+        } else {
+            other.getStatisticMap().forEach((salary, count) -> {
+                float amount = Float.parseFloat(salary.toString());
+                if (isValidSalary(amount)) {
+                    salaryTable.add(amount, count);
+                    sketch.add(amount, count);
+                }
+            });
+        }
+    }
+
+    /**
+     * Subtracts the salaries of another aggregator. A sketch can't forget single values (nor the minimum and maximum),
+     * so it is refilled from the remaining counts, which costs one step per distinct salary.
+     *
+     * @param other the aggregator to subtract
+     */
+    @Override
+    public void subtract(@NonNull StatisticAggregator other) {
+        checkStatisticField(other, "subtract");
+
+        if (other instanceof SalaryStatisticAggregator salaryAggregator) {
+            salaryTable.subtractAll(salaryAggregator.salaryTable);
+        } else {
+            other.getStatisticMap().forEach((salary, count) -> salaryTable.subtract(Float.parseFloat(salary.toString()), count));
+        }
+
+        sketch.clear();
+        salaryTable.forEach(sketch::add);
+    }
+
+    private void checkStatisticField(StatisticAggregator other, String operation) {
+        if (!getStatisticField().equals(other.getStatisticField())) {
+            throw new IllegalArgumentException("Cannot " + operation + " statistic " + other.getStatisticField()
+                    + " with " + getStatisticField());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class collects the statistics calculated by several threads, in the order the threads finish.
+ * <p>
+ * The accumulator is split into stripes, each with its own lock and its own aggregator per statistic field.
+ * A thread merges its aggregators into the first stripe it can lock without waiting, starting from a stripe chosen
+ * by the thread, so threads rarely compete for a stripe and the merged aggregators become garbage right away.
+ * {@link #getAggregators()} merges the stripes once, after all threads have finished.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     StatisticAccumulator accumulator = new StatisticAccumulator(List.of("position", "salary"), 4);
+ *     // On every worker thread
+ *     accumulator.add(aggregatorsOfFile);
+ *     // After all workers have finished
+ *     List&lt;StatisticAggregator&gt; aggregators = accumulator.getAggregators();
+ * </pre>
+ */
+public class StatisticAccumulator {
+
+    private final List<String> statisticFields;
+
+    private final List<List<StatisticAggregator>> stripes;
+
+    private final ReentrantLock[] locks;
+
+    /**
+     * Creates an empty accumulator.
+     *
+     * @param statisticFields the statistic fields, in the order of the aggregators added to the accumulator
+     * @param stripeCount     the number of stripes, usually the number of threads
+     */
+    public StatisticAccumulator(@NonNull Collection<String> statisticFields, int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+
+        this.statisticFields = List.copyOf(statisticFields);
+        this.stripes = new ArrayList<>(stripeCount);
+        this.locks = new ReentrantLock[stripeCount];
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(createAggregators());
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Merges the aggregators of a file into the accumulator, can be called by several threads at once.
+     *
+     * @param aggregators the aggregators, one per statistic field, in the order of the fields
+     * @throws IllegalArgumentException if the aggregators don't match the statistic fields
+     */
+    public void add(@NonNull List<? extends StatisticAggregator> aggregators) {
+        if (aggregators.size() != statisticFields.size()) {
+            throw new IllegalArgumentException("Expected " + statisticFields.size() + " aggregators, got " + aggregators.size());
+        }
+
+        int home = Math.floorMod(Long.hashCode(Thread.currentThread().getId()), locks.length);
+
+        // Take the first free stripe, starting from the stripe of the thread
+        for (int i = 0; i < locks.length; i++) {
+            int stripe = (home + i) % locks.length;
+            if (locks[stripe].tryLock()) {
+                try {
+                    merge(stripes.get(stripe), aggregators);
+                } finally {
+                    locks[stripe].unlock();
+                }
+                return;
+            }
+        }
+
+        // All stripes are busy, wait for the stripe of the thread
+        locks[home].lock();
+        try {
+            merge(stripes.get(home), aggregators);
+        } finally {
+            locks[home].unlock();
+        }
+    }
+
+    /**
+     * Merges the stripes and returns the aggregators, one per statistic field, in the order of the fields.
+     * It must be called after all threads have finished adding their aggregators.
+     *
+     * @return the merged aggregators
+     */
+    public List<StatisticAggregator> getAggregators() {
+        List<StatisticAggregator> aggregators = createAggregators();
+
+        for (int i = 0; i < stripes.size(); i++) {
+            locks[i].lock();
+            try {
+                merge(aggregators, stripes.get(i));
+            } finally {
+                locks[i].unlock();
+            }
+        }
+
+        return aggregators;
+    }
+
+    private List<StatisticAggregator> createAggregators() {
+        return statisticFields.stream()
+                .map(StatisticAggregator::create)
+                .toList();
+    }
+
+    private static void merge(List<StatisticAggregator> target, List<? extends StatisticAggregator> source) {
+        for (int i = 0; i < target.size(); i++) {
+            target.get(i).merge(source.get(i));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.prof.it.soft.service.aggregator;
+
+import org.prof.it.soft.config.Configuration;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This interface represents an aggregator that calculates one statistic while the vacancies stream past.
+ * <p>
+ * The {@link org.prof.it.soft.service.VacancyStatisticJsonParser} hands every complete vacancy to all of its aggregators,
+ * so any number of statistics can be calculated in a single pass over a file.
+ * Aggregators of the same statistic calculated on different files are combined with {@link #merge(StatisticAggregator)}.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     List&lt;StatisticAggregator&gt; aggregators = List.of(StatisticAggregator.create("position"),
+ *             StatisticAggregator.create("salary"));
+ *     new VacancyStatisticJsonParser(jsonParser).processJsonFile(aggregators);
+ * </pre>
+ */
+public interface StatisticAggregator {
+
+    /**
+     * Returns the statistic field calculated by this aggregator.
+     *
+     * @return the statistic field
+     */
+    String getStatisticField();
+
+    /**
+     * Returns the vacancy fields read by this aggregator.
+     * The parser doesn't decode the values of fields that none of its aggregators read.
+     *
+     * @return the fields read by this aggregator
+     */
+    Set<VacancyField> getProjectedFields();
+
+    /**
+     * Adds a complete vacancy to the statistic.
+     *
+     * @param vacancyRecord the vacancy to add
+     */
+    void aggregate(VacancyRecord vacancyRecord);
+
+    /**
+     * Adds the statistic calculated by another aggregator of the same statistic field to this one.
+     *
+     * @param other the aggregator to merge
+     * @throws IllegalArgumentException if the other aggregator calculates a different statistic field
+     */
+    void merge(StatisticAggregator other);
+
+    /**
+     * Removes the statistic calculated by another aggregator of the same statistic field from this one,
+     * e.g. the statistic of a file that has changed or was deleted. The other statistic must have been merged before.
+     *
+     * @param other the aggregator to subtract
+     * @throws IllegalArgumentException      if the other aggregator calculates a different statistic field
+     * @throws UnsupportedOperationException if the aggregator can't subtract statistics
+     */
+    default void subtract(StatisticAggregator other) {
+        throw new UnsupportedOperationException("Statistic " + getStatisticField() + " can't be subtracted");
+    }
+
+    /**
+     * Returns whether the counts of the statistic are approximate, e.g. in the top-K mode.
+     * Approximate statistics can be merged, but not subtracted or cached.
+     *
+     * @return true if the counts are approximate, false if they are exact
+     */
+    default boolean isApproximate() {
+        return false;
+    }
+
+    /**
+     * Returns the calculated statistic, where the keys are the unique values and the values are the number of occurrences.
+     * The map is a copy, changing it doesn't affect the aggregator.
+     *
+     * @return the statistic map
+     */
+    Map<Object, Long> getStatisticMap();
+
+    /**
+     * Creates an empty aggregator for the given statistic field.
+     * The position and technology statistics count only the most frequent keys if the top-K mode is enabled
+     * (see {@link Configuration#getTopK()}). Two dimensions separated by "+", e.g. "position+technology_stack",
+     * create a {@link CrossTabStatisticAggregator}.
+     *
+     * @param statisticField the statistic field
+     * @return a new aggregator
+     * @throws IllegalArgumentException if the statistic field is invalid
+     */
+    static StatisticAggregator create(String statisticField) {
+        return switch (statisticField) {
+            case "position" -> new FieldStatisticAggregator(statisticField, Set.of(VacancyField.POSITION),
+                    VacancyRecord::getPosition, Configuration.getTopK());
+            case "salary" -> new SalaryStatisticAggregator();
+            case "recruiter" -> new RecruiterStatisticAggregator();
+            case "technology_stack" -> new TechnologyStackStatisticAggregator(Configuration.getTopK());
+            case "distinct_recruiter" -> DistinctCountStatisticAggregator.recruiters();
+            case "distinct_position" -> DistinctCountStatisticAggregator.positions();
+            case "distinct_company" -> DistinctCountStatisticAggregator.companies();
+            default -> {
+                // Cross-tab statistics of two dimensions, e.g. "position+technology_stack"
+                if (CrossTabStatisticAggregator.isCrossTab(statisticField)) {
+                    yield CrossTabStatisticAggregator.of(statisticField);
+                }
+                throw new IllegalArgumentException("Invalid statistic field");
+            }
+        };
+    }
+}
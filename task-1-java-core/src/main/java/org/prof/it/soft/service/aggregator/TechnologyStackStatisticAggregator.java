@@ -0,0 +1,133 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.NonNull;
+import org.prof.it.soft.collection.ObjectLongCountingTable;
+import org.prof.it.soft.collection.TokenDictionary;
+import org.prof.it.soft.text.CommaTokenizer;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class counts the vacancies of every technology.
+ * The technology stack of a vacancy is split by commas and every technology is counted separately.
+ * <p>
+ * The technologies are tokenized by {@link CommaTokenizer} straight from the characters of the technology stack and
+ * looked up in a {@link TokenDictionary}, so counting the technologies of a vacancy creates no strings: a technology
+ * is counted in an array indexed by its id. The counts by id are moved to the counting table whenever the statistic
+ * is read or merged. Technologies that don't fit into the dictionary are counted by their strings.
+ */
+public class TechnologyStackStatisticAggregator extends AbstractStatisticAggregator {
+
+    /**
+     * The ids of the technologies counted by this aggregator.
+     */
+    protected final TokenDictionary dictionary = new TokenDictionary();
+
+    /**
+     * The counts by technology id that are not in the counting table yet.
+     */
+    protected long[] pendingCounts = new long[64];
+
+    private boolean pending;
+
+    private final CommaTokenizer.TokenConsumer technologyCounter = this::countTechnology;
+
+    public TechnologyStackStatisticAggregator() {
+        this(0);
+    }
+
+    /**
+     * Creates an aggregator that counts every technology exactly, or only the most frequent technologies in the top-K mode.
+     *
+     * @param topK the number of reported technologies, or 0 to count every technology exactly
+     */
+    public TechnologyStackStatisticAggregator(int topK) {
+        super("technology_stack", topK);
+    }
+
+    @Override
+    public Set<VacancyField> getProjectedFields() {
+        return EnumSet.of(VacancyField.TECHNOLOGY_STACK);
+    }
+
+    @Override
+    public void aggregate(VacancyRecord vacancyRecord) {
+        if (vacancyRecord.getTechnologyStackLength() >= 0) {
+            CommaTokenizer.forEachToken(vacancyRecord.getTechnologyStackChars(), 0,
+                    vacancyRecord.getTechnologyStackLength(), technologyCounter);
+            return;
+        }
+
+        Object technologyStack = vacancyRecord.getTechnologyStack();
+        if (technologyStack != null) {
+            char[] chars = technologyStack.toString().toCharArray();
+            CommaTokenizer.forEachToken(chars, 0, chars.length, technologyCounter);
+        }
+    }
+
+    @Override
+    public ObjectLongCountingTable<Object> getStatisticTable() {
+        flushPendingCounts();
+        return statisticTable;
+    }
+
+    @Override
+    public Map<Object, Long> getStatisticMap() {
+        flushPendingCounts();
+        return super.getStatisticMap();
+    }
+
+    @Override
+    public void merge(@NonNull StatisticAggregator other) {
+        flushPendingCounts();
+        if (other instanceof TechnologyStackStatisticAggregator technologyAggregator) {
+            technologyAggregator.flushPendingCounts();
+        }
+        super.merge(other);
+    }
+
+    @Override
+    public void subtract(@NonNull StatisticAggregator other) {
+        flushPendingCounts();
+        if (other instanceof TechnologyStackStatisticAggregator technologyAggregator) {
+            technologyAggregator.flushPendingCounts();
+        }
+        super.subtract(other);
+    }
+
+    private void countTechnology(char[] chars, int start, int end) {
+        int id = dictionary.id(chars, start, end);
+        if (id < 0) {
+            incrementValue(new String(chars, start, end - start));
+        } else if (heavyHitters != null) {
+            // The sketch keeps its own counts, the string of the dictionary is reused
+            heavyHitters.add(dictionary.token(id));
+        } else {
+            if (id >= pendingCounts.length) {
+                pendingCounts = Arrays.copyOf(pendingCounts, Math.max(id + 1, pendingCounts.length << 1));
+            }
+            pendingCounts[id]++;
+            pending = true;
+        }
+    }
+
+    /**
+     * Adds the counts by id to the counting table.
+     */
+    protected void flushPendingCounts() {
+        if (!pending) {
+            return;
+        }
+
+        for (int id = 0; id < dictionary.size() && id < pendingCounts.length; id++) {
+            if (pendingCounts[id] != 0) {
+                statisticTable.add(dictionary.token(id), pendingCounts[id]);
+                pendingCounts[id] = 0;
+            }
+        }
+        pending = false;
+    }
+}
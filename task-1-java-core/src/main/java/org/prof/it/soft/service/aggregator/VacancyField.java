@@ -0,0 +1,101 @@
+package org.prof.it.soft.service.aggregator;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import lombok.Getter;
+
+/**
+ * This enum represents the fields of a vacancy JSON object that the statistics can be calculated from.
+ * <p>
+ * Every field keeps its JSON name as a pre-encoded {@link SerializedString}, so the parser can match field names
+ * with {@link com.fasterxml.jackson.core.JsonParser#nextFieldName(com.fasterxml.jackson.core.SerializableString)}
+ * directly against the input bytes, without creating a String for every field name.
+ */
+@Getter
+public enum VacancyField {
+
+    POSITION("position", true, true),
+    SALARY("salary", false, true),
+    TECHNOLOGY_STACK("technology_stack", false, true),
+    RECRUITER_FIRST_NAME("recruiter_first_name", true, false),
+    RECRUITER_LAST_NAME("recruiter_last_name", false, false),
+    RECRUITER_COMPANY_NAME("recruiter_company_name", false, false);
+
+    /**
+     * The name of the field in JSON.
+     */
+    private final String jsonName;
+
+    /**
+     * The pre-encoded name of the field in JSON.
+     */
+    private final SerializedString serializedName;
+
+    /**
+     * Whether a vacancy without this field (as a string) is skipped.
+     */
+    private final boolean required;
+
+    /**
+     * Whether a number is accepted as the value of this field.
+     */
+    private final boolean numeric;
+
+    /**
+     * The bit of this field in a mask of fields.
+     */
+    private final int mask;
+
+    VacancyField(String jsonName, boolean required, boolean numeric) {
+        this.jsonName = jsonName;
+        this.serializedName = new SerializedString(jsonName);
+        this.required = required;
+        this.numeric = numeric;
+        this.mask = 1 << ordinal();
+    }
+
+    /**
+     * Returns the field with the given JSON name.
+     * The lookup doesn't allocate, the canonical field names returned by Jackson have their hash code cached.
+     *
+     * @param jsonName the name of the field in JSON
+     * @return the field, or null if the name is not a vacancy field
+     */
+    public static VacancyField of(String jsonName) {
+        if (jsonName == null) {
+            return null;
+        }
+
+        return switch (jsonName) {
+            case "position" -> POSITION;
+            case "salary" -> SALARY;
+            case "technology_stack" -> TECHNOLOGY_STACK;
+            case "recruiter_first_name" -> RECRUITER_FIRST_NAME;
+            case "recruiter_last_name" -> RECRUITER_LAST_NAME;
+            case "recruiter_company_name" -> RECRUITER_COMPANY_NAME;
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the mask of all required fields.
+     *
+     * @return the mask of all required fields
+     */
+    public static int requiredMask() {
+        return POSITION.mask | RECRUITER_FIRST_NAME.mask;
+    }
+
+    /**
+     * Returns the mask of the given fields.
+     *
+     * @param fields the fields
+     * @return the mask of the fields
+     */
+    public static int maskOf(Iterable<VacancyField> fields) {
+        int mask = 0;
+        for (VacancyField field : fields) {
+            mask |= field.mask;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,213 @@
+package org.prof.it.soft.service.aggregator;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * This class holds the values of the JSON object (vacancy) that is currently being parsed.
+ * <p>
+ * A single instance is reused for every vacancy of a file: the parser resets it at the start of each JSON object,
+ * fills it while the fields stream past and hands it to the {@link StatisticAggregator}s at the end of the object.
+ * Scalar values are kept in the same textual form the parser has always counted, e.g. a position of 1000 is stored as "1000.0".
+ * A numeric salary is kept as a number, its textual form is only created if somebody asks for it.
+ * The technology stack is copied from the buffer of the parser into a character buffer that is reused as well,
+ * its string is only created if somebody asks for it.
+ */
+@Data
+public class VacancyRecord {
+
+    /**
+     * The position of the vacancy.
+     */
+    protected Object position;
+
+    /**
+     * The salary of the vacancy.
+     * If the salary was set as a number, it is created from the number on the first call of the getter.
+     */
+    protected Object salary;
+
+    /**
+     * The salary of the vacancy as a number, or NaN if the salary is absent or was not a JSON number.
+     */
+    protected double salaryAmount = Double.NaN;
+
+    /**
+     * The technology stack of the vacancy, as a comma separated string.
+     * If the characters of the technology stack were set, it is created from them on the first call of the getter.
+     */
+    protected Object technologyStack;
+
+    /**
+     * The characters of the technology stack, in a buffer reused for every vacancy.
+     */
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    protected char[] technologyStackChars = new char[128];
+
+    /**
+     * The number of characters of the technology stack in {@link #technologyStackChars},
+     * or -1 if the characters were not set.
+     */
+    @Setter(AccessLevel.NONE)
+    protected int technologyStackLength = -1;
+
+    /**
+     * The recruiter's first name.
+     */
+    protected String recruiterFirstName;
+
+    /**
+     * The recruiter's last name.
+     */
+    protected String recruiterLastName;
+
+    /**
+     * The recruiter's company name.
+     */
+    protected String recruiterCompanyName;
+
+    /**
+     * Sets the value of a vacancy field.
+     *
+     * @param field the field
+     * @param value the value of the field
+     */
+    public void set(VacancyField field, Object value) {
+        switch (field) {
+            case POSITION -> position = value;
+            case SALARY -> {
+                salary = value;
+                salaryAmount = Double.NaN;
+            }
+            case TECHNOLOGY_STACK -> setTechnologyStack(value);
+            case RECRUITER_FIRST_NAME -> recruiterFirstName = (String) value;
+            case RECRUITER_LAST_NAME -> recruiterLastName = (String) value;
+            case RECRUITER_COMPANY_NAME -> recruiterCompanyName = (String) value;
+        }
+    }
+
+    /**
+     * Returns the value of a vacancy field.
+     *
+     * @param field the field
+     * @return the value of the field, or null if the vacancy has none
+     */
+    public Object get(VacancyField field) {
+        return switch (field) {
+            case POSITION -> position;
+            case SALARY -> getSalary();
+            case TECHNOLOGY_STACK -> getTechnologyStack();
+            case RECRUITER_FIRST_NAME -> recruiterFirstName;
+            case RECRUITER_LAST_NAME -> recruiterLastName;
+            case RECRUITER_COMPANY_NAME -> recruiterCompanyName;
+        };
+    }
+
+    /**
+     * Sets the technology stack of the vacancy.
+     *
+     * @param technologyStack the technology stack, as a comma separated string
+     */
+    public void setTechnologyStack(Object technologyStack) {
+        this.technologyStack = technologyStack;
+        this.technologyStackLength = -1;
+    }
+
+    /**
+     * Sets the technology stack of the vacancy by copying its characters, e.g. from the buffer of the JSON parser.
+     * No string is created.
+     *
+     * @param chars  the array of characters
+     * @param offset the position of the first character
+     * @param length the number of characters
+     */
+    public void setTechnologyStack(char[] chars, int offset, int length) {
+        if (length > technologyStackChars.length) {
+            technologyStackChars = new char[Math.max(length, technologyStackChars.length << 1)];
+        }
+        System.arraycopy(chars, offset, technologyStackChars, 0, length);
+        technologyStackLength = length;
+        technologyStack = null;
+    }
+
+    /**
+     * Returns the technology stack of the vacancy.
+     *
+     * @return the technology stack, as a comma separated string, or null if the vacancy has none
+     */
+    public Object getTechnologyStack() {
+        if (technologyStack == null && technologyStackLength >= 0) {
+            technologyStack = new String(technologyStackChars, 0, technologyStackLength);
+        }
+        return technologyStack;
+    }
+
+    /**
+     * Returns the salary of the vacancy.
+     *
+     * @return the salary, e.g. "1000.0", or null if the vacancy has none
+     */
+    public Object getSalary() {
+        if (salary == null && !Double.isNaN(salaryAmount)) {
+            salary = String.valueOf(salaryAmount);
+        }
+        return salary;
+    }
+
+    /**
+     * Sets the salary of the vacancy as a number, e.g. the number decoded by the JSON parser. No string is created.
+     *
+     * @param salaryAmount the salary, or NaN if the vacancy has none
+     */
+    public void setSalaryAmount(double salaryAmount) {
+        this.salaryAmount = salaryAmount;
+        this.salary = null;
+    }
+
+    /**
+     * Sets the value of a statistic field ("position", "salary" or "technology_stack").
+     * Other fields are ignored.
+     *
+     * @param statisticField the statistic field
+     * @param value          the value of the field
+     * @return true if the field is a statistic field of the vacancy, false otherwise
+     */
+    public boolean setStatisticValue(String statisticField, Object value) {
+        if (statisticField == null) {
+            return false;
+        }
+
+        switch (statisticField) {
+            case "position" -> position = value;
+            case "salary" -> {
+                salary = value;
+                salaryAmount = Double.NaN;
+            }
+            case "technology_stack" -> setTechnologyStack(value);
+            default -> {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Clears all values, so the instance can be reused for the next vacancy.
+     */
+    public void reset() {
+        position = null;
+        salary = null;
+        salaryAmount = Double.NaN;
+        technologyStack = null;
+        technologyStackLength = -1;
+        recruiterFirstName = null;
+        recruiterLastName = null;
+        recruiterCompanyName = null;
+    }
+}
@@ -0,0 +1,177 @@
+package org.prof.it.soft.service.filter;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.prof.it.soft.service.aggregator.VacancyField;
+import org.prof.it.soft.service.aggregator.VacancyRecord;
+import org.prof.it.soft.text.CommaTokenizer;
+
+import java.util.Arrays;
+
+/**
+ * This class is a single comparison of a vacancy field with a constant, e.g. "salary>=2000".
+ * <p>
+ * The salary is compared as a number with any operator. The other fields are compared as strings,
+ * with "=" and "!=" only. A technology stack equals a technology if one of its technologies is the technology,
+ * so "technology_stack=Java" keeps the vacancies that require Java. A vacancy without a value of the field
+ * never satisfies a condition on the field, not even "!=".
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     FilterCondition condition = FilterCondition.of("recruiter_company_name = \"SoftServe\"");
+ *     boolean satisfied = condition.test(vacancyRecord);
+ * </pre>
+ */
+@Getter
+public final class FilterCondition {
+
+    /**
+     * The field that is compared.
+     */
+    private final VacancyField field;
+
+    /**
+     * The comparison operator.
+     */
+    private final FilterOperator operator;
+
+    /**
+     * The constant the field is compared with, without quotes.
+     */
+    private final String value;
+
+    /**
+     * The constant as a number, or NaN if the field is not compared as a number.
+     */
+    private final double number;
+
+    private FilterCondition(VacancyField field, FilterOperator operator, String value, double number) {
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+        this.number = number;
+    }
+
+    /**
+     * Parses a condition, "&lt;field&gt; &lt;operator&gt; &lt;value&gt;", e.g. "salary &gt;= 2000" or
+     * "recruiter_company_name=\"SoftServe\"". The value may be enclosed in double or single quotes.
+     *
+     * @param expression the expression of the condition
+     * @return the condition
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static FilterCondition of(@NonNull String expression) {
+        String trimmed = expression.trim();
+
+        int nameEnd = 0;
+        while (nameEnd < trimmed.length()
+                && (Character.isLetterOrDigit(trimmed.charAt(nameEnd)) || trimmed.charAt(nameEnd) == '_')) {
+            nameEnd++;
+        }
+        VacancyField field = VacancyField.of(trimmed.substring(0, nameEnd));
+        if (field == null) {
+            throw new IllegalArgumentException("Invalid filter field in " + expression + ", the fields are "
+                    + Arrays.stream(VacancyField.values()).map(VacancyField::getJsonName).toList());
+        }
+
+        int operatorStart = nameEnd;
+        while (operatorStart < trimmed.length() && Character.isWhitespace(trimmed.charAt(operatorStart))) {
+            operatorStart++;
+        }
+        FilterOperator operator = FilterOperator.at(trimmed, operatorStart);
+        if (operator == null) {
+            throw new IllegalArgumentException("Invalid filter operator in " + expression
+                    + ", the operators are =, !=, >, >=, < and <=");
+        }
+
+        String value = unquote(trimmed.substring(operatorStart + operator.getSymbol().length()).trim());
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Invalid filter value in " + expression);
+        }
+
+        if (field == VacancyField.SALARY) {
+            try {
+                return new FilterCondition(field, operator, value, Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid filter value in " + expression + ", the salary is compared with a number", e);
+            }
+        }
+
+        if (operator.isOrdering()) {
+            throw new IllegalArgumentException("Invalid filter operator in " + expression + ", only the salary can be compared with "
+                    + operator.getSymbol());
+        }
+        return new FilterCondition(field, operator, value, Double.NaN);
+    }
+
+    /**
+     * Returns whether the value of the field in a vacancy satisfies the condition.
+     *
+     * @param vacancyRecord the values of the vacancy
+     * @return true if the vacancy satisfies the condition, false otherwise
+     */
+    public boolean test(@NonNull VacancyRecord vacancyRecord) {
+        return switch (field) {
+            case SALARY -> testSalary(vacancyRecord);
+            case TECHNOLOGY_STACK -> testTechnologyStack(vacancyRecord);
+            default -> {
+                Object actual = vacancyRecord.get(field);
+                yield actual != null && (operator == FilterOperator.EQUAL) == value.equals(actual.toString());
+            }
+        };
+    }
+
+    private boolean testSalary(VacancyRecord vacancyRecord) {
+        // The parser keeps the number it has already decoded, only textual salaries have to be parsed
+        double amount = vacancyRecord.getSalaryAmount();
+        if (Double.isNaN(amount)) {
+            Object salary = vacancyRecord.getSalary();
+            if (salary == null) {
+                return false;
+            }
+            try {
+                amount = Double.parseDouble(salary.toString());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (Double.isNaN(amount)) {
+                return false;
+            }
+        }
+
+        return operator.test(Double.compare(amount, number));
+    }
+
+    private boolean testTechnologyStack(VacancyRecord vacancyRecord) {
+        boolean contains;
+        if (vacancyRecord.getTechnologyStackLength() >= 0) {
+            // The technologies are compared in the buffer of the record, without creating strings
+            contains = CommaTokenizer.containsToken(vacancyRecord.getTechnologyStackChars(), 0,
+                    vacancyRecord.getTechnologyStackLength(), value);
+        } else if (vacancyRecord.getTechnologyStack() != null) {
+            contains = CommaTokenizer.split(vacancyRecord.getTechnologyStack().toString()).contains(value);
+        } else {
+            return false;
+        }
+
+        return (operator == FilterOperator.EQUAL) == contains;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')
+                && value.charAt(value.length() - 1) == value.charAt(0)) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the condition in its canonical form, e.g. "salary>=2000".
+     *
+     * @return the expression of the condition
+     */
+    @Override
+    public String toString() {
+        return field.getJsonName() + operator.getSymbol() + value;
+    }
+}
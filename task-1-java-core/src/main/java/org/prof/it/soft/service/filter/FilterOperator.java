@@ -0,0 +1,69 @@
+package org.prof.it.soft.service.filter;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * This enum represents the comparison operators of a {@link FilterCondition}.
+ * <p>
+ * The operators are listed with the longer symbols first, so ">=" is matched before ">".
+ */
+@Getter
+@RequiredArgsConstructor
+public enum FilterOperator {
+
+    NOT_EQUAL("!=", false),
+
+    GREATER_OR_EQUAL(">=", true),
+
+    LESS_OR_EQUAL("<=", true),
+
+    EQUAL("=", false),
+
+    GREATER(">", true),
+
+    LESS("<", true);
+
+    /**
+     * The symbol of the operator in a filter expression.
+     */
+    private final String symbol;
+
+    /**
+     * Whether the operator compares the order of the values, so it needs numbers.
+     */
+    private final boolean ordering;
+
+    /**
+     * Returns the operator whose symbol starts at a position of a filter expression.
+     *
+     * @param expression the filter expression
+     * @param offset     the position of the operator
+     * @return the operator, or null if there is none at the position
+     */
+    public static FilterOperator at(String expression, int offset) {
+        for (FilterOperator operator : values()) {
+            if (expression.startsWith(operator.symbol, offset)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the result of a comparison of a value with the operand satisfies the operator.
+     *
+     * @param comparison the result of the comparison, negative, zero or positive
+     * @return true if the comparison satisfies the operator, false otherwise
+     */
+    public boolean test(int comparison) {
+        return switch (this) {
+            case EQUAL -> comparison == 0;
+            case NOT_EQUAL -> comparison != 0;
+            case GREATER -> comparison > 0;
+            case GREATER_OR_EQUAL -> comparison >= 0;
+            case LESS -> comparison < 0;
+            case LESS_OR_EQUAL -> comparison <= 0;
+        };
+    }
+}
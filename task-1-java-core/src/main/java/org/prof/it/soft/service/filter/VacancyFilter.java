@@ -0,0 +1,119 @@
+package org.prof.it.soft.service.filter;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.prof.it.soft.service.aggregator.VacancyField;
+import org.prof.it.soft.service.aggregator.VacancyRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class keeps only the vacancies that satisfy all of its {@link FilterCondition}s.
+ * <p>
+ * The filter is evaluated by the parser while the fields of a vacancy stream past: as soon as a field is decoded,
+ * the conditions on that field are checked, and a vacancy that fails one of them is dropped right away, skipping the rest
+ * of its JSON object without decoding it. A vacancy that lacks a filtered field is dropped at the end of its object.
+ * The filter is immutable, so it is shared by all threads.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     VacancyFilter filter = VacancyFilter.of(List.of("salary&gt;=2000", "recruiter_company_name=SoftServe"));
+ *     new VacancyStatisticJsonParser(jsonParser, filter).processJsonFile(aggregators);
+ * </pre>
+ */
+public final class VacancyFilter {
+
+    /**
+     * The filter that keeps every vacancy.
+     */
+    public static final VacancyFilter NONE = new VacancyFilter(List.of());
+
+    /**
+     * The conditions, in the order they were given.
+     */
+    @Getter
+    private final List<FilterCondition> conditions;
+
+    /**
+     * The mask of the fields of the conditions.
+     */
+    @Getter
+    private final int fieldMask;
+
+    /**
+     * The conditions of every field, by the ordinal of the field.
+     */
+    private final FilterCondition[][] conditionsByField = new FilterCondition[VacancyField.values().length][];
+
+    private VacancyFilter(List<FilterCondition> conditions) {
+        this.conditions = List.copyOf(conditions);
+
+        int mask = 0;
+        for (VacancyField field : VacancyField.values()) {
+            conditionsByField[field.ordinal()] = conditions.stream()
+                    .filter(condition -> condition.getField() == field)
+                    .toArray(FilterCondition[]::new);
+            if (conditionsByField[field.ordinal()].length > 0) {
+                mask |= field.getMask();
+            }
+        }
+        this.fieldMask = mask;
+    }
+
+    /**
+     * Parses a filter of conditions that must all be satisfied, see {@link FilterCondition#of(String)}.
+     *
+     * @param expressions the expressions of the conditions
+     * @return the filter, {@link #NONE} if there are no conditions
+     * @throws IllegalArgumentException if an expression is invalid
+     */
+    public static VacancyFilter of(@NonNull Collection<String> expressions) {
+        if (expressions.isEmpty()) {
+            return NONE;
+        }
+
+        List<FilterCondition> conditions = new ArrayList<>(expressions.size());
+        for (String expression : expressions) {
+            conditions.add(FilterCondition.of(expression));
+        }
+        return new VacancyFilter(conditions);
+    }
+
+    /**
+     * Returns whether the filter keeps every vacancy.
+     *
+     * @return true if the filter has no conditions, false otherwise
+     */
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+
+    /**
+     * Returns whether the value of a field in a vacancy satisfies all conditions on the field.
+     *
+     * @param field         the field that has just been decoded
+     * @param vacancyRecord the values of the vacancy
+     * @return true if the vacancy satisfies the conditions on the field, false otherwise
+     */
+    public boolean test(@NonNull VacancyField field, @NonNull VacancyRecord vacancyRecord) {
+        for (FilterCondition condition : conditionsByField[field.ordinal()]) {
+            if (!condition.test(vacancyRecord)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the conditions in their canonical form, e.g. "salary&gt;=2000 &amp;&amp; recruiter_company_name=SoftServe".
+     *
+     * @return the expression of the filter
+     */
+    @Override
+    public String toString() {
+        return conditions.stream().map(FilterCondition::toString).collect(Collectors.joining(" && "));
+    }
+}
@@ -0,0 +1,260 @@
+package org.prof.it.soft.sketch;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * This class is a mergeable sketch of a distribution of non-negative values, in the spirit of DDSketch.
+ * <p>
+ * Values are counted in logarithmic buckets: bucket {@code i} holds the values in {@code (gamma^(i-1), gamma^i]},
+ * where {@code gamma = (1 + alpha) / (1 - alpha)}. Any quantile returned by the sketch is within the relative
+ * accuracy {@code alpha} of the exact value. The number of buckets depends only on the range of the values
+ * (about 700 buckets for 1..1,000,000 with 1% accuracy), not on the number of values, so the memory is constant.
+ * <p>
+ * Besides the buckets, the sketch keeps the exact count, sum, minimum and maximum of the values.
+ * Two sketches with the same accuracy can be merged, so every file can be sketched separately.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     QuantileSketch sketch = new QuantileSketch();
+ *     sketch.add(1000);
+ *     sketch.add(2500, 3);
+ *     double median = sketch.quantile(0.5); // about 2500
+ * </pre>
+ */
+public class QuantileSketch {
+
+    /**
+     * The default relative accuracy of the quantiles.
+     */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    /**
+     * The smallest value that gets its own bucket. Smaller values are counted as zero.
+     */
+    public static final double MIN_INDEXABLE_VALUE = 1e-6;
+
+    /**
+     * The relative accuracy of the quantiles.
+     */
+    @Getter
+    private final double relativeAccuracy;
+
+    private final double gamma;
+
+    private final double logGamma;
+
+    /**
+     * The counts of the buckets, counts[0] is the bucket with the index offset.
+     */
+    private long[] counts = new long[0];
+
+    private int offset;
+
+    private long zeroCount;
+
+    /**
+     * The number of values.
+     */
+    @Getter
+    private long count;
+
+    /**
+     * The sum of the values.
+     */
+    @Getter
+    private double sum;
+
+    /**
+     * The minimum value, or positive infinity if the sketch is empty.
+     */
+    @Getter
+    private double min = Double.POSITIVE_INFINITY;
+
+    /**
+     * The maximum value, or negative infinity if the sketch is empty.
+     */
+    @Getter
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates an empty sketch with the default relative accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param relativeAccuracy the relative accuracy of the quantiles, between 0 and 1 (exclusive)
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value the value to add
+     */
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    /**
+     * Adds a value to the sketch several times.
+     *
+     * @param value the value to add
+     * @param times the number of times to add the value
+     */
+    public void add(double value, long times) {
+        if (value < 0 || Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Only finite non-negative values can be added: " + value);
+        }
+
+        if (times <= 0) {
+            return;
+        }
+
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount += times;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / logGamma);
+            ensureCapacity(index, index);
+            counts[index - offset] += times;
+        }
+
+        count += times;
+        sum += value * times;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values of another sketch to this sketch.
+     *
+     * @param other the sketch to merge
+     * @throws IllegalArgumentException if the sketches have different relative accuracy
+     */
+    public void merge(@NonNull QuantileSketch other) {
+        if (Double.compare(relativeAccuracy, other.relativeAccuracy) != 0) {
+            throw new IllegalArgumentException("Cannot merge sketches with different relative accuracy");
+        }
+
+        if (other.count == 0) {
+            return;
+        }
+
+        if (other.counts.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes all values from the sketch.
+     * The sketch keeps no single values, so values can't be removed one by one, the sketch has to be refilled instead.
+     */
+    public void clear() {
+        counts = new long[0];
+        offset = 0;
+        zeroCount = 0;
+        count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Returns the average of the values, or zero if the sketch is empty.
+     *
+     * @return the average of the values
+     */
+    public double getAverage() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Returns whether the sketch is empty.
+     *
+     * @return true if no values were added, false otherwise
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns the approximate value at the given quantile, e.g. 0.5 for the median or 0.99 for the 99th percentile.
+     *
+     * @param quantile the quantile, between 0 and 1 (inclusive)
+     * @return the approximate value at the quantile, or NaN if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        long rank = (long) (quantile * (count - 1));
+        long seen = zeroCount;
+        if (seen > rank) {
+            return Math.max(min, 0);
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // The middle of the bucket in the relative sense, clamped by the exact minimum and maximum
+                double value = 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+                return Math.min(Math.max(value, min), max);
+            }
+        }
+
+        return max;
+    }
+
+    private void ensureCapacity(int minIndex, int maxIndex) {
+        if (counts.length == 0) {
+            offset = minIndex;
+            counts = new long[maxIndex - minIndex + 1];
+            return;
+        }
+
+        int newOffset = Math.min(offset, minIndex);
+        int newEnd = Math.max(offset + counts.length - 1, maxIndex);
+        if (newOffset == offset && newEnd == offset + counts.length - 1) {
+            return;
+        }
+
+        long[] newCounts = new long[newEnd - newOffset + 1];
+        System.arraycopy(counts, 0, newCounts, offset - newOffset, counts.length);
+        counts = newCounts;
+        offset = newOffset;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{count=" + count + ", min=" + min + ", max=" + max
+                + ", buckets=" + Arrays.stream(counts).filter(c -> c > 0).count() + "}";
+    }
+}
@@ -0,0 +1,233 @@
+package org.prof.it.soft.sketch;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a Space-Saving sketch that finds the most frequent keys (heavy hitters) in bounded memory.
+ * <p>
+ * The sketch monitors at most twice its capacity of keys. When more keys arrive, the counts of all keys are decreased
+ * by the count of the key just below the capacity, and the keys whose count drops to zero are evicted. The sum of
+ * these decrements is the maximum error: no count is underestimated by more than it, and a key that isn't monitored
+ * occurred at most this many times. As every decrement removes its value from more than the capacity of keys,
+ * the maximum error is at most the total count divided by the capacity.
+ * <p>
+ * Every key is reported with an upper bound of its count and its own error, the maximum error at the time the key
+ * was monitored (again): {@code count - error <= true count <= count}. Keys monitored from the start have no error.
+ * Sketches are mergeable: the merged sketch has the same guarantees as a sketch of all keys of both sketches,
+ * so the sketches of several files or threads can be combined.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     SpaceSavingSketch&lt;String&gt; sketch = new SpaceSavingSketch&lt;&gt;(10_000);
+ *     sketch.add("Java Developer");
+ *     List&lt;SpaceSavingSketch.Item&lt;String&gt;&gt; top = sketch.topK(1_000);
+ * </pre>
+ *
+ * @param <K> the type of the keys
+ */
+public class SpaceSavingSketch<K> {
+
+    /**
+     * The number of keys that are kept when the sketch is pruned.
+     */
+    @Getter
+    private final int capacity;
+
+    private final Map<K, Counter> counters;
+
+    /**
+     * The sum of all decrements, the maximum error of any count.
+     * A key that isn't monitored occurred at most this many times.
+     */
+    @Getter
+    private long maxError;
+
+    /**
+     * The total count of all added keys.
+     */
+    @Getter
+    private long totalCount;
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param capacity the number of keys kept when the sketch is pruned, it monitors at most twice as many keys
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        this.capacity = capacity;
+        this.counters = new HashMap<>();
+    }
+
+    /**
+     * Adds a key to the sketch.
+     *
+     * @param key the key
+     */
+    public void add(@NonNull K key) {
+        add(key, 1);
+    }
+
+    /**
+     * Adds a key to the sketch several times.
+     *
+     * @param key   the key
+     * @param times the number of times to add the key
+     */
+    public void add(@NonNull K key, long times) {
+        if (times <= 0) {
+            return;
+        }
+
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += times;
+        } else {
+            counters.put(key, new Counter(times, maxError));
+            pruneIfFull();
+        }
+
+        totalCount += times;
+    }
+
+    /**
+     * Adds all keys of another sketch to this sketch.
+     * A key monitored by only one of the sketches may have occurred up to the maximum error of the other one,
+     * so that maximum error is added to its error.
+     *
+     * @param other the sketch to merge
+     */
+    public void merge(@NonNull SpaceSavingSketch<? extends K> other) {
+        if (other.maxError > 0) {
+            for (Map.Entry<K, Counter> entry : counters.entrySet()) {
+                if (!other.counters.containsKey(entry.getKey())) {
+                    entry.getValue().error += other.maxError;
+                }
+            }
+        }
+
+        for (Map.Entry<? extends K, Counter> entry : other.counters.entrySet()) {
+            Counter counter = counters.get(entry.getKey());
+            if (counter != null) {
+                counter.count += entry.getValue().count;
+                counter.error += entry.getValue().error;
+            } else {
+                counters.put(entry.getKey(), new Counter(entry.getValue().count, maxError + entry.getValue().error));
+            }
+        }
+
+        maxError += other.maxError;
+        totalCount += other.totalCount;
+        pruneIfFull();
+    }
+
+    /**
+     * Returns the estimated count of a key, an upper bound of its true count.
+     *
+     * @param key the key
+     * @return the estimated count of the key, or the maximum error if the key isn't monitored
+     */
+    public long estimate(Object key) {
+        Counter counter = counters.get(key);
+        return counter == null ? maxError : counter.count + maxError;
+    }
+
+    /**
+     * Returns the guaranteed count of a key, a lower bound of its true count.
+     *
+     * @param key the key
+     * @return the guaranteed count of the key, or zero if the key isn't monitored
+     */
+    public long lowerBound(Object key) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0 : counter.count + maxError - counter.error;
+    }
+
+    /**
+     * Returns the number of monitored keys.
+     *
+     * @return the number of monitored keys
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Returns the keys with the highest estimated counts, in descending order of the counts.
+     *
+     * @param k the maximum number of keys
+     * @return at most k keys with their estimated counts and errors
+     */
+    public List<Item<K>> topK(int k) {
+        return counters.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<K, Counter> entry) -> entry.getValue().count).reversed())
+                .limit(Math.max(k, 0))
+                .map(entry -> new Item<>(entry.getKey(), entry.getValue().count + maxError, entry.getValue().error))
+                .toList();
+    }
+
+    /**
+     * Decreases all counts by the count just below the capacity once twice the capacity of keys is monitored,
+     * so at most the capacity of keys is left and pruning costs a sort per capacity of new keys.
+     */
+    private void pruneIfFull() {
+        if (counters.size() <= capacity * 2L) {
+            return;
+        }
+
+        long[] counts = new long[counters.size()];
+        int i = 0;
+        for (Counter counter : counters.values()) {
+            counts[i++] = counter.count;
+        }
+        Arrays.sort(counts);
+        long decrement = counts[counts.length - 1 - capacity];
+
+        // The lower bounds of the kept keys don't change, as the maximum error grows by the same decrement
+        counters.values().removeIf(counter -> (counter.count -= decrement) <= 0);
+        maxError += decrement;
+    }
+
+    @Override
+    public String toString() {
+        return "SpaceSavingSketch{capacity=" + capacity + ", size=" + counters.size()
+                + ", maxError=" + maxError + ", totalCount=" + totalCount + "}";
+    }
+
+    /**
+     * This record represents a key with its estimated count and the maximum overestimation of the count.
+     *
+     * @param key   the key
+     * @param count the estimated count, an upper bound of the true count
+     * @param error the maximum overestimation, the true count is at least count - error
+     * @param <K>   the type of the key
+     */
+    public record Item<K>(K key, long count, long error) {
+    }
+
+    /**
+     * The count of a key since it is monitored, decreased by every pruning, and the maximum error when it was monitored.
+     */
+    private static final class Counter {
+
+        private long count;
+
+        private long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.prof.it.soft.text;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class splits comma separated lists, such as the technology stack of a vacancy, into tokens.
+ * <p>
+ * Tokens are separated by commas, the whitespace around a token is trimmed (as by {@link String#trim()})
+ * and empty tokens are skipped, so "Java,Spring", "Java, Spring" and "Java ,  Spring," are the same two tokens.
+ * The tokenizer reads the characters in place and hands every token to a consumer as a range of the array,
+ * e.g. of the buffer of the JSON parser, so tokenizing creates no strings.
+ *
+ * <p>Example usage:</p>
+ * <pre>
+ *     char[] chars = "Java, Spring".toCharArray();
+ *     CommaTokenizer.forEachToken(chars, 0, chars.length, (buffer, start, end) -&gt; count(buffer, start, end));
+ *     List&lt;String&gt; tokens = CommaTokenizer.split("Java, Spring"); // [Java, Spring]
+ * </pre>
+ */
+public final class CommaTokenizer {
+
+    private CommaTokenizer() {
+    }
+
+    /**
+     * Hands every token of the characters to the consumer, in the order of the characters.
+     *
+     * @param chars    the array of characters
+     * @param offset   the position of the first character
+     * @param length   the number of characters
+     * @param consumer the consumer of the tokens
+     */
+    public static void forEachToken(char @NonNull [] chars, int offset, int length, @NonNull TokenConsumer consumer) {
+        int end = offset + length;
+        int start = offset;
+
+        while (start < end) {
+            int separator = start;
+            while (separator < end && chars[separator] != ',') {
+                separator++;
+            }
+
+            int tokenStart = start;
+            int tokenEnd = separator;
+            while (tokenStart < tokenEnd && chars[tokenStart] <= ' ') {
+                tokenStart++;
+            }
+            while (tokenEnd > tokenStart && chars[tokenEnd - 1] <= ' ') {
+                tokenEnd--;
+            }
+            if (tokenStart < tokenEnd) {
+                consumer.accept(chars, tokenStart, tokenEnd);
+            }
+
+            start = separator + 1;
+        }
+    }
+
+    /**
+     * Returns whether one of the tokens of the characters equals a token, without creating a string.
+     *
+     * @param chars  the array of characters
+     * @param offset the position of the first character
+     * @param length the number of characters
+     * @param token  the token to look for, without surrounding whitespace
+     * @return true if the characters contain the token, false otherwise
+     */
+    public static boolean containsToken(char @NonNull [] chars, int offset, int length, @NonNull String token) {
+        int end = offset + length;
+        int start = offset;
+
+        while (start < end) {
+            int separator = start;
+            while (separator < end && chars[separator] != ',') {
+                separator++;
+            }
+
+            int tokenStart = start;
+            int tokenEnd = separator;
+            while (tokenStart < tokenEnd && chars[tokenStart] <= ' ') {
+                tokenStart++;
+            }
+            while (tokenEnd > tokenStart && chars[tokenEnd - 1] <= ' ') {
+                tokenEnd--;
+            }
+            if (tokenEnd - tokenStart == token.length() && regionMatches(chars, tokenStart, token)) {
+                return true;
+            }
+
+            start = separator + 1;
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(char[] chars, int start, String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (chars[start + i] != token.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits a string into its tokens.
+     *
+     * @param value the comma separated list
+     * @return the tokens, an empty list if the value is null or has no tokens
+     */
+    public static List<String> split(String value) {
+        if (value == null || value.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        char[] chars = value.toCharArray();
+        forEachToken(chars, 0, chars.length, (buffer, start, end) -> tokens.add(new String(buffer, start, end - start)));
+        return tokens;
+    }
+
+    /**
+     * This interface represents a consumer of the tokens of a list.
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+
+        /**
+         * Consumes a token. The characters are only valid during the call.
+         *
+         * @param chars the array of characters
+         * @param start the position of the first character of the token
+         * @param end   the position after the last character of the token
+         */
+        void accept(char[] chars, int start, int end);
+    }
+}
@@ -0,0 +1,161 @@
+package org.prof.it.soft.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.prof.it.soft.dto.CrossTabKeyDto;
+import org.prof.it.soft.dto.RecruiterDto;
+import org.prof.it.soft.service.aggregator.MapStatisticAggregator;
+import org.prof.it.soft.service.aggregator.SalaryStatisticAggregator;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatisticCacheTest {
+
+    @Test
+    void load_returnsStoredStatistics_inRequestedOrder(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.json"), "[]");
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+
+        statisticCache.store(file, List.of(
+                new MapStatisticAggregator("position", Map.of("Java Developer", 3L, "Тестувальник", 1L)),
+                new MapStatisticAggregator("salary", Map.of("1000.0", 2L, "3000.0", 1L)),
+                new MapStatisticAggregator("recruiter", Map.of(new RecruiterDto("John", "Doe", null), 4L))));
+
+        Optional<List<StatisticAggregator>> cached = statisticCache.load(file, List.of("recruiter", "salary"));
+
+        assertThat(cached).isPresent();
+        assertThat(cached.get()).extracting(StatisticAggregator::getStatisticField).containsExactly("recruiter", "salary");
+        assertThat(cached.get().get(0).getStatisticMap()).isEqualTo(Map.of(new RecruiterDto("John", "Doe", null), 4L));
+        assertThat(cached.get().get(1).getStatisticMap()).isEqualTo(Map.of("1000.0", 2L, "3000.0", 1L));
+        // The salary sketch is rebuilt from the cached counts
+        assertThat(((SalaryStatisticAggregator) cached.get().get(1)).getSketch().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void load_returnsCrossTabCells(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.json"), "[]");
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+        Map<Object, Long> cells = Map.of(new CrossTabKeyDto("Java Developer", "Java"), 3L,
+                new CrossTabKeyDto("Java Developer", "SQL"), 1L);
+
+        statisticCache.store(file, List.of(new MapStatisticAggregator("position+technology_stack", cells)));
+
+        Optional<List<StatisticAggregator>> cached = statisticCache.load(file, List.of("position+technology_stack"));
+
+        assertThat(cached).isPresent();
+        assertThat(cached.get().get(0).getStatisticMap()).isEqualTo(cells);
+    }
+
+    @Test
+    void load_returnsEmpty_whenFileChangedOrFieldIsMissing(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.json"), "[]");
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+        statisticCache.store(file, List.of(new MapStatisticAggregator("position", Map.of("Java Developer", 1L))));
+
+        assertThat(statisticCache.load(file, List.of("position", "salary"))).isEmpty();
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() - 60_000));
+        assertThat(statisticCache.load(file, List.of("position"))).isEmpty();
+
+        statisticCache.store(file, List.of(new MapStatisticAggregator("position", Map.of("Java Developer", 1L))));
+        Files.writeString(file, "[{}]");
+        assertThat(statisticCache.load(file, List.of("position"))).isEmpty();
+    }
+
+    @Test
+    void load_returnsEmpty_whenFileChangedBetweenParsingAndStoring(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.json"), "[]");
+        for (boolean contentHash : new boolean[]{false, true}) {
+            StatisticCache statisticCache = new StatisticCache(folder.resolve("cache-" + contentHash), contentHash);
+
+            // The version is read before parsing, the file changes before its statistics are stored
+            StatisticCache.FileVersion version = statisticCache.version(file);
+            Files.writeString(file, "[{\"position\": \"Java Developer\"}]" + " ".repeat(contentHash ? 1 : 0));
+            statisticCache.store(file, version, List.of(new MapStatisticAggregator("position", Map.of())));
+
+            assertThat(statisticCache.load(file, List.of("position"))).as("content hash " + contentHash).isEmpty();
+        }
+    }
+
+    @Test
+    void load_comparesContentHash_whenEnabled(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.json"), "[1]");
+        FileTime lastModifiedTime = Files.getLastModifiedTime(file);
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), true);
+        statisticCache.store(file, List.of(new MapStatisticAggregator("position", Map.of("Java Developer", 1L))));
+
+        assertThat(statisticCache.load(file, List.of("position"))).isPresent();
+
+        // Same size and modification time, but another content
+        Files.writeString(file, "[2]");
+        Files.setLastModifiedTime(file, lastModifiedTime);
+        assertThat(statisticCache.load(file, List.of("position"))).isEmpty();
+        assertThat(new StatisticCache(folder.resolve("cache"), false).load(file, List.of("position"))).isPresent();
+    }
+
+    @Test
+    void store_addsStatisticsOfOtherFields_toTheEntryOfTheSameVersion(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.json"), "[]");
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+
+        // Two runs with different statistic fields over the same file
+        statisticCache.store(file, List.of(new MapStatisticAggregator("position", Map.of("Java Developer", 1L))));
+        statisticCache.store(file, List.of(new MapStatisticAggregator("salary", Map.of("1000.0", 2L))));
+
+        Optional<List<StatisticAggregator>> cached = statisticCache.load(file, List.of("position", "salary"));
+        assertThat(cached).isPresent();
+        assertThat(cached.get().get(0).getStatisticMap()).isEqualTo(Map.of("Java Developer", 1L));
+        assertThat(cached.get().get(1).getStatisticMap()).isEqualTo(Map.of("1000.0", 2L));
+
+        // A field stored again is replaced, the statistics of an older version of the file are dropped
+        statisticCache.store(file, List.of(new MapStatisticAggregator("position", Map.of("QA Engineer", 1L))));
+        assertThat(statisticCache.load(file, List.of("position")).get().get(0).getStatisticMap()).isEqualTo(Map.of("QA Engineer", 1L));
+        Files.writeString(file, "[{}]");
+        statisticCache.store(file, List.of(new MapStatisticAggregator("position", Map.of())));
+        assertThat(statisticCache.load(file, List.of("position"))).isPresent();
+        assertThat(statisticCache.load(file, List.of("salary"))).isEmpty();
+    }
+
+    @Test
+    void prune_removesEntriesOfFilesThatNoLongerExist(@TempDir Path folder) throws Exception {
+        Path kept = Files.writeString(folder.resolve("kept.json"), "[]");
+        Path deleted = Files.writeString(folder.resolve("deleted.json"), "[]");
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+        StatisticCache scopedCache = statisticCache.withScope("salary>=2000");
+        for (StatisticCache cache : List.of(statisticCache, scopedCache)) {
+            cache.store(kept, List.of(new MapStatisticAggregator("position", Map.of("Java Developer", 1L))));
+            cache.store(deleted, List.of(new MapStatisticAggregator("position", Map.of("Java Developer", 1L))));
+        }
+        Files.delete(deleted);
+
+        assertThat(statisticCache.prune()).isEqualTo(2);
+
+        assertThat(statisticCache.load(kept, List.of("position"))).isPresent();
+        assertThat(scopedCache.load(kept, List.of("position"))).isPresent();
+        assertThat(Files.exists(statisticCache.entryPath(deleted))).isFalse();
+        assertThat(Files.exists(scopedCache.entryPath(deleted))).isFalse();
+        assertThat(statisticCache.prune()).isZero();
+    }
+
+    @Test
+    void load_ignoresBrokenEntry(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.json"), "[]");
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+        statisticCache.store(file, List.of(new MapStatisticAggregator("position", Map.of("Java Developer", 1L))));
+
+        Path entry = statisticCache.entryPath(file);
+        byte[] bytes = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThat(statisticCache.load(file, List.of("position"))).isEmpty();
+    }
+}
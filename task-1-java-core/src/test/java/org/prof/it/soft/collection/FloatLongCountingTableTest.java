@@ -0,0 +1,53 @@
+package org.prof.it.soft.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FloatLongCountingTableTest {
+
+    @Test
+    void add_matchesHashMap_whenKeysAreAddedAndSubtracted() {
+        FloatLongCountingTable table = new FloatLongCountingTable(1, true);
+        Map<Float, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            float key = random.nextInt(20_000) * 0.5F;
+            long delta = random.nextInt(5) + 1;
+            if (random.nextInt(4) == 0) {
+                table.subtract(key, delta);
+                expected.computeIfPresent(key, (k, count) -> count > delta ? count - delta : null);
+            } else {
+                table.add(key, delta);
+                expected.merge(key, delta, Long::sum);
+            }
+        }
+
+        Map<Float, Long> actual = new HashMap<>();
+        table.forEach(actual::put);
+        assertThat(table.size()).isEqualTo(expected.size());
+        assertThat(actual).isEqualTo(expected);
+        assertThat(table.get(0.5F)).isEqualTo(expected.getOrDefault(0.5F, 0L));
+    }
+
+    @Test
+    void increment_countsZeroAndNegativeZeroAsOneKey_andRejectsNaN() {
+        FloatLongCountingTable table = new FloatLongCountingTable();
+
+        table.increment(0F);
+        table.increment(-0F);
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.get(0F)).isEqualTo(2L);
+        assertThat(table.get(Float.NaN)).isZero();
+        assertThrows(IllegalArgumentException.class, () -> table.increment(Float.NaN));
+
+        assertThat(SortedCountMap.of(table)).containsExactly(Map.entry(0F, 2L));
+    }
+}
@@ -0,0 +1,50 @@
+package org.prof.it.soft.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongLongCountingTableTest {
+
+    @Test
+    void add_matchesHashMap_whenPackedKeysAreAddedAndSubtracted() {
+        LongLongCountingTable table = new LongLongCountingTable(1, false);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = LongLongCountingTable.pack(random.nextInt(200), random.nextInt(100) - 50);
+            long delta = random.nextInt(5) + 1;
+            if (random.nextInt(4) == 0) {
+                table.subtract(key, delta);
+                expected.computeIfPresent(key, (k, count) -> count > delta ? count - delta : null);
+            } else {
+                table.add(key, delta);
+                expected.merge(key, delta, Long::sum);
+            }
+        }
+
+        Map<Long, Long> actual = new HashMap<>();
+        table.forEach(actual::put);
+        assertThat(table.size()).isEqualTo(expected.size());
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void pack_keepsBothInts_includingNegativeOnes() {
+        long key = LongLongCountingTable.pack(-3, -7);
+
+        assertThat(LongLongCountingTable.first(key)).isEqualTo(-3);
+        assertThat(LongLongCountingTable.second(key)).isEqualTo(-7);
+        assertThat(LongLongCountingTable.second(LongLongCountingTable.pack(1, Integer.MAX_VALUE))).isEqualTo(Integer.MAX_VALUE);
+
+        LongLongCountingTable table = new LongLongCountingTable();
+        assertThat(table.get(Long.MIN_VALUE)).isZero();
+        assertThrows(IllegalArgumentException.class, () -> table.increment(Long.MIN_VALUE));
+    }
+}
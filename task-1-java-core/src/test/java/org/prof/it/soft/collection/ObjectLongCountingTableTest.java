@@ -0,0 +1,141 @@
+package org.prof.it.soft.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ObjectLongCountingTableTest {
+
+    @Test
+    void increment_countsOccurrencesOfEveryKey() {
+        ObjectLongCountingTable<String> table = new ObjectLongCountingTable<>();
+
+        table.increment("Java");
+        table.increment("Python");
+        table.increment("Java");
+
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.get("Java")).isEqualTo(2L);
+        assertThat(table.get("Python")).isEqualTo(1L);
+        assertThat(table.get("C++")).isZero();
+        assertThat(table.containsKey("C++")).isFalse();
+    }
+
+    @Test
+    void increment_throwsNullPointerException_whenKeyIsNull() {
+        ObjectLongCountingTable<String> table = new ObjectLongCountingTable<>();
+        assertThrows(NullPointerException.class, () -> table.increment(null));
+    }
+
+    @Test
+    void add_matchesHashMap_whenTableGrowsManyTimes() {
+        assertMatchesHashMap(false);
+    }
+
+    @Test
+    void add_matchesHashMap_whenTableGrowsManyTimes_offHeap() {
+        assertMatchesHashMap(true);
+    }
+
+    private void assertMatchesHashMap(boolean offHeap) {
+        ObjectLongCountingTable<String> table = new ObjectLongCountingTable<>(1, offHeap);
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            String key = "key-" + random.nextInt(20_000);
+            long delta = random.nextInt(5);
+            table.add(key, delta);
+            expected.merge(key, delta, Long::sum);
+        }
+
+        assertThat(table.isOffHeap()).isEqualTo(offHeap);
+        assertThat(table.size()).isEqualTo(expected.size());
+        assertThat(table.toMap()).isEqualTo(expected);
+    }
+
+    @Test
+    void allocateCounts_keepsOffHeapBuffersWithinTheLimitOfADirectBuffer() {
+        // The counts of the largest off-heap table fit a single direct buffer, the on-heap limit would overflow it
+        assertThat((long) ObjectLongCountingTable.MAX_OFF_HEAP_CAPACITY * Long.BYTES).isLessThan(Integer.MAX_VALUE);
+        assertThat((long) ObjectLongCountingTable.MAX_CAPACITY * Long.BYTES).isGreaterThan(Integer.MAX_VALUE);
+        assertThat(ObjectLongCountingTable.maxCapacity(true)).isEqualTo(ObjectLongCountingTable.MAX_OFF_HEAP_CAPACITY);
+        assertThat(ObjectLongCountingTable.maxCapacity(false)).isEqualTo(ObjectLongCountingTable.MAX_CAPACITY);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ObjectLongCountingTable.allocateCounts(ObjectLongCountingTable.MAX_CAPACITY, true));
+        assertThat(ObjectLongCountingTable.allocateCounts(1 << 10, true).capacity()).isEqualTo(1 << 10);
+    }
+
+    @Test
+    void addAll_sumsCountsOfBothTables() {
+        ObjectLongCountingTable<String> first = new ObjectLongCountingTable<>();
+        first.add("Java", 2);
+        first.add("Python", 1);
+
+        ObjectLongCountingTable<String> second = new ObjectLongCountingTable<>(16, true);
+        second.add("Java", 3);
+        second.add("Go", 4);
+
+        first.addAll(second);
+
+        assertThat(first.toMap()).isEqualTo(Map.of("Java", 5L, "Python", 1L, "Go", 4L));
+    }
+
+    @Test
+    void add_handlesKeysWithSameHashCode() {
+        ObjectLongCountingTable<String> table = new ObjectLongCountingTable<>();
+
+        // "Aa" and "BB" have the same hash code
+        table.increment("Aa");
+        table.increment("BB");
+        table.increment("BB");
+
+        assertThat(table.get("Aa")).isEqualTo(1L);
+        assertThat(table.get("BB")).isEqualTo(2L);
+    }
+
+    @Test
+    void subtract_removesKeysDroppingToZero_andKeepsOtherKeysReachable() {
+        Random random = new Random(7);
+        ObjectLongCountingTable<Integer> table = new ObjectLongCountingTable<>(4, false);
+        Map<Integer, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            // A small key range produces long probe sequences, which have to be shifted back on removal
+            Integer key = random.nextInt(2_000) * 64;
+            if (random.nextInt(3) == 0) {
+                long count = table.subtract(key, 1);
+                expected.computeIfPresent(key, (k, value) -> value > 1 ? value - 1 : null);
+                assertThat(count).isEqualTo(expected.getOrDefault(key, 0L));
+            } else {
+                table.increment(key);
+                expected.merge(key, 1L, Long::sum);
+            }
+        }
+
+        assertThat(table.toMap()).isEqualTo(expected);
+        assertThat(table.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    void subtractAll_undoesAddAll() {
+        ObjectLongCountingTable<String> table = new ObjectLongCountingTable<>();
+        table.add("Java", 3);
+        table.add("Go", 1);
+
+        ObjectLongCountingTable<String> other = new ObjectLongCountingTable<>();
+        other.add("Java", 2);
+        other.add("Rust", 4);
+
+        table.addAll(other);
+        table.subtractAll(other);
+
+        assertThat(table.toMap()).isEqualTo(Map.of("Java", 3L, "Go", 1L));
+    }
+}
@@ -0,0 +1,78 @@
+package org.prof.it.soft.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedCountMapTest {
+
+    @Test
+    void of_sortsKeysByCountDescending_andConvertsKeys() {
+        ObjectLongCountingTable<Object> table = new ObjectLongCountingTable<>();
+        table.add("Java", 3);
+        table.add("Python", 5);
+        table.add("Go", 1);
+
+        SortedCountMap<String> map = SortedCountMap.of(table, key -> key + "!");
+
+        assertThat(map).containsExactly(Map.entry("Python!", 5L), Map.entry("Java!", 3L), Map.entry("Go!", 1L));
+        assertThat(map.get("Java!")).isEqualTo(3L);
+        assertThat(map.get("Java")).isNull();
+        assertThat(map).isEqualTo(Map.of("Java!", 3L, "Python!", 5L, "Go!", 1L));
+    }
+
+    @Test
+    void of_matchesSortedHashMap_withManyKeysAndEqualCounts() {
+        ObjectLongCountingTable<Object> table = new ObjectLongCountingTable<>();
+        Map<Object, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            String key = "key" + random.nextInt(20_000);
+            table.increment(key);
+            expected.merge(key, 1L, Long::sum);
+        }
+
+        SortedCountMap<Object> map = SortedCountMap.of(table, key -> key);
+
+        assertThat(map).isEqualTo(expected);
+        List<Long> counts = new ArrayList<>(map.values());
+        assertThat(counts).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    void get_findsEveryKey_ofALargeMap_andTheLargestCount_ofKeysConvertedToTheSameKey() {
+        ObjectLongCountingTable<Object> table = new ObjectLongCountingTable<>();
+        for (int i = 0; i < 200_000; i++) {
+            table.add("key" + i, i + 1);
+        }
+
+        SortedCountMap<String> map = SortedCountMap.of(table, Object::toString);
+
+        // A scan of the keys per lookup would take minutes here
+        for (int i = 0; i < 200_000; i++) {
+            assertThat(map.get("key" + i)).isEqualTo(i + 1L);
+        }
+        assertThat(map.containsKey("key200000")).isFalse();
+        assertThat(new HashMap<>(map)).isEqualTo(map);
+
+        SortedCountMap<String> merged = SortedCountMap.of(table, key -> key.toString().substring(0, 3));
+        assertThat(merged.get("key")).isEqualTo(200_000L);
+    }
+
+    @Test
+    void of_sortsCountsThatDontFitNextToPosition() {
+        ObjectLongCountingTable<Object> table = new ObjectLongCountingTable<>();
+        table.add("small", 1);
+        table.add("huge", Long.MAX_VALUE - 1);
+        table.add("large", 1L << 62);
+
+        assertThat(SortedCountMap.of(table, Object::toString).keySet()).containsExactly("huge", "large", "small");
+        assertThat(SortedCountMap.of(new ObjectLongCountingTable<>(), Object::toString)).isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package org.prof.it.soft.collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenDictionaryTest {
+
+    @Test
+    void id_assignsConsecutiveIds_andFindsKnownTokensInPlace() {
+        TokenDictionary dictionary = new TokenDictionary();
+        char[] chars = "Java, Spring, Java".toCharArray();
+
+        assertThat(dictionary.id(chars, 0, 4)).isZero();
+        assertThat(dictionary.id(chars, 6, 12)).isEqualTo(1);
+        assertThat(dictionary.id(chars, 14, 18)).isZero();
+        assertThat(dictionary.token(0)).isEqualTo("Java").isSameAs(dictionary.token(dictionary.id(chars, 14, 18)));
+
+        for (int i = 0; i < 10_000; i++) {
+            char[] token = ("Technology " + i).toCharArray();
+            assertThat(dictionary.id(token, 0, token.length)).isEqualTo(i + 2);
+        }
+        char[] token = "Technology 1234".toCharArray();
+        assertThat(dictionary.id(token, 0, token.length)).isEqualTo(1236);
+        assertThat(dictionary.size()).isEqualTo(10_002);
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.token(10_002));
+    }
+
+    @Test
+    void id_returnsMinusOne_whenDictionaryIsFull() {
+        TokenDictionary dictionary = new TokenDictionary(2);
+        char[] chars = "abc".toCharArray();
+
+        assertThat(dictionary.id(chars, 0, 1)).isZero();
+        assertThat(dictionary.id(chars, 1, 2)).isEqualTo(1);
+        assertThat(dictionary.id(chars, 2, 3)).isEqualTo(-1);
+        assertThat(dictionary.id(chars, 0, 1)).isZero();
+        assertThrows(IllegalArgumentException.class, () -> new TokenDictionary(0));
+    }
+}
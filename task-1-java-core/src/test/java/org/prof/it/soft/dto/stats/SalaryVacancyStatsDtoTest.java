@@ -0,0 +1,37 @@
+package org.prof.it.soft.dto.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalaryVacancyStatsDtoTest {
+
+    @Test
+    void equals_comparesPercentiles() {
+        SalaryVacancyStatsDto dto = salaryDto(2000D, 3000D, 4000D, 4500D);
+
+        assertThat(dto).isEqualTo(salaryDto(2000D, 3000D, 4000D, 4500D))
+                .hasSameHashCodeAs(salaryDto(2000D, 3000D, 4000D, 4500D));
+        assertThat(dto).isNotEqualTo(salaryDto(2100D, 3000D, 4000D, 4500D));
+        assertThat(dto).isNotEqualTo(salaryDto(2000D, 3100D, 4000D, 4500D));
+        assertThat(dto).isNotEqualTo(salaryDto(2000D, 3000D, 4100D, 4500D));
+        assertThat(dto).isNotEqualTo(salaryDto(2000D, 3000D, 4000D, 4600D));
+        assertThat(dto).isNotEqualTo(salaryDto(null, null, null, null));
+        assertThat(salaryDto(null, null, null, null)).isEqualTo(salaryDto(null, null, null, null));
+    }
+
+    private static SalaryVacancyStatsDto salaryDto(Double p50Salary, Double p75Salary, Double p90Salary, Double p99Salary) {
+        return SalaryVacancyStatsDto.builder()
+                .minSalary(1000D)
+                .averageSalary(2500D)
+                .maxSalary(5000D)
+                .p50Salary(p50Salary)
+                .p75Salary(p75Salary)
+                .p90Salary(p90Salary)
+                .p99Salary(p99Salary)
+                .vacancyCountBySalary(Map.of(1000F, 1L, 5000F, 1L))
+                .build();
+    }
+}
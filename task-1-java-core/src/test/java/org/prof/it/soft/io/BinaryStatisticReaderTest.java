@@ -0,0 +1,113 @@
+package org.prof.it.soft.io;
+
+import org.junit.jupiter.api.Test;
+import org.prof.it.soft.dto.RecruiterDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryStatisticReaderTest {
+
+    @Test
+    void accept_replaysValuesAndEntries_inTheOrderTheyWereWritten() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryStatisticWriter writer = new BinaryStatisticWriter(outputStream);
+        writer.value("max-unreported-count", -3L);
+        writer.value("average-salary", 1500.5);
+        writer.beginMap("vacancy-count-by-salary-statistic", Float.class, 2);
+        writer.entry(1000.0f, 10);
+        writer.entry(2000.5f, Long.MAX_VALUE);
+        writer.endMap();
+        writer.beginMap("vacancy-count-by-recruiter-statistic", RecruiterDto.class, 2);
+        writer.entry(new RecruiterDto("John", "Doe", "ProfITsoft"), 300);
+        writer.entry(new RecruiterDto("Jane", null, "ProfITsoft"), 1);
+        writer.endMap();
+        writer.finish();
+
+        List<String> events = new ArrayList<>();
+        new BinaryStatisticReader(new ByteArrayInputStream(outputStream.toByteArray())).accept(new RecordingVisitor(events));
+
+        assertThat(events).containsExactly(
+                "max-unreported-count=-3",
+                "average-salary=1500.5",
+                "begin vacancy-count-by-salary-statistic Float 2",
+                "1000.0:10",
+                "2000.5:" + Long.MAX_VALUE,
+                "end",
+                "begin vacancy-count-by-recruiter-statistic RecruiterDto 2",
+                "RecruiterDto(firstName=John, lastName=Doe, companyName=ProfITsoft):300",
+                "RecruiterDto(firstName=Jane, lastName=null, companyName=ProfITsoft):1",
+                "end");
+    }
+
+    @Test
+    void accept_readsStringsLargerThanTheBuffer_andWritesRepeatedStringsOnce() throws IOException {
+        char[] chars = new char[200_000];
+        Arrays.fill(chars, 'ж');
+        String largeKey = new String(chars);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryStatisticWriter writer = new BinaryStatisticWriter(outputStream);
+        writer.beginMap("vacancy-count-by-recruiter-statistic", RecruiterDto.class, 1000);
+        for (int i = 0; i < 1000; i++) {
+            writer.entry(new RecruiterDto("Recruiter " + i, "Doe", "A company with a long name"), i);
+        }
+        writer.endMap();
+        writer.beginMap("vacancy-count-by-position-statistic", String.class, 1);
+        writer.entry(largeKey, 1);
+        writer.endMap();
+        writer.finish();
+
+        // Every recruiter takes its first name, two references and a count
+        assertThat(outputStream.size()).isLessThan(1000 * 20 + largeKey.length() * 2 + 100);
+
+        List<String> events = new ArrayList<>();
+        new BinaryStatisticReader(new ByteArrayInputStream(outputStream.toByteArray())).accept(new RecordingVisitor(events));
+
+        assertThat(events).hasSize(1000 + 5);
+        assertThat(events.get(1000)).isEqualTo("RecruiterDto(firstName=Recruiter 999, lastName=Doe, companyName=A company with a long name):999");
+        assertThat(events.get(1003)).isEqualTo(largeKey + ":1");
+    }
+
+    @Test
+    void accept_throwsIOException_whenStreamIsNotABinaryStatistic() throws IOException {
+        assertThrows(IOException.class, () -> new BinaryStatisticReader(new ByteArrayInputStream("<statistic/>".getBytes()))
+                .accept(new RecordingVisitor(new ArrayList<>())));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new BinaryStatisticWriter(outputStream).value("average-salary", 1.0);
+        assertThrows(EOFException.class, () -> new BinaryStatisticReader(new ByteArrayInputStream(outputStream.toByteArray()))
+                .accept(new RecordingVisitor(new ArrayList<>())));
+    }
+
+    private record RecordingVisitor(List<String> events) implements StatisticVisitor {
+
+        @Override
+        public void value(String name, Number value) {
+            events.add(name + "=" + value);
+        }
+
+        @Override
+        public void beginMap(String name, Class<?> keyType, int size) {
+            events.add("begin " + name + " " + keyType.getSimpleName() + " " + size);
+        }
+
+        @Override
+        public void entry(Object key, long count) {
+            events.add(key + ":" + count);
+        }
+
+        @Override
+        public void endMap() {
+            events.add("end");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.prof.it.soft.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorpusFormatTest {
+
+    private static final String FIRST = "[{\"position\": \"Java Developer\"}]";
+
+    private static final String SECOND = "[{\"position\": \"Олена\"}]";
+
+    @Test
+    void of_returnsFormatByFileName() {
+        assertThat(CorpusFormat.of(Path.of("vacancies.json"))).isEqualTo(CorpusFormat.JSON);
+        assertThat(CorpusFormat.of(Path.of("vacancies.json.gz"))).isEqualTo(CorpusFormat.GZIP);
+        assertThat(CorpusFormat.of(Path.of("vacancies.JSON.deflate"))).isEqualTo(CorpusFormat.DEFLATE);
+        assertThat(CorpusFormat.of(Path.of("export.zip"))).isEqualTo(CorpusFormat.ZIP);
+        assertThat(CorpusFormat.of(Path.of("export.tar"))).isEqualTo(CorpusFormat.TAR);
+        assertThat(CorpusFormat.of(Path.of("export.tar.gz"))).isEqualTo(CorpusFormat.TAR_GZIP);
+        assertThat(CorpusFormat.of(Path.of("export.tgz"))).isEqualTo(CorpusFormat.TAR_GZIP);
+    }
+
+    @Test
+    void forEachDocument_readsCompressedFiles(@TempDir Path folder) throws Exception {
+        Path gzip = Files.write(folder.resolve("vacancies.json.gz"), gzip(FIRST.getBytes(StandardCharsets.UTF_8)));
+        Path deflate = Files.write(folder.resolve("vacancies.json.deflate"), deflate(FIRST.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(readDocuments(gzip)).containsExactly(Map.entry(gzip.toString(), FIRST));
+        assertThat(readDocuments(deflate)).containsExactly(Map.entry(deflate.toString(), FIRST));
+    }
+
+    @Test
+    void forEachDocument_inflatesSmallDocuments_onTheParsersThread(@TempDir Path folder) throws Exception {
+        Path gzip = Files.write(folder.resolve("vacancies.json.gz"), gzip(FIRST.getBytes(StandardCharsets.UTF_8)));
+
+        CorpusFormat.GZIP.forEachDocument(gzip, (name, inputStream) -> {
+            assertThat(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(FIRST);
+            // A small document starts no decompressing thread and allocates no direct buffers
+            assertThat(inputStream).isInstanceOfSatisfying(DeferredReadAheadInputStream.class,
+                    deferred -> assertThat(deferred.isReadingAhead()).isFalse());
+        });
+    }
+
+    @Test
+    void forEachDocument_readsJsonEntriesOfArchives(@TempDir Path folder) throws Exception {
+        Path zip = Files.write(folder.resolve("export.zip"), zip());
+        Path tar = Files.write(folder.resolve("export.tar"), tar());
+        Path tarGzip = Files.write(folder.resolve("export.tgz"), gzip(tar()));
+
+        assertThat(readDocuments(zip)).containsExactly(
+                Map.entry(zip + "!first.json", FIRST),
+                Map.entry(zip + "!2024/second.json", SECOND));
+
+        String longName = "a".repeat(120) + "/second.json";
+        for (Path path : new Path[]{tar, tarGzip}) {
+            assertThat(readDocuments(path)).containsExactly(
+                    Map.entry(path + "!first.json", FIRST),
+                    Map.entry(path + "!" + longName, SECOND));
+        }
+    }
+
+    @Test
+    void forEachDetectedDocument_detectsFormatOfStream() throws Exception {
+        byte[] json = FIRST.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(readDetectedDocuments(json)).containsExactly(Map.entry("stdin", FIRST));
+        assertThat(readDetectedDocuments(gzip(json))).containsExactly(Map.entry("stdin", FIRST));
+        assertThat(readDetectedDocuments(deflate(json))).containsExactly(Map.entry("stdin", FIRST));
+        assertThat(readDetectedDocuments(zip())).containsKeys("stdin!first.json", "stdin!2024/second.json");
+        assertThat(readDetectedDocuments(gzip(tar()))).hasSize(2).containsEntry("stdin!first.json", FIRST);
+    }
+
+    private static Map<String, String> readDocuments(Path path) throws IOException {
+        Map<String, String> documents = new LinkedHashMap<>();
+        CorpusFormat.of(path).forEachDocument(path, (name, inputStream) ->
+                documents.put(name, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)));
+        return documents;
+    }
+
+    private static Map<String, String> readDetectedDocuments(byte[] bytes) throws IOException {
+        Map<String, String> documents = new LinkedHashMap<>();
+        CorpusFormat.forEachDetectedDocument(new ByteArrayInputStream(bytes), "stdin", (name, inputStream) ->
+                documents.put(name, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)));
+        return documents;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStream deflaterOutputStream = new DeflaterOutputStream(outputStream)) {
+            deflaterOutputStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] zip() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry("first.json"));
+            zipOutputStream.write(FIRST.getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.putNextEntry(new ZipEntry("readme.txt"));
+            zipOutputStream.write("not a vacancy".getBytes(StandardCharsets.UTF_8));
+            zipOutputStream.putNextEntry(new ZipEntry("2024/"));
+            zipOutputStream.putNextEntry(new ZipEntry("2024/second.json"));
+            zipOutputStream.write(SECOND.getBytes(StandardCharsets.UTF_8));
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Writes a ustar archive with a regular entry, a text file, a directory and a GNU long name entry.
+     */
+    private static byte[] tar() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        String longName = "a".repeat(120) + "/second.json";
+
+        writeTarEntry(outputStream, "first.json", '0', FIRST.getBytes(StandardCharsets.UTF_8));
+        writeTarEntry(outputStream, "readme.txt", '0', "not a vacancy".getBytes(StandardCharsets.UTF_8));
+        writeTarEntry(outputStream, "dir/", '5', new byte[0]);
+        writeTarEntry(outputStream, "././@LongLink", 'L', (longName + "\0").getBytes(StandardCharsets.UTF_8));
+        writeTarEntry(outputStream, longName.substring(0, 99), '0', SECOND.getBytes(StandardCharsets.UTF_8));
+        outputStream.write(new byte[1024]);
+
+        return outputStream.toByteArray();
+    }
+
+    private static void writeTarEntry(ByteArrayOutputStream outputStream, String name, char type, byte[] content) {
+        byte[] header = new byte[512];
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(nameBytes, 0, header, 0, nameBytes.length);
+        byte[] size = String.format("%011o", content.length).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(size, 0, header, 124, size.length);
+        header[156] = (byte) type;
+        System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+
+        outputStream.writeBytes(header);
+        outputStream.writeBytes(content);
+        outputStream.writeBytes(new byte[(512 - content.length % 512) % 512]);
+    }
+}
@@ -0,0 +1,44 @@
+package org.prof.it.soft.io;
+
+import org.junit.jupiter.api.Test;
+import org.prof.it.soft.dto.RecruiterDto;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvStatisticWriterTest {
+
+    @Test
+    void entry_quotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        StringWriter output = new StringWriter();
+        CsvStatisticWriter writer = new CsvStatisticWriter(output, CsvStatisticWriter.KEY_COLUMNS);
+        writer.value("average-salary", 1500.5);
+        writer.beginMap("vacancy-count-by-position-statistic", String.class, 3);
+        writer.entry("Java Developer", 10);
+        writer.entry("Developer, \"Senior\"", 5);
+        writer.entry("QA\nEngineer", 1);
+        writer.endMap();
+
+        assertThat(output.toString()).isEqualTo("name,key,value\r\n"
+                + "average-salary,,1500.5\r\n"
+                + "vacancy-count-by-position-statistic,Java Developer,10\r\n"
+                + "vacancy-count-by-position-statistic,\"Developer, \"\"Senior\"\"\",5\r\n"
+                + "vacancy-count-by-position-statistic,\"QA\nEngineer\",1\r\n");
+    }
+
+    @Test
+    void entry_writesRecruiterKeysInThreeColumns() throws IOException {
+        StringWriter output = new StringWriter();
+        CsvStatisticWriter writer = new CsvStatisticWriter(output, CsvStatisticWriter.RECRUITER_KEY_COLUMNS);
+        writer.beginMap("vacancy-count-by-recruiter-statistic", RecruiterDto.class, 2);
+        writer.entry(new RecruiterDto("John", "Doe", "ProfITsoft"), 3);
+        writer.entry(new RecruiterDto("Jane", null, null), 1);
+        writer.endMap();
+
+        assertThat(output.toString()).isEqualTo("name,first_name,last_name,company_name,value\r\n"
+                + "vacancy-count-by-recruiter-statistic,John,Doe,ProfITsoft,3\r\n"
+                + "vacancy-count-by-recruiter-statistic,Jane,,,1\r\n");
+    }
+}
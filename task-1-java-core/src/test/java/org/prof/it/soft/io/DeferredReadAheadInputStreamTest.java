@@ -0,0 +1,58 @@
+package org.prof.it.soft.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeferredReadAheadInputStreamTest {
+
+    @Test
+    void read_staysOnTheReadersThread_belowTheThreshold() throws IOException {
+        byte[] bytes = randomBytes(1000);
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayInputStream source = new ByteArrayInputStream(bytes) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        try (DeferredReadAheadInputStream inputStream = new DeferredReadAheadInputStream(source, 1024, 256, "read-ahead-test")) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(bytes);
+            assertThat(inputStream.isReadingAhead()).isFalse();
+        }
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void read_switchesToReadAhead_afterTheThreshold_withoutLosingBytes() throws IOException {
+        byte[] bytes = randomBytes(10_000);
+
+        try (DeferredReadAheadInputStream inputStream =
+                     new DeferredReadAheadInputStream(new ByteArrayInputStream(bytes), 1024, 256, "read-ahead-test")) {
+            byte[] read = new byte[bytes.length];
+            read[0] = (byte) inputStream.read();
+            int length = 1;
+            int count;
+            while ((count = inputStream.read(read, length, Math.min(700, read.length - length))) > 0) {
+                length += count;
+            }
+
+            assertThat(length).isEqualTo(bytes.length);
+            assertThat(read).isEqualTo(bytes);
+            assertThat(inputStream.isReadingAhead()).isTrue();
+            assertThat(inputStream.read()).isEqualTo(-1);
+        }
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
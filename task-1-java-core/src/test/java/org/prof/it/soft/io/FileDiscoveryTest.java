@@ -0,0 +1,51 @@
+package org.prof.it.soft.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileDiscoveryTest {
+
+    @Test
+    void discover_findsJsonFilesInWholeDirectoryTree_byDefault(@TempDir Path folder) throws Exception {
+        createFiles(folder, "a.json", "b.txt", "2024/01/c.json", "2024/02/d.json", "2024/02/e.json.bak");
+
+        assertThat(discover(new FileDiscovery(), folder))
+                .containsExactlyInAnyOrder("a.json", "2024/01/c.json", "2024/02/d.json");
+    }
+
+    @Test
+    void discover_appliesIncludeAndExcludePatterns(@TempDir Path folder) throws Exception {
+        createFiles(folder, "a.json", "export.ndjson", "2024/b.json", "2024/backup/c.json", "2025/d.json");
+
+        FileDiscovery fileDiscovery = new FileDiscovery(List.of("**.json", "*.ndjson"), List.of("**/backup/**", "2025/**"));
+
+        assertThat(discover(fileDiscovery, folder))
+                .containsExactlyInAnyOrder("a.json", "export.ndjson", "2024/b.json");
+    }
+
+    @Test
+    void discover_returnsNothing_forEmptyDirectory(@TempDir Path folder) throws Exception {
+        assertThat(discover(new FileDiscovery(), folder)).isEmpty();
+    }
+
+    private static void createFiles(Path folder, String... files) throws Exception {
+        for (String file : files) {
+            Path path = folder.resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, "[]");
+        }
+    }
+
+    private static List<String> discover(FileDiscovery fileDiscovery, Path folder) throws Exception {
+        List<String> files = new ArrayList<>();
+        fileDiscovery.discover(folder, path -> files.add(folder.relativize(path).toString().replace('\\', '/')));
+        return files;
+    }
+}
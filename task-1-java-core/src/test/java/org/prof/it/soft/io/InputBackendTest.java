@@ -0,0 +1,89 @@
+package org.prof.it.soft.io;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InputBackendTest {
+
+    @Test
+    void open_readsSameBytes_withEveryBackend(@TempDir Path folder) throws Exception {
+        byte[] bytes = new byte[3 * 1024 * 1024 + 17];
+        new Random(7).nextBytes(bytes);
+        Path file = Files.write(folder.resolve("data.bin"), bytes);
+
+        for (InputBackend inputBackend : InputBackend.values()) {
+            try (InputStream inputStream = inputBackend.open(file)) {
+                assertThat(inputStream.readAllBytes()).as(inputBackend.name()).isEqualTo(bytes);
+            }
+        }
+    }
+
+    @Test
+    void open_readsSameBytes_acrossSegmentsAndBlocks(@TempDir Path folder) throws Exception {
+        byte[] bytes = new byte[10_000];
+        new Random(11).nextBytes(bytes);
+        Path file = Files.write(folder.resolve("data.bin"), bytes);
+
+        try (InputStream mapped = new MappedFileInputStream(file, 999);
+             InputStream readAhead = new ReadAheadInputStream(file, 999)) {
+            assertThat(mapped.read()).isEqualTo(bytes[0] & 0xFF);
+            assertThat(mapped.skip(1500)).isEqualTo(1500);
+            assertThat(mapped.readAllBytes()).isEqualTo(Arrays.copyOfRange(bytes, 1501, bytes.length));
+            assertThat(readAhead.readAllBytes()).isEqualTo(bytes);
+            assertThat(readAhead.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void open_readsEmptyFile(@TempDir Path folder) throws Exception {
+        Path file = Files.createFile(folder.resolve("empty.json"));
+
+        for (InputBackend inputBackend : InputBackend.values()) {
+            try (InputStream inputStream = inputBackend.open(file)) {
+                assertThat(inputStream.read()).as(inputBackend.name()).isEqualTo(-1);
+            }
+        }
+    }
+
+    @Test
+    void open_decodesUtf8_independentOfPlatformCharset(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancy.json"),
+                "{\"recruiter_first_name\":\"Олена\"}", StandardCharsets.UTF_8);
+
+        for (InputBackend inputBackend : InputBackend.values()) {
+            try (InputStream inputStream = inputBackend.open(file);
+                 JsonParser jsonParser = new ObjectMapper().createParser(inputStream)) {
+                jsonParser.nextToken();
+                jsonParser.nextToken();
+                jsonParser.nextToken();
+                assertThat(jsonParser.getText()).as(inputBackend.name()).isEqualTo("Олена");
+            }
+        }
+    }
+
+    @Test
+    void forSize_choosesBackendBySize() {
+        assertThat(InputBackend.forSize(1024)).isEqualTo(InputBackend.STREAM);
+        assertThat(InputBackend.forSize(InputBackend.MEMORY_MAPPED_THRESHOLD)).isEqualTo(InputBackend.MEMORY_MAPPED);
+        assertThat(InputBackend.forSize(InputBackend.READ_AHEAD_THRESHOLD)).isEqualTo(InputBackend.READ_AHEAD);
+    }
+
+    @Test
+    void of_parsesBackendName() {
+        assertThat(InputBackend.of("memory-mapped")).isEqualTo(InputBackend.MEMORY_MAPPED);
+        assertThat(InputBackend.of("READ_AHEAD")).isEqualTo(InputBackend.READ_AHEAD);
+        assertThrows(IllegalArgumentException.class, () -> InputBackend.of("reader"));
+    }
+}
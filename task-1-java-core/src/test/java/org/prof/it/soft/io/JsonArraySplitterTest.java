@@ -0,0 +1,129 @@
+package org.prof.it.soft.io;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonArraySplitterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final JsonArraySplitter splitter = new JsonArraySplitter();
+
+    @Test
+    void split_keepsEveryElement_whenStringsContainBracketsAndEscapedQuotes(@TempDir Path folder) throws Exception {
+        StringBuilder json = new StringBuilder("﻿ [\n");
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "" : ",\n")
+                    .append("{\"position\": \"Dev } ], {\\\" ").append(i).append("\\\\\",")
+                    .append(" \"nested\": {\"list\": [1, {\"a\": \"]\"}]}}");
+        }
+        json.append("\n]\n");
+        Path file = Files.writeString(folder.resolve("vacancies.json"), json);
+
+        List<JsonArrayRange> ranges = splitter.split(file, 200);
+
+        assertThat(ranges).hasSizeGreaterThan(10);
+        assertThat(ranges).noneMatch(JsonArrayRange::isWholeFile);
+
+        List<JsonNode> elements = new ArrayList<>();
+        for (JsonArrayRange range : ranges) {
+            try (InputStream inputStream = range.open()) {
+                mapper.readTree(inputStream).forEach(elements::add);
+            }
+        }
+
+        assertThat(elements).hasSize(100);
+        for (int i = 0; i < elements.size(); i++) {
+            assertThat(elements.get(i).get("position").asText()).isEqualTo("Dev } ], {\" " + i + "\\");
+        }
+    }
+
+    @Test
+    void split_returnsSingleRange_whenRangeSizeIsLargerThanFile() throws Exception {
+        Path file = Path.of("src/test/resources/json/vacancy/vacancies.json");
+
+        List<JsonArrayRange> ranges = splitter.split(file, Long.MAX_VALUE);
+
+        assertThat(ranges).hasSize(1);
+        try (InputStream inputStream = ranges.get(0).open()) {
+            assertThat(mapper.readTree(inputStream)).isEqualTo(mapper.readTree(file.toFile()));
+        }
+    }
+
+    @Test
+    void split_returnsWholeFile_whenFileIsNotArray(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancy.json"), "{\"position\": \"Dev\"}");
+
+        List<JsonArrayRange> ranges = splitter.split(file, 1);
+
+        assertThat(ranges).hasSize(1);
+        assertThat(ranges.get(0).isWholeFile()).isTrue();
+        assertThat(ranges.get(0).length()).isEqualTo(Files.size(file));
+    }
+
+    @Test
+    void split_returnsEmptyArray_whenArrayIsEmpty(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.json"), " [ ] ");
+
+        List<JsonArrayRange> ranges = splitter.split(file, 1);
+
+        assertThat(ranges).hasSize(1);
+        try (InputStream inputStream = ranges.get(0).open()) {
+            assertThat(mapper.readTree(inputStream).isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    void split_splitsJsonLinesAtLineBreaks(@TempDir Path folder) throws Exception {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            json.append("{\"position\": \"Dev\\n ").append(i).append("\", \"nested\": {\"list\": [1, 2]}}")
+                    .append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        Path file = Files.writeString(folder.resolve("vacancies.jsonl"), json);
+
+        List<JsonArrayRange> ranges = splitter.split(file, 200);
+
+        assertThat(ranges).hasSizeGreaterThan(10);
+        assertThat(ranges).allMatch(JsonArrayRange::isLines).noneMatch(JsonArrayRange::isWholeFile);
+        assertThat(ranges.get(0).getStart()).isZero();
+        assertThat(ranges.get(ranges.size() - 1).getEnd()).isEqualTo(Files.size(file));
+
+        List<String> lines = new ArrayList<>();
+        for (JsonArrayRange range : ranges) {
+            assertThat(range.length()).isGreaterThanOrEqualTo(Math.min(200, Files.size(file) - range.getStart()));
+            try (InputStream inputStream = range.open()) {
+                String text = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+                assertThat(text).endsWith("\n");
+                lines.addAll(text.lines().toList());
+            }
+        }
+
+        assertThat(lines).hasSize(100);
+        for (int i = 0; i < lines.size(); i++) {
+            assertThat(mapper.readTree(lines.get(i)).get("position").asText()).isEqualTo("Dev\n " + i);
+        }
+    }
+
+    @Test
+    void split_returnsWholeFile_whenJsonLinesFileIsSmallerThanRange(@TempDir Path folder) throws Exception {
+        Path file = Files.writeString(folder.resolve("vacancies.jsonl"), "{\"position\": \"Dev\"}\n{\"position\": \"QA\"}\n");
+
+        List<JsonArrayRange> ranges = splitter.split(file, 1024);
+
+        assertThat(ranges).hasSize(1);
+        assertThat(ranges.get(0).isWholeFile()).isTrue();
+        assertThat(ranges.get(0).isLines()).isTrue();
+    }
+}
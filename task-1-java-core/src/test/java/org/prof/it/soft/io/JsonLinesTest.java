@@ -0,0 +1,44 @@
+package org.prof.it.soft.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLinesTest {
+
+    @Test
+    void detect_returnsTrue_whenFirstObjectEndsOnFirstLine() throws IOException {
+        assertThat(detect("{\"position\": \"Dev }\\\" {\"}\n{\"position\": \"QA\"}\n")).isTrue();
+        assertThat(detect("﻿\n  {\"nested\": {\"list\": [1, 2]}} \r\n")).isTrue();
+        assertThat(detect("{\"position\": \"Dev\"}")).isTrue();
+    }
+
+    @Test
+    void detect_returnsFalse_forArraysAndPrettyPrintedObjects() throws IOException {
+        assertThat(detect("[{\"position\": \"Dev\"}]\n")).isFalse();
+        assertThat(detect("{\n  \"position\": \"Dev\"\n}\n")).isFalse();
+        assertThat(detect("{\"position\": \"Dev\"}, {\"position\": \"QA\"}\n")).isFalse();
+        assertThat(detect("{\"position\": \"Dev\"")).isFalse();
+        assertThat(detect("")).isFalse();
+    }
+
+    @Test
+    void detect_pushesBackTheReadBytes() throws IOException {
+        String json = "{\"position\": \"Dev\"}\n".repeat(10_000);
+        PushbackInputStream inputStream = new PushbackInputStream(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), JsonLines.DETECTION_SIZE);
+
+        assertThat(JsonLines.detect(inputStream)).isTrue();
+        assertThat(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(json);
+    }
+
+    private static boolean detect(String json) throws IOException {
+        return JsonLines.detect(new PushbackInputStream(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), JsonLines.DETECTION_SIZE));
+    }
+}
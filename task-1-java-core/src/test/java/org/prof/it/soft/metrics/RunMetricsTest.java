@@ -0,0 +1,118 @@
+package org.prof.it.soft.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RunMetricsTest {
+
+    @Test
+    void report_addsUpFilesPhasesAndThreads(@TempDir Path folder) throws Exception {
+        RunMetrics runMetrics = new RunMetrics();
+
+        try (RunMetrics.Phase phase = runMetrics.startPhase("aggregate")) {
+            for (int file = 0; file < 2; file++) {
+                RunMetrics.FileTimer fileTimer = runMetrics.startFile("vacancies_" + file + ".json", 1000);
+                fileTimer.add(10, 2, 1);
+                fileTimer.add(5, 0, 0);
+                fileTimer.finish();
+            }
+            runMetrics.fileCached();
+            runMetrics.addThreadWork("merge", 2_000_000);
+            runMetrics.addBusyTime(3_000_000);
+        }
+        try (RunMetrics.Phase phase = runMetrics.startPhase("generate")) {
+            runMetrics.addBusyTime(1_000_000);
+        }
+
+        MetricsReport report = runMetrics.report();
+        assertThat(report.getFiles()).isEqualTo(2);
+        assertThat(report.getCachedFiles()).isEqualTo(1);
+        assertThat(report.getBytes()).isEqualTo(2000);
+        assertThat(report.getRecords()).isEqualTo(30);
+        assertThat(report.getSkippedRecords()).isEqualTo(4);
+        assertThat(report.getFilteredRecords()).isEqualTo(2);
+        assertThat(report.getPhasesMs().keySet()).containsExactly("aggregate", "generate");
+        assertThat(report.getThreadTimeMs()).containsOnlyKeys("merge", "parse").containsEntry("merge", 2.0);
+        assertThat(report.getThreads()).singleElement().satisfies(thread -> {
+            assertThat(thread.getName()).isEqualTo(Thread.currentThread().getName());
+            assertThat(thread.getBusyMs()).isEqualTo(4.0);
+            assertThat(thread.getUtilization()).isPositive();
+        });
+        assertThat(report.getWallTimeMs()).isGreaterThanOrEqualTo(report.getPhasesMs().get("aggregate"));
+        assertThat(report.getRecordsPerSecond()).isPositive();
+        assertThat(report.getPeakHeapBytes()).isPositive();
+
+        Path output = folder.resolve("report.json");
+        runMetrics.writeReport(output);
+        JsonNode json = new ObjectMapper().readTree(output.toFile());
+        assertThat(json.get("records").asLong()).isEqualTo(30);
+        assertThat(json.get("phases_ms").has("aggregate")).isTrue();
+        assertThat(json.get("threads").get(0).has("utilization")).isTrue();
+        assertThat(json.has("gc_time_ms")).isTrue();
+        assertThat(json.has("peak_heap_bytes")).isTrue();
+    }
+
+    @Test
+    void constructor_keepsThePeakHeapUsageOfTheJvm() {
+        long peakBefore = peakHeapBytes();
+
+        new RunMetrics();
+
+        // A reset would drop the peaks to the current usage; they can only grow otherwise
+        assertThat(peakHeapBytes()).isGreaterThanOrEqualTo(peakBefore);
+    }
+
+    @Test
+    void fileTimerAndPhase_emitFlightRecorderEvents(@TempDir Path folder) throws Exception {
+        Path output = folder.resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FileParsedEvent.NAME);
+            recording.enable(PhaseEvent.NAME);
+            recording.start();
+
+            RunMetrics runMetrics = new RunMetrics();
+            try (RunMetrics.Phase phase = runMetrics.startPhase("aggregate")) {
+                RunMetrics.FileTimer fileTimer = runMetrics.startFile("vacancies.json", 1234);
+                fileTimer.add(14, 5, 0);
+                fileTimer.finish();
+            }
+
+            recording.stop();
+            recording.dump(output);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(output);
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals(FileParsedEvent.NAME))
+                .singleElement().satisfies(event -> {
+                    assertThat(event.getString("source")).isEqualTo("vacancies.json");
+                    assertThat(event.getLong("bytes")).isEqualTo(1234);
+                    assertThat(event.getLong("records")).isEqualTo(14);
+                    assertThat(event.getLong("skippedRecords")).isEqualTo(5);
+                });
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals(PhaseEvent.NAME))
+                .singleElement().satisfies(event -> assertThat(event.getString("phase")).isEqualTo("aggregate"));
+    }
+
+    private static long peakHeapBytes() {
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peakHeapBytes;
+    }
+}
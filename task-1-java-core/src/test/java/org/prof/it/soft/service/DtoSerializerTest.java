@@ -8,19 +8,26 @@ import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.prof.it.soft.dto.CrossTabKeyDto;
 import org.prof.it.soft.dto.RecruiterDto;
 import org.prof.it.soft.dto.VacancyDto;
+import org.prof.it.soft.dto.stats.CrossTabVacancyStatsDto;
+import org.prof.it.soft.dto.stats.DistinctCountVacancyStatsDto;
 import org.prof.it.soft.dto.stats.PositionVacancyStatsDto;
 import org.prof.it.soft.dto.stats.RecruiterVacancyStatsDto;
 import org.prof.it.soft.dto.stats.SalaryVacancyStatsDto;
 import org.prof.it.soft.dto.stats.TechnologyVacancyStatsDto;
 
 import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -1132,4 +1139,172 @@ class DtoSerializerTest {
                   </vacancy-count-by-technology-statistic>
                 </statistic>""");
     }
-}
\ No newline at end of file
+
+    @Test
+    void objectToXmlFile_writesCompactGzipCompressedXml_whenRequested() throws Exception {
+        LinkedHashMap<String, Long> vacancyCountByPosition = new LinkedHashMap<>();
+        vacancyCountByPosition.put("Java Developer", 10L);
+        vacancyCountByPosition.put("QA", 5L);
+        PositionVacancyStatsDto dto = PositionVacancyStatsDto.builder().vacancyCountByPosition(vacancyCountByPosition).build();
+
+        Path output = Files.createTempFile("temp-file", ".xml.gz");
+        try {
+            dtoSerializer.objectToXmlFile(dto, output, DtoSerializer.OutputOptions.of(true, true));
+
+            String contentFile;
+            try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(output))) {
+                contentFile = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+
+            assertThat(contentFile).isEqualTo("<?xml version='1.0' encoding='UTF-8'?><statistic>"
+                    + "<vacancy-count-by-position-statistic>"
+                    + "<item><key>Java Developer</key><count>10</count></item>"
+                    + "<item><key>QA</key><count>5</count></item>"
+                    + "</vacancy-count-by-position-statistic></statistic>");
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void objectToXmlFile_matchesIndentedXml_whenOptionsAreDefault() throws Exception {
+        LinkedHashMap<String, Long> vacancyCountByTechnology = new LinkedHashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            vacancyCountByTechnology.put("Technology " + i, 10_000L - i);
+        }
+        TechnologyVacancyStatsDto dto = TechnologyVacancyStatsDto.builder().vacancyCountByTechnology(vacancyCountByTechnology).build();
+
+        File expected = File.createTempFile("temp-file", ".xml");
+        expected.deleteOnExit();
+        Path streamed = Files.createTempFile("temp-file", ".xml");
+        try {
+            dtoSerializer.objectToXmlFile(dto, expected);
+            dtoSerializer.objectToXmlFile(dto, streamed, new DtoSerializer.OutputOptions(false, false, 512));
+
+            assertThat(Files.readString(streamed)).isEqualTo(Files.readString(expected.toPath()));
+        } finally {
+            Files.deleteIfExists(streamed);
+        }
+    }
+
+    @Test
+    void objectToJsonFile_writesCompactJson_whenRequested() throws Exception {
+        DistinctCountVacancyStatsDto dto = DistinctCountVacancyStatsDto.builder().distinctCount(42L).relativeError(0.01625).build();
+
+        Path output = Files.createTempFile("temp-file", ".json");
+        try {
+            dtoSerializer.objectToJsonFile(dto, output, DtoSerializer.OutputOptions.of(true, false));
+
+            String contentFile = Files.readString(output);
+            assertThat(contentFile).doesNotContain("\n");
+            assertThatJson(contentFile).inPath("$.distinctCount").isEqualTo(42);
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void binaryFileToObject_readsBackEveryStatistic_writtenInBinaryFormat() throws Exception {
+        LinkedHashMap<Float, Long> vacancyCountBySalary = new LinkedHashMap<>();
+        vacancyCountBySalary.put(1000F, 10L);
+        vacancyCountBySalary.put(1200.5F, 5L);
+        SalaryVacancyStatsDto salary = SalaryVacancyStatsDto.builder()
+                .minSalary(1000.0).averageSalary(1066.8).maxSalary(1200.5).p50Salary(1000.0)
+                .vacancyCountBySalary(vacancyCountBySalary)
+                .build();
+
+        LinkedHashMap<RecruiterDto, Long> vacancyCountByRecruiter = new LinkedHashMap<>();
+        vacancyCountByRecruiter.put(new RecruiterDto("John", "Doe", "ProfITsoft"), 3L);
+        vacancyCountByRecruiter.put(new RecruiterDto("Jane", null, "ProfITsoft"), 1L);
+        RecruiterVacancyStatsDto recruiter = RecruiterVacancyStatsDto.builder().vacancyCountByRecruiter(vacancyCountByRecruiter).build();
+
+        LinkedHashMap<String, Long> vacancyCountByPosition = new LinkedHashMap<>();
+        vacancyCountByPosition.put("Java Developer", 10L);
+        PositionVacancyStatsDto position = PositionVacancyStatsDto.builder()
+                .vacancyCountByPosition(vacancyCountByPosition)
+                .countErrorByPosition(new LinkedHashMap<>(vacancyCountByPosition))
+                .maxUnreportedCount(2L)
+                .build();
+
+        DistinctCountVacancyStatsDto distinct = DistinctCountVacancyStatsDto.builder().distinctCount(42L).relativeError(0.01625).build();
+
+        for (boolean gzip : new boolean[]{false, true}) {
+            Path output = Files.createTempFile("temp-file", ".bin");
+            try {
+                for (var dto : List.of(salary, recruiter, position, distinct)) {
+                    dtoSerializer.objectToFile(dto, output, OutputFormat.BINARY, DtoSerializer.OutputOptions.of(false, gzip));
+                    var read = dtoSerializer.binaryFileToObject(output, dto.getClass());
+
+                    assertThat(read).usingRecursiveComparison().isEqualTo(dto);
+                }
+            } finally {
+                Files.deleteIfExists(output);
+            }
+        }
+    }
+
+    @Test
+    void objectToFile_writesCsvAndJsonLines() throws Exception {
+        LinkedHashMap<Float, Long> vacancyCountBySalary = new LinkedHashMap<>();
+        vacancyCountBySalary.put(1000F, 10L);
+        SalaryVacancyStatsDto salary = SalaryVacancyStatsDto.builder()
+                .minSalary(1000.0).averageSalary(1000.0).maxSalary(1000.0)
+                .vacancyCountBySalary(vacancyCountBySalary)
+                .build();
+
+        Path output = Files.createTempFile("temp-file", ".out");
+        try {
+            dtoSerializer.objectToFile(salary, output, OutputFormat.CSV, DtoSerializer.OutputOptions.DEFAULT);
+            assertThat(Files.readString(output)).isEqualTo("name,key,value\r\n"
+                    + "min-salary,,1000.0\r\n"
+                    + "average-salary,,1000.0\r\n"
+                    + "max-salary,,1000.0\r\n"
+                    + "vacancy-count-by-salary-statistic,1000.0,10\r\n");
+
+            dtoSerializer.objectToFile(salary, output, OutputFormat.JSON_LINES, DtoSerializer.OutputOptions.DEFAULT);
+            assertThat(Files.readString(output)).isEqualTo("{\"name\":\"min-salary\",\"value\":1000.0}\n"
+                    + "{\"name\":\"average-salary\",\"value\":1000.0}\n"
+                    + "{\"name\":\"max-salary\",\"value\":1000.0}\n"
+                    + "{\"name\":\"vacancy-count-by-salary-statistic\",\"key\":1000.0,\"count\":10}\n");
+
+            LinkedHashMap<RecruiterDto, Long> vacancyCountByRecruiter = new LinkedHashMap<>();
+            vacancyCountByRecruiter.put(new RecruiterDto("John", "Doe", "ProfITsoft"), 3L);
+            RecruiterVacancyStatsDto recruiter = RecruiterVacancyStatsDto.builder().vacancyCountByRecruiter(vacancyCountByRecruiter).build();
+
+            dtoSerializer.objectToFile(recruiter, output, OutputFormat.JSON_LINES, DtoSerializer.OutputOptions.DEFAULT);
+            assertThat(Files.readString(output)).isEqualTo("{\"name\":\"vacancy-count-by-recruiter-statistic\","
+                    + "\"key\":{\"first_name\":\"John\",\"last_name\":\"Doe\",\"company_name\":\"ProfITsoft\"},\"count\":3}\n");
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    void objectToFile_writesCrossTabCellsAsRowAndColumn() throws Exception {
+        LinkedHashMap<CrossTabKeyDto, Long> vacancyCountByCell = new LinkedHashMap<>();
+        vacancyCountByCell.put(new CrossTabKeyDto("Java Developer", "Java"), 3L);
+        vacancyCountByCell.put(new CrossTabKeyDto("Java Developer", "SQL"), 1L);
+        CrossTabVacancyStatsDto crossTab = CrossTabVacancyStatsDto.builder().vacancyCountByCell(vacancyCountByCell).build();
+
+        Path output = Files.createTempFile("temp-file", ".out");
+        try {
+            dtoSerializer.objectToFile(crossTab, output, OutputFormat.CSV, DtoSerializer.OutputOptions.DEFAULT);
+            assertThat(Files.readString(output)).isEqualTo("name,row,column,value\r\n"
+                    + "vacancy-count-by-cell-statistic,Java Developer,Java,3\r\n"
+                    + "vacancy-count-by-cell-statistic,Java Developer,SQL,1\r\n");
+
+            dtoSerializer.objectToFile(crossTab, output, OutputFormat.JSON_LINES, DtoSerializer.OutputOptions.DEFAULT);
+            assertThat(Files.readString(output)).startsWith("{\"name\":\"vacancy-count-by-cell-statistic\","
+                    + "\"key\":{\"row\":\"Java Developer\",\"column\":\"Java\"},\"count\":3}\n");
+
+            dtoSerializer.objectToFile(crossTab, output, OutputFormat.XML, DtoSerializer.OutputOptions.DEFAULT);
+            assertThat(Files.readString(output)).contains("<row>Java Developer</row>", "<column>SQL</column>", "<count>1</count>");
+
+            dtoSerializer.objectToFile(crossTab, output, OutputFormat.BINARY, DtoSerializer.OutputOptions.DEFAULT);
+            assertThat(dtoSerializer.binaryFileToObject(output, CrossTabVacancyStatsDto.class))
+                    .usingRecursiveComparison().isEqualTo(crossTab);
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.prof.it.soft.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+import org.prof.it.soft.service.filter.VacancyFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParserStateTest {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    void pushback_reusesItsBuffers_afterTheParserClosedTheStream() throws IOException {
+        ParserState parserState = new ParserState();
+        StatisticAggregator aggregator = StatisticAggregator.create("position");
+
+        for (int document = 0; document < 3; document++) {
+            PushbackInputStream inputStream = parserState.pushback(stream("""
+                    [{"position": "Java Developer", "recruiter_first_name": "Anna"},
+                     {"position": "QA Engineer", "recruiter_first_name": "John"}]"""));
+            assertThat(parserState.detectJsonLines(inputStream)).isFalse();
+
+            // The parser closes the stream, which must not drop the pushback buffer
+            try (JsonParser jsonParser = jsonFactory.createParser(inputStream)) {
+                new VacancyStatisticJsonParser(jsonParser, VacancyFilter.NONE, parserState).processJsonFile(List.of(aggregator));
+            }
+            assertThat(parserState.pushback(stream("{}"))).isSameAs(inputStream);
+            parserState.release();
+        }
+
+        assertThat(aggregator.getStatisticMap()).isEqualTo(Map.of("Java Developer", 3L, "QA Engineer", 3L));
+    }
+
+    @Test
+    void lineBuffer_isSharedByTheLinesParsers_ofOneState() throws IOException {
+        ParserState parserState = new ParserState();
+        StatisticAggregator aggregator = StatisticAggregator.create("position");
+        byte[] lineBuffer = parserState.getLineBuffer();
+
+        for (int document = 0; document < 2; document++) {
+            PushbackInputStream inputStream = parserState.pushback(stream("""
+                    {"position": "Java Developer", "recruiter_first_name": "Anna"}
+                    {"position": "Java Developer", "recruiter_first_name": "John"}
+                    """));
+            assertThat(parserState.detectJsonLines(inputStream)).isTrue();
+            new VacancyStatisticJsonLinesParser(jsonFactory, inputStream, VacancyFilter.NONE, parserState)
+                    .processJsonFile(List.of(aggregator));
+            parserState.release();
+        }
+
+        assertThat(aggregator.getStatisticMap()).isEqualTo(Map.of("Java Developer", 4L));
+        assertThat(parserState.getLineBuffer()).isSameAs(lineBuffer).hasSize(VacancyStatisticJsonLinesParser.BUFFER_SIZE);
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,58 @@
+package org.prof.it.soft.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VacancyStatisticJsonLinesParserTest {
+
+    @Test
+    void processJsonFile_skipsMalformedLines_andCountsTheOthers() throws IOException {
+        String lines = """
+                {"position": "Java Developer", "recruiter_first_name": "Anna", "salary": 1000}
+                {"position": "Broken", "recruiter_first_name":
+                [1, 2, 3]
+
+                {"position": "Java Developer", "recruiter_first_name": "John"} {"position": "Twice"}
+                {"position": "QA Engineer", "recruiter_first_name": "Anna", "nested": {"list": [1, {"a": "}"}]}}\r
+                {"position": "No recruiter"}
+                {"position": "Java Developer", "recruiter_first_name": "Olena"}""";
+        VacancyStatisticJsonLinesParser parser = parser(lines);
+        StatisticAggregator aggregator = StatisticAggregator.create("position");
+
+        parser.processJsonFile(List.of(aggregator));
+
+        assertThat(aggregator.getStatisticMap()).isEqualTo(Map.of("Java Developer", 2L, "QA Engineer", 1L));
+        assertThat(parser.getLineCount()).isEqualTo(7);
+        assertThat(parser.getMalformedLineCount()).isEqualTo(3);
+    }
+
+    @Test
+    void processJsonFile_readsLinesLongerThanTheBuffer() throws IOException {
+        String longValue = "x".repeat(VacancyStatisticJsonLinesParser.BUFFER_SIZE * 3);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            lines.append("{\"description\": \"").append(longValue).append("\", ")
+                    .append("\"position\": \"Developer ").append(i % 2).append("\", \"recruiter_first_name\": \"Anna\"}\n");
+        }
+        VacancyStatisticJsonLinesParser parser = parser(lines.toString());
+
+        Map<Object, Long> result = parser.processJsonFile("position");
+
+        assertThat(result).isEqualTo(Map.of("Developer 0", 3L, "Developer 1", 2L));
+        assertThat(parser.getMalformedLineCount()).isZero();
+    }
+
+    private static VacancyStatisticJsonLinesParser parser(String lines) {
+        return new VacancyStatisticJsonLinesParser(new JsonFactory(),
+                new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+    }
+}
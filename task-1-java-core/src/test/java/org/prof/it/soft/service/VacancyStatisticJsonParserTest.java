@@ -4,10 +4,15 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import org.junit.jupiter.api.Test;
 import org.prof.it.soft.dto.RecruiterDto;
+import org.prof.it.soft.service.aggregator.SalaryStatisticAggregator;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+import org.prof.it.soft.service.filter.VacancyFilter;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -256,6 +261,28 @@ public class VacancyStatisticJsonParserTest {
         assertThat(result.get("1800.0")).isNull();
     }
 
+    @Test
+    public void processJsonFile_ignoresSalaries_thatAreNegativeOrOverflowAFloat() throws IOException {
+        JsonParser jsonParser = new JsonFactory().createParser("""
+                [
+                  {"position": "Java Developer", "salary": 1000, "recruiter_first_name": "Anna"},
+                  {"position": "Java Developer", "salary": "-100", "recruiter_first_name": "Anna"},
+                  {"position": "Java Developer", "salary": -100, "recruiter_first_name": "Anna"},
+                  {"position": "Java Developer", "salary": 1e400, "recruiter_first_name": "Anna"},
+                  {"position": "Java Developer", "salary": "1e39", "recruiter_first_name": "Anna"},
+                  {"position": "Java Developer", "salary": 1e39, "recruiter_first_name": "Anna"},
+                  {"position": "Java Developer", "salary": "Infinity", "recruiter_first_name": "Anna"}
+                ]
+                """);
+        SalaryStatisticAggregator aggregator = new SalaryStatisticAggregator();
+
+        new VacancyStatisticJsonParser(jsonParser).processJsonFile(List.of(aggregator));
+
+        assertThat(aggregator.getStatisticMap()).isEqualTo(Map.of("1000.0", 1L));
+        assertThat(aggregator.getSketch().getMin()).isEqualTo(1000.0);
+        assertThat(aggregator.getSketch().getMax()).isEqualTo(1000.0);
+    }
+
     @Test
     public void processJsonFile_correctlyHandlesSalaries_withAbsentSalaryFields() throws IOException {
         JsonParser jsonParser = new JsonFactory().createParser("""
@@ -746,6 +773,118 @@ public class VacancyStatisticJsonParserTest {
         assertThat(result.get(new RecruiterDto("Іван", "Франко", null))).isNull();
     }
 
+    @Test
+    public void processJsonFile_calculatesEveryStatistic_inSinglePass() throws IOException {
+        JsonParser jsonParser = new JsonFactory().createParser("""
+                [
+                  {
+                    "position": "Full-Stack developer",
+                    "salary": 1000.0,
+                    "technology_stack": "Java, Spring, React",
+                    "recruiter_first_name": "Vladyslav",
+                    "recruiter_last_name": "Bondar",
+                    "recruiter_company_name": "ProfITsoft"
+                  },
+                  {
+                    "position": "Full-Stack developer",
+                    "salary": 1200.0,
+                    "technology_stack": "Java, Machine Learning",
+                    "recruiter_first_name": "Vladyslav",
+                    "recruiter_last_name": "Bondar",
+                    "recruiter_company_name": "ProfITsoft"
+                  },
+                  {
+                    "salary": 800.0,
+                    "technology_stack": "Selenium, Cypress",
+                    "recruiter_first_name": "Іван"
+                  }
+                ]
+                """);
+        List<StatisticAggregator> aggregators = Stream.of("position", "salary", "recruiter", "technology_stack")
+                .map(StatisticAggregator::create)
+                .toList();
+
+        VacancyStatisticJsonParser vacancyStatisticJsonParser = new VacancyStatisticJsonParser(jsonParser);
+        vacancyStatisticJsonParser.processJsonFile(aggregators);
+
+        assertThat(aggregators.get(0).getStatisticMap()).isEqualTo(Map.of("Full-Stack developer", 2L));
+        assertThat(aggregators.get(1).getStatisticMap()).isEqualTo(Map.of("1000.0", 1L, "1200.0", 1L));
+        assertThat(aggregators.get(2).getStatisticMap()).isEqualTo(Map.of(new RecruiterDto("Vladyslav", "Bondar", "ProfITsoft"), 2L));
+        assertThat(aggregators.get(3).getStatisticMap()).isEqualTo(Map.of("Java", 2L, "Spring", 1L, "React", 1L, "Machine Learning", 1L));
+    }
+
+    @Test
+    public void processJsonFile_skipsNestedObjectsAndArrays_ofUnknownFields() throws IOException {
+        JsonParser jsonParser = new JsonFactory().createParser("""
+                [
+                  {
+                    "position": "Full-Stack developer",
+                    "details": {"position": "Nested position", "recruiter_first_name": "Nested", "tags": [{"a": 1}]},
+                    "technology_stack": "Java, Spring",
+                    "recruiter_first_name": "Vladyslav",
+                    "history": [[1, 2], {"salary": 5}, "text"],
+                    "salary": 1000.0
+                  },
+                  {
+                    "recruiter_first_name": "Іван",
+                    "description": "A very long description of the vacancy",
+                    "salary": 1200,
+                    "position": "Frontend Developer",
+                    "technology_stack": ["Java", "React"]
+                  }
+                ]
+                """);
+        List<StatisticAggregator> aggregators = Stream.of("position", "salary", "technology_stack")
+                .map(StatisticAggregator::create)
+                .toList();
+
+        VacancyStatisticJsonParser vacancyStatisticJsonParser = new VacancyStatisticJsonParser(jsonParser);
+        vacancyStatisticJsonParser.processJsonFile(aggregators);
+
+        assertThat(aggregators.get(0).getStatisticMap()).isEqualTo(Map.of("Full-Stack developer", 1L, "Frontend Developer", 1L));
+        assertThat(aggregators.get(1).getStatisticMap()).isEqualTo(Map.of("1000.0", 1L, "1200.0", 1L));
+        assertThat(aggregators.get(2).getStatisticMap()).isEqualTo(Map.of("Java", 1L, "Spring", 1L));
+    }
+
+    @Test
+    public void processJsonFile_correctlyCountsPositions_whenFieldOrderChangesBetweenEntries() throws IOException {
+        JsonParser jsonParser = new JsonFactory().createParser("""
+                [
+                  {"position": "Java Developer", "recruiter_first_name": "Vladyslav"},
+                  {"position": "Java Developer", "recruiter_first_name": "Vladyslav"},
+                  {"recruiter_first_name": "Vladyslav", "position": "QA Engineer"},
+                  {"unknown": true, "position": "QA Engineer", "recruiter_first_name": "Vladyslav"},
+                  {"position": "Java Developer"}
+                ]
+                """);
+        VacancyStatisticJsonParser vacancyStatisticJsonParser = new VacancyStatisticJsonParser(jsonParser);
+        Map<Object, Long> result = vacancyStatisticJsonParser.processJsonFile("position");
+
+        assertThat(result).isEqualTo(Map.of("Java Developer", 2L, "QA Engineer", 2L));
+    }
+
+    @Test
+    public void processJsonFile_dropsVacancies_rejectedByTheFilter() throws IOException {
+        JsonParser jsonParser = new JsonFactory().createParser("""
+                [
+                  {"recruiter_company_name": "SoftServe", "salary": 2500, "position": "Java Developer", "recruiter_first_name": "Ivan"},
+                  {"recruiter_company_name": "EPAM", "position": "Java Developer", "details": {"team": [1, {"size": 5}]}, "recruiter_first_name": "Anna"},
+                  {"recruiter_company_name": "SoftServe", "salary": 1500, "details": [{"position": "QA"}], "position": "QA", "recruiter_first_name": "Ivan"},
+                  {"position": "Go Developer", "recruiter_first_name": "Ivan", "recruiter_company_name": "SoftServe"},
+                  {"position": "Go Developer", "recruiter_first_name": "Ivan", "recruiter_company_name": "SoftServe", "salary": "3000"}
+                ]
+                """);
+        VacancyFilter filter = VacancyFilter.of(List.of("recruiter_company_name=SoftServe", "salary>=2000"));
+        VacancyStatisticJsonParser vacancyStatisticJsonParser = new VacancyStatisticJsonParser(jsonParser, filter);
+
+        StatisticAggregator aggregator = StatisticAggregator.create("position");
+        vacancyStatisticJsonParser.processJsonFile(List.of(aggregator));
+
+        // The 2nd and 3rd vacancies fail a condition, the 4th has no salary
+        assertThat(aggregator.getStatisticMap()).isEqualTo(Map.of("Java Developer", 1L, "Go Developer", 1L));
+        assertThat(vacancyStatisticJsonParser.getFilteredCount()).isEqualTo(3);
+    }
+
     @Test
     public void processEndObject_shouldIncrementRecruiterValue_whenStatisticFieldIsRecruiter() {
         Map<Object, Long> statisticMap = new HashMap<>();
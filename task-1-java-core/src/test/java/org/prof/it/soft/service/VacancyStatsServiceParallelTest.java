@@ -100,12 +100,20 @@ class VacancyStatsServiceParallelTest {
                         PositionVacancyStatsDto::getVacancyCountByPosition))
                 .build();
 
+        Map<Float, Long> vacancyCountBySalary = buildVacancyStatsMap(salaryVacancyStatsDtos,
+                SalaryVacancyStatsDto::getVacancyCountBySalary);
+        // The percentiles of all files can't be derived from the percentiles of every file, only from all salaries
+        SalaryVacancyStatsDto percentiles = vacancyStatsService.generateSalaryDto(vacancyCountBySalary,
+                vacancyStatsService.sketchOf(vacancyCountBySalary));
         expectedSalaryVacancyStatsDto = SalaryVacancyStatsDto.builder()
                 .minSalary(salaryVacancyStatsDtos.stream().map(SalaryVacancyStatsDto::getMinSalary).min(Double::compareTo).orElse(0.0))
                 .maxSalary(salaryVacancyStatsDtos.stream().map(SalaryVacancyStatsDto::getMaxSalary).max(Double::compareTo).orElse(0.0))
                 .averageSalary(salaryVacancyStatsDtos.stream().mapToDouble(SalaryVacancyStatsDto::getAverageSalary).average().orElse(0.0))
-                .vacancyCountBySalary(buildVacancyStatsMap(salaryVacancyStatsDtos,
-                        SalaryVacancyStatsDto::getVacancyCountBySalary))
+                .p50Salary(percentiles.getP50Salary())
+                .p75Salary(percentiles.getP75Salary())
+                .p90Salary(percentiles.getP90Salary())
+                .p99Salary(percentiles.getP99Salary())
+                .vacancyCountBySalary(vacancyCountBySalary)
                 .build();
 
         expectedRecruiterVacancyStatsDto = RecruiterVacancyStatsDto.builder()
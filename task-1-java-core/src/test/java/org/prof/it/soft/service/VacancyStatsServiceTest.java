@@ -1,25 +1,54 @@
 package org.prof.it.soft.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.prof.it.soft.cache.StatisticCache;
 import org.prof.it.soft.config.Configuration;
 import org.prof.it.soft.dto.AbstractDto;
+import org.prof.it.soft.dto.CrossTabKeyDto;
 import org.prof.it.soft.dto.RecruiterDto;
+import org.prof.it.soft.dto.stats.CrossTabVacancyStatsDto;
+import org.prof.it.soft.dto.stats.DistinctCountVacancyStatsDto;
 import org.prof.it.soft.dto.stats.PositionVacancyStatsDto;
 import org.prof.it.soft.dto.stats.RecruiterVacancyStatsDto;
 import org.prof.it.soft.dto.stats.SalaryVacancyStatsDto;
 import org.prof.it.soft.dto.stats.TechnologyVacancyStatsDto;
 import org.prof.it.soft.entity.Recruiter;
 import org.prof.it.soft.entity.Vacancy;
+import org.prof.it.soft.io.FileDiscovery;
+import org.prof.it.soft.io.JsonArrayRange;
+import org.prof.it.soft.metrics.MetricsReport;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+import org.prof.it.soft.service.filter.VacancyFilter;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class VacancyStatsServiceTest {
 
@@ -71,6 +100,19 @@ class VacancyStatsServiceTest {
         assertThat(new ArrayList<>(stats.getVacancyCountBySalary().values())).isSortedAccordingTo(Comparator.reverseOrder());
     }
 
+    @Test
+    void calculateSalaryVacancyStats_shouldCountNegativeAndInfiniteSalaries_butLeaveThemOutOfTheSketch() {
+        List<Vacancy> withInvalidSalaries = new ArrayList<>(vacancies);
+        withInvalidSalaries.add(Vacancy.builder().recruiter(recruiters.get(2)).salary(-100F).position("Intern").build());
+        withInvalidSalaries.add(Vacancy.builder().recruiter(recruiters.get(2)).salary(Float.POSITIVE_INFINITY).position("CTO").build());
+
+        SalaryVacancyStatsDto stats = vacancyStatsService.calculateSalaryVacancyStats(withInvalidSalaries);
+
+        assertThat(stats.getMinSalary()).isEqualTo(1000D);
+        assertThat(stats.getMaxSalary()).isEqualTo(4600D);
+        assertThat(stats.getVacancyCountBySalary()).containsOnlyKeys(1000F, 1500F, 2500F, 4600F, -100F, Float.POSITIVE_INFINITY);
+    }
+
     @Test
     void calculatePositionVacancyStats_shouldReturnCorrectStats() {
         PositionVacancyStatsDto stats = vacancyStatsService.calculatePositionVacancyStats(vacancies);
@@ -146,6 +188,23 @@ class VacancyStatsServiceTest {
         assertThat(new ArrayList<>(salaryStatisticDto.getVacancyCountBySalary().values())).isSortedAccordingTo(Comparator.reverseOrder());
     }
 
+    @Test
+    void calculateVacancyStats_shouldCountSalariesByRanges_whenSalaryBucketsAreConfigured() throws Exception {
+        System.setProperty("statistics.salary-buckets", "log:500");
+        SalaryVacancyStatsDto salaryStatisticDto;
+        try {
+            salaryStatisticDto = (SalaryVacancyStatsDto) vacancyStatsService
+                    .calculateVacancyStats(new File("src/test/resources/json/vacancy/vacancies.json").getAbsoluteFile(), "salary");
+        } finally {
+            System.clearProperty("statistics.salary-buckets");
+        }
+
+        // The ranges only group the map, the other statistics are calculated from the exact salaries
+        assertThat(salaryStatisticDto.getMaxSalary()).isEqualTo(4600D);
+        assertThat(salaryStatisticDto.getMinSalary()).isEqualTo(1000D);
+        assertThat(salaryStatisticDto.getVacancyCountBySalary()).isEqualTo(Map.of(1000F, 3L, 2000F, 3L, 4000F, 2L));
+    }
+
     @Test
     void calculateVacancyStats_shouldReturnCorrectPositionStats_whenStatisticFieldIsPosition() throws Exception {
         PositionVacancyStatsDto positionVacancyStatsDto = (PositionVacancyStatsDto) vacancyStatsService
@@ -230,51 +289,499 @@ class VacancyStatsServiceTest {
     }
 
     @Test
-    void testCalculateVacancyStats_InvalidField() {
-        assertThrows(IllegalArgumentException.class, () -> {
-            vacancyStatsService.calculateVacancyStats(new File("src/test/resources/json/vacancy/vacancies.json").getAbsoluteFile(), "invalid");
-        });
+    void calculateVacancyStats_shouldCalculateSeveralStatsInSinglePass_whenSeveralStatisticFieldsAreGiven(@TempDir Path folder) throws Exception {
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_1.json"));
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_2.json"));
+
+        Map<String, AbstractDto> statistics = vacancyStatsService
+                .calculateVacancyStats(folder, List.of("position", "salary", "technology_stack"));
+
+        assertThat(statistics).containsOnlyKeys("position", "salary", "technology_stack");
+
+        PositionVacancyStatsDto positionVacancyStatsDto = (PositionVacancyStatsDto) statistics.get("position");
+        assertThat(positionVacancyStatsDto.getVacancyCountByPosition()).isEqualTo(
+                Map.of("Software Engineer", 6L,
+                        "Full-Stack Developer", 6L,
+                        "Frontend Developer", 4L,
+                        "DevOps Engineer", 8L,
+                        "Data Scientist", 4L));
+
+        SalaryVacancyStatsDto salaryVacancyStatsDto = (SalaryVacancyStatsDto) statistics.get("salary");
+        assertThat(salaryVacancyStatsDto.getMinSalary()).isEqualTo(1000D);
+        assertThat(salaryVacancyStatsDto.getMaxSalary()).isEqualTo(4600D);
+        assertThat(salaryVacancyStatsDto.getAverageSalary()).isEqualTo(40400D / 16L);
+        assertThat(salaryVacancyStatsDto.getP50Salary()).isCloseTo(2500D, withinPercentage(1));
+        assertThat(salaryVacancyStatsDto.getP90Salary()).isCloseTo(4600D, withinPercentage(1));
+        assertThat(salaryVacancyStatsDto.getVacancyCountBySalary()).isEqualTo(
+                Map.of(1000F, 4L,
+                        2500F, 6L,
+                        4600F, 4L,
+                        1500F, 2L));
+
+        TechnologyVacancyStatsDto technologyVacancyStatsDto = (TechnologyVacancyStatsDto) statistics.get("technology_stack");
+        assertThat(technologyVacancyStatsDto.getVacancyCountByTechnology())
+                .containsEntry("SQL", 10L)
+                .containsEntry("Java", 6L)
+                .containsEntry("OpenGL", 2L);
+        assertThat(new ArrayList<>(technologyVacancyStatsDto.getVacancyCountByTechnology().values())).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void calculateVacancyStats_shouldReturnSameStats_whenFilesAreSplitIntoRanges(@TempDir Path folder) throws Exception {
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_1.json"));
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_2.json"));
+        List<String> statisticFields = List.of("position", "salary", "recruiter", "technology_stack");
+
+        VacancyStatsService splittingService = new VacancyStatsService() {
+            @Override
+            protected long getSplitRangeSize(long fileSize, int countThreads) {
+                // Split even the smallest files after every vacancy
+                return 1;
+            }
+        };
+
+        assertThat(splittingService.calculateVacancyStats(folder, statisticFields, 3))
+                .isEqualTo(vacancyStatsService.calculateVacancyStats(folder, statisticFields, 3));
+    }
+
+    @Test
+    void calculateVacancyStats_shouldReturnSameStats_withEveryExecutionStrategy(@TempDir Path folder) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_" + i + ".json"));
+        }
+        List<String> statisticFields = List.of("position", "salary", "recruiter", "technology_stack");
+        Map<String, AbstractDto> expected = vacancyStatsService.calculateVacancyStats(folder, statisticFields);
+
+        for (ExecutionStrategy executionStrategy : ExecutionStrategy.values()) {
+            VacancyStatsService service = new VacancyStatsService(executionStrategy, 3);
+            assertThat(service.calculateVacancyStats(folder, statisticFields)).as(executionStrategy.name()).isEqualTo(expected);
+        }
+
+        assertThat(ExecutionStrategy.of("fork-join")).isEqualTo(ExecutionStrategy.FORK_JOIN);
+        assertThrows(IllegalArgumentException.class, () -> ExecutionStrategy.of("cached"));
+        assertThrows(IllegalArgumentException.class, () -> new VacancyStatsService(ExecutionStrategy.FIXED, 0));
+    }
+
+    @Test
+    void virtualThreads_shouldReadManyFilesAtOnce_butMergeWithNoMoreThreadsThanCores() {
+        assumeTrue(ExecutionStrategy.VIRTUAL.isAvailable());
+        assertThat(VacancyStatsService.getDefaultCountThreads(ExecutionStrategy.VIRTUAL))
+                .isEqualTo(VacancyStatsService.DEFAULT_VIRTUAL_COUNT_THREADS)
+                .isGreaterThan(VacancyStatsService.DEFAULT_COUNT_THREADS);
+        assertThat(VacancyStatsService.getDefaultCountThreads(ExecutionStrategy.FIXED)).isEqualTo(VacancyStatsService.DEFAULT_COUNT_THREADS);
+
+        VacancyStatsService virtualService = new VacancyStatsService(ExecutionStrategy.VIRTUAL, VacancyStatsService.DEFAULT_VIRTUAL_COUNT_THREADS);
+        assertThat(virtualService.getMaxTasksInFlight(virtualService.getCountThreads())).isEqualTo(VacancyStatsService.DEFAULT_VIRTUAL_COUNT_THREADS);
+        assertThat(virtualService.getStripeCount(virtualService.getCountThreads()))
+                .isEqualTo(Math.min(VacancyStatsService.DEFAULT_VIRTUAL_COUNT_THREADS, Runtime.getRuntime().availableProcessors()));
+        assertThat(new VacancyStatsService(ExecutionStrategy.FIXED, 3).getStripeCount(3)).isEqualTo(3);
     }
 
+    @Test
+    void virtualThreads_shouldFallBackToAFixedPoolOfTheDefaultSize_withoutVirtualThreads() throws Exception {
+        assumeFalse(ExecutionStrategy.VIRTUAL.isAvailable());
+        assertThat(ExecutionStrategy.VIRTUAL.effective()).isEqualTo(ExecutionStrategy.FIXED);
+
+        int countThreads = VacancyStatsService.getDefaultCountThreads(ExecutionStrategy.VIRTUAL);
+        assertThat(countThreads).isEqualTo(VacancyStatsService.DEFAULT_COUNT_THREADS);
+
+        ExecutorService executor = ExecutionStrategy.VIRTUAL.createExecutor(countThreads);
+        try {
+            assertThat(executor).isInstanceOfSatisfying(ThreadPoolExecutor.class,
+                    pool -> assertThat(pool.getMaximumPoolSize()).isEqualTo(VacancyStatsService.DEFAULT_COUNT_THREADS));
+        } finally {
+            executor.shutdown();
+        }
+
+        // The fallback pool queues and merges like a fixed pool
+        VacancyStatsService virtualService = new VacancyStatsService(ExecutionStrategy.VIRTUAL, countThreads);
+        assertThat(virtualService.getMaxTasksInFlight(countThreads)).isEqualTo(countThreads * 2);
+        assertThat(virtualService.getStripeCount(countThreads)).isEqualTo(countThreads);
+    }
 
     @Test
-    void getMapExtractor_positionField_returnsPositionMap() {
-        PositionVacancyStatsDto dto = new PositionVacancyStatsDto();
-        dto.setVacancyCountByPosition(Map.of("Java Developer", 1L, "Python Developer", 2L));
-        Function<AbstractDto, Map<?, Long>> extractor = vacancyStatsService.getMapExtractor("position");
-        assertInstanceOf(Map.class, extractor.apply(dto));
+    void calculateVacancyStats_shouldReadSubdirectories_andLimitFilesInFlight(@TempDir Path folder) throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Path subfolder = Files.createDirectories(folder.resolve("part_" + i % 4));
+            Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), subfolder.resolve("vacancies_" + i + ".json"));
+        }
+        Files.createDirectories(folder.resolve("skipped"));
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("skipped/vacancies.json"));
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        VacancyStatsService service = new VacancyStatsService(ExecutionStrategy.FIXED, 2,
+                new FileDiscovery(List.of(), List.of("skipped/**"))) {
+            @Override
+            protected List<StatisticAggregator> aggregateVacancyStats(File jsonFile, Collection<String> statisticFields) throws IOException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    return super.aggregateVacancyStats(jsonFile, statisticFields);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+
+        PositionVacancyStatsDto positionVacancyStatsDto = (PositionVacancyStatsDto) service.calculateVacancyStats(folder, "position");
+
+        assertThat(positionVacancyStatsDto.getVacancyCountByPosition()).containsEntry("DevOps Engineer", 80L);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(service.getMaxTasksInFlight(2));
     }
 
     @Test
-    void getMapExtractor_salaryField_returnsSalaryMap() {
-        SalaryVacancyStatsDto dto = new SalaryVacancyStatsDto();
-        dto.setVacancyCountBySalary(Map.of(1000F, 2L, 2500F, 3L));
-        Function<AbstractDto, Map<?, Long>> extractor = vacancyStatsService.getMapExtractor("salary");
-        assertInstanceOf(Map.class, extractor.apply(dto));
+    void calculateVacancyStats_shouldReadCompressedFilesArchivesAndStreams(@TempDir Path folder) throws Exception {
+        byte[] json = Files.readAllBytes(Path.of("src/test/resources/json/vacancy/vacancies.json"));
+        Files.write(folder.resolve("vacancies.json"), json);
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(folder.resolve("vacancies.json.gz")))) {
+            outputStream.write(json);
+        }
+        try (ZipOutputStream outputStream = new ZipOutputStream(Files.newOutputStream(folder.resolve("vacancies.zip")))) {
+            outputStream.putNextEntry(new ZipEntry("first/vacancies.json"));
+            outputStream.write(json);
+            outputStream.putNextEntry(new ZipEntry("second/vacancies.json"));
+            outputStream.write(json);
+        }
+
+        PositionVacancyStatsDto folderStats = (PositionVacancyStatsDto) vacancyStatsService.calculateVacancyStats(folder, "position");
+        assertThat(folderStats.getVacancyCountByPosition()).containsEntry("DevOps Engineer", 16L);
+
+        Map<String, AbstractDto> streamStats = vacancyStatsService.calculateVacancyStats(
+                Files.newInputStream(folder.resolve("vacancies.zip")), List.of("position"));
+        assertThat(((PositionVacancyStatsDto) streamStats.get("position")).getVacancyCountByPosition())
+                .containsEntry("DevOps Engineer", 8L);
     }
 
     @Test
-    void getMapExtractor_recruiterField_returnsRecruiterMap() {
-        RecruiterVacancyStatsDto dto = new RecruiterVacancyStatsDto();
-        dto.setVacancyCountByRecruiter(Map.of(new RecruiterDto("Vladyslav", "Bondar", "ProfITsoft"), 2L, new RecruiterDto("John", "Doe", "TechCorp"), 3L));
-        Function<AbstractDto, Map<?, Long>> extractor = vacancyStatsService.getMapExtractor("recruiter");
-        assertInstanceOf(Map.class, extractor.apply(dto));
+    void calculateVacancyStats_shouldParseJsonLines_andSkipMalformedLines(@TempDir Path folder) throws Exception {
+        Path arrayFile = Path.of("src/test/resources/json/vacancy/vacancies.json");
+        ObjectMapper objectMapper = new ObjectMapper();
+        StringBuilder lines = new StringBuilder();
+        for (JsonNode vacancy : objectMapper.readTree(arrayFile.toFile())) {
+            lines.append(objectMapper.writeValueAsString(vacancy)).append('\n');
+            // Every malformed line is skipped on its own, the other vacancies are still counted
+            lines.append("{\"position\": \"Broken\", \"recruiter_first_name\": \n\n");
+        }
+        Path linesFolder = Files.createDirectories(folder.resolve("lines"));
+        Files.writeString(linesFolder.resolve("vacancies.jsonl"), lines);
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(linesFolder.resolve("vacancies.ndjson.gz")))) {
+            outputStream.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        Path arrayFolder = Files.createDirectories(folder.resolve("array"));
+        Files.copy(arrayFile, arrayFolder.resolve("vacancies_1.json"));
+        Files.copy(arrayFile, arrayFolder.resolve("vacancies_2.json"));
+        List<String> statisticFields = List.of("position", "salary", "recruiter", "technology_stack");
+
+        VacancyStatsService splittingService = new VacancyStatsService() {
+            @Override
+            protected long getSplitRangeSize(long fileSize, int countThreads) {
+                // Split the JSON Lines file after every line
+                return 1;
+            }
+        };
+
+        Map<String, AbstractDto> expected = vacancyStatsService.calculateVacancyStats(arrayFolder, statisticFields, 3);
+        assertThat(vacancyStatsService.calculateVacancyStats(linesFolder, statisticFields, 3)).isEqualTo(expected);
+        assertThat(splittingService.calculateVacancyStats(linesFolder, statisticFields, 3)).isEqualTo(expected);
     }
 
     @Test
-    void getMapExtractor_technologyStackField_returnsTechnologyStackMap() {
-        TechnologyVacancyStatsDto dto = new TechnologyVacancyStatsDto();
-        dto.setVacancyCountByTechnology(Map.of("Java", 2L, "Spring", 3L));
-        Function<AbstractDto, Map<?, Long>> extractor = vacancyStatsService.getMapExtractor("technology_stack");
-        assertInstanceOf(Map.class, extractor.apply(dto));
+    void calculateVacancyStats_shouldParseOnlyNewAndChangedFiles_whenCacheIsUsed(@TempDir Path folder) throws Exception {
+        Path input = Files.createDirectories(folder.resolve("input"));
+        for (int i = 0; i < 3; i++) {
+            Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), input.resolve("vacancies_" + i + ".json"));
+        }
+        List<String> statisticFields = List.of("position", "salary", "recruiter", "technology_stack");
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+
+        for (boolean split : List.of(false, true)) {
+            Set<String> parsedFiles = Collections.synchronizedSet(new HashSet<>());
+            VacancyStatsService service = new VacancyStatsService(ExecutionStrategy.FIXED, 2, new FileDiscovery(), statisticCache) {
+                @Override
+                protected List<StatisticAggregator> aggregateVacancyStats(File jsonFile, Collection<String> statisticFields) throws IOException {
+                    parsedFiles.add(jsonFile.getName());
+                    return super.aggregateVacancyStats(jsonFile, statisticFields);
+                }
+
+                @Override
+                protected List<StatisticAggregator> aggregateVacancyStats(JsonArrayRange range, Collection<String> statisticFields) throws IOException {
+                    parsedFiles.add(range.getPath().getFileName().toString());
+                    return super.aggregateVacancyStats(range, statisticFields);
+                }
+
+                @Override
+                protected long getSplitRangeSize(long fileSize, int countThreads) {
+                    return split ? 1 : 0;
+                }
+            };
+
+            Map<String, AbstractDto> first = service.calculateVacancyStats(input, statisticFields);
+            assertThat(first).isEqualTo(vacancyStatsService.calculateVacancyStats(input, statisticFields));
+
+            parsedFiles.clear();
+            assertThat(service.calculateVacancyStats(input, statisticFields)).isEqualTo(first);
+            assertThat(parsedFiles).isEmpty();
+
+            Files.writeString(input.resolve("vacancies_" + (split ? 1 : 0) + ".json"), "[]");
+            Map<String, AbstractDto> changed = service.calculateVacancyStats(input, statisticFields);
+            assertThat(parsedFiles).containsExactly("vacancies_" + (split ? 1 : 0) + ".json");
+            assertThat(changed).isEqualTo(vacancyStatsService.calculateVacancyStats(input, statisticFields));
+        }
     }
 
     @Test
-    void getMapExtractor_invalidField_throwsIllegalArgumentException() {
-        AbstractDto dto = new TechnologyVacancyStatsDto();
-        assertThrows(IllegalArgumentException.class, () -> vacancyStatsService.getMapExtractor("invalid").apply(dto));
+    void calculateVacancyStats_shouldKeepCachedFieldsOfEveryRun_andPruneDeletedFiles(@TempDir Path folder) throws Exception {
+        Path input = Files.createDirectories(folder.resolve("input"));
+        for (int i = 0; i < 3; i++) {
+            Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), input.resolve("vacancies_" + i + ".json"));
+        }
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+        AtomicInteger parsedFiles = new AtomicInteger();
+        VacancyStatsService service = new VacancyStatsService(ExecutionStrategy.FIXED, 2, new FileDiscovery(), statisticCache) {
+            @Override
+            protected List<StatisticAggregator> aggregateVacancyStats(File jsonFile, Collection<String> statisticFields) throws IOException {
+                parsedFiles.incrementAndGet();
+                return super.aggregateVacancyStats(jsonFile, statisticFields);
+            }
+        };
+
+        // Runs with different statistic fields parse every file once per field, not once per run
+        service.calculateVacancyStats(input, List.of("position"));
+        service.calculateVacancyStats(input, List.of("salary"));
+        assertThat(parsedFiles.get()).isEqualTo(6);
+        service.calculateVacancyStats(input, List.of("position"));
+        service.calculateVacancyStats(input, List.of("salary", "position"));
+        assertThat(parsedFiles.get()).isEqualTo(6);
+
+        // Only the entries of the remaining files are kept
+        Files.delete(input.resolve("vacancies_2.json"));
+        service.calculateVacancyStats(input, List.of("position"));
+        try (Stream<Path> entries = Files.list(folder.resolve("cache"))) {
+            assertThat(entries).hasSize(2);
+        }
     }
 
+    @Test
+    void calculateVacancyStats_shouldReportRunMetrics(@TempDir Path folder) throws Exception {
+        Path vacancies = Path.of("src/test/resources/json/vacancy/vacancies.json");
+        Files.copy(vacancies, folder.resolve("vacancies_1.json"));
+        Files.copy(vacancies, folder.resolve("vacancies_2.json"));
+        VacancyStatsService service = new VacancyStatsService(ExecutionStrategy.FIXED, 2);
+
+        service.calculateVacancyStats(folder, List.of("position", "salary"));
+
+        MetricsReport report = service.getRunMetrics().report();
+        assertThat(report.getFiles()).isEqualTo(2);
+        assertThat(report.getBytes()).isEqualTo(2 * Files.size(vacancies));
+        // 14 of the 19 objects of every file are valid vacancies
+        assertThat(report.getRecords()).isEqualTo(28);
+        assertThat(report.getSkippedRecords()).isEqualTo(10);
+        assertThat(report.getPhasesMs()).containsOnlyKeys("aggregate", "generate");
+        assertThat(report.getThreadTimeMs()).containsOnlyKeys("parse", "merge");
+        assertThat(report.getThreads()).isNotEmpty().hasSizeLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void calculateVacancyStats_shouldReportEveryRunSeparately(@TempDir Path folder) throws Exception {
+        Path vacancies = Path.of("src/test/resources/json/vacancy/vacancies.json");
+        Files.copy(vacancies, folder.resolve("vacancies_1.json"));
+        VacancyStatsService service = new VacancyStatsService(ExecutionStrategy.FIXED, 2);
+
+        service.calculateVacancyStats(folder, List.of("position"));
+        MetricsReport first = service.getRunMetrics().report();
+        Files.copy(vacancies, folder.resolve("vacancies_2.json"));
+        service.calculateVacancyStats(folder, List.of("position"));
+        MetricsReport second = service.getRunMetrics().report();
+        try (InputStream inputStream = Files.newInputStream(vacancies)) {
+            service.calculateVacancyStats(inputStream, List.of("position"));
+        }
+        MetricsReport third = service.getRunMetrics().report();
+
+        assertThat(first.getFiles()).isEqualTo(1);
+        assertThat(first.getRecords()).isEqualTo(14);
+        assertThat(second.getFiles()).isEqualTo(2);
+        assertThat(second.getRecords()).isEqualTo(28);
+        assertThat(third.getFiles()).isEqualTo(1);
+        assertThat(third.getRecords()).isEqualTo(14);
+    }
+
+    @Test
+    void aggregateVacancyStats_shouldAllocateConstantMemoryPerFile_byReusingParserState(@TempDir Path folder) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        // Small JSON and JSON Lines files, as in a corpus of many small exports
+        Path json = Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies.json"));
+        Path lines = Files.writeString(folder.resolve("vacancies.jsonl"),
+                "{\"position\":\"Java Developer\",\"salary\":2000,\"recruiter_first_name\":\"Anna\"}\n".repeat(10));
+        List<String> statisticFields = List.of("position", "salary");
+        VacancyStatsService service = new VacancyStatsService(ExecutionStrategy.FIXED, 1);
+
+        long[] allocatedBytes = new long[3];
+        for (int round = 0; round < allocatedBytes.length; round++) {
+            long start = threadMXBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 200; i++) {
+                service.aggregateVacancyStats((i % 2 == 0 ? json : lines).toFile(), statisticFields);
+            }
+            allocatedBytes[round] = (threadMXBean.getCurrentThreadAllocatedBytes() - start) / 200;
+        }
+
+        // The first round warms up the pools, afterwards no file allocates parse buffers of its own:
+        // a single 64 KB buffer per file would exceed the bound
+        assertThat(allocatedBytes[1]).isLessThan(32 * 1024);
+        assertThat(allocatedBytes[2]).isLessThan(32 * 1024).isLessThanOrEqualTo(allocatedBytes[1] * 3 / 2);
+    }
+
+    @Test
+    void calculateVacancyStats_shouldCountFilteredVacancies_andCacheThemApart(@TempDir Path folder) throws Exception {
+        Path input = Files.createDirectory(folder.resolve("input"));
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), input.resolve("vacancies_1.json"));
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), input.resolve("vacancies_2.json"));
+        StatisticCache statisticCache = new StatisticCache(folder.resolve("cache"), false);
+        VacancyStatsService filteringService = new VacancyStatsService(ExecutionStrategy.FIXED, 2, new FileDiscovery(),
+                statisticCache, VacancyFilter.of(List.of("recruiter_company_name=ProfITsoft")));
+        VacancyStatsService service = new VacancyStatsService(ExecutionStrategy.FIXED, 2, new FileDiscovery(), statisticCache);
+
+        for (int run = 0; run < 2; run++) {
+            // The second run reads both statistics from the cache, each from the entries of its own filter
+            PositionVacancyStatsDto filtered = (PositionVacancyStatsDto) filteringService.calculateVacancyStats(input, "position");
+            assertThat(filtered.getVacancyCountByPosition()).isEqualTo(Map.of("DevOps Engineer", 6L,
+                    "Full-Stack Developer", 4L, "Frontend Developer", 4L, "Software Engineer", 2L));
+
+            PositionVacancyStatsDto all = (PositionVacancyStatsDto) service.calculateVacancyStats(input, "position");
+            assertThat(all.getVacancyCountByPosition()).containsEntry("DevOps Engineer", 8L).containsEntry("Data Scientist", 4L);
+        }
+    }
+
+    @Test
+    void calculateVacancyStats_shouldParseAgain_whenFileChangedWhileItWasParsed(@TempDir Path folder) throws Exception {
+        Path input = Files.createDirectory(folder.resolve("input"));
+        Path file = Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), input.resolve("vacancies.json"));
+        AtomicInteger parses = new AtomicInteger();
+        VacancyStatsService service = new VacancyStatsService(ExecutionStrategy.FIXED, 1, new FileDiscovery(),
+                new StatisticCache(folder.resolve("cache"), false)) {
+            @Override
+            protected List<StatisticAggregator> aggregateVacancyStats(File jsonFile, Collection<String> statisticFields) throws IOException {
+                List<StatisticAggregator> aggregators = super.aggregateVacancyStats(jsonFile, statisticFields);
+                if (parses.incrementAndGet() == 1) {
+                    // The file changes after it was parsed, but before its statistics are stored
+                    Files.writeString(file, "[{\"position\": \"QA Engineer\", \"recruiter_first_name\": \"Anna\"}]");
+                }
+                return aggregators;
+            }
+        };
+
+        PositionVacancyStatsDto first = (PositionVacancyStatsDto) service.calculateVacancyStats(input, "position");
+        PositionVacancyStatsDto second = (PositionVacancyStatsDto) service.calculateVacancyStats(input, "position");
+
+        assertThat(first.getVacancyCountByPosition()).containsEntry("DevOps Engineer", 4L);
+        assertThat(second.getVacancyCountByPosition()).isEqualTo(Map.of("QA Engineer", 1L));
+        assertThat(parses).hasValue(2);
+    }
+
+    @Test
+    void calculateVacancyStats_shouldCountCrossTabCells_inTheSamePassAsOtherStatistics(@TempDir Path folder) throws Exception {
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_1.json"));
+        Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_2.json"));
+
+        Map<String, AbstractDto> statistics = vacancyStatsService
+                .calculateVacancyStats(folder, List.of("technology_stack", "position+technology_stack", "company+position"));
+
+        Map<CrossTabKeyDto, Long> positionByTechnology =
+                ((CrossTabVacancyStatsDto) statistics.get("position+technology_stack")).getVacancyCountByCell();
+        assertThat(positionByTechnology)
+                .containsEntry(new CrossTabKeyDto("Full-Stack Developer", "Java"), 6L)
+                .containsEntry(new CrossTabKeyDto("Data Scientist", "SQL"), 4L)
+                .doesNotContainKey(new CrossTabKeyDto("Data Scientist", "Java"));
+        assertThat(new ArrayList<>(positionByTechnology.values())).isSortedAccordingTo(Comparator.reverseOrder());
+
+        // Every vacancy has a position, so the cells of a technology add up to the count of the technology
+        Map<String, Long> technologies = ((TechnologyVacancyStatsDto) statistics.get("technology_stack")).getVacancyCountByTechnology();
+        Map<String, Long> cellsByTechnology = new HashMap<>();
+        positionByTechnology.forEach((cell, count) -> cellsByTechnology.merge(cell.getColumn(), count, Long::sum));
+        assertThat(cellsByTechnology).isEqualTo(new HashMap<>(technologies));
+
+        assertThat(((CrossTabVacancyStatsDto) statistics.get("company+position")).getVacancyCountByCell())
+                .containsEntry(new CrossTabKeyDto("ProfITsoft", "DevOps Engineer"), 6L)
+                .containsEntry(new CrossTabKeyDto("TechCorp", "Data Scientist"), 4L)
+                .containsEntry(new CrossTabKeyDto("EPAM", "Software Engineer"), 2L);
+    }
+
+    @Test
+    void calculateVacancyStats_shouldReportTopKeysWithErrorBounds_inTopKMode(@TempDir Path folder) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_" + i + ".json"));
+        }
+        Map<String, AbstractDto> exact = vacancyStatsService.calculateVacancyStats(folder, List.of("position", "technology_stack"));
+
+        System.setProperty("statistics.top-k", "2");
+        Map<String, AbstractDto> approximate;
+        try {
+            approximate = vacancyStatsService.calculateVacancyStats(folder, List.of("position", "technology_stack"));
+        } finally {
+            System.clearProperty("statistics.top-k");
+        }
+
+        PositionVacancyStatsDto exactPositions = (PositionVacancyStatsDto) exact.get("position");
+        PositionVacancyStatsDto topPositions = (PositionVacancyStatsDto) approximate.get("position");
+        assertThat(topPositions.getVacancyCountByPosition()).hasSize(2);
+        // The sketch holds every key of this small corpus, so the counts are exact
+        topPositions.getVacancyCountByPosition().forEach((position, count) -> {
+            assertThat(count).isEqualTo(exactPositions.getVacancyCountByPosition().get(position));
+            assertThat(topPositions.getCountErrorByPosition()).containsEntry(position, 0L);
+        });
+        assertThat(topPositions.getMaxUnreportedCount())
+                .isEqualTo(List.copyOf(topPositions.getVacancyCountByPosition().values()).get(1));
+        assertThat(exactPositions.getCountErrorByPosition()).isNull();
+
+        TechnologyVacancyStatsDto topTechnologies = (TechnologyVacancyStatsDto) approximate.get("technology_stack");
+        assertThat(topTechnologies.getVacancyCountByTechnology()).hasSize(2);
+        assertThat(topTechnologies.getCountErrorByTechnology()).hasSize(2);
+    }
+
+    @Test
+    void calculateVacancyStats_shouldEstimateDistinctCounts(@TempDir Path folder) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Files.copy(Path.of("src/test/resources/json/vacancy/vacancies.json"), folder.resolve("vacancies_" + i + ".json"));
+        }
+        Map<String, AbstractDto> statistics = vacancyStatsService.calculateVacancyStats(folder,
+                List.of("position", "recruiter", "distinct_position", "distinct_recruiter", "distinct_company"));
+
+        long positions = ((PositionVacancyStatsDto) statistics.get("position")).getVacancyCountByPosition().size();
+        Map<RecruiterDto, Long> recruiters = ((RecruiterVacancyStatsDto) statistics.get("recruiter")).getVacancyCountByRecruiter();
+        long companies = recruiters.keySet().stream().map(RecruiterDto::getCompanyName).filter(Objects::nonNull).distinct().count();
+
+        // Small cardinalities are estimated by linear counting, which is almost exact
+        assertThat(((DistinctCountVacancyStatsDto) statistics.get("distinct_position")).getDistinctCount()).isEqualTo(positions);
+        assertThat(((DistinctCountVacancyStatsDto) statistics.get("distinct_recruiter")).getDistinctCount()).isEqualTo(recruiters.size());
+        assertThat(((DistinctCountVacancyStatsDto) statistics.get("distinct_company")).getDistinctCount()).isEqualTo(companies);
+        assertThat(((DistinctCountVacancyStatsDto) statistics.get("distinct_company")).getRelativeError()).isCloseTo(0.01625, withinPercentage(1));
+    }
+
+    @Test
+    void getSplitRangeSize_shouldSplitOnlyLargeFiles() {
+        assertThat(vacancyStatsService.getSplitRangeSize(1024, 4)).isZero();
+        assertThat(vacancyStatsService.getSplitRangeSize(VacancyStatsService.SPLIT_FILE_SIZE, 1)).isZero();
+        assertThat(vacancyStatsService.getSplitRangeSize(VacancyStatsService.SPLIT_FILE_SIZE, 4))
+                .isEqualTo(VacancyStatsService.MIN_SPLIT_RANGE_SIZE);
+        assertThat(vacancyStatsService.getSplitRangeSize(20L * 1024 * 1024 * 1024, 8)).isEqualTo(640L * 1024 * 1024);
+    }
+
+    @Test
+    void calculateVacancyStats_shouldThrowIllegalArgumentException_whenAnyOfStatisticFieldsIsInvalid(@TempDir Path folder) {
+        assertThrows(IllegalArgumentException.class, () ->
+                vacancyStatsService.calculateVacancyStats(folder, List.of("position", "invalid")));
+    }
+
+    @Test
+    void testCalculateVacancyStats_InvalidField() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            vacancyStatsService.calculateVacancyStats(new File("src/test/resources/json/vacancy/vacancies.json").getAbsoluteFile(), "invalid");
+        });
+    }
+
+
     @Test
     void sortByValue_shouldReturnSortedMap_whenInputIsUnsorted() {
         Map<String, Integer> unsortedMap = new HashMap<>();
@@ -0,0 +1,119 @@
+package org.prof.it.soft.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.prof.it.soft.dto.AbstractDto;
+import org.prof.it.soft.dto.stats.PositionVacancyStatsDto;
+import org.prof.it.soft.io.JsonArrayRange;
+import org.prof.it.soft.service.aggregator.StatisticAggregator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VacancyStatsWatcherTest {
+
+    private static final Path VACANCIES = Path.of("src/test/resources/json/vacancy/vacancies.json");
+
+    private static final List<String> STATISTIC_FIELDS = List.of("position", "salary", "recruiter", "technology_stack");
+
+    private final VacancyStatsService vacancyStatsService = new VacancyStatsService(ExecutionStrategy.FIXED, 2);
+
+    @Test
+    void processChanges_keepsStatisticsEqualToFullCalculation_whenFilesAreAddedModifiedAndDeleted(@TempDir Path folder) throws Exception {
+        Files.copy(VACANCIES, folder.resolve("vacancies_1.json"));
+        Files.copy(VACANCIES, folder.resolve("vacancies_2.json"));
+
+        try (VacancyStatsWatcher watcher = new VacancyStatsWatcher(vacancyStatsService, folder, STATISTIC_FIELDS, Duration.ofMillis(100))) {
+            assertThat(watcher.start()).isEqualTo(vacancyStatsService.calculateVacancyStats(folder, STATISTIC_FIELDS));
+
+            // A new file in a new subdirectory
+            Files.createDirectories(folder.resolve("2024"));
+            Files.copy(VACANCIES, folder.resolve("2024/vacancies_3.json"));
+            awaitStatistics(watcher, folder);
+            assertThat(((PositionVacancyStatsDto) watcher.getStatistics().get("position")).getVacancyCountByPosition())
+                    .containsEntry("DevOps Engineer", 12L);
+
+            // A modified file
+            Files.writeString(folder.resolve("vacancies_1.json"), """
+                    [{"position": "DevOps Engineer", "salary": 4000, "recruiter_first_name": "John"}]""");
+            awaitStatistics(watcher, folder);
+
+            // A deleted file and a deleted directory
+            Files.delete(folder.resolve("vacancies_2.json"));
+            Files.delete(folder.resolve("2024/vacancies_3.json"));
+            Files.delete(folder.resolve("2024"));
+            awaitStatistics(watcher, folder);
+            assertThat(((PositionVacancyStatsDto) watcher.getStatistics().get("position")).getVacancyCountByPosition())
+                    .containsExactly(Map.entry("DevOps Engineer", 1L));
+        }
+    }
+
+    @Test
+    void start_splitsLargeFiles_andLimitsFilesInFlight_likeTheService(@TempDir Path folder) throws Exception {
+        for (int i = 0; i < 12; i++) {
+            Files.copy(VACANCIES, folder.resolve("vacancies_" + i + ".json"));
+        }
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger parsedRanges = new AtomicInteger();
+        VacancyStatsService splittingService = new VacancyStatsService(ExecutionStrategy.FIXED, 2) {
+            @Override
+            protected long getSplitRangeSize(long fileSize, int countThreads) {
+                return 256;
+            }
+
+            @Override
+            protected List<StatisticAggregator> aggregateVacancyStats(JsonArrayRange range, Collection<String> statisticFields) throws IOException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                parsedRanges.incrementAndGet();
+                try {
+                    return super.aggregateVacancyStats(range, statisticFields);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+
+        try (VacancyStatsWatcher watcher = new VacancyStatsWatcher(splittingService, folder, STATISTIC_FIELDS, Duration.ofMillis(100))) {
+            assertThat(watcher.start()).isEqualTo(vacancyStatsService.calculateVacancyStats(folder, STATISTIC_FIELDS));
+            assertThat(parsedRanges.get()).isGreaterThan(12);
+            assertThat(maxInFlight.get()).isLessThanOrEqualTo(splittingService.getMaxTasksInFlight(2));
+
+            // The statistics of a split file are kept as a whole, so they are subtracted when the file changes
+            Files.writeString(folder.resolve("vacancies_0.json"), """
+                    [{"position": "DevOps Engineer", "salary": 4000, "recruiter_first_name": "John"}]""");
+            awaitStatistics(watcher, folder);
+        }
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenStatisticFieldIsInvalid(@TempDir Path folder) {
+        assertThrows(IllegalArgumentException.class,
+                () -> new VacancyStatsWatcher(vacancyStatsService, folder, List.of("position", "company")));
+    }
+
+    /**
+     * Applies the changes until the statistics match a full calculation, the events of a change may come in several batches.
+     */
+    private void awaitStatistics(VacancyStatsWatcher watcher, Path folder) throws Exception {
+        Map<String, AbstractDto> expected = vacancyStatsService.calculateVacancyStats(folder, STATISTIC_FIELDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+        while (!watcher.getStatistics().equals(expected) && System.nanoTime() < deadline) {
+            watcher.processChanges(1, TimeUnit.SECONDS);
+        }
+
+        assertThat(watcher.getStatistics()).isEqualTo(expected);
+    }
+}
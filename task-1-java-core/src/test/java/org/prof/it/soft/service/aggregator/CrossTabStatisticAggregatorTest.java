@@ -0,0 +1,79 @@
+package org.prof.it.soft.service.aggregator;
+
+import org.junit.jupiter.api.Test;
+import org.prof.it.soft.dto.CrossTabKeyDto;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CrossTabStatisticAggregatorTest {
+
+    @Test
+    void aggregate_countsEveryPairOfValues_andMergesAggregatorsWithDifferentIds() {
+        CrossTabStatisticAggregator first = CrossTabStatisticAggregator.of("position+technology_stack");
+        first.aggregate(vacancy("Java Developer", "Java, Spring"));
+        first.aggregate(vacancy("Java Developer", "Java"));
+        first.aggregate(vacancy("Data Scientist", null));
+
+        CrossTabStatisticAggregator second = CrossTabStatisticAggregator.of("position+technology_stack");
+        // The values get other ids in the second aggregator
+        second.aggregate(vacancy("Data Scientist", "Python, Java"));
+        second.aggregate(vacancy("Java Developer", "Spring"));
+
+        assertThat(first.getProjectedFields()).containsExactly(VacancyField.POSITION, VacancyField.TECHNOLOGY_STACK);
+        assertThat(first.getStatisticMap()).isEqualTo(Map.of(
+                new CrossTabKeyDto("Java Developer", "Java"), 2L,
+                new CrossTabKeyDto("Java Developer", "Spring"), 1L));
+
+        first.merge(second);
+        assertThat(first.getStatisticMap()).isEqualTo(Map.of(
+                new CrossTabKeyDto("Java Developer", "Java"), 2L,
+                new CrossTabKeyDto("Java Developer", "Spring"), 2L,
+                new CrossTabKeyDto("Data Scientist", "Python"), 1L,
+                new CrossTabKeyDto("Data Scientist", "Java"), 1L));
+
+        first.subtract(second);
+        assertThat(first.getStatisticMap()).isEqualTo(Map.of(
+                new CrossTabKeyDto("Java Developer", "Java"), 2L,
+                new CrossTabKeyDto("Java Developer", "Spring"), 1L));
+    }
+
+    @Test
+    void merge_readsCellsOfCalculatedStatistic_withSalaryDimension() {
+        CrossTabStatisticAggregator aggregator = (CrossTabStatisticAggregator) StatisticAggregator.create("salary+company");
+        VacancyRecord vacancyRecord = new VacancyRecord();
+        vacancyRecord.setSalaryAmount(1000);
+        vacancyRecord.setRecruiterCompanyName("ProfITsoft");
+        aggregator.aggregate(vacancyRecord);
+
+        aggregator.merge(new MapStatisticAggregator("salary+company",
+                Map.of(new CrossTabKeyDto("1000.0", "ProfITsoft"), 2L, new CrossTabKeyDto("2500.0", "EPAM"), 1L)));
+
+        assertThat(aggregator.getRowDimension()).isEqualTo(CrossTabDimension.SALARY);
+        assertThat(aggregator.getStatisticMap()).isEqualTo(Map.of(
+                new CrossTabKeyDto("1000.0", "ProfITsoft"), 3L,
+                new CrossTabKeyDto("2500.0", "EPAM"), 1L));
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenStatisticFieldIsNotCrossTab() {
+        assertThat(CrossTabStatisticAggregator.isCrossTab("company+position")).isTrue();
+        assertThat(CrossTabStatisticAggregator.isCrossTab("position")).isFalse();
+        assertThat(CrossTabStatisticAggregator.isCrossTab("position+position")).isFalse();
+        assertThat(CrossTabStatisticAggregator.isCrossTab("position+salary+company")).isFalse();
+        assertThat(CrossTabStatisticAggregator.isCrossTab("position+recruiter")).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> StatisticAggregator.create("position+"));
+    }
+
+    private static VacancyRecord vacancy(String position, String technologyStack) {
+        VacancyRecord vacancyRecord = new VacancyRecord();
+        vacancyRecord.setPosition(position);
+        if (technologyStack != null) {
+            char[] chars = technologyStack.toCharArray();
+            vacancyRecord.setTechnologyStack(chars, 0, chars.length);
+        }
+        return vacancyRecord;
+    }
+}
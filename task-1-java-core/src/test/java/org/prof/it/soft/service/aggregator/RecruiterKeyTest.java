@@ -0,0 +1,51 @@
+package org.prof.it.soft.service.aggregator;
+
+import org.junit.jupiter.api.Test;
+import org.prof.it.soft.dto.RecruiterDto;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecruiterKeyTest {
+
+    @Test
+    void intern_returnsSameKey_forSameNames() {
+        RecruiterKey.Interner interner = new RecruiterKey.Interner();
+
+        RecruiterKey key = interner.intern("Anna", "Bell", "EPAM");
+        for (int i = 0; i < 1000; i++) {
+            interner.intern("First " + i, "Last " + i, i % 2 == 0 ? null : "Company");
+        }
+
+        assertThat(interner.intern(new String("Anna"), "Bell", "EPAM")).isSameAs(key);
+        assertThat(interner.intern("First 10", "Last 10", null)).isSameAs(interner.intern("First 10", "Last 10", null));
+        assertThat(interner.intern("Anna", "Bell", null)).isNotEqualTo(key);
+        assertThat(new RecruiterKey.Interner().intern("Anna", "Bell", "EPAM")).isEqualTo(key).hasSameHashCodeAs(key);
+        assertThat(key.toRecruiterDto()).isEqualTo(new RecruiterDto("Anna", "Bell", "EPAM"));
+        assertThat(key.hashCode()).isEqualTo(new RecruiterDto("Anna", "Bell", "EPAM").hashCode());
+        assertThat(interner.intern(null, "Bell", null).hashCode()).isEqualTo(new RecruiterDto(null, "Bell", null).hashCode());
+    }
+
+    @Test
+    void recruiterAggregator_reportsRecruiterDtos_andMergesCalculatedStatistics() {
+        RecruiterStatisticAggregator aggregator = new RecruiterStatisticAggregator();
+        VacancyRecord vacancyRecord = new VacancyRecord();
+        vacancyRecord.setRecruiterFirstName("Anna");
+        vacancyRecord.setRecruiterLastName("Bell");
+        for (int i = 0; i < 3; i++) {
+            aggregator.aggregate(vacancyRecord);
+        }
+
+        RecruiterDto anna = new RecruiterDto("Anna", "Bell", null);
+        RecruiterDto john = new RecruiterDto("John", "Doe", "TechCorp");
+        MapStatisticAggregator cached = new MapStatisticAggregator("recruiter", Map.of(anna, 2L, john, 1L));
+        aggregator.merge(cached);
+
+        assertThat(aggregator.getStatisticMap()).isEqualTo(Map.of(anna, 5L, john, 1L));
+
+        aggregator.subtract(cached);
+
+        assertThat(aggregator.getStatisticMap()).isEqualTo(Map.of(anna, 3L));
+    }
+}
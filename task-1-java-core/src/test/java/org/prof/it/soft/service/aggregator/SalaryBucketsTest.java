@@ -0,0 +1,54 @@
+package org.prof.it.soft.service.aggregator;
+
+import org.junit.jupiter.api.Test;
+import org.prof.it.soft.collection.FloatLongCountingTable;
+import org.prof.it.soft.collection.SortedCountMap;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SalaryBucketsTest {
+
+    @Test
+    void lowerBound_returnsTheLowerBoundOfTheRange() {
+        SalaryBuckets fixed = SalaryBuckets.of("fixed:500");
+        assertThat(fixed).isEqualTo(SalaryBuckets.fixed(500));
+        assertThat(fixed.lowerBound(0F)).isZero();
+        assertThat(fixed.lowerBound(499.9F)).isZero();
+        assertThat(fixed.lowerBound(500F)).isEqualTo(500F);
+        assertThat(fixed.lowerBound(1234F)).isEqualTo(1000F);
+
+        SalaryBuckets log = SalaryBuckets.of("log:500");
+        assertThat(log).isEqualTo(SalaryBuckets.logScale(500, 2));
+        assertThat(log.lowerBound(499F)).isZero();
+        assertThat(log.lowerBound(500F)).isEqualTo(500F);
+        assertThat(log.lowerBound(999F)).isEqualTo(500F);
+        assertThat(log.lowerBound(1000F)).isEqualTo(1000F);
+        assertThat(log.lowerBound(4600F)).isEqualTo(4000F);
+        assertThat(SalaryBuckets.of("log:1000:10").lowerBound(100_000F)).isEqualTo(100_000F);
+    }
+
+    @Test
+    void bucket_addsTheCountsOfEveryRange() {
+        FloatLongCountingTable salaries = new FloatLongCountingTable();
+        salaries.add(1000F, 4);
+        salaries.add(1500F, 2);
+        salaries.add(2500F, 6);
+        salaries.add(4600F, 4);
+
+        FloatLongCountingTable buckets = SalaryBuckets.of("fixed:1000").bucket(salaries);
+
+        assertThat(SortedCountMap.of(buckets)).isEqualTo(Map.of(1000F, 6L, 2000F, 6L, 4000F, 4L));
+    }
+
+    @Test
+    void of_throwsIllegalArgumentException_whenSpecificationIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> SalaryBuckets.of("fixed"));
+        assertThrows(IllegalArgumentException.class, () -> SalaryBuckets.of("fixed:0"));
+        assertThrows(IllegalArgumentException.class, () -> SalaryBuckets.of("log:500:1"));
+        assertThrows(IllegalArgumentException.class, () -> SalaryBuckets.of("log:abc"));
+        assertThrows(IllegalArgumentException.class, () -> SalaryBuckets.of("linear:500"));
+    }
+}
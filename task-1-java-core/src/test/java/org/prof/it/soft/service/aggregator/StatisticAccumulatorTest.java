@@ -0,0 +1,60 @@
+package org.prof.it.soft.service.aggregator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatisticAccumulatorTest {
+
+    @Test
+    void add_mergesAggregatorsOfEveryThread() throws Exception {
+        StatisticAccumulator accumulator = new StatisticAccumulator(List.of("position", "salary"), 4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int file = 0; file < 200; file++) {
+                int salary = file % 10 * 100;
+                futures.add(executor.submit(() -> accumulator.add(aggregate("Developer", salary))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<StatisticAggregator> aggregators = accumulator.getAggregators();
+        assertThat(aggregators.get(0).getStatisticMap()).containsExactlyEntriesOf(Map.of("Developer", 200L));
+        assertThat(aggregators.get(1).getStatisticMap()).hasSize(10).containsEntry("500.0", 20L);
+
+        SalaryStatisticAggregator salaryAggregator = (SalaryStatisticAggregator) aggregators.get(1);
+        assertThat(salaryAggregator.getSketch().getCount()).isEqualTo(200);
+        assertThat(salaryAggregator.getSketch().getMax()).isEqualTo(900D);
+    }
+
+    @Test
+    void add_throwsIllegalArgumentException_whenAggregatorsDontMatchFields() {
+        StatisticAccumulator accumulator = new StatisticAccumulator(List.of("position", "salary"), 2);
+        assertThrows(IllegalArgumentException.class, () -> accumulator.add(List.of(StatisticAggregator.create("position"))));
+    }
+
+    private static List<StatisticAggregator> aggregate(String position, double salary) {
+        List<StatisticAggregator> aggregators = List.of(StatisticAggregator.create("position"), StatisticAggregator.create("salary"));
+
+        VacancyRecord vacancyRecord = new VacancyRecord();
+        vacancyRecord.setPosition(position);
+        vacancyRecord.setSalary(String.valueOf(salary));
+        aggregators.forEach(aggregator -> aggregator.aggregate(vacancyRecord));
+
+        return aggregators;
+    }
+}
@@ -0,0 +1,68 @@
+package org.prof.it.soft.service.filter;
+
+import org.junit.jupiter.api.Test;
+import org.prof.it.soft.service.aggregator.VacancyField;
+import org.prof.it.soft.service.aggregator.VacancyRecord;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class VacancyFilterTest {
+
+    @Test
+    void of_parsesConditions_withQuotesAndWhitespace() {
+        VacancyFilter filter = VacancyFilter.of(List.of("salary >= 2000", "recruiter_company_name = \"SoftServe\"",
+                "technology_stack!='C++'"));
+
+        assertThat(filter.getConditions()).extracting(FilterCondition::getField, FilterCondition::getOperator, FilterCondition::getValue)
+                .containsExactly(
+                        tuple(VacancyField.SALARY, FilterOperator.GREATER_OR_EQUAL, "2000"),
+                        tuple(VacancyField.RECRUITER_COMPANY_NAME, FilterOperator.EQUAL, "SoftServe"),
+                        tuple(VacancyField.TECHNOLOGY_STACK, FilterOperator.NOT_EQUAL, "C++"));
+        assertThat(filter.getFieldMask()).isEqualTo(VacancyField.SALARY.getMask()
+                | VacancyField.RECRUITER_COMPANY_NAME.getMask() | VacancyField.TECHNOLOGY_STACK.getMask());
+        assertThat(filter).hasToString("salary>=2000 && recruiter_company_name=SoftServe && technology_stack!=C++");
+        assertThat(VacancyFilter.of(List.of())).isSameAs(VacancyFilter.NONE);
+
+        assertThatThrownBy(() -> VacancyFilter.of(List.of("company=SoftServe"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> VacancyFilter.of(List.of("salary~2000"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> VacancyFilter.of(List.of("salary>=high"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> VacancyFilter.of(List.of("position>Java"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> VacancyFilter.of(List.of("position="))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void test_checksTheConditionsOfAField() {
+        VacancyFilter filter = VacancyFilter.of(List.of("salary>=2000", "salary<3000", "technology_stack=Java", "position!=Intern"));
+        VacancyRecord vacancyRecord = new VacancyRecord();
+
+        vacancyRecord.setSalaryAmount(2000);
+        assertThat(filter.test(VacancyField.SALARY, vacancyRecord)).isTrue();
+        vacancyRecord.setSalaryAmount(3000);
+        assertThat(filter.test(VacancyField.SALARY, vacancyRecord)).isFalse();
+        vacancyRecord.set(VacancyField.SALARY, "2500");
+        assertThat(filter.test(VacancyField.SALARY, vacancyRecord)).isTrue();
+        vacancyRecord.set(VacancyField.SALARY, "negotiable");
+        assertThat(filter.test(VacancyField.SALARY, vacancyRecord)).isFalse();
+
+        char[] chars = "JavaScript, Java ".toCharArray();
+        vacancyRecord.setTechnologyStack(chars, 0, chars.length);
+        assertThat(filter.test(VacancyField.TECHNOLOGY_STACK, vacancyRecord)).isTrue();
+        vacancyRecord.setTechnologyStack("JavaScript, Go");
+        assertThat(filter.test(VacancyField.TECHNOLOGY_STACK, vacancyRecord)).isFalse();
+
+        vacancyRecord.setPosition("Java Developer");
+        assertThat(filter.test(VacancyField.POSITION, vacancyRecord)).isTrue();
+        vacancyRecord.setPosition("Intern");
+        assertThat(filter.test(VacancyField.POSITION, vacancyRecord)).isFalse();
+        // A missing value satisfies no condition, not even "!="
+        vacancyRecord.setPosition(null);
+        assertThat(filter.test(VacancyField.POSITION, vacancyRecord)).isFalse();
+
+        // Fields without conditions are always accepted
+        assertThat(filter.test(VacancyField.RECRUITER_LAST_NAME, vacancyRecord)).isTrue();
+    }
+}
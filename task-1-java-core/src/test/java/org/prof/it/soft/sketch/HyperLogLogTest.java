@@ -0,0 +1,62 @@
+package org.prof.it.soft.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HyperLogLogTest {
+
+    @Test
+    void cardinality_isWithinThreeStandardErrors_ofDistinctValues() {
+        for (int precision : new int[]{10, 12, 14}) {
+            HyperLogLog sketch = new HyperLogLog(precision);
+            for (int i = 0; i < 1_000_000; i++) {
+                // Every value is added twice, duplicates don't change the estimate
+                sketch.add("Recruiter " + i % 500_000);
+            }
+
+            assertThat(sketch.cardinality()).as("precision %d", precision)
+                    .isCloseTo(500_000L, withinPercentage(300 * sketch.getRelativeError()));
+        }
+    }
+
+    @Test
+    void cardinality_isAlmostExact_forSmallCardinalities() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertThat(sketch.isEmpty()).isTrue();
+        assertThat(sketch.cardinality()).isZero();
+
+        for (int i = 0; i < 100; i++) {
+            sketch.add("Position " + i);
+            sketch.add("Position " + i);
+        }
+
+        assertThat(sketch.isEmpty()).isFalse();
+        assertThat(sketch.cardinality()).isBetween(99L, 101L);
+    }
+
+    @Test
+    void merge_estimatesUnionOfBothSketches() {
+        HyperLogLog first = new HyperLogLog(14);
+        HyperLogLog second = new HyperLogLog(14);
+        for (int i = 0; i < 200_000; i++) {
+            first.add(i);
+            second.add(i + 100_000);
+        }
+
+        first.merge(second);
+
+        assertThat(first.cardinality()).isCloseTo(300_000L, withinPercentage(300 * first.getRelativeError()));
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(12)));
+    }
+
+    @Test
+    void hashAll_distinguishesPartsOfCompositeValues() {
+        assertThat(HyperLogLog.hashAll("John", "Doe", null)).isNotEqualTo(HyperLogLog.hashAll("JohnDoe", null, null));
+        assertThat(HyperLogLog.hashAll("John", null, "Doe")).isNotEqualTo(HyperLogLog.hashAll("John", "Doe", null));
+        assertThat(HyperLogLog.hashAll("John", "Doe", null)).isEqualTo(HyperLogLog.hashAll("John", "Doe", null));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1));
+    }
+}
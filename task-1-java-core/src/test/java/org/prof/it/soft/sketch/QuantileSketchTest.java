@@ -0,0 +1,79 @@
+package org.prof.it.soft.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuantileSketchTest {
+
+    @Test
+    void quantile_isWithinRelativeAccuracy_ofExactQuantile() {
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch();
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 500 + random.nextInt(10_000) * 10;
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[]{0, 0.5, 0.75, 0.9, 0.99, 1}) {
+            double exact = values[(int) (quantile * (values.length - 1))];
+            assertThat(sketch.quantile(quantile)).isCloseTo(exact, withinPercentage(1));
+        }
+
+        assertThat(sketch.getCount()).isEqualTo(values.length);
+        assertThat(sketch.getMin()).isEqualTo(values[0]);
+        assertThat(sketch.getMax()).isEqualTo(values[values.length - 1]);
+        assertThat(sketch.getAverage()).isEqualTo(Arrays.stream(values).average().orElseThrow());
+    }
+
+    @Test
+    void merge_givesSameQuantiles_asSketchOfAllValues() {
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch low = new QuantileSketch();
+        QuantileSketch high = new QuantileSketch();
+
+        for (int salary = 1; salary <= 1000; salary++) {
+            all.add(salary, 3);
+            (salary <= 500 ? low : high).add(salary, 3);
+        }
+        // Small values and zero extend the buckets of the merged sketch to the left
+        all.add(0.5);
+        all.add(0);
+        high.add(0.5);
+        high.add(0);
+        low.merge(high);
+
+        assertThat(low.getCount()).isEqualTo(all.getCount());
+        assertThat(low.getSum()).isEqualTo(all.getSum());
+        assertThat(low.getMin()).isZero();
+        assertThat(low.getMax()).isEqualTo(1000D);
+        for (double quantile = 0; quantile <= 1; quantile += 0.05) {
+            assertThat(low.quantile(quantile)).isEqualTo(all.quantile(quantile));
+        }
+    }
+
+    @Test
+    void emptySketch_hasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.merge(new QuantileSketch());
+
+        assertThat(sketch.isEmpty()).isTrue();
+        assertThat(sketch.quantile(0.5)).isNaN();
+        assertThat(sketch.getAverage()).isZero();
+    }
+
+    @Test
+    void add_throwsIllegalArgumentException_whenValueIsNegative() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertThrows(IllegalArgumentException.class, () -> sketch.add(-1));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new QuantileSketch(0.05)));
+    }
+}
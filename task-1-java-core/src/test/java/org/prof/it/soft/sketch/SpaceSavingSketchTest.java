@@ -0,0 +1,101 @@
+package org.prof.it.soft.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void topK_isExact_whenKeysFitIntoSketch() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(2);
+        sketch.add("Java", 3);
+        sketch.add("Go");
+        sketch.add("Rust", 2);
+        sketch.add("Java");
+
+        assertThat(sketch.topK(2)).containsExactly(
+                new SpaceSavingSketch.Item<>("Java", 4, 0),
+                new SpaceSavingSketch.Item<>("Rust", 2, 0));
+        assertThat(sketch.getMaxError()).isZero();
+        assertThat(sketch.getTotalCount()).isEqualTo(7);
+    }
+
+    @Test
+    void estimate_boundsTrueCount_forSkewedStreamWithManyKeys() {
+        Random random = new Random(11);
+        SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(100);
+        Map<Integer, Long> exact = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = skewedKey(random);
+            sketch.add(key);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        assertBounds(sketch, exact, 200_000);
+        assertThat(sketch.size()).isLessThanOrEqualTo(200);
+        // The most frequent keys are found
+        assertThat(sketch.topK(10)).extracting(SpaceSavingSketch.Item::key)
+                .containsExactlyInAnyOrderElementsOf(topKeys(exact, 10));
+    }
+
+    @Test
+    void merge_keepsBounds_ofAllMergedKeys() {
+        Random random = new Random(13);
+        Map<Integer, Long> exact = new HashMap<>();
+        SpaceSavingSketch<Integer> merged = new SpaceSavingSketch<>(50);
+
+        for (int part = 0; part < 4; part++) {
+            SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(50);
+            for (int i = 0; i < 25_000; i++) {
+                // Every part has its own tail of rare keys
+                int key = random.nextInt(4) == 0 ? 1_000_000 * (part + 1) + random.nextInt(100_000) : skewedKey(random);
+                sketch.add(key);
+                exact.merge(key, 1L, Long::sum);
+            }
+            merged.merge(sketch);
+        }
+
+        assertBounds(merged, exact, 100_000);
+        assertThat(merged.getTotalCount()).isEqualTo(100_000);
+        assertThat(merged.topK(5)).extracting(SpaceSavingSketch.Item::key)
+                .containsExactlyInAnyOrderElementsOf(topKeys(exact, 5));
+    }
+
+    @Test
+    void constructor_throwsIllegalArgumentException_whenCapacityIsNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch<String>(0));
+    }
+
+    private static void assertBounds(SpaceSavingSketch<Integer> sketch, Map<Integer, Long> exact, long totalCount) {
+        for (Map.Entry<Integer, Long> entry : exact.entrySet()) {
+            assertThat(sketch.estimate(entry.getKey())).isGreaterThanOrEqualTo(entry.getValue());
+            assertThat(sketch.lowerBound(entry.getKey())).isLessThanOrEqualTo(entry.getValue());
+        }
+        for (SpaceSavingSketch.Item<Integer> item : sketch.topK(Integer.MAX_VALUE)) {
+            assertThat(item.error()).isLessThanOrEqualTo(totalCount / sketch.getCapacity());
+        }
+    }
+
+    private static List<Integer> topKeys(Map<Integer, Long> exact, int k) {
+        return exact.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Long>comparingByValue().reversed())
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Returns a key of a Zipf-like distribution, key n occurs about twice as often as key 2n.
+     */
+    private static int skewedKey(Random random) {
+        return (int) Math.floor(Math.pow(100_000, random.nextDouble()));
+    }
+}
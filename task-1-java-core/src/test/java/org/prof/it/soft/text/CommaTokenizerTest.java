@@ -0,0 +1,44 @@
+package org.prof.it.soft.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommaTokenizerTest {
+
+    @Test
+    void split_trimsTokens_andSkipsEmptyTokens() {
+        assertThat(CommaTokenizer.split("Java, Spring, React")).containsExactly("Java", "Spring", "React");
+        assertThat(CommaTokenizer.split("Java,Spring")).containsExactly("Java", "Spring");
+        assertThat(CommaTokenizer.split(" Java ,\t Spring Boot ,, ,")).containsExactly("Java", "Spring Boot");
+        assertThat(CommaTokenizer.split(", ")).isEmpty();
+        assertThat(CommaTokenizer.split(null)).isEmpty();
+    }
+
+    @Test
+    void forEachToken_readsTokensInPlace_withinTheRange() {
+        char[] chars = "xx C#, C++ ,Go,yy".toCharArray();
+        List<String> tokens = new ArrayList<>();
+
+        CommaTokenizer.forEachToken(chars, 2, chars.length - 5, (buffer, start, end) -> {
+            assertThat(buffer).isSameAs(chars);
+            tokens.add(new String(buffer, start, end - start));
+        });
+
+        assertThat(tokens).containsExactly("C#", "C++", "Go");
+    }
+
+    @Test
+    void containsToken_matchesWholeTrimmedTokens_withinTheRange() {
+        char[] chars = "xx Java, JavaScript ,Go,yy".toCharArray();
+
+        assertThat(CommaTokenizer.containsToken(chars, 2, chars.length - 5, "Java")).isTrue();
+        assertThat(CommaTokenizer.containsToken(chars, 2, chars.length - 5, "JavaScript")).isTrue();
+        assertThat(CommaTokenizer.containsToken(chars, 2, chars.length - 5, "Go")).isTrue();
+        assertThat(CommaTokenizer.containsToken(chars, 2, chars.length - 5, "Jav")).isFalse();
+        assertThat(CommaTokenizer.containsToken(chars, 2, chars.length - 5, "yy")).isFalse();
+    }
+}